@@ -15,11 +15,8 @@ limitations under the License.
 */
 package com.as3mxml.asconfigc;
 
-import java.io.BufferedInputStream;
 import java.io.Console;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
@@ -29,6 +26,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
@@ -39,16 +37,16 @@ import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -64,15 +62,20 @@ import com.as3mxml.asconfigc.air.AIROptionsParser;
 import com.as3mxml.asconfigc.air.AIRPlatform;
 import com.as3mxml.asconfigc.air.AIRSigningOptions;
 import com.as3mxml.asconfigc.animate.AnimateOptions;
+import com.as3mxml.asconfigc.compiler.CompileScheduler;
 import com.as3mxml.asconfigc.compiler.CompilerOptions;
 import com.as3mxml.asconfigc.compiler.CompilerOptionsParser;
 import com.as3mxml.asconfigc.compiler.ConfigName;
+import com.as3mxml.asconfigc.compiler.DaemonCompiler;
 import com.as3mxml.asconfigc.compiler.ModuleFields;
 import com.as3mxml.asconfigc.compiler.ProjectType;
 import com.as3mxml.asconfigc.compiler.RoyaleTarget;
 import com.as3mxml.asconfigc.compiler.WorkerFields;
 import com.as3mxml.asconfigc.htmlTemplate.HTMLTemplateOptionsParser;
+import com.as3mxml.asconfigc.utils.ANEUnpacker;
 import com.as3mxml.asconfigc.utils.ApacheRoyaleUtils;
+import com.as3mxml.asconfigc.utils.AssetSync;
+import com.as3mxml.asconfigc.utils.BuildFingerprints;
 import com.as3mxml.asconfigc.utils.ConfigUtils;
 import com.as3mxml.asconfigc.utils.GenericSDKUtils;
 import com.as3mxml.asconfigc.utils.JsonUtils;
@@ -100,11 +103,18 @@ public class ASConfigC {
 	private static final String FILE_EXTENSION_MXML = ".mxml";
 	private static final String FILE_EXTENSION_ANE = ".ane";
 	private static final String FILE_NAME_UNPACKAGED_ANES = ".as3mxml-unpackaged-anes";
+	private static final String FILE_NAME_LINK_REPORT = ".as3mxml-link-report.xml";
 	private static final String FILE_NAME_ANIMATE_PUBLISH_LOG = "AnimateDocument.log";
 	private static final String FILE_NAME_ANIMATE_ERROR_LOG = "AnimateErrors.log";
 	private static final String FILE_NAME_BIN_JS_DEBUG = "bin/js-debug";
 	private static final String FILE_NAME_BIN_JS_RELEASE = "bin/js-release";
 	private static final Pattern COMPILER_OPTION_OUTPUT_PATTERN = Pattern.compile("^-{1,2}output\\b");
+	private static final Pattern COMPILER_OPTION_SOURCE_PATTERN = Pattern
+			.compile("^-{1,2}(?:compiler\\.)?(?:source-path|include-sources)(?:\\+?=(.*))?$");
+	private static final Pattern COMPILER_OPTION_LIBRARY_PATTERN = Pattern.compile(
+			"^-{1,2}(?:compiler\\.)?(?:library-path|external-library-path|include-libraries|js-library-path|js-external-library-path|swf-library-path|swf-external-library-path|theme|load-config|js-load-config)(?:\\+?=(.*))?$");
+	private static final List<String> SDK_DESCRIPTION_FILE_NAMES = Arrays.asList("royale-sdk-description.xml",
+			"flex-sdk-description.xml", "air-sdk-description.xml");
 	private static final String TARGET_SWF = "SWF";
 
 	public static void main(String[] args) {
@@ -173,6 +183,25 @@ public class ASConfigC {
 		printConfigOption.setArgName("true OR false");
 		printConfigOption.setOptionalArg(true);
 		options.addOption(printConfigOption);
+		Option parallelOption = new Option(null, "parallel", true,
+				"(Advanced) The maximum number of workers and modules to compile at the same time. Workers are compiled before the application, and optimized modules after it. Defaults to 1.");
+		parallelOption.setArgName("COUNT");
+		options.addOption(parallelOption);
+		Option compilerDaemonOption = new Option(null, "compiler-daemon", true,
+				"(Advanced) Compile with a background process that keeps the compiler loaded between builds, and compiles incrementally. Exits after 30 minutes without builds.");
+		compilerDaemonOption.setArgName("true OR false");
+		compilerDaemonOption.setOptionalArg(true);
+		options.addOption(compilerDaemonOption);
+		Option syncAssetsOption = new Option(null, "sync-assets", true,
+				"Copy only new and changed source path assets to the output directory, and delete the copies of removed assets. Use `hash` to also compare the contents of assets with new modification times.");
+		syncAssetsOption.setArgName("true OR false OR hash");
+		syncAssetsOption.setOptionalArg(true);
+		options.addOption(syncAssetsOption);
+		Option skipUpToDateOption = new Option(null, "skip-up-to-date", true,
+				"Skip compiling the application, modules, and workers, and copying the HTML template and Adobe AIR application descriptor, if their inputs haven't changed since the previous build.");
+		skipUpToDateOption.setArgName("true OR false");
+		skipUpToDateOption.setOptionalArg(true);
+		options.addOption(skipUpToDateOption);
 
 		ASConfigCOptions asconfigcOptions = null;
 		try {
@@ -231,12 +260,14 @@ public class ASConfigC {
 			prepareNativeExtensions();
 		} else {
 			cleanProject();
+			loadBuildFingerprints();
 			copySourcePathAssets();
 			copyHTMLTemplate();
 			processAdobeAIRDescriptors();
 			copyAIRFiles();
 			prepareNativeExtensions();
 			compileProject();
+			saveBuildFingerprints();
 			packageAIR();
 		}
 	}
@@ -245,6 +276,10 @@ public class ASConfigC {
 	private List<String> compilerOptions;
 	private List<List<String>> allModuleCompilerOptions;
 	private List<List<String>> allWorkerCompilerOptions;
+	private List<Boolean> allModuleOptimize;
+	private String configContents;
+	private File linkReportFile;
+	private BuildFingerprints buildFingerprints;
 	private List<String> airOptions;
 	private JsonNode compilerOptionsJSON;
 	private JsonNode airOptionsJSON;
@@ -261,6 +296,8 @@ public class ASConfigC {
 	private List<String> workerOutputPaths;
 	private List<String> airDescriptorPaths;
 	private List<String> sourcePaths;
+	private boolean hasAdditionalOptions;
+	private boolean mainFileInWorkspaceRoot;
 	private boolean configRequiresRoyale;
 	private boolean configRequiresAIR;
 	private boolean sdkIsRoyale;
@@ -366,6 +403,7 @@ public class ASConfigC {
 		if (options.verbose) {
 			System.out.println("Parsing configuration file...");
 		}
+		configContents = json.toString();
 		clean = options.clean != null && options.clean.equals(true);
 		watch = options.watch != null && options.watch.equals(true);
 		if (watch) {
@@ -380,6 +418,7 @@ public class ASConfigC {
 		compilerOptions = new ArrayList<>();
 		allModuleCompilerOptions = new ArrayList<>();
 		allWorkerCompilerOptions = new ArrayList<>();
+		allModuleOptimize = new ArrayList<>();
 		if (options.debug != null) {
 			OptionsFormatter.setBoolean(CompilerOptions.DEBUG, options.debug, compilerOptions);
 		}
@@ -412,6 +451,7 @@ public class ASConfigC {
 			}
 		}
 		if (json.has(TopLevelFields.ADDITIONAL_OPTIONS)) {
+			hasAdditionalOptions = true;
 			JsonNode jsonAdditionalOptions = json.get(TopLevelFields.ADDITIONAL_OPTIONS);
 			if (jsonAdditionalOptions.isArray()) {
 				jsonAdditionalOptions.elements()
@@ -488,17 +528,7 @@ public class ASConfigC {
 		if (json.has(TopLevelFields.MODULES)) {
 			List<String> templateModuleCompilerOptions = duplicateCompilerOptionsForModuleOrWorker(compilerOptions);
 			JsonNode modulesJSON = json.get(TopLevelFields.MODULES);
-			int size = modulesJSON.size();
-			File linkReportFile = null;
-			if (size > 0) {
-				try {
-					linkReportFile = File.createTempFile("asconfigc-link-report", ".xml");
-				} catch (IOException e) {
-					throw new ASConfigCException("Failed to create link report for modules.");
-				}
-			}
-			linkReportFile.deleteOnExit();
-			for (int i = 0; i < size; i++) {
+			for (int i = 0, size = modulesJSON.size(); i < size; i++) {
 				moduleOutputPaths = new ArrayList<>();
 				List<String> moduleCompilerOptions = new ArrayList<>(templateModuleCompilerOptions);
 				JsonNode module = modulesJSON.get(i);
@@ -514,17 +544,11 @@ public class ASConfigC {
 				if (module.has(ModuleFields.OPTIMIZE)) {
 					optimize = module.get(ModuleFields.OPTIMIZE).asBoolean();
 				}
-				if (optimize) {
-					moduleCompilerOptions
-							.add("--" + CompilerOptions.LOAD_EXTERNS + "+=" + linkReportFile.getAbsolutePath());
-				}
 				String file = module.get(ModuleFields.FILE).asText();
 				moduleCompilerOptions.add("--");
 				moduleCompilerOptions.add(file);
 				allModuleCompilerOptions.add(moduleCompilerOptions);
-			}
-			if (size > 0) {
-				compilerOptions.add("--" + CompilerOptions.LINK_REPORT + "+=" + linkReportFile.getAbsolutePath());
+				allModuleOptimize.add(optimize);
 			}
 		}
 		if (json.has(TopLevelFields.WORKERS)) {
@@ -600,6 +624,8 @@ public class ASConfigC {
 		// before parsing AIR options, we need to figure out where the output
 		// directory is, based on the SDK type and compiler options
 		validateSDK();
+		// the link report is in the output directory too
+		addLinkReportOptions();
 		if (json.has(TopLevelFields.AIR_OPTIONS)) {
 			configRequiresAIR = true;
 			airOptionsJSON = json.get(TopLevelFields.AIR_OPTIONS);
@@ -621,6 +647,35 @@ public class ASConfigC {
 		}
 	}
 
+	private void addLinkReportOptions() {
+		if (allModuleCompilerOptions.size() == 0) {
+			return;
+		}
+		// the path must be the same for every build, so that a compiler shell
+		// can be reused, and so that an optimized module can be compiled
+		// without compiling the app again
+		Path outputDirectory = Paths.get(
+				ProjectUtils.findOutputDirectory(mainFile, outputPathForTarget, !outputIsJS));
+		linkReportFile = outputDirectory.resolve(FILE_NAME_LINK_REPORT).toFile();
+		String linkReportPath = linkReportFile.getAbsolutePath();
+		addOptionBeforeDefaultOptions(compilerOptions, "--" + CompilerOptions.LINK_REPORT + "+=" + linkReportPath);
+		for (int i = 0; i < allModuleCompilerOptions.size(); i++) {
+			if (allModuleOptimize.get(i)) {
+				addOptionBeforeDefaultOptions(allModuleCompilerOptions.get(i),
+						"--" + CompilerOptions.LOAD_EXTERNS + "+=" + linkReportPath);
+			}
+		}
+	}
+
+	private void addOptionBeforeDefaultOptions(List<String> targetCompilerOptions, String option) {
+		int defaultOptionsIndex = targetCompilerOptions.indexOf("--");
+		if (defaultOptionsIndex == -1) {
+			targetCompilerOptions.add(option);
+		} else {
+			targetCompilerOptions.add(defaultOptionsIndex, option);
+		}
+	}
+
 	private List<String> duplicateCompilerOptionsForModuleOrWorker(List<String> compilerOptions) {
 		return compilerOptions.stream().filter(option -> {
 			return !COMPILER_OPTION_OUTPUT_PATTERN.matcher(option).find();
@@ -960,6 +1015,20 @@ public class ASConfigC {
 		{
 			deleteOutputDirectory(outputPath);
 		}
+		try {
+			Files.deleteIfExists(outputPath.resolve(BuildFingerprints.FILE_NAME_FINGERPRINTS));
+		} catch (IOException e) {
+			throw new ASConfigCException(
+					"Failed to clean project because an I/O exception occurred while deleting file: "
+							+ BuildFingerprints.FILE_NAME_FINGERPRINTS);
+		}
+		try {
+			Files.deleteIfExists(outputPath.resolve(FILE_NAME_LINK_REPORT));
+		} catch (IOException e) {
+			throw new ASConfigCException(
+					"Failed to clean project because an I/O exception occurred while deleting file: "
+							+ FILE_NAME_LINK_REPORT);
+		}
 		if (moduleOutputPaths != null) {
 			for (String moduleOutputPath : moduleOutputPaths) {
 				Path moduleSWFPath = Paths.get(moduleOutputPath);
@@ -1040,20 +1109,320 @@ public class ASConfigC {
 		}
 	}
 
+	private void loadBuildFingerprints() {
+		if (!options.skipUpToDate || watch) {
+			return;
+		}
+		Path outputDirectory = Paths.get(
+				ProjectUtils.findOutputDirectory(mainFile, outputPathForTarget, !outputIsJS));
+		buildFingerprints = new BuildFingerprints(outputDirectory.resolve(BuildFingerprints.FILE_NAME_FINGERPRINTS));
+		// files that asconfigc creates in the output directory aren't inputs,
+		// even if the output directory is also a source path
+		buildFingerprints.excludePath(outputDirectory.resolve(AssetSync.FILE_NAME_MANIFEST));
+		buildFingerprints.excludePath(outputDirectory.resolve(FILE_NAME_UNPACKAGED_ANES));
+		buildFingerprints.excludePath(outputDirectory.resolve(FILE_NAME_LINK_REPORT));
+		if (outputIsJS) {
+			buildFingerprints.excludePath(outputDirectory.resolve("bin"));
+		}
+	}
+
+	private void saveBuildFingerprints() {
+		if (buildFingerprints == null) {
+			return;
+		}
+		try {
+			buildFingerprints.save();
+		} catch (IOException e) {
+			// the next build won't skip anything, but this one succeeded
+			System.err.println("Failed to save build fingerprints: " + e.getMessage());
+		}
+	}
+
+	private void printBuildChanges(BuildFingerprints.Target target, List<String> changes) {
+		if (!options.verbose) {
+			return;
+		}
+		if (changes.size() == 0) {
+			System.out.println("Skipping " + target.getName() + " because it is up-to-date.");
+			return;
+		}
+		System.out.println("Building " + target.getName() + " because:");
+		for (String change : changes) {
+			System.out.println("  " + change);
+		}
+	}
+
+	private void addCompileInputs(BuildFingerprints.Target target, List<String> targetCompilerOptions)
+			throws ASConfigCException {
+		Path workspacePath = Paths.get(System.getProperty("user.dir"));
+		String joinedOptions = String.join("\n", targetCompilerOptions);
+		List<Path> sourceRoots = new ArrayList<>();
+		List<Path> libraryRoots = new ArrayList<>();
+		int defaultOptionsIndex = targetCompilerOptions.indexOf("--");
+		for (int i = 0; i < targetCompilerOptions.size(); i++) {
+			String option = targetCompilerOptions.get(i);
+			if (defaultOptionsIndex != -1 && i > defaultOptionsIndex) {
+				// the parent directory of the main file is automatically added
+				// as a source path by the compiler
+				Path filePath = workspacePath.resolve(option);
+				Path parentPath = filePath.getParent();
+				if (parentPath != null && workspacePath.startsWith(parentPath)) {
+					// don't search the whole workspace, including directories
+					// like node_modules and .git, for changes
+					sourceRoots.add(filePath);
+					mainFileInWorkspaceRoot = true;
+				} else if (parentPath != null) {
+					sourceRoots.add(parentPath);
+				}
+				continue;
+			}
+			Matcher sourceMatcher = COMPILER_OPTION_SOURCE_PATTERN.matcher(option);
+			if (sourceMatcher.matches()) {
+				i = addCompileOptionPaths(targetCompilerOptions, i, sourceMatcher.group(1), workspacePath, sourceRoots);
+				continue;
+			}
+			Matcher libraryMatcher = COMPILER_OPTION_LIBRARY_PATTERN.matcher(option);
+			if (libraryMatcher.matches()) {
+				i = addCompileOptionPaths(targetCompilerOptions, i, libraryMatcher.group(1), workspacePath,
+						libraryRoots);
+			}
+		}
+		if (sourcePaths != null) {
+			for (String sourcePath : sourcePaths) {
+				sourceRoots.add(workspacePath.resolve(sourcePath));
+			}
+		}
+		List<Path> sdkDescriptionPaths = SDK_DESCRIPTION_FILE_NAMES.stream()
+				.map(fileName -> Paths.get(sdkHome).resolve(fileName)).collect(Collectors.toList());
+		try {
+			target.addValue("configuration", configContents).addValue("compiler options", joinedOptions)
+					.addValue("SDK", sdkHome).addFiles("SDK version", sdkDescriptionPaths)
+					.addFiles("source files", sourceRoots).addFiles("libraries", libraryRoots);
+		} catch (IOException e) {
+			throw new ASConfigCException("Failed to find inputs of " + target.getName() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Adds the paths of an option, which may be separated by commas, like
+	 * <code>-source-path+=src,lib</code>, or by spaces, like
+	 * <code>-source-path src lib</code>. Returns the index of the last
+	 * argument that was used.
+	 */
+	private int addCompileOptionPaths(List<String> targetCompilerOptions, int optionIndex, String value,
+			Path workspacePath, List<Path> paths) {
+		if (value != null) {
+			for (String path : OptionsUtils.splitOptionValues(value)) {
+				if (path.length() > 0) {
+					paths.add(workspacePath.resolve(path));
+				}
+			}
+			return optionIndex;
+		}
+		int i = optionIndex + 1;
+		while (i < targetCompilerOptions.size() && !targetCompilerOptions.get(i).startsWith("-")) {
+			paths.add(workspacePath.resolve(OptionsUtils.splitOptionValues(targetCompilerOptions.get(i)).get(0)));
+			i++;
+		}
+		return i - 1;
+	}
+
+	private void printUntrackedCompileInputs() {
+		if (!options.verbose) {
+			return;
+		}
+		System.out.println("Some compiler inputs are not checked for changes:");
+		System.out.println("  files embedded or included from outside of the source paths");
+		if (hasAdditionalOptions) {
+			System.out.println("  files referenced by additionalOptions, except source paths and libraries");
+		}
+		if (mainFileInWorkspaceRoot) {
+			System.out.println("  files in the workspace root, except the main file");
+		}
+		System.out.println("If a target is skipped after one of these changes, build again without --skip-up-to-date.");
+	}
+
+	private Path findCompileOutputPath(List<String> targetCompilerOptions) {
+		Path workspacePath = Paths.get(System.getProperty("user.dir"));
+		String outputPrefix = "--" + CompilerOptions.OUTPUT + "=";
+		String outputValue = null;
+		for (String option : targetCompilerOptions) {
+			if (option.startsWith(outputPrefix)) {
+				outputValue = option.substring(outputPrefix.length());
+			}
+		}
+		if (outputValue != null) {
+			return workspacePath.resolve(outputValue);
+		}
+		String targetFile = targetCompilerOptions.get(targetCompilerOptions.size() - 1);
+		String swfOutputPath = ProjectUtils.findOutputPath(targetFile, null, true);
+		if (swfOutputPath == null) {
+			return null;
+		}
+		return Paths.get(swfOutputPath);
+	}
+
+	private Path findAppOutputPath() {
+		if (ProjectType.LIB.equals(projectType)) {
+			if (swfOutputPath == null || swfOutputPath.length() == 0) {
+				return null;
+			}
+			return Paths.get(System.getProperty("user.dir")).resolve(swfOutputPath);
+		}
+		String contentOutputPath = ProjectUtils.findApplicationContentOutputPath(mainFile, outputPathForTarget,
+				!outputIsJS, debugBuild);
+		if (contentOutputPath == null) {
+			return null;
+		}
+		return Paths.get(contentOutputPath);
+	}
+
 	private void compileProject() throws ASConfigCException {
+		if (linkReportFile != null) {
+			try {
+				Files.createDirectories(linkReportFile.toPath().getParent());
+			} catch (IOException e) {
+				throw new ASConfigCException("Failed to create link report for modules.");
+			}
+		}
 		Path workspacePath = Paths.get(System.getProperty("user.dir"));
 		Path sdkPath = Paths.get(sdkHome);
+		CompileScheduler scheduler = new CompileScheduler(options.compiler, projectType, workspacePath, sdkPath,
+				options.parallel, options.verbose);
+
+		List<String> workerNames = new ArrayList<>();
+		for (List<String> workerCompilerOptions : allWorkerCompilerOptions) {
+			workerNames.add("worker " + workerCompilerOptions.get(workerCompilerOptions.size() - 1));
+		}
+		String appName = ProjectType.LIB.equals(projectType) ? "library" : "application";
+		List<String> moduleNames = new ArrayList<>();
+		for (List<String> moduleCompilerOptions : allModuleCompilerOptions) {
+			moduleNames.add("module " + moduleCompilerOptions.get(moduleCompilerOptions.size() - 1));
+		}
+
+		if (options.compiler instanceof DaemonCompiler) {
+			DaemonCompiler daemonCompiler = (DaemonCompiler) options.compiler;
+			daemonCompiler.setTargetCount(workerNames.size() + 1 + moduleNames.size());
+		}
+
+		// when fingerprints are enabled, targets without changes are skipped
+		Map<String, BuildFingerprints.Target> fingerprints = new HashMap<>();
+		Map<String, List<String>> changes = new HashMap<>();
+		if (buildFingerprints != null) {
+			findCompileChanges(workerNames, appName, moduleNames, fingerprints, changes);
+		}
+
 		// compile workers first because they might be embedded in the app
+		List<CompileScheduler.Target> workerTargets = new ArrayList<>();
+		List<String> compiledNames = new ArrayList<>();
 		for (int i = 0; i < allWorkerCompilerOptions.size(); i++) {
-			List<String> workerCompilerOptions = allWorkerCompilerOptions.get(i);
-			options.compiler.compile(projectType, workerCompilerOptions, workspacePath, sdkPath);
+			String name = workerNames.get(i);
+			if (buildFingerprints != null && changes.get(name).size() == 0) {
+				continue;
+			}
+			workerTargets.add(scheduler.addTarget(name, allWorkerCompilerOptions.get(i), Collections.emptyList()));
+			compiledNames.add(name);
+		}
+		CompileScheduler.Target appTarget = null;
+		if (buildFingerprints == null || changes.get(appName).size() > 0) {
+			appTarget = scheduler.addTarget(appName, compilerOptions, workerTargets);
+			compiledNames.add(appName);
 		}
-		options.compiler.compile(projectType, compilerOptions, workspacePath, sdkPath);
-		// compile modules last because they might be optimized for the app
+		// compile optimized modules after the app because they load the
+		// app's link report
 		for (int i = 0; i < allModuleCompilerOptions.size(); i++) {
-			List<String> moduleCompilerOptions = allModuleCompilerOptions.get(i);
-			options.compiler.compile(projectType, moduleCompilerOptions, workspacePath, sdkPath);
+			String name = moduleNames.get(i);
+			if (buildFingerprints != null && changes.get(name).size() == 0) {
+				continue;
+			}
+			List<CompileScheduler.Target> dependencies = findModuleDependencies(allModuleOptimize.get(i), appTarget);
+			scheduler.addTarget(name, allModuleCompilerOptions.get(i), dependencies);
+			compiledNames.add(name);
+		}
+		scheduler.compile();
+		if (buildFingerprints != null) {
+			for (String name : compiledNames) {
+				fingerprints.get(name).markBuilt();
+			}
+		}
+	}
+
+	/**
+	 * An optimized module depends on the app, unless the app is up to date
+	 * and isn't compiled again. Then, its existing link report is used.
+	 */
+	static List<CompileScheduler.Target> findModuleDependencies(boolean optimize, CompileScheduler.Target appTarget) {
+		if (!optimize || appTarget == null) {
+			return Collections.emptyList();
+		}
+		return Collections.singletonList(appTarget);
+	}
+
+	private void findCompileChanges(List<String> workerNames, String appName, List<String> moduleNames,
+			Map<String, BuildFingerprints.Target> fingerprints, Map<String, List<String>> changes)
+			throws ASConfigCException {
+		// all outputs must be known before searching for inputs, so that one
+		// target's output is never mistaken for another target's input
+		for (int i = 0; i < workerNames.size(); i++) {
+			fingerprints.put(workerNames.get(i), createCompileFingerprint(workerNames.get(i),
+					findCompileOutputPath(allWorkerCompilerOptions.get(i))));
+		}
+		fingerprints.put(appName, createCompileFingerprint(appName, findAppOutputPath()));
+		for (int i = 0; i < moduleNames.size(); i++) {
+			fingerprints.put(moduleNames.get(i), createCompileFingerprint(moduleNames.get(i),
+					findCompileOutputPath(allModuleCompilerOptions.get(i))));
+		}
+		for (int i = 0; i < workerNames.size(); i++) {
+			addCompileInputs(fingerprints.get(workerNames.get(i)), allWorkerCompilerOptions.get(i));
+		}
+		addCompileInputs(fingerprints.get(appName), compilerOptions);
+		for (int i = 0; i < moduleNames.size(); i++) {
+			addCompileInputs(fingerprints.get(moduleNames.get(i)), allModuleCompilerOptions.get(i));
+		}
+		printUntrackedCompileInputs();
+		for (Map.Entry<String, BuildFingerprints.Target> entry : fingerprints.entrySet()) {
+			changes.put(entry.getKey(), new ArrayList<>(entry.getValue().findChanges()));
 		}
+
+		List<String> appChanges = changes.get(appName);
+		for (String workerName : workerNames) {
+			if (changes.get(workerName).size() > 0) {
+				// the app might embed the worker
+				appChanges.add(workerName + " will be compiled");
+			}
+		}
+		if (linkReportFile != null && !linkReportFile.exists()) {
+			for (int i = 0; i < moduleNames.size(); i++) {
+				if (allModuleOptimize.get(i) && changes.get(moduleNames.get(i)).size() > 0) {
+					// the link report is created when the app is compiled
+					appChanges.add("optimized " + moduleNames.get(i) + " requires the link report");
+				}
+			}
+		}
+		if (appChanges.size() > 0) {
+			for (int i = 0; i < moduleNames.size(); i++) {
+				if (allModuleOptimize.get(i)) {
+					changes.get(moduleNames.get(i)).add(appName + " will be compiled");
+				}
+			}
+		}
+
+		for (String workerName : workerNames) {
+			printBuildChanges(fingerprints.get(workerName), changes.get(workerName));
+		}
+		printBuildChanges(fingerprints.get(appName), appChanges);
+		for (String moduleName : moduleNames) {
+			printBuildChanges(fingerprints.get(moduleName), changes.get(moduleName));
+		}
+	}
+
+	private BuildFingerprints.Target createCompileFingerprint(String name, Path outputPath) {
+		BuildFingerprints.Target target = buildFingerprints.createTarget(name);
+		if (outputPath != null) {
+			target.addOutput(outputPath);
+		}
+		// without an output, the target is never up-to-date
+		return target;
 	}
 
 	private void copySourcePathAssetToOutputDirectory(String assetPath, String mainFile, List<String> sourcePaths,
@@ -1087,6 +1456,12 @@ public class ASConfigC {
 		} catch (IOException e) {
 			throw new ASConfigCException(e.getMessage());
 		}
+		if (options.syncAssets) {
+			// sync even when there are no assets because the copies of
+			// removed assets may need to be deleted
+			syncSourcePathAssets(assetPaths, outputDirectory);
+			return;
+		}
 		if (assetPaths.size() == 0) {
 			return;
 		}
@@ -1110,6 +1485,42 @@ public class ASConfigC {
 		}
 	}
 
+	private void syncSourcePathAssets(Set<String> assetPaths, String outputDirectory) throws ASConfigCException {
+		if (options.verbose) {
+			System.out.println("Syncing source path assets...");
+		}
+		List<String> outputDirectories = new ArrayList<>();
+		if (outputIsJS) {
+			outputDirectories.add(new File(outputDirectory, FILE_NAME_BIN_JS_DEBUG).getAbsolutePath());
+			if (!debugBuild) {
+				outputDirectories.add(new File(outputDirectory, FILE_NAME_BIN_JS_RELEASE).getAbsolutePath());
+			}
+		} else // swf
+		{
+			outputDirectories.add(outputDirectory);
+		}
+		for (String assetOutputDirectory : outputDirectories) {
+			AssetSync.Result result = null;
+			try {
+				AssetSync assetSync = new AssetSync(Paths.get(assetOutputDirectory), options.syncAssetsWithHash,
+						AssetSync.DEFAULT_PARALLELISM, options.verbose);
+				for (String assetPath : assetPaths) {
+					String targetPath = ProjectUtils.assetPathToOutputPath(assetPath, mainFile, sourcePaths,
+							assetOutputDirectory);
+					assetSync.addFile(Paths.get(assetPath), Paths.get(targetPath));
+				}
+				result = assetSync.sync();
+			} catch (IOException e) {
+				throw new ASConfigCException(e.getMessage());
+			}
+			if (options.verbose) {
+				System.out.println("Synced assets to " + assetOutputDirectory + ": " + result.copiedCount + " copied ("
+						+ result.copiedBytes + " bytes), " + result.unchangedCount + " unchanged, "
+						+ result.deletedCount + " deleted");
+			}
+		}
+	}
+
 	private void copyHTMLTemplate() throws ASConfigCException {
 		if (htmlTemplate == null) {
 			// nothing to copy if this field is omitted
@@ -1131,22 +1542,42 @@ public class ASConfigC {
 			throw new ASConfigCException("htmlTemplate path must be a directory. Invalid path: " + htmlTemplate);
 		}
 
+		BuildFingerprints.Target fingerprint = null;
+		if (buildFingerprints != null) {
+			fingerprint = buildFingerprints.createTarget("HTML template");
+			try {
+				fingerprint.addValue("configuration", configContents).addValue("debug", Boolean.toString(debugBuild))
+						.addFiles("template files", Collections.singletonList(templateDirectory.toPath()));
+			} catch (IOException e) {
+				throw new ASConfigCException("Failed to find inputs of HTML template: " + e.getMessage());
+			}
+			List<String> changes = fingerprint.findChanges();
+			printBuildChanges(fingerprint, changes);
+			if (changes.size() == 0) {
+				return;
+			}
+		}
+
 		String outputDirectoryPath = ProjectUtils.findOutputDirectory(mainFile, outputPathForTarget, !outputIsJS);
 		if (outputIsJS) {
 			File outputDirectoryJSDebug = new File(outputDirectoryPath, FILE_NAME_BIN_JS_DEBUG);
-			copyHTMLTemplateDirectory(templateDirectory, outputDirectoryJSDebug);
+			copyHTMLTemplateDirectory(templateDirectory, outputDirectoryJSDebug, fingerprint);
 			if (!debugBuild) {
 				File outputDirectoryJSRelease = new File(outputDirectoryPath, FILE_NAME_BIN_JS_RELEASE);
-				copyHTMLTemplateDirectory(templateDirectory, outputDirectoryJSRelease);
+				copyHTMLTemplateDirectory(templateDirectory, outputDirectoryJSRelease, fingerprint);
 			}
 		} else // swf
 		{
 			File outputDirectory = new File(outputDirectoryPath);
-			copyHTMLTemplateDirectory(templateDirectory, outputDirectory);
+			copyHTMLTemplateDirectory(templateDirectory, outputDirectory, fingerprint);
+		}
+		if (fingerprint != null) {
+			fingerprint.markBuilt();
 		}
 	}
 
-	private void copyHTMLTemplateDirectory(File inputDirectory, File outputDirectory) throws ASConfigCException {
+	private void copyHTMLTemplateDirectory(File inputDirectory, File outputDirectory,
+			BuildFingerprints.Target fingerprint) throws ASConfigCException {
 		if (!outputDirectory.exists() && !outputDirectory.mkdirs()) {
 			throw new ASConfigCException(
 					"Failed to create output directory for HTML template: " + outputDirectory.getAbsolutePath() + ".");
@@ -1161,7 +1592,7 @@ public class ASConfigC {
 			for (File file : files) {
 				if (file.isDirectory()) {
 					File newOutputDirectory = new File(outputDirectory, file.getName());
-					copyHTMLTemplateDirectory(file, newOutputDirectory);
+					copyHTMLTemplateDirectory(file, newOutputDirectory, fingerprint);
 					continue;
 				}
 				String fileName = file.getName();
@@ -1195,11 +1626,17 @@ public class ASConfigC {
 						String outputFileName = beforeExtension + extension;
 						File outputFile = new File(outputDirectory, outputFileName);
 						Files.write(outputFile.toPath(), contents.getBytes());
+						if (fingerprint != null) {
+							fingerprint.addOutput(outputFile.toPath());
+						}
 						continue;
 					}
 				}
 				File outputFile = new File(outputDirectory, fileName);
 				createParentAndCopyAsset(file.toPath(), outputFile.toPath());
+				if (fingerprint != null) {
+					fingerprint.addOutput(outputFile.toPath());
+				}
 			}
 		} catch (IOException e) {
 			throw new ASConfigCException(e.getMessage());
@@ -1285,53 +1722,33 @@ public class ASConfigC {
 		File outputDirectory = new File(outputDirectoryPath);
 		File unpackedAneDirectory = new File(outputDirectory, FILE_NAME_UNPACKAGED_ANES);
 		File currentAneDirectory = new File(unpackedAneDirectory, aneFile.getName());
-		if (currentAneDirectory.exists() && currentAneDirectory.isDirectory()) {
-			if (currentAneDirectory.lastModified() == aneFile.lastModified()) {
-				if (options.verbose) {
-					System.out.println("Skipping unchanged: " + currentAneDirectory.getName());
-				}
-				return;
-			}
-		} else if (!currentAneDirectory.mkdirs()) {
+		if (!currentAneDirectory.isDirectory() && !currentAneDirectory.mkdirs()) {
 			throw new ASConfigCException("Failed to copy Adobe AIR native extension to path: " + currentAneDirectory
 					+ " because the directories could not be created.");
 		}
 
+		ANEUnpacker.Result result = null;
 		try {
-			ZipFile zipFile = new ZipFile(aneFile);
-			Enumeration<?> zipEntries = zipFile.entries();
-			while (zipEntries.hasMoreElements()) {
-				ZipEntry zipEntry = (ZipEntry) zipEntries.nextElement();
-				if (zipEntry.isDirectory()) {
-					continue;
-				}
-
-				File destFile = new File(currentAneDirectory, zipEntry.getName());
-				File destParent = new File(destFile.getParent());
-				destParent.mkdirs();
-
-				BufferedInputStream inStream = new BufferedInputStream(zipFile.getInputStream(zipEntry));
-				FileOutputStream fileOutStream = new FileOutputStream(destFile);
-				byte buffer[] = new byte[2048];
-				int len = 0;
-				while ((len = inStream.read(buffer)) > 0) {
-					fileOutStream.write(buffer, 0, len);
-				}
-				fileOutStream.flush();
-				fileOutStream.close();
-				inStream.close();
-			}
-			zipFile.close();
-		} catch (FileNotFoundException e) {
+			ANEUnpacker unpacker = new ANEUnpacker(ANEUnpacker.DEFAULT_PARALLELISM, options.verbose);
+			result = unpacker.unpack(aneFile.toPath(), currentAneDirectory.toPath());
+		} catch (NoSuchFileException e) {
 			throw new ASConfigCException("Failed to copy Adobe AIR native extension from path: "
 					+ aneFile.getAbsolutePath() + " because the file was not found.");
 		} catch (IOException e) {
-			throw new ASConfigCException(
-					"Failed to copy Adobe AIR native extension from path: " + aneFile.getAbsolutePath() + ".");
+			throw new ASConfigCException("Failed to copy Adobe AIR native extension from path: "
+					+ aneFile.getAbsolutePath() + ". " + e.getMessage());
+		}
+		if (options.verbose && result.skipped) {
+			System.out.println("Skipping unchanged: " + aneFile.getName());
+		} else if (options.verbose) {
+			double elapsedSeconds = result.elapsedNanos / 1e9;
+			double megabytesPerSecond = elapsedSeconds > 0.0 ? (result.extractedBytes / 1048576.0) / elapsedSeconds
+					: 0.0;
+			System.out.println(String.format(
+					"Unpacked %s: %d extracted (%d bytes), %d unchanged, %d deleted in %.2f seconds (%.1f MB/s)",
+					aneFile.getName(), result.extractedCount, result.extractedBytes, result.unchangedCount,
+					result.deletedCount, elapsedSeconds, megabytesPerSecond));
 		}
-		// save the last modified time of the .ane file to determine later
-		// if we need to unpack again or not
-		currentAneDirectory.setLastModified(aneFile.lastModified());
 	}
 
 	private void createParentAndCopyAsset(Path srcPath, Path destPath) throws ASConfigCException {
@@ -1479,7 +1896,8 @@ public class ASConfigC {
 		}
 	}
 
-	private void copyAIRDescriptor(String descriptorOutputPath, String descriptorContents) throws ASConfigCException {
+	private void copyAIRDescriptor(String descriptorOutputPath, String descriptorContents,
+			BuildFingerprints.Target fingerprint) throws ASConfigCException {
 		File descriptorOutputFile = new File(descriptorOutputPath);
 		File descriptorOutputParent = descriptorOutputFile.getParentFile();
 		if (!descriptorOutputParent.exists() && !descriptorOutputParent.mkdirs()) {
@@ -1492,6 +1910,9 @@ public class ASConfigC {
 			throw new ASConfigCException(
 					"Failed to copy Adobe AIR application descriptor to path: " + descriptorOutputPath);
 		}
+		if (fingerprint != null) {
+			fingerprint.addOutput(descriptorOutputFile.toPath());
+		}
 	}
 
 	private void processAdobeAIRDescriptors() throws ASConfigCException {
@@ -1517,6 +1938,28 @@ public class ASConfigC {
 				System.out.println("Using template fallback: " + templatePath);
 			}
 		}
+		BuildFingerprints.Target fingerprint = null;
+		if (buildFingerprints != null) {
+			fingerprint = buildFingerprints.createTarget("Adobe AIR application descriptor");
+			Path workspacePath = Paths.get(System.getProperty("user.dir"));
+			List<Path> descriptorPaths = new ArrayList<>();
+			descriptorPaths.add(Paths.get(templatePath));
+			for (String airDescriptorPath : airDescriptorPaths) {
+				descriptorPaths.add(workspacePath.resolve(airDescriptorPath));
+			}
+			try {
+				fingerprint.addValue("configuration", configContents).addValue("debug", Boolean.toString(debugBuild))
+						.addValue("Adobe AIR platform", options.air).addFiles("descriptor files", descriptorPaths);
+			} catch (IOException e) {
+				throw new ASConfigCException(
+						"Failed to find inputs of Adobe AIR application descriptor: " + e.getMessage());
+			}
+			List<String> changes = fingerprint.findChanges();
+			printBuildChanges(fingerprint, changes);
+			if (changes.size() == 0) {
+				return;
+			}
+		}
 		String contentValue = ProjectUtils.findApplicationContent(mainFile, outputPathForTarget, !outputIsJS);
 		if (contentValue == null) {
 			throw new ASConfigCException("Failed to find initial window content for Adobe AIR application.");
@@ -1561,11 +2004,11 @@ public class ASConfigC {
 			if (outputIsJS) {
 				String debugDescriptorOutputPath = ProjectUtils.findAIRDescriptorOutputPath(mainFile, airDescriptorPath,
 						outputPathForTarget, System.getProperty("user.dir"), false, true);
-				copyAIRDescriptor(debugDescriptorOutputPath, descriptorContents);
+				copyAIRDescriptor(debugDescriptorOutputPath, descriptorContents, fingerprint);
 				if (!debugBuild) {
 					String releaseDescriptorOutputPath = ProjectUtils.findAIRDescriptorOutputPath(mainFile,
 							airDescriptorPath, outputPathForTarget, System.getProperty("user.dir"), false, false);
-					copyAIRDescriptor(releaseDescriptorOutputPath, descriptorContents);
+					copyAIRDescriptor(releaseDescriptorOutputPath, descriptorContents, fingerprint);
 				}
 
 			} else // swf
@@ -1578,9 +2021,12 @@ public class ASConfigC {
 						throw new ASConfigCException("Failed to copy Adobe AIR application descriptor template.");
 					}
 				}
-				copyAIRDescriptor(descriptorOutputPath, descriptorContents);
+				copyAIRDescriptor(descriptorOutputPath, descriptorContents, fingerprint);
 			}
 		}
+		if (fingerprint != null) {
+			fingerprint.markBuilt();
+		}
 	}
 
 	private void packageAIR() throws ASConfigCException {
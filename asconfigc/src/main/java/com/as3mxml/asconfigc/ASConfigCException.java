@@ -28,4 +28,12 @@ public class ASConfigCException extends Exception {
 	}
 
 	int status = 0;
+
+	/**
+	 * The exit status of the compiler, or <code>0</code> if asconfigc failed
+	 * for another reason.
+	 */
+	public int getStatus() {
+		return status;
+	}
 }
\ No newline at end of file
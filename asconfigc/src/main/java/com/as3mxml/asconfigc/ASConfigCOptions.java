@@ -20,10 +20,12 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import com.as3mxml.asconfigc.air.AIRPlatform;
+import com.as3mxml.asconfigc.compiler.DaemonCompiler;
 import com.as3mxml.asconfigc.compiler.DefaultCompiler;
 import com.as3mxml.asconfigc.compiler.IASConfigCCompiler;
 
 import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.ParseException;
 
 public class ASConfigCOptions {
 	private static final String OPTION_PROJECT = "p"; // CommandLine uses the short name
@@ -39,6 +41,12 @@ public class ASConfigCOptions {
 	private static final String OPTION_VERBOSE = "verbose";
 	private static final String OPTION_JVMARGS = "jvmargs";
 	private static final String OPTION_PRINT_CONFIG = "print-config";
+	private static final String OPTION_SYNC_ASSETS = "sync-assets";
+	private static final String OPTION_PARALLEL = "parallel";
+	private static final String OPTION_COMPILER_DAEMON = "compiler-daemon";
+	private static final String OPTION_SKIP_UP_TO_DATE = "skip-up-to-date";
+
+	private static final String SYNC_ASSETS_HASH = "hash";
 
 	public String project = null;
 	public String sdk = null;
@@ -54,6 +62,11 @@ public class ASConfigCOptions {
 	public boolean verbose = false;
 	public List<String> jvmargs = null;
 	public boolean printConfig = false;
+	public boolean syncAssets = false;
+	public boolean syncAssetsWithHash = false;
+	public int parallel = 1;
+	public boolean compilerDaemon = false;
+	public boolean skipUpToDate = false;
 
 	public ASConfigCOptions(String project, String sdk, Boolean debug, String air, String storepass,
 			Boolean unpackageANEs, IASConfigCCompiler compiler) {
@@ -65,7 +78,7 @@ public class ASConfigCOptions {
 		this.compiler = compiler;
 	}
 
-	public ASConfigCOptions(CommandLine line) {
+	public ASConfigCOptions(CommandLine line) throws ParseException {
 		if (line.hasOption(OPTION_PROJECT)) {
 			project = line.getOptionValue(OPTION_PROJECT, null);
 		}
@@ -129,6 +142,34 @@ public class ASConfigCOptions {
 			String printConfigString = line.getOptionValue(OPTION_PRINT_CONFIG, Boolean.FALSE.toString());
 			printConfig = printConfigString.equals(Boolean.TRUE.toString());
 		}
-		compiler = new DefaultCompiler(verbose, jvmargs);
+		if (line.hasOption(OPTION_SYNC_ASSETS)) {
+			String syncAssetsString = line.getOptionValue(OPTION_SYNC_ASSETS, Boolean.TRUE.toString());
+			syncAssetsWithHash = syncAssetsString.equals(SYNC_ASSETS_HASH);
+			syncAssets = syncAssetsWithHash || syncAssetsString.equals(Boolean.TRUE.toString());
+		}
+		if (line.hasOption(OPTION_PARALLEL)) {
+			String parallelString = line.getOptionValue(OPTION_PARALLEL);
+			try {
+				parallel = Integer.parseInt(parallelString);
+			} catch (NumberFormatException e) {
+				parallel = 0;
+			}
+			if (parallel < 1) {
+				throw new ParseException("Invalid value for --" + OPTION_PARALLEL + ": " + parallelString);
+			}
+		}
+		if (line.hasOption(OPTION_COMPILER_DAEMON)) {
+			String compilerDaemonString = line.getOptionValue(OPTION_COMPILER_DAEMON, Boolean.TRUE.toString());
+			compilerDaemon = compilerDaemonString.equals(Boolean.TRUE.toString());
+		}
+		if (line.hasOption(OPTION_SKIP_UP_TO_DATE)) {
+			String skipUpToDateString = line.getOptionValue(OPTION_SKIP_UP_TO_DATE, Boolean.TRUE.toString());
+			skipUpToDate = skipUpToDateString.equals(Boolean.TRUE.toString());
+		}
+		if (compilerDaemon) {
+			compiler = new DaemonCompiler(verbose, jvmargs);
+		} else {
+			compiler = new DefaultCompiler(verbose, jvmargs);
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,188 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.as3mxml.asconfigc.ASConfigCException;
+
+/**
+ * Compiles multiple targets, such as an app, its workers, and its modules. A
+ * target is compiled after all of its dependencies. If the compiler supports
+ * it, targets that don't depend on each other are compiled at the same time,
+ * and the output of each target is printed all at once, after it finishes.
+ */
+public class CompileScheduler {
+	public static class Target {
+		private Target(String name, List<String> compilerOptions, List<Target> dependencies) {
+			this.name = name;
+			this.compilerOptions = compilerOptions;
+			this.dependencies = dependencies;
+		}
+
+		public final String name;
+		public final List<String> compilerOptions;
+		public final List<Target> dependencies;
+	}
+
+	private static class CompletedTarget {
+		public Target target;
+		public byte[] output;
+		public ASConfigCException exception;
+	}
+
+	public CompileScheduler(IASConfigCCompiler compiler, String projectType, Path workspaceRoot, Path sdkPath,
+			int parallelism, boolean verbose) {
+		this.compiler = compiler;
+		this.projectType = projectType;
+		this.workspaceRoot = workspaceRoot;
+		this.sdkPath = sdkPath;
+		this.parallelism = Math.max(1, parallelism);
+		this.verbose = verbose;
+	}
+
+	private IASConfigCCompiler compiler;
+	private String projectType;
+	private Path workspaceRoot;
+	private Path sdkPath;
+	private int parallelism;
+	private boolean verbose;
+	private List<Target> targets = new ArrayList<>();
+
+	/**
+	 * Adds a target to compile. Its dependencies must have been added
+	 * already.
+	 */
+	public Target addTarget(String name, List<String> compilerOptions, List<Target> dependencies) {
+		for (Target dependency : dependencies) {
+			if (!targets.contains(dependency)) {
+				throw new IllegalArgumentException("Dependency of target " + name + " not added: " + dependency.name);
+			}
+		}
+		Target target = new Target(name, compilerOptions, Collections.unmodifiableList(new ArrayList<>(dependencies)));
+		targets.add(target);
+		return target;
+	}
+
+	public List<Target> getTargets() {
+		return Collections.unmodifiableList(targets);
+	}
+
+	/**
+	 * Compiles every target. If a target fails, no more targets are started,
+	 * and the first failure is thrown after the targets that were already
+	 * started have finished.
+	 */
+	public void compile() throws ASConfigCException {
+		if (parallelism == 1 || targets.size() < 2 || !compiler.supportsConcurrentCompile()) {
+			// the targets were added in an order that satisfies their
+			// dependencies, and the compiler can write directly to the console
+			for (Target target : targets) {
+				compiler.compile(projectType, target.compilerOptions, workspaceRoot, sdkPath);
+			}
+			return;
+		}
+
+		if (verbose) {
+			System.out.println("Compiling " + targets.size() + " targets with parallelism " + parallelism + "...");
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, targets.size()));
+		ExecutorCompletionService<CompletedTarget> completionService = new ExecutorCompletionService<>(executor);
+		List<Target> pendingTargets = new ArrayList<>(targets);
+		Set<Target> completedTargets = new HashSet<>();
+		ASConfigCException firstException = null;
+		int runningCount = 0;
+		try {
+			while (true) {
+				if (firstException == null) {
+					for (int i = 0; i < pendingTargets.size();) {
+						Target target = pendingTargets.get(i);
+						if (completedTargets.containsAll(target.dependencies)) {
+							pendingTargets.remove(i);
+							completionService.submit(() -> compileTarget(target));
+							runningCount++;
+						} else {
+							i++;
+						}
+					}
+				}
+				if (runningCount == 0) {
+					break;
+				}
+				CompletedTarget completed = null;
+				try {
+					Future<CompletedTarget> future = completionService.take();
+					completed = future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new ASConfigCException("Failed to execute compiler: " + e.getMessage());
+				} catch (ExecutionException e) {
+					throw new ASConfigCException("Failed to execute compiler: " + e.getCause());
+				}
+				runningCount--;
+				// print each target's output all at once, so that the output
+				// of different targets isn't mixed together
+				System.out.write(completed.output, 0, completed.output.length);
+				System.out.flush();
+				if (completed.exception != null) {
+					if (firstException == null) {
+						firstException = completed.exception;
+					}
+				} else {
+					completedTargets.add(completed.target);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		if (firstException != null) {
+			throw firstException;
+		}
+	}
+
+	private CompletedTarget compileTarget(Target target) {
+		ByteArrayOutputStream outputBytes = new ByteArrayOutputStream();
+		PrintStream output = new PrintStream(outputBytes, true);
+		CompletedTarget result = new CompletedTarget();
+		result.target = target;
+		long startTime = System.currentTimeMillis();
+		try {
+			compiler.compile(projectType, target.compilerOptions, workspaceRoot, sdkPath, output);
+		} catch (ASConfigCException e) {
+			result.exception = e;
+		}
+		if (verbose) {
+			long duration = System.currentTimeMillis() - startTime;
+			output.println("Compiled " + target.name + " in " + duration + "ms"
+					+ (result.exception != null ? " (failed)" : ""));
+		}
+		output.flush();
+		result.output = outputBytes.toByteArray();
+		return result;
+	}
+}
@@ -0,0 +1,543 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.compiler;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.as3mxml.asconfigc.ASConfigCException;
+
+/**
+ * A long-running process that keeps compiler shells loaded between builds, so
+ * that each build doesn't need to start a new JVM and compile everything
+ * from scratch. Each target gets its own shell, which compiles incrementally
+ * after its first build.
+ *
+ * The daemon listens on the loopback interface. Its port and a random token
+ * are saved in its state directory, and clients must send the token with
+ * each request. The daemon exits after it has been idle for a while.
+ */
+public class CompilerDaemon {
+	public static final String FILE_NAME_STATE = "daemon-1.properties";
+	public static final String FILE_NAME_LOG = "daemon.log";
+	public static final long DEFAULT_IDLE_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+
+	static final String PROTOCOL_HEADER = "as3mxml-compiler-daemon 1";
+	static final String PROPERTY_PORT = "port";
+	static final String PROPERTY_TOKEN = "token";
+	static final String REQUEST_TOKEN = "token ";
+	static final String REQUEST_PROJECT_TYPE = "project-type ";
+	static final String REQUEST_SDK = "sdk ";
+	static final String REQUEST_WORKSPACE = "workspace ";
+	static final String REQUEST_JVMARG = "jvmarg ";
+	static final String REQUEST_OPTION = "option ";
+	static final String REQUEST_TARGET_COUNT = "target-count ";
+	static final String REQUEST_END = "end";
+	static final String RESPONSE_OUTPUT = "out ";
+	static final String RESPONSE_STATUS = "status ";
+	static final String RESPONSE_ERROR = "error ";
+	static final String RESPONSE_UNSUPPORTED = "unsupported ";
+
+	// the pool grows if a project has more targets than this
+	private static final int DEFAULT_MAX_COMPILERS = 16;
+
+	public static class Request {
+		public String projectType;
+		public String sdkPath;
+		public String workspaceRoot;
+		public List<String> jvmargs = new ArrayList<>();
+		public List<String> compilerOptions = new ArrayList<>();
+		// the number of targets in the request's project, or 0 if unknown
+		public int targetCount = 0;
+
+		public String getKey() {
+			StringBuilder builder = new StringBuilder();
+			builder.append(projectType);
+			builder.append('\0');
+			builder.append(sdkPath);
+			builder.append('\0');
+			builder.append(workspaceRoot);
+			for (String jvmarg : jvmargs) {
+				builder.append('\0');
+				builder.append(jvmarg);
+			}
+			builder.append('\0');
+			for (String option : compilerOptions) {
+				builder.append('\0');
+				builder.append(option);
+			}
+			return builder.toString();
+		}
+	}
+
+	/**
+	 * Compiles a single target. Called by one thread at a time.
+	 */
+	public static interface IResidentCompiler {
+		public void compile(PrintStream output) throws ASConfigCException;
+
+		public void quit();
+	}
+
+	public static interface IResidentCompilerFactory {
+		/**
+		 * Returns <code>null</code> if the request's SDK isn't supported.
+		 */
+		public IResidentCompiler create(Request request);
+	}
+
+	private static class CompilerEntry {
+		public CompilerEntry(IResidentCompiler compiler, String workspaceRoot) {
+			this.compiler = compiler;
+			this.workspaceRoot = workspaceRoot;
+		}
+
+		public IResidentCompiler compiler;
+		public String workspaceRoot;
+		public int useCount = 0;
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("Syntax: CompilerDaemon STATE_DIRECTORY [IDLE_TIMEOUT_MINUTES]");
+			System.exit(1);
+		}
+		Path stateDirectory = Paths.get(args[0]);
+		long idleTimeout = DEFAULT_IDLE_TIMEOUT_MS;
+		if (args.length > 1) {
+			idleTimeout = TimeUnit.MINUTES.toMillis(Long.parseLong(args[1]));
+		}
+		Path binPath = null;
+		try {
+			binPath = Paths.get(CompilerDaemon.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+					.getParent();
+		} catch (URISyntaxException e) {
+			e.printStackTrace(System.err);
+			System.exit(1);
+		}
+		Path finalBinPath = binPath;
+		CompilerDaemon daemon = new CompilerDaemon(stateDirectory,
+				request -> ResidentCompilerShell.create(request, finalBinPath), idleTimeout);
+		try {
+			daemon.start();
+		} catch (IOException e) {
+			e.printStackTrace(System.err);
+			System.exit(1);
+		}
+		// quit the compiler shells if the daemon is killed
+		Runtime.getRuntime().addShutdownHook(new Thread(daemon::stop));
+		daemon.waitForStop();
+		System.exit(0);
+	}
+
+	public CompilerDaemon(Path stateDirectory, IResidentCompilerFactory compilerFactory, long idleTimeout) {
+		this.stateDirectory = stateDirectory;
+		this.compilerFactory = compilerFactory;
+		this.idleTimeout = idleTimeout;
+	}
+
+	private Path stateDirectory;
+	private IResidentCompilerFactory compilerFactory;
+	private long idleTimeout;
+	private String token;
+	private ServerSocket serverSocket;
+	private ExecutorService requestExecutor;
+	private ScheduledExecutorService idleExecutor;
+	private CountDownLatch stopped = new CountDownLatch(1);
+	private Map<String, CompilerEntry> compilers = new LinkedHashMap<>(16, 0.75f, true);
+	private int activeRequestCount = 0;
+	private long lastActivityTime = System.currentTimeMillis();
+
+	/**
+	 * Starts listening for requests, and saves the state file that clients
+	 * use to connect.
+	 */
+	public void start() throws IOException {
+		byte[] tokenBytes = new byte[32];
+		new SecureRandom().nextBytes(tokenBytes);
+		token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+		serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		writeStateFile();
+
+		requestExecutor = Executors.newCachedThreadPool();
+		idleExecutor = Executors.newSingleThreadScheduledExecutor();
+		long checkInterval = Math.max(1000L, Math.min(idleTimeout / 4, TimeUnit.MINUTES.toMillis(1)));
+		idleExecutor.scheduleWithFixedDelay(this::stopIfIdle, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+
+		Thread acceptThread = new Thread(this::acceptConnections, "asconfigc-compiler-daemon");
+		acceptThread.start();
+	}
+
+	/**
+	 * Stops accepting requests, quits all compiler shells, and deletes the
+	 * state file.
+	 */
+	public void stop() {
+		synchronized (this) {
+			if (serverSocket == null || serverSocket.isClosed()) {
+				return;
+			}
+			try {
+				serverSocket.close();
+			} catch (IOException e) {
+			}
+		}
+		idleExecutor.shutdownNow();
+		requestExecutor.shutdownNow();
+		List<CompilerEntry> entries = null;
+		synchronized (compilers) {
+			entries = new ArrayList<>(compilers.values());
+			compilers.clear();
+		}
+		for (CompilerEntry entry : entries) {
+			entry.compiler.quit();
+		}
+		deleteStateFile();
+		stopped.countDown();
+	}
+
+	public void waitForStop() {
+		try {
+			stopped.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public int getCompilerCount() {
+		synchronized (compilers) {
+			return compilers.size();
+		}
+	}
+
+	private void acceptConnections() {
+		while (!serverSocket.isClosed()) {
+			Socket socket = null;
+			try {
+				socket = serverSocket.accept();
+			} catch (SocketException e) {
+				// closed by stop()
+				break;
+			} catch (IOException e) {
+				e.printStackTrace(System.err);
+				continue;
+			}
+			Socket finalSocket = socket;
+			try {
+				requestExecutor.submit(() -> handleConnection(finalSocket));
+			} catch (Exception e) {
+				// stopped while accepting
+				closeQuietly(socket);
+			}
+		}
+	}
+
+	private void stopIfIdle() {
+		synchronized (this) {
+			if (activeRequestCount > 0 || System.currentTimeMillis() - lastActivityTime < idleTimeout) {
+				return;
+			}
+		}
+		stop();
+	}
+
+	private void handleConnection(Socket socket) {
+		synchronized (this) {
+			activeRequestCount++;
+			lastActivityTime = System.currentTimeMillis();
+		}
+		try (Socket requestSocket = socket) {
+			BufferedReader reader = new BufferedReader(
+					new InputStreamReader(requestSocket.getInputStream(), StandardCharsets.UTF_8));
+			Writer writer = new OutputStreamWriter(requestSocket.getOutputStream(), StandardCharsets.UTF_8);
+			Request request = readRequest(reader);
+			if (request == null) {
+				return;
+			}
+			handleRequest(request, writer);
+			writer.flush();
+		} catch (IOException e) {
+			// the client disconnected
+		} finally {
+			synchronized (this) {
+				activeRequestCount--;
+				lastActivityTime = System.currentTimeMillis();
+			}
+		}
+	}
+
+	private Request readRequest(BufferedReader reader) throws IOException {
+		if (!PROTOCOL_HEADER.equals(reader.readLine())) {
+			return null;
+		}
+		String tokenLine = reader.readLine();
+		if (tokenLine == null || !tokenLine.startsWith(REQUEST_TOKEN) || !MessageDigest.isEqual(
+				tokenLine.substring(REQUEST_TOKEN.length()).getBytes(StandardCharsets.UTF_8),
+				token.getBytes(StandardCharsets.UTF_8))) {
+			return null;
+		}
+		Request request = new Request();
+		String line = null;
+		while ((line = reader.readLine()) != null) {
+			if (line.equals(REQUEST_END)) {
+				if (request.projectType == null || request.sdkPath == null || request.workspaceRoot == null) {
+					return null;
+				}
+				return request;
+			} else if (line.startsWith(REQUEST_PROJECT_TYPE)) {
+				request.projectType = line.substring(REQUEST_PROJECT_TYPE.length());
+			} else if (line.startsWith(REQUEST_SDK)) {
+				request.sdkPath = line.substring(REQUEST_SDK.length());
+			} else if (line.startsWith(REQUEST_WORKSPACE)) {
+				request.workspaceRoot = line.substring(REQUEST_WORKSPACE.length());
+			} else if (line.startsWith(REQUEST_JVMARG)) {
+				request.jvmargs.add(line.substring(REQUEST_JVMARG.length()));
+			} else if (line.startsWith(REQUEST_OPTION)) {
+				request.compilerOptions.add(line.substring(REQUEST_OPTION.length()));
+			} else if (line.startsWith(REQUEST_TARGET_COUNT)) {
+				try {
+					request.targetCount = Integer.parseInt(line.substring(REQUEST_TARGET_COUNT.length()));
+				} catch (NumberFormatException e) {
+					return null;
+				}
+			}
+		}
+		// disconnected before the end of the request
+		return null;
+	}
+
+	private void handleRequest(Request request, Writer writer) throws IOException {
+		CompilerEntry entry = acquireCompiler(request);
+		if (entry == null) {
+			writer.write(RESPONSE_UNSUPPORTED + "No compiler shell found for SDK: " + request.sdkPath + "\n");
+			return;
+		}
+		try {
+			int status = 0;
+			ResponseOutputStream responseOutput = new ResponseOutputStream(writer);
+			PrintStream output = new PrintStream(responseOutput, false, StandardCharsets.UTF_8.name());
+			synchronized (entry) {
+				try {
+					entry.compiler.compile(output);
+				} catch (ASConfigCException e) {
+					status = e.getStatus();
+					if (status == 0) {
+						output.flush();
+						responseOutput.finish();
+						writer.write(RESPONSE_ERROR + String.valueOf(e.getMessage()).replace('\n', ' ') + "\n");
+						return;
+					}
+				}
+			}
+			output.flush();
+			responseOutput.finish();
+			writer.write(RESPONSE_STATUS + status + "\n");
+		} finally {
+			releaseCompiler(entry);
+		}
+	}
+
+	private CompilerEntry acquireCompiler(Request request) {
+		String key = request.getKey();
+		List<CompilerEntry> evicted = null;
+		CompilerEntry entry = null;
+		synchronized (compilers) {
+			entry = compilers.get(key);
+			if (entry == null) {
+				IResidentCompiler compiler = compilerFactory.create(request);
+				if (compiler == null) {
+					return null;
+				}
+				entry = new CompilerEntry(compiler, request.workspaceRoot);
+				compilers.put(key, entry);
+				// every target in the project should keep its shell, or
+				// compiling the targets one after another would quit the
+				// shell that is needed next
+				int maxCompilers = Math.max(DEFAULT_MAX_COMPILERS, request.targetCount);
+				evicted = evictCompilers(entry, maxCompilers);
+			}
+			entry.useCount++;
+		}
+		if (evicted != null) {
+			for (CompilerEntry oldEntry : evicted) {
+				synchronized (oldEntry) {
+					oldEntry.compiler.quit();
+				}
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * Removes shells that aren't compiling until there are no more than the
+	 * maximum. Shells for other workspaces are removed first, least recently
+	 * used first. Then, shells for the same workspace are removed most
+	 * recently used first, because a project's targets are compiled in the
+	 * same order every build, and the least recently used shell is the one
+	 * that will be needed soonest.
+	 */
+	private List<CompilerEntry> evictCompilers(CompilerEntry newEntry, int maxCompilers) {
+		List<CompilerEntry> evicted = new ArrayList<>();
+		if (compilers.size() <= maxCompilers) {
+			return evicted;
+		}
+		List<String> sameWorkspaceKeys = new ArrayList<>();
+		Iterator<Map.Entry<String, CompilerEntry>> iterator = compilers.entrySet().iterator();
+		while (compilers.size() > maxCompilers && iterator.hasNext()) {
+			Map.Entry<String, CompilerEntry> mapEntry = iterator.next();
+			CompilerEntry oldEntry = mapEntry.getValue();
+			if (oldEntry == newEntry || oldEntry.useCount > 0) {
+				continue;
+			}
+			if (newEntry.workspaceRoot.equals(oldEntry.workspaceRoot)) {
+				sameWorkspaceKeys.add(mapEntry.getKey());
+				continue;
+			}
+			iterator.remove();
+			evicted.add(oldEntry);
+		}
+		for (int i = sameWorkspaceKeys.size() - 1; i >= 0 && compilers.size() > maxCompilers; i--) {
+			evicted.add(compilers.remove(sameWorkspaceKeys.get(i)));
+		}
+		return evicted;
+	}
+
+	private void releaseCompiler(CompilerEntry entry) {
+		synchronized (compilers) {
+			entry.useCount--;
+		}
+	}
+
+	private void writeStateFile() throws IOException {
+		Files.createDirectories(stateDirectory);
+		Path tempPath = stateDirectory.resolve(FILE_NAME_STATE + "." + ProcessHandle.current().pid());
+		Files.deleteIfExists(tempPath);
+		if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			// the token must be readable by the current user only
+			Files.createFile(tempPath, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		}
+		Properties properties = new Properties();
+		properties.setProperty(PROPERTY_PORT, Integer.toString(serverSocket.getLocalPort()));
+		properties.setProperty(PROPERTY_TOKEN, token);
+		try (OutputStream outputStream = Files.newOutputStream(tempPath)) {
+			properties.store(outputStream, null);
+		}
+		Files.move(tempPath, stateDirectory.resolve(FILE_NAME_STATE), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private void deleteStateFile() {
+		Path statePath = stateDirectory.resolve(FILE_NAME_STATE);
+		Properties properties = new Properties();
+		try (InputStream inputStream = Files.newInputStream(statePath)) {
+			properties.load(inputStream);
+		} catch (IOException e) {
+			return;
+		}
+		if (!token.equals(properties.getProperty(PROPERTY_TOKEN))) {
+			// another daemon has replaced this one
+			return;
+		}
+		try {
+			Files.deleteIfExists(statePath);
+		} catch (IOException e) {
+		}
+	}
+
+	private static void closeQuietly(Socket socket) {
+		try {
+			socket.close();
+		} catch (IOException e) {
+		}
+	}
+
+	/**
+	 * Sends each line of compiler output to the client as a separate
+	 * response line.
+	 */
+	private static class ResponseOutputStream extends OutputStream {
+		public ResponseOutputStream(Writer writer) {
+			this.writer = writer;
+		}
+
+		private Writer writer;
+		private ByteArrayOutputStream currentLine = new ByteArrayOutputStream();
+
+		public void write(int b) throws IOException {
+			if (b == '\n') {
+				writeLine();
+				return;
+			}
+			currentLine.write(b);
+		}
+
+		public void flush() throws IOException {
+			writer.flush();
+		}
+
+		/**
+		 * Sends the final line, if it doesn't end with a new line.
+		 */
+		public void finish() throws IOException {
+			if (currentLine.size() > 0) {
+				writeLine();
+			}
+		}
+
+		private void writeLine() throws IOException {
+			String line = new String(currentLine.toByteArray(), StandardCharsets.UTF_8);
+			currentLine.reset();
+			if (line.endsWith("\r")) {
+				line = line.substring(0, line.length() - 1);
+			}
+			writer.write(RESPONSE_OUTPUT + line + "\n");
+		}
+	}
+}
@@ -0,0 +1,279 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.compiler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import com.as3mxml.asconfigc.ASConfigCException;
+
+/**
+ * Compiles with a compiler daemon that keeps the compiler loaded between
+ * builds. If the daemon isn't running, it is started. If the daemon can't be
+ * started, or the SDK doesn't have a compiler shell, compiles with another
+ * compiler instead.
+ */
+public class DaemonCompiler implements IASConfigCCompiler {
+	private static final String FILE_NAME_LOCK = "daemon.lock";
+	private static final String CLASS_COMPILER_DAEMON = "com.as3mxml.asconfigc.compiler.CompilerDaemon";
+	private static final int CONNECT_TIMEOUT_MS = 2000;
+	private static final long START_TIMEOUT_MS = 30000;
+	private static final long START_POLL_INTERVAL_MS = 100;
+
+	public static Path getDefaultStateDirectory() {
+		return Paths.get(System.getProperty("user.home"), ".as3mxml", "asconfigc-daemon");
+	}
+
+	public DaemonCompiler(boolean verbose, List<String> jvmargs) {
+		this(getDefaultStateDirectory(), verbose, jvmargs, new DefaultCompiler(verbose, jvmargs));
+	}
+
+	public DaemonCompiler(Path stateDirectory, boolean verbose, List<String> jvmargs,
+			IASConfigCCompiler fallbackCompiler) {
+		this.stateDirectory = stateDirectory;
+		this.verbose = verbose;
+		this.jvmargs = jvmargs;
+		this.fallbackCompiler = fallbackCompiler;
+	}
+
+	private Path stateDirectory;
+	private boolean verbose = false;
+	private List<String> jvmargs = null;
+	private IASConfigCCompiler fallbackCompiler;
+	private boolean useFallback = false;
+	private String token;
+	private int targetCount = 0;
+
+	/**
+	 * Sets the number of targets in the project, so that the daemon can keep
+	 * a compiler shell for each of them.
+	 */
+	public void setTargetCount(int value) {
+		targetCount = value;
+	}
+
+	public void compile(String projectType, List<String> compilerOptions, Path workspaceRoot, Path sdkPath)
+			throws ASConfigCException {
+		compile(projectType, compilerOptions, workspaceRoot, sdkPath, null);
+	}
+
+	public boolean supportsConcurrentCompile() {
+		// the daemon compiles each target in a separate shell, but targets
+		// that the daemon doesn't support are compiled by the fallback
+		return fallbackCompiler.supportsConcurrentCompile();
+	}
+
+	public void compile(String projectType, List<String> compilerOptions, Path workspaceRoot, Path sdkPath,
+			PrintStream output) throws ASConfigCException {
+		PrintStream out = output != null ? output : System.out;
+		for (String option : compilerOptions) {
+			if (option.indexOf('\n') != -1 || option.indexOf('\r') != -1) {
+				throw new ASConfigCException("Compiler option must not contain a new line: " + option);
+			}
+		}
+		Socket socket = null;
+		String requestToken = null;
+		synchronized (this) {
+			if (!useFallback) {
+				socket = connectOrStartDaemon(out);
+				requestToken = token;
+				if (socket == null) {
+					out.println("Compiler daemon is not available. Compiling without it...");
+					useFallback = true;
+				}
+			}
+		}
+		if (socket == null) {
+			compileWithFallback(projectType, compilerOptions, workspaceRoot, sdkPath, output);
+			return;
+		}
+		if (verbose) {
+			if (ProjectType.LIB.equals(projectType)) {
+				out.println("Compiling library with compiler daemon...");
+			} else // app
+			{
+				out.println("Compiling application with compiler daemon...");
+			}
+			out.println(String.join(" ", compilerOptions));
+		}
+		String unsupportedMessage = null;
+		try (Socket requestSocket = socket) {
+			Writer writer = new OutputStreamWriter(requestSocket.getOutputStream(), StandardCharsets.UTF_8);
+			writer.write(CompilerDaemon.PROTOCOL_HEADER + "\n");
+			writer.write(CompilerDaemon.REQUEST_TOKEN + requestToken + "\n");
+			writer.write(CompilerDaemon.REQUEST_PROJECT_TYPE + projectType + "\n");
+			writer.write(CompilerDaemon.REQUEST_SDK + sdkPath.toAbsolutePath().toString() + "\n");
+			writer.write(CompilerDaemon.REQUEST_WORKSPACE + workspaceRoot.toAbsolutePath().toString() + "\n");
+			if (jvmargs != null) {
+				for (String jvmarg : jvmargs) {
+					writer.write(CompilerDaemon.REQUEST_JVMARG + jvmarg + "\n");
+				}
+			}
+			for (String option : compilerOptions) {
+				writer.write(CompilerDaemon.REQUEST_OPTION + option + "\n");
+			}
+			if (targetCount > 0) {
+				writer.write(CompilerDaemon.REQUEST_TARGET_COUNT + targetCount + "\n");
+			}
+			writer.write(CompilerDaemon.REQUEST_END + "\n");
+			writer.flush();
+
+			BufferedReader reader = new BufferedReader(
+					new InputStreamReader(requestSocket.getInputStream(), StandardCharsets.UTF_8));
+			String line = null;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith(CompilerDaemon.RESPONSE_OUTPUT)) {
+					out.println(line.substring(CompilerDaemon.RESPONSE_OUTPUT.length()));
+				} else if (line.startsWith(CompilerDaemon.RESPONSE_STATUS)) {
+					out.flush();
+					int status = Integer.parseInt(line.substring(CompilerDaemon.RESPONSE_STATUS.length()));
+					if (status != 0) {
+						throw new ASConfigCException(status);
+					}
+					return;
+				} else if (line.startsWith(CompilerDaemon.RESPONSE_ERROR)) {
+					out.flush();
+					throw new ASConfigCException(line.substring(CompilerDaemon.RESPONSE_ERROR.length()));
+				} else if (line.startsWith(CompilerDaemon.RESPONSE_UNSUPPORTED)) {
+					unsupportedMessage = line.substring(CompilerDaemon.RESPONSE_UNSUPPORTED.length());
+					break;
+				}
+			}
+			if (unsupportedMessage == null) {
+				throw new ASConfigCException("Compiler daemon disconnected before compiling completed.");
+			}
+		} catch (NumberFormatException e) {
+			throw new ASConfigCException("Invalid response from compiler daemon: " + e.getMessage());
+		} catch (IOException e) {
+			throw new ASConfigCException("Failed to communicate with compiler daemon: " + e.getMessage());
+		}
+		if (verbose) {
+			out.println(unsupportedMessage);
+		}
+		compileWithFallback(projectType, compilerOptions, workspaceRoot, sdkPath, output);
+	}
+
+	private void compileWithFallback(String projectType, List<String> compilerOptions, Path workspaceRoot,
+			Path sdkPath, PrintStream output) throws ASConfigCException {
+		if (output != null) {
+			fallbackCompiler.compile(projectType, compilerOptions, workspaceRoot, sdkPath, output);
+		} else {
+			fallbackCompiler.compile(projectType, compilerOptions, workspaceRoot, sdkPath);
+		}
+	}
+
+	private Socket connectOrStartDaemon(PrintStream out) {
+		Socket socket = connect();
+		if (socket != null) {
+			return socket;
+		}
+		try {
+			Files.createDirectories(stateDirectory);
+			// only one asconfigc process should start a daemon
+			try (FileChannel lockChannel = FileChannel.open(stateDirectory.resolve(FILE_NAME_LOCK),
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				lockChannel.lock();
+				socket = connect();
+				if (socket != null) {
+					return socket;
+				}
+				if (verbose) {
+					out.println("Starting compiler daemon...");
+				}
+				startDaemon();
+				long startTime = System.currentTimeMillis();
+				while (System.currentTimeMillis() - startTime < START_TIMEOUT_MS) {
+					Thread.sleep(START_POLL_INTERVAL_MS);
+					socket = connect();
+					if (socket != null) {
+						return socket;
+					}
+				}
+			}
+		} catch (IOException e) {
+			if (verbose) {
+				out.println("Failed to start compiler daemon: " + e.getMessage());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return null;
+	}
+
+	private Socket connect() {
+		Properties properties = new Properties();
+		try (InputStream inputStream = Files.newInputStream(stateDirectory.resolve(CompilerDaemon.FILE_NAME_STATE))) {
+			properties.load(inputStream);
+		} catch (IOException e) {
+			return null;
+		}
+		String portString = properties.getProperty(CompilerDaemon.PROPERTY_PORT);
+		String stateToken = properties.getProperty(CompilerDaemon.PROPERTY_TOKEN);
+		if (portString == null || stateToken == null) {
+			return null;
+		}
+		Socket socket = new Socket();
+		try {
+			int port = Integer.parseInt(portString);
+			socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MS);
+		} catch (NumberFormatException | IOException e) {
+			try {
+				socket.close();
+			} catch (IOException e2) {
+			}
+			return null;
+		}
+		token = stateToken;
+		return socket;
+	}
+
+	private void startDaemon() throws IOException {
+		Path javaExecutablePath = Paths.get(System.getProperty("java.home"), "bin", "java");
+		List<String> command = new ArrayList<>();
+		command.add(javaExecutablePath.toString());
+		boolean isMacOS = System.getProperty("os.name").toLowerCase().startsWith("mac os");
+		if (isMacOS) {
+			command.add("-Dapple.awt.UIElement=true");
+		}
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(CLASS_COMPILER_DAEMON);
+		command.add(stateDirectory.toAbsolutePath().toString());
+		Path logPath = stateDirectory.resolve(CompilerDaemon.FILE_NAME_LOG);
+		// the daemon must not hold on to asconfigc's console, or anything
+		// waiting for asconfigc to exit would wait for the daemon too
+		Process process = new ProcessBuilder().command(command).directory(stateDirectory.toFile())
+				.redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.appendTo(logPath.toFile())).start();
+		process.getOutputStream().close();
+	}
+}
@@ -17,6 +17,8 @@ package com.as3mxml.asconfigc.compiler;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
@@ -40,12 +42,23 @@ public class DefaultCompiler implements IASConfigCCompiler {
 
 	public void compile(String projectType, List<String> compilerOptions, Path workspaceRoot, Path sdkPath)
 			throws ASConfigCException {
+		compile(projectType, compilerOptions, workspaceRoot, sdkPath, null);
+	}
+
+	public boolean supportsConcurrentCompile() {
+		// each target is compiled in a separate process
+		return true;
+	}
+
+	public void compile(String projectType, List<String> compilerOptions, Path workspaceRoot, Path sdkPath,
+			PrintStream output) throws ASConfigCException {
+		PrintStream out = output != null ? output : System.out;
 		if (verbose) {
 			if (ProjectType.LIB.equals(projectType)) {
-				System.out.println("Compiling library...");
+				out.println("Compiling library...");
 			} else // app
 			{
-				System.out.println("Compiling application...");
+				out.println("Compiling application...");
 			}
 		}
 		boolean sdkIsRoyale = ApacheRoyaleUtils.isValidSDK(sdkPath) != null;
@@ -84,11 +97,24 @@ public class DefaultCompiler implements IASConfigCCompiler {
 		compilerOptions.add(0, javaExecutablePath.toString());
 
 		if (verbose) {
-			System.out.println(String.join(" ", compilerOptions));
+			out.println(String.join(" ", compilerOptions));
 		}
 		try {
 			File cwd = new File(System.getProperty("user.dir"));
-			Process process = new ProcessBuilder().command(compilerOptions).directory(cwd).inheritIO().start();
+			ProcessBuilder processBuilder = new ProcessBuilder().command(compilerOptions).directory(cwd);
+			if (output == null) {
+				processBuilder.inheritIO();
+			} else {
+				processBuilder.redirectErrorStream(true);
+			}
+			Process process = processBuilder.start();
+			if (output != null) {
+				process.getOutputStream().close();
+				try (InputStream processOutput = process.getInputStream()) {
+					processOutput.transferTo(output);
+				}
+				output.flush();
+			}
 			int status = process.waitFor();
 			if (status != 0) {
 				throw new ASConfigCException(status);
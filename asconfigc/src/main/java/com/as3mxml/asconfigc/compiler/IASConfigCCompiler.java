@@ -15,6 +15,7 @@ limitations under the License.
 */
 package com.as3mxml.asconfigc.compiler;
 
+import java.io.PrintStream;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -26,4 +27,22 @@ import com.as3mxml.asconfigc.ASConfigCException;
 public interface IASConfigCCompiler {
 	public void compile(String projectType, List<String> compilerOptions, Path workspaceRoot, Path sdkPath)
 			throws ASConfigCException;
+
+	/**
+	 * Compiles, but writes the compiler's output to a stream instead of the
+	 * console. Called only if <code>supportsConcurrentCompile()</code>
+	 * returns <code>true</code>.
+	 */
+	public default void compile(String projectType, List<String> compilerOptions, Path workspaceRoot, Path sdkPath,
+			PrintStream output) throws ASConfigCException {
+		compile(projectType, compilerOptions, workspaceRoot, sdkPath);
+	}
+
+	/**
+	 * Indicates if multiple targets may be compiled at the same time, from
+	 * different threads.
+	 */
+	public default boolean supportsConcurrentCompile() {
+		return false;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,297 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.as3mxml.asconfigc.ASConfigCException;
+import com.as3mxml.asconfigc.utils.ApacheRoyaleUtils;
+import com.as3mxml.asconfigc.utils.GenericSDKUtils;
+
+/**
+ * A compiler shell process (rcsh, ascsh, or fcsh) that compiles a single
+ * target. The first compile is a full compile. Later compiles reuse the
+ * shell's compile target, so that only the files that changed need to be
+ * compiled again.
+ */
+public class ResidentCompilerShell implements CompilerDaemon.IResidentCompiler {
+	private static final String FILE_NAME_RCSH = "rcsh.jar";
+	private static final String FILE_NAME_ASCSH = "ascsh.jar";
+	private static final String CLASS_RCSH = "com.as3mxml.vscode.rcsh.RCSH";
+	private static final String CLASS_ASCSH = "ascsh";
+	private static final String EXECUTABLE_MXMLC = "mxmlc";
+	private static final String EXECUTABLE_COMPC = "compc";
+	private static final String COMMAND_COMPILE = "compile";
+	private static final String COMMAND_CLEAR = "clear";
+	private static final String COMMAND_QUIT = "quit";
+	private static final String COMPILER_SHELL_PROMPT = "(fcsh) ";
+	private static final String ASSIGNED_ID_PREFIX = "fcsh: Assigned ";
+	private static final String ASSIGNED_ID_SUFFIX = " as the compile target id";
+	private static final String COMPILE_STATUS_PREFIX = "Compile status: ";
+	private static final String OUTPUT_PROBLEM_TYPE_ERROR = "Error: ";
+	private static final String OUTPUT_PROBLEM_TYPE_SYNTAX_ERROR = "Syntax error: ";
+	private static final String OUTPUT_PROBLEM_TYPE_INTERNAL_ERROR = "Internal error: ";
+
+	/**
+	 * Creates a shell for the request, or returns <code>null</code> if the
+	 * request's SDK doesn't have a compiler shell.
+	 */
+	public static ResidentCompilerShell create(CompilerDaemon.Request request, Path binPath) {
+		Path sdkPath = Paths.get(request.sdkPath);
+		boolean isRoyale = ApacheRoyaleUtils.isValidSDK(sdkPath) != null;
+		boolean isAIR = !isRoyale && GenericSDKUtils.isAIRSDK(sdkPath);
+		Path shellPath = null;
+		if (isRoyale) {
+			shellPath = binPath.resolve(FILE_NAME_RCSH);
+		} else if (isAIR) {
+			shellPath = binPath.resolve(FILE_NAME_ASCSH);
+		} else {
+			shellPath = sdkPath.resolve("lib/fcsh.jar");
+		}
+		if (!Files.isRegularFile(shellPath)) {
+			return null;
+		}
+		return new ResidentCompilerShell(request, shellPath, isRoyale, isAIR);
+	}
+
+	private ResidentCompilerShell(CompilerDaemon.Request request, Path shellPath, boolean isRoyale, boolean isAIR) {
+		this.request = request;
+		this.shellPath = shellPath;
+		this.isRoyale = isRoyale;
+		this.isAIR = isAIR;
+	}
+
+	private CompilerDaemon.Request request;
+	private Path shellPath;
+	private boolean isRoyale;
+	private boolean isAIR;
+	private Process process;
+	private Reader processOutput;
+	private String compileID;
+
+	public void compile(PrintStream output) throws ASConfigCException {
+		if (process != null && !process.isAlive()) {
+			process = null;
+			compileID = null;
+		}
+		if (process == null) {
+			startProcess(output);
+		}
+		boolean isFCSH = !isRoyale && !isAIR;
+		if (compileID != null && isFCSH) {
+			// fcsh has a bug when run in Java 8 or newer that causes exceptions
+			// to be thrown after multiple builds, so clear the target and do a
+			// full compile in the process that's already loaded
+			executeCommandAndWaitForPrompt(COMMAND_CLEAR + " " + compileID, output);
+			compileID = null;
+		}
+		boolean success = false;
+		if (compileID == null) {
+			success = executeCommandAndWaitForPrompt(getNewCommand(), output);
+		} else {
+			success = executeCommandAndWaitForPrompt(COMMAND_COMPILE + " " + compileID, output);
+		}
+		if (!success) {
+			throw new ASConfigCException(1);
+		}
+	}
+
+	public void quit() {
+		if (process == null) {
+			return;
+		}
+		Process oldProcess = process;
+		process = null;
+		compileID = null;
+		try {
+			OutputStream processInput = oldProcess.getOutputStream();
+			processInput.write((COMMAND_QUIT + "\n").getBytes(StandardCharsets.UTF_8));
+			processInput.flush();
+			if (!oldProcess.waitFor(10, TimeUnit.SECONDS)) {
+				oldProcess.destroy();
+			}
+		} catch (IOException e) {
+			oldProcess.destroy();
+		} catch (InterruptedException e) {
+			oldProcess.destroy();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void startProcess(PrintStream output) throws ASConfigCException {
+		Path sdkPath = Paths.get(request.sdkPath);
+		String classPath = null;
+		if (isRoyale || isAIR) {
+			StringBuilder builder = new StringBuilder();
+			if (isRoyale) {
+				builder.append(sdkPath.resolve("lib/").toString());
+				builder.append(File.separator);
+				builder.append("*");
+				builder.append(File.pathSeparator);
+				builder.append(sdkPath.resolve("js/lib/").toString());
+				builder.append(File.separator);
+				builder.append("*");
+				builder.append(File.pathSeparator);
+			} else if (isAIR) {
+				// we can't use * here because it might load a newer version of
+				// Guava which will result in strange errors
+				builder.append(sdkPath.resolve("lib/compiler.jar").toString());
+				builder.append(File.pathSeparator);
+			}
+			builder.append(shellPath.toAbsolutePath().toString());
+			classPath = builder.toString();
+		}
+
+		Path javaExecutablePath = Paths.get(System.getProperty("java.home"), "bin", "java");
+		List<String> options = new ArrayList<>();
+		options.add(javaExecutablePath.toString());
+		options.addAll(request.jvmargs);
+		boolean isMacOS = System.getProperty("os.name").toLowerCase().startsWith("mac os");
+		if (isMacOS) {
+			options.add("-Dapple.awt.UIElement=true");
+		}
+		if (isRoyale) {
+			// Royale requires this so that it doesn't changing the encoding of
+			// UTF-8 characters and display ???? instead
+			options.add("-Dfile.encoding=UTF8");
+		}
+		options.add("-Dsun.io.useCanonCaches=false");
+		options.add("-Duser.language=en");
+		options.add("-Duser.region=en");
+		options.add("-Dapplication.home=" + sdkPath);
+		options.add("-Dtrace.error=true");
+		if (classPath != null) {
+			options.add("-cp");
+			options.add(classPath);
+			options.add(isRoyale ? CLASS_RCSH : CLASS_ASCSH);
+		} else // fcsh
+		{
+			options.add("-jar");
+			options.add(shellPath.toAbsolutePath().toString());
+		}
+		try {
+			process = new ProcessBuilder().command(options).directory(new File(request.workspaceRoot))
+					.redirectErrorStream(true).start();
+		} catch (IOException e) {
+			process = null;
+			throw new ASConfigCException("Failed to start compiler shell: " + e.getMessage());
+		}
+		processOutput = new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8);
+		waitForPrompt(output);
+	}
+
+	private boolean executeCommandAndWaitForPrompt(String command, PrintStream output) throws ASConfigCException {
+		try {
+			OutputStream processInput = process.getOutputStream();
+			processInput.write((command + "\n").getBytes(StandardCharsets.UTF_8));
+			processInput.flush();
+		} catch (IOException e) {
+			quit();
+			throw new ASConfigCException("Failed to write to compiler shell: " + e.getMessage());
+		}
+		return waitForPrompt(output);
+	}
+
+	private boolean waitForPrompt(PrintStream output) throws ASConfigCException {
+		boolean success = true;
+		StringBuilder currentLine = new StringBuilder();
+		try {
+			while (true) {
+				int next = processOutput.read();
+				if (next == -1) {
+					if (currentLine.length() > 0) {
+						output.println(currentLine);
+					}
+					quit();
+					throw new ASConfigCException("Compiler shell exited unexpectedly.");
+				}
+				if (next == '\n') {
+					String line = currentLine.toString();
+					currentLine.setLength(0);
+					if (line.endsWith("\r")) {
+						line = line.substring(0, line.length() - 1);
+					}
+					if (line.startsWith(ASSIGNED_ID_PREFIX) && line.endsWith(ASSIGNED_ID_SUFFIX)) {
+						// fcsh: Assigned 1 as the compile target id
+						compileID = line.substring(ASSIGNED_ID_PREFIX.length(),
+								line.length() - ASSIGNED_ID_SUFFIX.length());
+						continue;
+					}
+					if (line.startsWith(COMPILE_STATUS_PREFIX)) {
+						if (!line.equals(COMPILE_STATUS_PREFIX + "0")) {
+							success = false;
+						}
+						continue;
+					}
+					if (textContainsError(line)) {
+						success = false;
+					}
+					output.println(line);
+					continue;
+				}
+				currentLine.append((char) next);
+				if (currentLine.length() >= COMPILER_SHELL_PROMPT.length()
+						&& currentLine.lastIndexOf(COMPILER_SHELL_PROMPT) == currentLine.length()
+								- COMPILER_SHELL_PROMPT.length()) {
+					currentLine.setLength(currentLine.length() - COMPILER_SHELL_PROMPT.length());
+					if (currentLine.length() > 0) {
+						if (textContainsError(currentLine.toString())) {
+							success = false;
+						}
+						output.println(currentLine);
+					}
+					break;
+				}
+			}
+		} catch (IOException e) {
+			quit();
+			throw new ASConfigCException("Failed to read from compiler shell: " + e.getMessage());
+		}
+		output.flush();
+		return success;
+	}
+
+	private boolean textContainsError(String text) {
+		return text.contains(OUTPUT_PROBLEM_TYPE_ERROR) || text.contains(OUTPUT_PROBLEM_TYPE_SYNTAX_ERROR)
+				|| text.contains(OUTPUT_PROBLEM_TYPE_INTERNAL_ERROR);
+	}
+
+	private String getNewCommand() {
+		StringBuilder command = new StringBuilder();
+		if (ProjectType.LIB.equals(request.projectType)) {
+			command.append(EXECUTABLE_COMPC);
+		} else {
+			command.append(EXECUTABLE_MXMLC);
+		}
+		for (String option : request.compilerOptions) {
+			command.append(" ");
+			command.append(option);
+		}
+		return command.toString();
+	}
+}
@@ -0,0 +1,306 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Unpacks an Adobe AIR native extension (.ane) into a directory, for the
+ * Adobe AIR simulator. Entries are extracted in parallel, and entries that
+ * already exist on disk with the same size and CRC are not extracted again.
+ * Files in the directory that are no longer entries in the native extension
+ * are deleted.
+ *
+ * After unpacking, the size and modification time of the native extension
+ * are saved in a marker file next to the directory. If they haven't changed
+ * the next time, the entries aren't checked at all.
+ */
+public class ANEUnpacker {
+	public static final int DEFAULT_PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	private static final int BUFFER_SIZE = 256 * 1024;
+	private static final String MARKER_FILE_EXTENSION = ".unpacked";
+	private static final String MARKER_SEPARATOR = "\t";
+
+	public static class Result {
+		public int extractedCount;
+		public int unchangedCount;
+		public int deletedCount;
+		public long extractedBytes;
+		public long elapsedNanos;
+		public boolean skipped;
+	}
+
+	private int parallelism;
+	private boolean verbose;
+	private ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+	public ANEUnpacker(int parallelism, boolean verbose) {
+		this.parallelism = parallelism > 0 ? parallelism : DEFAULT_PARALLELISM;
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Extracts the new and changed entries of a native extension into the
+	 * output directory, and deletes files that aren't entries.
+	 */
+	public Result unpack(Path aneFile, Path outputDirectory) throws IOException {
+		long startTime = System.nanoTime();
+		Path normalizedOutputDirectory = outputDirectory.toAbsolutePath().normalize();
+		Result result = new Result();
+		BasicFileAttributes aneAttributes = Files.readAttributes(aneFile, BasicFileAttributes.class);
+		String marker = aneAttributes.size() + MARKER_SEPARATOR + aneAttributes.lastModifiedTime().toMillis();
+		Path markerPath = getMarkerPath(normalizedOutputDirectory);
+		if (Files.isDirectory(normalizedOutputDirectory)) {
+			int entryCount = readMarker(markerPath, marker);
+			if (entryCount != -1) {
+				result.skipped = true;
+				result.unchangedCount = entryCount;
+				result.elapsedNanos = System.nanoTime() - startTime;
+				return result;
+			}
+		}
+		// if unpacking fails part of the way, every entry must be checked
+		// again next time
+		Files.deleteIfExists(markerPath);
+		Files.createDirectories(normalizedOutputDirectory);
+		AtomicInteger extractedCount = new AtomicInteger();
+		AtomicInteger unchangedCount = new AtomicInteger();
+		AtomicLong extractedBytes = new AtomicLong();
+		Set<Path> entryPaths = new HashSet<>();
+
+		try (ZipFile zipFile = new ZipFile(aneFile.toFile())) {
+			List<ZipEntry> fileEntries = new ArrayList<>();
+			Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+			while (zipEntries.hasMoreElements()) {
+				ZipEntry zipEntry = zipEntries.nextElement();
+				Path destPath = normalizedOutputDirectory.resolve(zipEntry.getName()).normalize();
+				if (!destPath.startsWith(normalizedOutputDirectory) || destPath.equals(normalizedOutputDirectory)) {
+					throw new IOException("Native extension entry " + zipEntry.getName()
+							+ " is not inside output directory " + normalizedOutputDirectory);
+				}
+				if (!entryPaths.add(destPath)) {
+					// extract duplicate entries only once
+					continue;
+				}
+				if (!zipEntry.isDirectory()) {
+					fileEntries.add(zipEntry);
+				}
+			}
+			// entries may be extracted in any order, so files and directories
+			// that changed type must be deleted before extracting any of them
+			for (ZipEntry zipEntry : fileEntries) {
+				Path destPath = normalizedOutputDirectory.resolve(zipEntry.getName()).normalize();
+				deleteChangedType(normalizedOutputDirectory, destPath);
+			}
+
+			ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+			try {
+				List<Future<?>> futures = new ArrayList<>();
+				for (ZipEntry zipEntry : fileEntries) {
+					futures.add(executor.submit(() -> {
+						Path destPath = normalizedOutputDirectory.resolve(zipEntry.getName()).normalize();
+						if (isEntryUnchanged(zipEntry, destPath)) {
+							unchangedCount.incrementAndGet();
+							return null;
+						}
+						extractedBytes.addAndGet(extractEntry(zipFile, zipEntry, destPath));
+						extractedCount.incrementAndGet();
+						return null;
+					}));
+				}
+				for (Future<?> future : futures) {
+					try {
+						future.get();
+					} catch (ExecutionException e) {
+						Throwable cause = e.getCause();
+						if (cause instanceof IOException) {
+							throw (IOException) cause;
+						}
+						throw new IOException(cause);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IOException("Interrupted while unpacking native extension " + aneFile);
+					}
+				}
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		result.deletedCount = deleteStaleFiles(normalizedOutputDirectory, entryPaths);
+		result.extractedCount = extractedCount.get();
+		result.unchangedCount = unchangedCount.get();
+		result.extractedBytes = extractedBytes.get();
+		writeMarker(markerPath, marker, result.extractedCount + result.unchangedCount);
+		result.elapsedNanos = System.nanoTime() - startTime;
+		return result;
+	}
+
+	private static Path getMarkerPath(Path outputDirectory) {
+		return outputDirectory.resolveSibling(outputDirectory.getFileName() + MARKER_FILE_EXTENSION);
+	}
+
+	/**
+	 * Returns the number of entries that were unpacked, if the marker file
+	 * matches the native extension. Otherwise, returns -1.
+	 */
+	private static int readMarker(Path markerPath, String marker) {
+		List<String> lines = null;
+		try {
+			lines = Files.readAllLines(markerPath, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			// not unpacked yet
+			return -1;
+		}
+		if (lines.size() != 2 || !marker.equals(lines.get(0))) {
+			return -1;
+		}
+		try {
+			return Integer.parseInt(lines.get(1));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static void writeMarker(Path markerPath, String marker, int entryCount) throws IOException {
+		List<String> lines = new ArrayList<>();
+		lines.add(marker);
+		lines.add(Integer.toString(entryCount));
+		Files.write(markerPath, lines, StandardCharsets.UTF_8);
+	}
+
+	private boolean isEntryUnchanged(ZipEntry zipEntry, Path destPath) throws IOException {
+		long entrySize = zipEntry.getSize();
+		long entryCrc = zipEntry.getCrc();
+		if (entrySize == -1L || entryCrc == -1L) {
+			return false;
+		}
+		BasicFileAttributes attributes = null;
+		try {
+			attributes = Files.readAttributes(destPath, BasicFileAttributes.class);
+		} catch (IOException e) {
+			// not extracted yet
+			return false;
+		}
+		if (!attributes.isRegularFile() || attributes.size() != entrySize) {
+			return false;
+		}
+		CRC32 crc = new CRC32();
+		byte[] buffer = buffers.get();
+		try (InputStream inputStream = Files.newInputStream(destPath)) {
+			int length = 0;
+			while ((length = inputStream.read(buffer)) != -1) {
+				crc.update(buffer, 0, length);
+			}
+		}
+		return crc.getValue() == entryCrc;
+	}
+
+	private long extractEntry(ZipFile zipFile, ZipEntry zipEntry, Path destPath) throws IOException {
+		if (verbose) {
+			System.out.println("Extracting: " + zipEntry.getName());
+		}
+		Files.createDirectories(destPath.getParent());
+		long size = 0L;
+		byte[] buffer = buffers.get();
+		try (InputStream inputStream = zipFile.getInputStream(zipEntry);
+				OutputStream outputStream = Files.newOutputStream(destPath)) {
+			int length = 0;
+			while ((length = inputStream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, length);
+				size += length;
+			}
+		}
+		return size;
+	}
+
+	private void deleteChangedType(Path outputDirectory, Path destPath) throws IOException {
+		Path parentPath = destPath.getParent();
+		while (parentPath != null && parentPath.startsWith(outputDirectory) && !parentPath.equals(outputDirectory)) {
+			if (Files.isRegularFile(parentPath)) {
+				// an entry that used to be a file is now a directory
+				Files.delete(parentPath);
+			}
+			parentPath = parentPath.getParent();
+		}
+		if (Files.isDirectory(destPath)) {
+			// an entry that used to be a directory is now a file
+			deleteRecursively(destPath);
+		}
+	}
+
+	private int deleteStaleFiles(Path outputDirectory, Set<Path> entryPaths) throws IOException {
+		List<Path> stalePaths = null;
+		try (Stream<Path> stream = Files.walk(outputDirectory)) {
+			stalePaths = stream.filter(path -> !path.equals(outputDirectory) && !entryPaths.contains(path))
+					.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+		}
+		int deletedCount = 0;
+		for (Path stalePath : stalePaths) {
+			if (Files.isDirectory(stalePath)) {
+				// directories that contain entries aren't listed in every
+				// native extension, so delete only the empty ones
+				try (Stream<Path> children = Files.list(stalePath)) {
+					if (children.findAny().isPresent()) {
+						continue;
+					}
+				}
+				Files.delete(stalePath);
+				continue;
+			}
+			if (verbose) {
+				System.out.println("Deleting removed entry: " + stalePath);
+			}
+			Files.delete(stalePath);
+			deletedCount++;
+		}
+		return deletedCount;
+	}
+
+	private static void deleteRecursively(Path path) throws IOException {
+		List<Path> paths = null;
+		try (Stream<Path> stream = Files.walk(path)) {
+			paths = stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+		}
+		for (Path childPath : paths) {
+			Files.delete(childPath);
+		}
+	}
+}
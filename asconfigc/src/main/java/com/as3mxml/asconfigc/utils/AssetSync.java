@@ -0,0 +1,330 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Copies assets into an output directory, but only the ones that are new or
+ * have changed since the previous sync. Assets copied by the previous sync
+ * that are no longer included are deleted. Other files in the output
+ * directory are never modified.
+ *
+ * A manifest in the output directory records the size and modification time
+ * of each copied asset (and, optionally, a hash of its contents), along with
+ * the modification time of the copy. An asset is copied again if the source
+ * or the copy has changed. When hashes are enabled, a source file with a new
+ * modification time, but the same contents, is not copied again.
+ *
+ * Directories that are empty after deleting the copies of removed assets are
+ * deleted too.
+ */
+public class AssetSync {
+	public static final String FILE_NAME_MANIFEST = ".as3mxml-asset-manifest";
+	public static final int DEFAULT_PARALLELISM = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	private static final String MANIFEST_HEADER = "as3mxml-asset-manifest 2";
+	private static final String MANIFEST_SEPARATOR = "\t";
+	private static final String NO_HASH = "";
+
+	public static class Result {
+		public int copiedCount;
+		public int unchangedCount;
+		public int deletedCount;
+		public long copiedBytes;
+	}
+
+	private static class ManifestEntry {
+		public String srcPath;
+		public long srcSize;
+		public long srcLastModified;
+		public String srcHash = NO_HASH;
+		public long destLastModified;
+		// not saved in the manifest
+		public boolean copied;
+	}
+
+	private Path outputDirectory;
+	private boolean useContentHash;
+	private int parallelism;
+	private boolean verbose;
+	private Map<String, Path> srcPathsByDestKey = new LinkedHashMap<>();
+
+	public AssetSync(Path outputDirectory, boolean useContentHash, int parallelism, boolean verbose) {
+		this.outputDirectory = outputDirectory.toAbsolutePath().normalize();
+		this.useContentHash = useContentHash;
+		this.parallelism = parallelism > 0 ? parallelism : DEFAULT_PARALLELISM;
+		this.verbose = verbose;
+	}
+
+	/**
+	 * Includes an asset in the sync. The destination must be inside the
+	 * output directory.
+	 */
+	public void addFile(Path srcPath, Path destPath) throws IOException {
+		Path normalizedDestPath = destPath.toAbsolutePath().normalize();
+		if (!normalizedDestPath.startsWith(outputDirectory) || normalizedDestPath.equals(outputDirectory)) {
+			throw new IOException("Asset destination " + destPath + " is not inside output directory "
+					+ outputDirectory);
+		}
+		srcPathsByDestKey.put(getDestKey(normalizedDestPath), srcPath.toAbsolutePath().normalize());
+	}
+
+	/**
+	 * Copies new and changed assets, deletes the copies of assets that were
+	 * removed, and saves the manifest.
+	 */
+	public Result sync() throws IOException {
+		Path manifestPath = outputDirectory.resolve(FILE_NAME_MANIFEST);
+		Map<String, ManifestEntry> oldManifest = readManifest(manifestPath);
+		Map<String, ManifestEntry> newManifest = new HashMap<>();
+		Result result = new Result();
+		AtomicInteger copiedCount = new AtomicInteger();
+		AtomicInteger unchangedCount = new AtomicInteger();
+		AtomicLong copiedBytes = new AtomicLong();
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			List<Future<ManifestEntry>> futures = new ArrayList<>();
+			List<String> destKeys = new ArrayList<>(srcPathsByDestKey.keySet());
+			for (String destKey : destKeys) {
+				Path srcPath = srcPathsByDestKey.get(destKey);
+				ManifestEntry oldEntry = oldManifest.get(destKey);
+				futures.add(executor.submit(() -> {
+					Path destPath = outputDirectory.resolve(destKey);
+					ManifestEntry newEntry = syncFile(srcPath, destPath, oldEntry);
+					if (newEntry.copied) {
+						copiedCount.incrementAndGet();
+						copiedBytes.addAndGet(newEntry.srcSize);
+					} else {
+						unchangedCount.incrementAndGet();
+					}
+					return newEntry;
+				}));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					newManifest.put(destKeys.get(i), futures.get(i).get());
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof IOException) {
+						throw (IOException) cause;
+					}
+					throw new IOException(cause);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while copying assets to " + outputDirectory);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		for (String destKey : oldManifest.keySet()) {
+			if (newManifest.containsKey(destKey)) {
+				continue;
+			}
+			Path destPath = outputDirectory.resolve(destKey).normalize();
+			if (!destPath.startsWith(outputDirectory)) {
+				// don't trust a manifest that was modified by hand
+				continue;
+			}
+			if (verbose) {
+				System.out.println("Deleting removed asset: " + destPath);
+			}
+			if (Files.deleteIfExists(destPath)) {
+				result.deletedCount++;
+			}
+			deleteEmptyParentDirectories(destPath);
+		}
+
+		writeManifest(manifestPath, newManifest);
+		result.copiedCount = copiedCount.get();
+		result.unchangedCount = unchangedCount.get();
+		result.copiedBytes = copiedBytes.get();
+		return result;
+	}
+
+	private ManifestEntry syncFile(Path srcPath, Path destPath, ManifestEntry oldEntry) throws IOException {
+		BasicFileAttributes srcAttributes = Files.readAttributes(srcPath, BasicFileAttributes.class);
+		long srcSize = srcAttributes.size();
+		long srcLastModified = srcAttributes.lastModifiedTime().toMillis();
+		if (oldEntry != null && oldEntry.srcPath.equals(srcPath.toString()) && oldEntry.srcSize == srcSize
+				&& isCopyUnchanged(destPath, oldEntry)) {
+			if (oldEntry.srcLastModified == srcLastModified) {
+				return oldEntry;
+			}
+			if (useContentHash && !NO_HASH.equals(oldEntry.srcHash)) {
+				String srcHash = BuildFingerprints.hashFile(srcPath);
+				if (srcHash.equals(oldEntry.srcHash)) {
+					// only the modification time changed, so the copy is
+					// still up-to-date
+					ManifestEntry newEntry = new ManifestEntry();
+					newEntry.srcPath = oldEntry.srcPath;
+					newEntry.srcSize = srcSize;
+					newEntry.srcLastModified = srcLastModified;
+					newEntry.srcHash = srcHash;
+					newEntry.destLastModified = oldEntry.destLastModified;
+					return newEntry;
+				}
+			}
+		}
+		copyFile(srcPath, destPath);
+		ManifestEntry newEntry = new ManifestEntry();
+		newEntry.srcPath = srcPath.toString();
+		newEntry.srcSize = srcSize;
+		newEntry.srcLastModified = srcLastModified;
+		if (useContentHash) {
+			newEntry.srcHash = BuildFingerprints.hashFile(srcPath);
+		}
+		newEntry.destLastModified = Files.getLastModifiedTime(destPath).toMillis();
+		newEntry.copied = true;
+		return newEntry;
+	}
+
+	private boolean isCopyUnchanged(Path destPath, ManifestEntry oldEntry) {
+		try {
+			BasicFileAttributes destAttributes = Files.readAttributes(destPath, BasicFileAttributes.class);
+			return destAttributes.isRegularFile() && destAttributes.size() == oldEntry.srcSize
+					&& destAttributes.lastModifiedTime().toMillis() == oldEntry.destLastModified;
+		} catch (IOException e) {
+			// the copy was deleted
+			return false;
+		}
+	}
+
+	private void copyFile(Path srcPath, Path destPath) throws IOException {
+		if (verbose) {
+			System.out.println("Copying asset: " + srcPath);
+		}
+		Files.createDirectories(destPath.getParent());
+		try {
+			Files.copy(srcPath, destPath, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			// if the destination file is not writable, make it writable and try
+			// again one more time
+			if (Files.exists(destPath) && !Files.isWritable(destPath)) {
+				destPath.toFile().setWritable(true);
+				Files.copy(srcPath, destPath, StandardCopyOption.REPLACE_EXISTING);
+				return;
+			}
+			throw new IOException(
+					"Failed to copy file from source " + srcPath.toString() + " to destination " + destPath.toString());
+		}
+	}
+
+	private String getDestKey(Path normalizedDestPath) {
+		return outputDirectory.relativize(normalizedDestPath).toString();
+	}
+
+	/**
+	 * Deletes the parent directories of a deleted asset that are empty, up to
+	 * the output directory.
+	 */
+	private void deleteEmptyParentDirectories(Path destPath) throws IOException {
+		Path parentPath = destPath.getParent();
+		while (parentPath != null && parentPath.startsWith(outputDirectory) && !parentPath.equals(outputDirectory)) {
+			if (!Files.isDirectory(parentPath)) {
+				return;
+			}
+			try (Stream<Path> children = Files.list(parentPath)) {
+				if (children.findAny().isPresent()) {
+					return;
+				}
+			}
+			Files.delete(parentPath);
+			parentPath = parentPath.getParent();
+		}
+	}
+
+	private static Map<String, ManifestEntry> readManifest(Path manifestPath) {
+		Map<String, ManifestEntry> result = new HashMap<>();
+		if (!Files.isRegularFile(manifestPath)) {
+			return result;
+		}
+		List<String> lines = null;
+		try {
+			lines = Files.readAllLines(manifestPath, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			// everything will be copied again
+			return result;
+		}
+		if (lines.size() == 0 || !MANIFEST_HEADER.equals(lines.get(0))) {
+			return result;
+		}
+		for (int i = 1; i < lines.size(); i++) {
+			String[] parts = lines.get(i).split(MANIFEST_SEPARATOR, -1);
+			if (parts.length != 6) {
+				continue;
+			}
+			try {
+				ManifestEntry entry = new ManifestEntry();
+				entry.srcSize = Long.parseLong(parts[1]);
+				entry.srcLastModified = Long.parseLong(parts[2]);
+				entry.srcHash = parts[3];
+				entry.destLastModified = Long.parseLong(parts[4]);
+				entry.srcPath = parts[5];
+				result.put(parts[0], entry);
+			} catch (NumberFormatException e) {
+				continue;
+			}
+		}
+		return result;
+	}
+
+	private static void writeManifest(Path manifestPath, Map<String, ManifestEntry> manifest) throws IOException {
+		if (manifest.size() == 0) {
+			Files.deleteIfExists(manifestPath);
+			return;
+		}
+		Files.createDirectories(manifestPath.getParent());
+		try (BufferedWriter writer = Files.newBufferedWriter(manifestPath, StandardCharsets.UTF_8)) {
+			writer.write(MANIFEST_HEADER);
+			writer.newLine();
+			for (Map.Entry<String, ManifestEntry> mapEntry : manifest.entrySet()) {
+				String destKey = mapEntry.getKey();
+				ManifestEntry entry = mapEntry.getValue();
+				if (destKey.contains(MANIFEST_SEPARATOR) || destKey.contains("\n")
+						|| entry.srcPath.contains(MANIFEST_SEPARATOR) || entry.srcPath.contains("\n")) {
+					// this asset will be copied again next time
+					continue;
+				}
+				writer.write(String.join(MANIFEST_SEPARATOR, destKey, Long.toString(entry.srcSize),
+						Long.toString(entry.srcLastModified), entry.srcHash,
+						Long.toString(entry.destLastModified), entry.srcPath));
+				writer.newLine();
+			}
+		}
+	}
+}
@@ -0,0 +1,487 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Decides which build targets are up-to-date, and may be skipped, by
+ * comparing fingerprints of their inputs and outputs with the ones saved after
+ * the previous successful build.
+ *
+ * An input is either a value, like the configuration or the compiler options,
+ * or a set of files. Files are compared by size and a SHA-256 hash of their
+ * contents.
+ * A hash is computed again only when a file's size or modification time has
+ * changed, so a file that was touched, but not modified, doesn't invalidate
+ * anything. Outputs are compared by size and modification time, so a target
+ * is built again if its outputs were modified or deleted. A target with a
+ * directory as its output is always built again.
+ */
+public class BuildFingerprints {
+	public static final String FILE_NAME_FINGERPRINTS = ".as3mxml-build-fingerprints";
+
+	private static final String FINGERPRINTS_HEADER = "as3mxml-build-fingerprints 2";
+	private static final String FINGERPRINTS_SEPARATOR = "\t";
+	private static final String RECORD_FILE = "file";
+	private static final String RECORD_INPUT = "input";
+	private static final String RECORD_OUTPUT = "output";
+	private static final String STAMP_MISSING = "missing";
+	private static final String STAMP_DIRECTORY = "directory";
+	private static final int HASH_BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_REPORTED_FILES = 10;
+
+	private static class FileStamp {
+		public long size;
+		public long lastModified;
+		public String hash;
+	}
+
+	private static class TargetRecord {
+		public Map<String, String> inputs = new LinkedHashMap<>();
+		public Map<String, String> outputs = new LinkedHashMap<>();
+	}
+
+	/**
+	 * The inputs and outputs of one build target in the current build.
+	 */
+	public class Target {
+		private Target(String name) {
+			this.name = name;
+		}
+
+		private String name;
+		private Map<String, String> inputDigests = new LinkedHashMap<>();
+		private Map<String, List<Path>> fileInputRoots = new HashMap<>();
+		private Map<String, List<Path>> fileInputs = new HashMap<>();
+		private Set<Path> outputs = new LinkedHashSet<>();
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Adds an input that is compared by value.
+		 */
+		public Target addValue(String inputName, String value) {
+			inputDigests.put(inputName, digest(value != null ? value : ""));
+			return this;
+		}
+
+		/**
+		 * Adds an input that is compared by the contents of files. Directories
+		 * include all of their files, recursively. Paths that don't exist are
+		 * ignored.
+		 */
+		public Target addFiles(String inputName, Collection<Path> paths) throws IOException {
+			List<Path> roots = new ArrayList<>();
+			Set<Path> files = new LinkedHashSet<>();
+			for (Path path : paths) {
+				Path root = path.toAbsolutePath().normalize();
+				roots.add(root);
+				files.addAll(findFiles(root));
+			}
+			List<Path> sortedFiles = new ArrayList<>(files);
+			Collections.sort(sortedFiles);
+			StringBuilder builder = new StringBuilder();
+			for (Path file : sortedFiles) {
+				FileStamp stamp = getFileStamp(file);
+				builder.append(file.toString());
+				builder.append(FINGERPRINTS_SEPARATOR);
+				builder.append(stamp.size);
+				builder.append(FINGERPRINTS_SEPARATOR);
+				builder.append(stamp.hash);
+				builder.append("\n");
+			}
+			inputDigests.put(inputName, digest(builder.toString()));
+			fileInputRoots.put(inputName, roots);
+			fileInputs.put(inputName, sortedFiles);
+			return this;
+		}
+
+		/**
+		 * Adds a file or directory that is created by the target. Outputs are
+		 * never treated as inputs of any target.
+		 */
+		public Target addOutput(Path path) {
+			Path output = path.toAbsolutePath().normalize();
+			outputs.add(output);
+			excludedPaths.add(output);
+			return this;
+		}
+
+		/**
+		 * Returns descriptions of the inputs and outputs that changed since the
+		 * target was last built. If the list is empty, the target is
+		 * up-to-date.
+		 */
+		public List<String> findChanges() {
+			List<String> result = new ArrayList<>();
+			TargetRecord record = oldTargets.get(name);
+			if (record == null) {
+				result.add("no previous build");
+				return result;
+			}
+			for (Map.Entry<String, String> entry : inputDigests.entrySet()) {
+				String inputName = entry.getKey();
+				if (entry.getValue().equals(record.inputs.get(inputName))) {
+					continue;
+				}
+				if (fileInputs.containsKey(inputName)) {
+					result.add(describeFileChanges(inputName));
+				} else {
+					result.add(inputName + " changed");
+				}
+			}
+			for (String inputName : record.inputs.keySet()) {
+				if (!inputDigests.containsKey(inputName)) {
+					result.add(inputName + " removed");
+				}
+			}
+			boolean hasOutput = false;
+			for (Map.Entry<String, String> entry : record.outputs.entrySet()) {
+				String oldStamp = entry.getValue();
+				if (!STAMP_MISSING.equals(oldStamp)) {
+					hasOutput = true;
+				}
+				if (STAMP_DIRECTORY.equals(oldStamp)) {
+					// a directory's stamp doesn't change when the files inside
+					// of it are modified or deleted
+					result.add("output " + entry.getKey() + " is a directory");
+					continue;
+				}
+				if (!oldStamp.equals(getOutputStamp(entry.getKey()))) {
+					result.add("output " + entry.getKey() + " was modified or deleted");
+				}
+			}
+			for (Path output : outputs) {
+				if (!record.outputs.containsKey(output.toString())) {
+					result.add("output " + output + " was not created by the previous build");
+				}
+			}
+			if (!hasOutput) {
+				result.add("no outputs from the previous build");
+			}
+			return result;
+		}
+
+		/**
+		 * Saves this target's fingerprints the next time that
+		 * <code>save()</code> is called.
+		 */
+		public void markBuilt() {
+			builtTargets.put(name, this);
+		}
+
+		private String describeFileChanges(String inputName) {
+			List<String> changes = new ArrayList<>();
+			Set<String> currentKeys = new HashSet<>();
+			for (Path file : fileInputs.get(inputName)) {
+				String key = file.toString();
+				currentKeys.add(key);
+				FileStamp oldStamp = oldFiles.get(key);
+				if (oldStamp == null) {
+					changes.add(key + " (added)");
+					continue;
+				}
+				FileStamp stamp = getFileStamp(file);
+				if (stamp.size != oldStamp.size || !stamp.hash.equals(oldStamp.hash)) {
+					changes.add(key + " (modified)");
+				}
+			}
+			List<Path> roots = fileInputRoots.get(inputName);
+			for (String key : new TreeMap<>(oldFiles).keySet()) {
+				if (currentKeys.contains(key)) {
+					continue;
+				}
+				Path oldFile = Paths.get(key);
+				boolean inRoot = roots.stream().anyMatch(root -> oldFile.startsWith(root));
+				if (inRoot && !isExcluded(oldFile) && !Files.exists(oldFile)) {
+					changes.add(key + " (removed)");
+				}
+			}
+			if (changes.size() == 0) {
+				return inputName + " changed";
+			}
+			StringBuilder builder = new StringBuilder();
+			builder.append(inputName);
+			builder.append(" changed: ");
+			builder.append(changes.stream().limit(MAX_REPORTED_FILES).collect(Collectors.joining(", ")));
+			if (changes.size() > MAX_REPORTED_FILES) {
+				builder.append(", and ");
+				builder.append(changes.size() - MAX_REPORTED_FILES);
+				builder.append(" more");
+			}
+			return builder.toString();
+		}
+	}
+
+	private Path fingerprintsPath;
+	private Map<String, FileStamp> oldFiles = new HashMap<>();
+	private Map<String, TargetRecord> oldTargets = new LinkedHashMap<>();
+	private Map<Path, FileStamp> currentFiles = new HashMap<>();
+	private Map<Path, List<Path>> filesByRoot = new HashMap<>();
+	private Set<Path> excludedPaths = new LinkedHashSet<>();
+	private Map<String, Target> builtTargets = new LinkedHashMap<>();
+
+	/**
+	 * Loads the fingerprints saved by the previous build, if any.
+	 */
+	public BuildFingerprints(Path fingerprintsPath) {
+		this.fingerprintsPath = fingerprintsPath.toAbsolutePath().normalize();
+		excludedPaths.add(this.fingerprintsPath);
+		readFingerprints();
+		// outputs of targets that aren't built this time are still outputs
+		for (TargetRecord record : oldTargets.values()) {
+			for (String output : record.outputs.keySet()) {
+				excludedPaths.add(Paths.get(output));
+			}
+		}
+	}
+
+	public Target createTarget(String name) {
+		return new Target(name);
+	}
+
+	/**
+	 * Ignores a file or directory when searching the files of an input.
+	 */
+	public void excludePath(Path path) {
+		excludedPaths.add(path.toAbsolutePath().normalize());
+	}
+
+	/**
+	 * Saves the fingerprints of the targets that were built. Should be called
+	 * only after the build has succeeded.
+	 */
+	public void save() throws IOException {
+		Map<String, TargetRecord> newTargets = new LinkedHashMap<>(oldTargets);
+		for (Target target : builtTargets.values()) {
+			TargetRecord record = new TargetRecord();
+			record.inputs.putAll(target.inputDigests);
+			for (Path output : target.outputs) {
+				record.outputs.put(output.toString(), getOutputStamp(output.toString()));
+			}
+			newTargets.put(target.name, record);
+		}
+		builtTargets.clear();
+
+		Files.createDirectories(fingerprintsPath.getParent());
+		try (BufferedWriter writer = Files.newBufferedWriter(fingerprintsPath, StandardCharsets.UTF_8)) {
+			writer.write(FINGERPRINTS_HEADER);
+			writer.newLine();
+			for (Map.Entry<Path, FileStamp> entry : currentFiles.entrySet()) {
+				String path = entry.getKey().toString();
+				if (!isValidField(path)) {
+					// this file will be hashed again next time
+					continue;
+				}
+				FileStamp stamp = entry.getValue();
+				writer.write(String.join(FINGERPRINTS_SEPARATOR, RECORD_FILE, Long.toString(stamp.size),
+						Long.toString(stamp.lastModified), stamp.hash, path));
+				writer.newLine();
+			}
+			for (Map.Entry<String, TargetRecord> entry : newTargets.entrySet()) {
+				String targetName = entry.getKey();
+				TargetRecord record = entry.getValue();
+				if (!isValidField(targetName)) {
+					continue;
+				}
+				for (Map.Entry<String, String> input : record.inputs.entrySet()) {
+					if (!isValidField(input.getKey())) {
+						continue;
+					}
+					writer.write(String.join(FINGERPRINTS_SEPARATOR, RECORD_INPUT, targetName, input.getKey(),
+							input.getValue()));
+					writer.newLine();
+				}
+				for (Map.Entry<String, String> output : record.outputs.entrySet()) {
+					if (!isValidField(output.getKey())) {
+						continue;
+					}
+					writer.write(String.join(FINGERPRINTS_SEPARATOR, RECORD_OUTPUT, targetName, output.getKey(),
+							output.getValue()));
+					writer.newLine();
+				}
+			}
+		}
+	}
+
+	private List<Path> findFiles(Path root) throws IOException {
+		List<Path> files = filesByRoot.get(root);
+		if (files != null) {
+			return files;
+		}
+		files = new ArrayList<>();
+		if (isExcluded(root)) {
+			// nothing to add
+		} else if (Files.isRegularFile(root)) {
+			files.add(root);
+		} else if (Files.isDirectory(root)) {
+			try (Stream<Path> stream = Files.walk(root)) {
+				files = stream.filter(path -> Files.isRegularFile(path) && !isExcluded(path))
+						.collect(Collectors.toList());
+			}
+		}
+		filesByRoot.put(root, files);
+		return files;
+	}
+
+	private boolean isExcluded(Path path) {
+		for (Path excludedPath : excludedPaths) {
+			if (path.startsWith(excludedPath)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private FileStamp getFileStamp(Path file) {
+		FileStamp stamp = currentFiles.get(file);
+		if (stamp != null) {
+			return stamp;
+		}
+		stamp = new FileStamp();
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			stamp.size = attributes.size();
+			stamp.lastModified = attributes.lastModifiedTime().toMillis();
+			FileStamp oldStamp = oldFiles.get(file.toString());
+			if (oldStamp != null && oldStamp.size == stamp.size && oldStamp.lastModified == stamp.lastModified) {
+				stamp.hash = oldStamp.hash;
+			} else {
+				stamp.hash = hashFile(file);
+			}
+		} catch (IOException e) {
+			// the file was deleted or can't be read, so make sure that it
+			// doesn't match any previous stamp
+			stamp.size = -1L;
+			stamp.lastModified = -1L;
+			stamp.hash = "";
+		}
+		currentFiles.put(file, stamp);
+		return stamp;
+	}
+
+	private String getOutputStamp(String output) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(Paths.get(output),
+					BasicFileAttributes.class);
+			if (attributes.isDirectory()) {
+				return STAMP_DIRECTORY;
+			}
+			return attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+		} catch (IOException e) {
+			return STAMP_MISSING;
+		}
+	}
+
+	private static boolean isValidField(String value) {
+		return !value.contains(FINGERPRINTS_SEPARATOR) && !value.contains("\n") && !value.contains("\r");
+	}
+
+	private static MessageDigest createMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every Java implementation is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder builder = new StringBuilder();
+		for (byte b : bytes) {
+			builder.append(String.format("%02x", b));
+		}
+		return builder.toString();
+	}
+
+	private static String digest(String value) {
+		return toHex(createMessageDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Returns the SHA-256 hash of a file's contents, in hexadecimal.
+	 */
+	public static String hashFile(Path path) throws IOException {
+		MessageDigest messageDigest = createMessageDigest();
+		byte[] buffer = new byte[HASH_BUFFER_SIZE];
+		try (InputStream inputStream = Files.newInputStream(path)) {
+			int length = 0;
+			while ((length = inputStream.read(buffer)) != -1) {
+				messageDigest.update(buffer, 0, length);
+			}
+		}
+		return toHex(messageDigest.digest());
+	}
+
+	private void readFingerprints() {
+		if (!Files.isRegularFile(fingerprintsPath)) {
+			return;
+		}
+		List<String> lines = null;
+		try {
+			lines = Files.readAllLines(fingerprintsPath, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			// everything will be built again
+			return;
+		}
+		if (lines.size() == 0 || !FINGERPRINTS_HEADER.equals(lines.get(0))) {
+			return;
+		}
+		for (int i = 1; i < lines.size(); i++) {
+			String[] parts = lines.get(i).split(FINGERPRINTS_SEPARATOR, -1);
+			if (parts.length == 5 && RECORD_FILE.equals(parts[0])) {
+				try {
+					FileStamp stamp = new FileStamp();
+					stamp.size = Long.parseLong(parts[1]);
+					stamp.lastModified = Long.parseLong(parts[2]);
+					stamp.hash = parts[3];
+					oldFiles.put(parts[4], stamp);
+				} catch (NumberFormatException e) {
+					continue;
+				}
+			} else if (parts.length == 4 && RECORD_INPUT.equals(parts[0])) {
+				oldTargets.computeIfAbsent(parts[1], key -> new TargetRecord()).inputs.put(parts[2], parts[3]);
+			} else if (parts.length == 4 && RECORD_OUTPUT.equals(parts[0])) {
+				oldTargets.computeIfAbsent(parts[1], key -> new TargetRecord()).outputs.put(parts[2], parts[3]);
+			}
+		}
+	}
+}
@@ -62,6 +62,21 @@ public class GenericSDKUtils {
 		return false;
 	}
 
+	/**
+	 * Determines if a directory contains the Adobe AIR SDK &amp; Compiler,
+	 * which uses a newer compiler than the Flex SDK.
+	 */
+	public static boolean isAIRSDK(Path absolutePath) {
+		if (absolutePath == null) {
+			return false;
+		}
+		if (!absolutePath.resolve(AIR_SDK_DESCRIPTION).toFile().isFile()) {
+			return false;
+		}
+		return absolutePath.resolve("lib/mxmlc-cli.jar").toFile().isFile()
+				&& absolutePath.resolve("lib/compc-cli.jar").toFile().isFile();
+	}
+
 	private static boolean hasCompilers(Path sdkPath) {
 		Path compilerPath = sdkPath.resolve(BIN).resolve(MXMLC);
 		File file = compilerPath.toFile();
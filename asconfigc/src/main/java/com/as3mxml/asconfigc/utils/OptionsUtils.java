@@ -33,4 +33,34 @@ public class OptionsUtils {
 		}
 		return result;
 	}
+
+	/**
+	 * Splits the value of an option, like <code>src,"my lib"</code>, into
+	 * separate values at the commas that aren't inside quotes, and removes
+	 * the quotes.
+	 */
+	public static List<String> splitOptionValues(String value) {
+		List<String> result = new ArrayList<>();
+		StringBuilder builder = new StringBuilder();
+		char quote = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				} else {
+					builder.append(c);
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (c == ',') {
+				result.add(builder.toString());
+				builder.setLength(0);
+			} else {
+				builder.append(c);
+			}
+		}
+		result.add(builder.toString());
+		return result;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.as3mxml.asconfigc.compiler.CompileScheduler;
+import com.as3mxml.asconfigc.compiler.ProjectType;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ASConfigCTests {
+	@Test
+	void testOptimizedModuleDependsOnApp() {
+		CompileScheduler scheduler = new CompileScheduler(null, ProjectType.APP, null, null, 1, false);
+		CompileScheduler.Target app = scheduler.addTarget("application", Arrays.asList("app"),
+				Collections.emptyList());
+		List<CompileScheduler.Target> dependencies = ASConfigC.findModuleDependencies(true, app);
+		Assertions.assertEquals(Collections.singletonList(app), dependencies);
+		CompileScheduler.Target module = scheduler.addTarget("module", Arrays.asList("module"), dependencies);
+		Assertions.assertEquals(Collections.singletonList(app), module.dependencies);
+	}
+
+	@Test
+	void testOptimizedModuleWithUpToDateApp() {
+		CompileScheduler scheduler = new CompileScheduler(null, ProjectType.APP, null, null, 1, false);
+		List<CompileScheduler.Target> dependencies = ASConfigC.findModuleDependencies(true, null);
+		Assertions.assertTrue(dependencies.isEmpty(),
+				"ASConfigC.findModuleDependencies() must not depend on an app that isn't compiled.");
+		CompileScheduler.Target module = scheduler.addTarget("module", Arrays.asList("module"), dependencies);
+		Assertions.assertTrue(module.dependencies.isEmpty());
+	}
+
+	@Test
+	void testModuleWithoutOptimize() {
+		CompileScheduler scheduler = new CompileScheduler(null, ProjectType.APP, null, null, 1, false);
+		CompileScheduler.Target app = scheduler.addTarget("application", Arrays.asList("app"),
+				Collections.emptyList());
+		Assertions.assertTrue(ASConfigC.findModuleDependencies(false, app).isEmpty());
+	}
+}
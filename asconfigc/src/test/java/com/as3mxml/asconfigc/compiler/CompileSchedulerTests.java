@@ -0,0 +1,146 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.compiler;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.as3mxml.asconfigc.ASConfigCException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CompileSchedulerTests {
+	private static class RecordingCompiler implements IASConfigCCompiler {
+		public RecordingCompiler(boolean concurrent) {
+			this.concurrent = concurrent;
+		}
+
+		private boolean concurrent;
+		public List<String> started = Collections.synchronizedList(new ArrayList<>());
+		public List<String> finished = Collections.synchronizedList(new ArrayList<>());
+		public AtomicInteger running = new AtomicInteger();
+		public AtomicInteger maxRunning = new AtomicInteger();
+		// compiles that write directly to the console, one at a time
+		public AtomicInteger consoleCount = new AtomicInteger();
+		public String failingTarget = null;
+		// these targets wait for each other to start before they finish
+		public List<String> concurrentTargets = Collections.emptyList();
+		public CountDownLatch concurrentStarted = null;
+
+		public boolean supportsConcurrentCompile() {
+			return concurrent;
+		}
+
+		public void compile(String projectType, List<String> compilerOptions, Path workspaceRoot, Path sdkPath)
+				throws ASConfigCException {
+			consoleCount.incrementAndGet();
+			compile(projectType, compilerOptions, workspaceRoot, sdkPath, System.out);
+		}
+
+		public void compile(String projectType, List<String> compilerOptions, Path workspaceRoot, Path sdkPath,
+				PrintStream output) throws ASConfigCException {
+			String name = compilerOptions.get(0);
+			started.add(name);
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			if (concurrentTargets.contains(name)) {
+				concurrentStarted.countDown();
+				try {
+					concurrentStarted.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+				}
+			}
+			running.decrementAndGet();
+			finished.add(name);
+			if (name.equals(failingTarget)) {
+				throw new ASConfigCException(1);
+			}
+		}
+	}
+
+	private static CompileScheduler.Target addTarget(CompileScheduler scheduler, String name,
+			CompileScheduler.Target... dependencies) {
+		return scheduler.addTarget(name, new ArrayList<>(Arrays.asList(name)), Arrays.asList(dependencies));
+	}
+
+	@Test
+	void testSequentialKeepsOrder() throws ASConfigCException {
+		RecordingCompiler compiler = new RecordingCompiler(true);
+		CompileScheduler scheduler = new CompileScheduler(compiler, ProjectType.APP, null, null, 1, false);
+		CompileScheduler.Target worker = addTarget(scheduler, "worker");
+		CompileScheduler.Target app = addTarget(scheduler, "app", worker);
+		addTarget(scheduler, "module", app);
+		scheduler.compile();
+		Assertions.assertEquals(Arrays.asList("worker", "app", "module"), compiler.finished);
+		Assertions.assertEquals(1, compiler.maxRunning.get());
+	}
+
+	@Test
+	void testParallelHonorsDependencies() throws ASConfigCException {
+		RecordingCompiler compiler = new RecordingCompiler(true);
+		compiler.concurrentTargets = Arrays.asList("worker1", "worker2");
+		compiler.concurrentStarted = new CountDownLatch(2);
+		CompileScheduler scheduler = new CompileScheduler(compiler, ProjectType.APP, null, null, 4, false);
+		CompileScheduler.Target worker1 = addTarget(scheduler, "worker1");
+		CompileScheduler.Target worker2 = addTarget(scheduler, "worker2");
+		CompileScheduler.Target app = addTarget(scheduler, "app", worker1, worker2);
+		addTarget(scheduler, "module1", app);
+		addTarget(scheduler, "module2", app);
+		scheduler.compile();
+		Assertions.assertEquals(5, compiler.finished.size());
+		int appStarted = compiler.started.indexOf("app");
+		Assertions.assertTrue(compiler.finished.indexOf("worker1") < appStarted,
+				"CompileScheduler.compile() must compile workers before the app.");
+		Assertions.assertTrue(compiler.finished.indexOf("worker2") < appStarted);
+		Assertions.assertTrue(compiler.started.indexOf("module1") > compiler.finished.indexOf("app"),
+				"CompileScheduler.compile() must compile optimized modules after the app.");
+		Assertions.assertTrue(compiler.maxRunning.get() > 1,
+				"CompileScheduler.compile() must compile independent targets at the same time.");
+	}
+
+	@Test
+	void testParallelRequiresCompilerSupport() throws ASConfigCException {
+		RecordingCompiler compiler = new RecordingCompiler(false);
+		CompileScheduler scheduler = new CompileScheduler(compiler, ProjectType.APP, null, null, 4, false);
+		addTarget(scheduler, "module1");
+		addTarget(scheduler, "module2");
+		scheduler.compile();
+		Assertions.assertEquals(2, compiler.consoleCount.get(),
+				"CompileScheduler.compile() must compile one target at a time if the compiler requires it.");
+		Assertions.assertEquals(1, compiler.maxRunning.get());
+	}
+
+	@Test
+	void testFailureStopsDependentTargets() {
+		RecordingCompiler compiler = new RecordingCompiler(true);
+		compiler.failingTarget = "worker";
+		CompileScheduler scheduler = new CompileScheduler(compiler, ProjectType.APP, null, null, 4, false);
+		CompileScheduler.Target worker = addTarget(scheduler, "worker");
+		CompileScheduler.Target app = addTarget(scheduler, "app", worker);
+		addTarget(scheduler, "module", app);
+		Assertions.assertThrows(ASConfigCException.class, () -> {
+			scheduler.compile();
+		});
+		Assertions.assertEquals(Arrays.asList("worker"), compiler.started);
+	}
+}
@@ -0,0 +1,179 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.as3mxml.asconfigc.ASConfigCException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DaemonCompilerTests {
+	private static class FakeResidentCompiler implements CompilerDaemon.IResidentCompiler {
+		public FakeResidentCompiler(CompilerDaemon.Request request) {
+			this.request = request;
+		}
+
+		private CompilerDaemon.Request request;
+		public int compileCount = 0;
+
+		public void compile(PrintStream output) throws ASConfigCException {
+			compileCount++;
+			output.println((compileCount == 1 ? "full " : "incremental ") + String.join(" ", request.compilerOptions));
+			if (request.compilerOptions.contains("--fail")) {
+				throw new ASConfigCException(2);
+			}
+		}
+
+		public void quit() {
+		}
+	}
+
+	private static class FallbackCompiler implements IASConfigCCompiler {
+		public int compileCount = 0;
+
+		public void compile(String projectType, List<String> compilerOptions, Path workspaceRoot, Path sdkPath)
+				throws ASConfigCException {
+			compileCount++;
+		}
+
+		public boolean supportsConcurrentCompile() {
+			return true;
+		}
+	}
+
+	private Path stateDirectory;
+	private CompilerDaemon daemon;
+	private List<FakeResidentCompiler> createdCompilers;
+	private FallbackCompiler fallbackCompiler;
+	private DaemonCompiler compiler;
+
+	@BeforeEach
+	void setup() throws IOException {
+		stateDirectory = Files.createTempDirectory("compiler-daemon");
+		createdCompilers = new ArrayList<>();
+		daemon = new CompilerDaemon(stateDirectory, request -> {
+			if (request.sdkPath.endsWith("unsupported")) {
+				return null;
+			}
+			FakeResidentCompiler residentCompiler = new FakeResidentCompiler(request);
+			createdCompilers.add(residentCompiler);
+			return residentCompiler;
+		}, CompilerDaemon.DEFAULT_IDLE_TIMEOUT_MS);
+		daemon.start();
+		fallbackCompiler = new FallbackCompiler();
+		compiler = new DaemonCompiler(stateDirectory, false, null, fallbackCompiler);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		daemon.stop();
+		File[] files = stateDirectory.toFile().listFiles();
+		if (files != null) {
+			for (File file : files) {
+				Files.delete(file.toPath());
+			}
+		}
+		Files.delete(stateDirectory);
+	}
+
+	private String compile(String sdkPath, String... options) throws ASConfigCException {
+		ByteArrayOutputStream outputBytes = new ByteArrayOutputStream();
+		PrintStream output = new PrintStream(outputBytes, true);
+		try {
+			compiler.compile(ProjectType.APP, new ArrayList<>(Arrays.asList(options)), stateDirectory,
+					stateDirectory.resolve(sdkPath), output);
+		} finally {
+			output.flush();
+		}
+		return outputBytes.toString().trim();
+	}
+
+	@Test
+	void testCompilerIsReusedForSameTarget() throws ASConfigCException {
+		Assertions.assertEquals("full --debug=true -- Main.as", compile("sdk", "--debug=true", "--", "Main.as"));
+		Assertions.assertEquals("incremental --debug=true -- Main.as",
+				compile("sdk", "--debug=true", "--", "Main.as"),
+				"CompilerDaemon must compile the same target incrementally.");
+		Assertions.assertEquals("full --debug=true -- Module.as", compile("sdk", "--debug=true", "--", "Module.as"));
+		Assertions.assertEquals(2, createdCompilers.size());
+		Assertions.assertEquals(2, daemon.getCompilerCount());
+		Assertions.assertEquals(0, fallbackCompiler.compileCount);
+	}
+
+	private int countIncrementalCompiles(int targetCount) throws ASConfigCException {
+		int incrementalCount = 0;
+		for (int i = 0; i < targetCount; i++) {
+			String output = compile("sdk", "--", "Module" + i + ".as");
+			if (output.startsWith("incremental")) {
+				incrementalCount++;
+			}
+		}
+		return incrementalCount;
+	}
+
+	@Test
+	void testEveryTargetInProjectKeepsCompiler() throws ASConfigCException {
+		compiler.setTargetCount(20);
+		Assertions.assertEquals(0, countIncrementalCompiles(20));
+		Assertions.assertEquals(20, countIncrementalCompiles(20),
+				"CompilerDaemon must keep a compiler for every target in the project.");
+		Assertions.assertEquals(20, createdCompilers.size());
+	}
+
+	@Test
+	void testTargetsInCycleDoNotEvictEachOther() throws ASConfigCException {
+		// more targets than the default maximum, but the client doesn't send
+		// the number of targets
+		Assertions.assertEquals(0, countIncrementalCompiles(18));
+		Assertions.assertTrue(countIncrementalCompiles(18) >= 15,
+				"CompilerDaemon must not quit the compiler that is needed next when targets are compiled in a cycle.");
+	}
+
+	@Test
+	void testCompilerStatusIsReturned() {
+		ASConfigCException exception = Assertions.assertThrows(ASConfigCException.class, () -> {
+			compile("sdk", "--fail");
+		});
+		Assertions.assertEquals(2, exception.getStatus());
+	}
+
+	@Test
+	void testUnsupportedSDKUsesFallback() throws ASConfigCException {
+		compile("unsupported", "--", "Main.as");
+		Assertions.assertEquals(1, fallbackCompiler.compileCount,
+				"DaemonCompiler must use the fallback compiler if the daemon doesn't support the SDK.");
+		Assertions.assertEquals(0, createdCompilers.size());
+	}
+
+	@Test
+	void testStateFileIsDeletedOnStop() {
+		Assertions.assertTrue(Files.exists(stateDirectory.resolve(CompilerDaemon.FILE_NAME_STATE)));
+		daemon.stop();
+		Assertions.assertFalse(Files.exists(stateDirectory.resolve(CompilerDaemon.FILE_NAME_STATE)));
+	}
+}
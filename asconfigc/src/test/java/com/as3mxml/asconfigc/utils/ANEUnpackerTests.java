@@ -0,0 +1,172 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ANEUnpackerTests {
+	private Path tempDirectory;
+	private Path aneFile;
+	private Path outputDirectory;
+	private ANEUnpacker unpacker;
+	private long aneLastModified = 1000000000000L;
+
+	@BeforeEach
+	void setup() throws IOException {
+		tempDirectory = Files.createTempDirectory("ane-unpacker");
+		aneFile = tempDirectory.resolve("Extension.ane");
+		outputDirectory = tempDirectory.resolve("unpacked/Extension.ane");
+		unpacker = new ANEUnpacker(2, false);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		try (Stream<Path> stream = Files.walk(tempDirectory)) {
+			stream.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	private void writeANE(String... namesAndContents) throws IOException {
+		try (OutputStream outputStream = Files.newOutputStream(aneFile);
+				ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
+			for (int i = 0; i < namesAndContents.length; i += 2) {
+				zipOutputStream.putNextEntry(new ZipEntry(namesAndContents[i]));
+				zipOutputStream.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+				zipOutputStream.closeEntry();
+			}
+		}
+		touchANE();
+	}
+
+	private void touchANE() throws IOException {
+		// the modification time may have a coarse resolution, so make sure
+		// that it's different every time
+		aneLastModified += 2000L;
+		Files.setLastModifiedTime(aneFile, FileTime.fromMillis(aneLastModified));
+	}
+
+	private String readFile(String name) throws IOException {
+		return new String(Files.readAllBytes(outputDirectory.resolve(name)), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void testUnpackExtractsEntries() throws IOException {
+		writeANE("extension.xml", "<extension/>", "META-INF/ANE/Android-ARM/library.swf", "swf");
+		ANEUnpacker.Result result = unpacker.unpack(aneFile, outputDirectory);
+		Assertions.assertEquals(2, result.extractedCount);
+		Assertions.assertEquals(0, result.unchangedCount);
+		Assertions.assertEquals(15, result.extractedBytes);
+		Assertions.assertEquals("<extension/>", readFile("extension.xml"));
+		Assertions.assertEquals("swf", readFile("META-INF/ANE/Android-ARM/library.swf"));
+	}
+
+	@Test
+	void testUnchangedEntriesAreNotExtracted() throws IOException {
+		writeANE("extension.xml", "<extension/>", "library.swf", "swf");
+		unpacker.unpack(aneFile, outputDirectory);
+		ANEUnpacker.Result result = unpacker.unpack(aneFile, outputDirectory);
+		Assertions.assertTrue(result.skipped,
+				"ANEUnpacker must skip a native extension with the same size and modification time.");
+		Assertions.assertEquals(0, result.extractedCount);
+		Assertions.assertEquals(2, result.unchangedCount);
+	}
+
+	@Test
+	void testUnchangedEntriesAreNotExtractedWhenMarkerChanges() throws IOException {
+		writeANE("extension.xml", "<extension/>", "library.swf", "swf");
+		unpacker.unpack(aneFile, outputDirectory);
+		touchANE();
+		ANEUnpacker.Result result = unpacker.unpack(aneFile, outputDirectory);
+		Assertions.assertFalse(result.skipped);
+		Assertions.assertEquals(0, result.extractedCount);
+		Assertions.assertEquals(2, result.unchangedCount);
+		Assertions.assertFalse(Files.exists(outputDirectory.resolve("Extension.ane.unpacked")),
+				"ANEUnpacker must not save the marker inside the output directory.");
+	}
+
+	@Test
+	void testEntryWithSameSizeButDifferentContentsIsExtracted() throws IOException {
+		writeANE("library.swf", "abc");
+		unpacker.unpack(aneFile, outputDirectory);
+		Files.write(outputDirectory.resolve("library.swf"), "xyz".getBytes(StandardCharsets.UTF_8));
+		touchANE();
+		ANEUnpacker.Result result = unpacker.unpack(aneFile, outputDirectory);
+		Assertions.assertEquals(1, result.extractedCount,
+				"ANEUnpacker must compare the CRC of entries that have the same size.");
+		Assertions.assertEquals("abc", readFile("library.swf"));
+	}
+
+	@Test
+	void testRemovedEntriesAreDeleted() throws IOException {
+		writeANE("extension.xml", "<extension/>", "META-INF/ANE/iPhone-ARM/library.a", "a");
+		unpacker.unpack(aneFile, outputDirectory);
+		writeANE("extension.xml", "<extension/>");
+		ANEUnpacker.Result result = unpacker.unpack(aneFile, outputDirectory);
+		Assertions.assertEquals(1, result.deletedCount);
+		Assertions.assertTrue(Files.exists(outputDirectory.resolve("extension.xml")));
+		Assertions.assertFalse(Files.exists(outputDirectory.resolve("META-INF")),
+				"ANEUnpacker must delete directories that are empty after removing entries.");
+	}
+
+	@Test
+	void testEntriesThatChangeTypeAreExtracted() throws IOException {
+		writeANE("library", "file", "META-INF/ANE/Android-ARM/library.swf", "swf");
+		unpacker.unpack(aneFile, outputDirectory);
+		writeANE("library/library.swf", "swf", "META-INF/ANE/Android-ARM", "file");
+		ANEUnpacker.Result result = unpacker.unpack(aneFile, outputDirectory);
+		Assertions.assertEquals(2, result.extractedCount);
+		Assertions.assertEquals("swf", readFile("library/library.swf"),
+				"ANEUnpacker must replace a file with a directory.");
+		Assertions.assertEquals("file", readFile("META-INF/ANE/Android-ARM"),
+				"ANEUnpacker must replace a directory with a file.");
+	}
+
+	@Test
+	void testDeletedOutputDirectoryIsUnpackedAgain() throws IOException {
+		writeANE("extension.xml", "<extension/>");
+		unpacker.unpack(aneFile, outputDirectory);
+		Files.delete(outputDirectory.resolve("extension.xml"));
+		Files.delete(outputDirectory);
+		ANEUnpacker.Result result = unpacker.unpack(aneFile, outputDirectory);
+		Assertions.assertEquals(1, result.extractedCount,
+				"ANEUnpacker must ignore the marker when the output directory doesn't exist.");
+		Assertions.assertEquals("<extension/>", readFile("extension.xml"));
+	}
+
+	@Test
+	void testEntryOutsideOutputDirectoryIsRejected() throws IOException {
+		writeANE("../outside.txt", "outside");
+		Assertions.assertThrows(IOException.class, () -> {
+			unpacker.unpack(aneFile, outputDirectory);
+		});
+		Assertions.assertFalse(Files.exists(outputDirectory.resolve("../outside.txt")));
+	}
+}
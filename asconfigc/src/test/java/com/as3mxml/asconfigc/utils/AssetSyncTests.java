@@ -0,0 +1,154 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AssetSyncTests {
+	private Path tempDir;
+
+	@BeforeEach
+	void setup() throws IOException {
+		tempDir = Files.createTempDirectory("asset-sync");
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		try (Stream<Path> paths = Files.walk(tempDir)) {
+			for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+
+	private Path writeFile(Path path, String contents) throws IOException {
+		Files.createDirectories(path.getParent());
+		return Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private AssetSync.Result sync(Path outputDirectory, boolean useContentHash, Path... srcPaths)
+			throws IOException {
+		AssetSync assetSync = new AssetSync(outputDirectory, useContentHash, 2, false);
+		for (Path srcPath : srcPaths) {
+			assetSync.addFile(srcPath, outputDirectory.resolve(tempDir.resolve("src").relativize(srcPath)));
+		}
+		return assetSync.sync();
+	}
+
+	@Test
+	void testSyncCopiesOnlyChangedFiles() throws IOException {
+		Path outputDirectory = tempDir.resolve("bin");
+		Path asset1 = writeFile(tempDir.resolve("src/assets/one.txt"), "one");
+		Path asset2 = writeFile(tempDir.resolve("src/two.txt"), "two");
+
+		AssetSync.Result result = sync(outputDirectory, false, asset1, asset2);
+		Assertions.assertEquals(2, result.copiedCount);
+		Assertions.assertEquals("one",
+				new String(Files.readAllBytes(outputDirectory.resolve("assets/one.txt")), StandardCharsets.UTF_8));
+
+		result = sync(outputDirectory, false, asset1, asset2);
+		Assertions.assertEquals(0, result.copiedCount,
+				"AssetSync.sync() must not copy assets that have not changed.");
+		Assertions.assertEquals(2, result.unchangedCount);
+
+		writeFile(asset2, "changed");
+		result = sync(outputDirectory, false, asset1, asset2);
+		Assertions.assertEquals(1, result.copiedCount);
+		Assertions.assertEquals("changed",
+				new String(Files.readAllBytes(outputDirectory.resolve("two.txt")), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testSyncCopiesAgainIfCopyWasDeleted() throws IOException {
+		Path outputDirectory = tempDir.resolve("bin");
+		Path asset = writeFile(tempDir.resolve("src/one.txt"), "one");
+		sync(outputDirectory, false, asset);
+		Files.delete(outputDirectory.resolve("one.txt"));
+		AssetSync.Result result = sync(outputDirectory, false, asset);
+		Assertions.assertEquals(1, result.copiedCount);
+		Assertions.assertTrue(Files.exists(outputDirectory.resolve("one.txt")));
+	}
+
+	@Test
+	void testSyncDeletesOnlyRemovedAssets() throws IOException {
+		Path outputDirectory = tempDir.resolve("bin");
+		Path asset1 = writeFile(tempDir.resolve("src/one.txt"), "one");
+		Path asset2 = writeFile(tempDir.resolve("src/two.txt"), "two");
+		Path otherFile = writeFile(outputDirectory.resolve("Main.swf"), "swf");
+		sync(outputDirectory, false, asset1, asset2);
+
+		AssetSync.Result result = sync(outputDirectory, false, asset1);
+		Assertions.assertEquals(1, result.deletedCount);
+		Assertions.assertFalse(Files.exists(outputDirectory.resolve("two.txt")));
+		Assertions.assertTrue(Files.exists(outputDirectory.resolve("one.txt")));
+		Assertions.assertTrue(Files.exists(otherFile),
+				"AssetSync.sync() must not delete files that it did not copy.");
+	}
+
+	@Test
+	void testSyncDeletesEmptyDirectories() throws IOException {
+		Path outputDirectory = tempDir.resolve("bin");
+		Path asset1 = writeFile(tempDir.resolve("src/one.txt"), "one");
+		Path asset2 = writeFile(tempDir.resolve("src/assets/images/two.txt"), "two");
+		Path asset3 = writeFile(tempDir.resolve("src/assets/three.txt"), "three");
+		sync(outputDirectory, false, asset1, asset2, asset3);
+
+		sync(outputDirectory, false, asset1, asset3);
+		Assertions.assertFalse(Files.exists(outputDirectory.resolve("assets/images")),
+				"AssetSync.sync() must delete directories that are empty after deleting removed assets.");
+		Assertions.assertTrue(Files.exists(outputDirectory.resolve("assets/three.txt")));
+
+		sync(outputDirectory, false, asset1);
+		Assertions.assertFalse(Files.exists(outputDirectory.resolve("assets")));
+		Assertions.assertTrue(Files.exists(outputDirectory.resolve("one.txt")));
+	}
+
+	@Test
+	void testSyncWithHashSkipsTouchedFiles() throws IOException {
+		Path outputDirectory = tempDir.resolve("bin");
+		Path asset = writeFile(tempDir.resolve("src/one.txt"), "one");
+		sync(outputDirectory, true, asset);
+
+		FileTime lastModified = Files.getLastModifiedTime(asset);
+		Files.setLastModifiedTime(asset, FileTime.fromMillis(lastModified.toMillis() + 10000));
+		AssetSync.Result result = sync(outputDirectory, true, asset);
+		Assertions.assertEquals(0, result.copiedCount,
+				"AssetSync.sync() must not copy assets with the same contents when hashes are enabled.");
+
+		writeFile(asset, "new");
+		result = sync(outputDirectory, true, asset);
+		Assertions.assertEquals(1, result.copiedCount);
+	}
+
+	@Test
+	void testAddFileOutsideOutputDirectory() throws IOException {
+		AssetSync assetSync = new AssetSync(tempDir.resolve("bin"), false, 1, false);
+		Assertions.assertThrows(IOException.class, () -> {
+			assetSync.addFile(tempDir.resolve("src/one.txt"), tempDir.resolve("other/one.txt"));
+		});
+	}
+}
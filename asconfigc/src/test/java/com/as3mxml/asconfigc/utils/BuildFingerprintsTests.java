@@ -0,0 +1,152 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.asconfigc.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BuildFingerprintsTests {
+	private Path projectDirectory;
+	private Path sourceDirectory;
+	private Path outputPath;
+	private Path fingerprintsPath;
+
+	@BeforeEach
+	void setup() throws IOException {
+		projectDirectory = Files.createTempDirectory("build-fingerprints");
+		sourceDirectory = Files.createDirectories(projectDirectory.resolve("src"));
+		outputPath = projectDirectory.resolve("bin/Main.swf");
+		fingerprintsPath = projectDirectory.resolve("bin").resolve(BuildFingerprints.FILE_NAME_FINGERPRINTS);
+		writeFile(sourceDirectory.resolve("Main.as"), "package {}");
+		writeFile(sourceDirectory.resolve("Helper.as"), "package {}");
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		try (Stream<Path> stream = Files.walk(projectDirectory)) {
+			stream.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	private void writeFile(Path path, String contents) throws IOException {
+		Files.createDirectories(path.getParent());
+		Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private List<String> findChanges(String options) throws IOException {
+		BuildFingerprints fingerprints = new BuildFingerprints(fingerprintsPath);
+		BuildFingerprints.Target target = fingerprints.createTarget("application").addOutput(outputPath)
+				.addValue("compiler options", options)
+				.addFiles("source files", Collections.singletonList(sourceDirectory));
+		return target.findChanges();
+	}
+
+	private void build(String options) throws IOException {
+		BuildFingerprints fingerprints = new BuildFingerprints(fingerprintsPath);
+		BuildFingerprints.Target target = fingerprints.createTarget("application").addOutput(outputPath)
+				.addValue("compiler options", options)
+				.addFiles("source files", Collections.singletonList(sourceDirectory));
+		writeFile(outputPath, "swf " + System.nanoTime());
+		target.markBuilt();
+		fingerprints.save();
+	}
+
+	@Test
+	void testTargetWithoutPreviousBuild() throws IOException {
+		Assertions.assertEquals(Collections.singletonList("no previous build"), findChanges("--debug=true"));
+	}
+
+	@Test
+	void testUnchangedTargetIsUpToDate() throws IOException {
+		build("--debug=true");
+		Assertions.assertEquals(Collections.emptyList(), findChanges("--debug=true"));
+	}
+
+	@Test
+	void testTouchedFileIsUpToDate() throws IOException {
+		build("--debug=true");
+		Path helperPath = sourceDirectory.resolve("Helper.as");
+		Files.setLastModifiedTime(helperPath,
+				FileTime.fromMillis(Files.getLastModifiedTime(helperPath).toMillis() + 10000));
+		Assertions.assertEquals(Collections.emptyList(), findChanges("--debug=true"),
+				"BuildFingerprints must not invalidate a target if a file's contents are unchanged.");
+	}
+
+	@Test
+	void testChangedInputsAreReported() throws IOException {
+		build("--debug=true");
+		writeFile(sourceDirectory.resolve("Helper.as"), "package { class Helper {} }");
+		Files.delete(sourceDirectory.resolve("Main.as"));
+		writeFile(sourceDirectory.resolve("Added.as"), "package {}");
+		List<String> changes = findChanges("--debug=false");
+		Assertions.assertEquals(2, changes.size());
+		Assertions.assertEquals("compiler options changed", changes.get(0));
+		String sourceChange = changes.get(1);
+		Assertions.assertTrue(sourceChange.startsWith("source files changed: "));
+		Assertions.assertTrue(sourceChange.contains("Helper.as (modified)"));
+		Assertions.assertTrue(sourceChange.contains("Added.as (added)"));
+		Assertions.assertTrue(sourceChange.contains("Main.as (removed)"));
+	}
+
+	@Test
+	void testDeletedOutputIsReported() throws IOException {
+		build("--debug=true");
+		Files.delete(outputPath);
+		List<String> changes = findChanges("--debug=true");
+		Assertions.assertEquals(1, changes.size());
+		Assertions.assertTrue(changes.get(0).startsWith("output "), changes.get(0));
+	}
+
+	@Test
+	void testOutputsAreNotInputs() throws IOException {
+		// the output directory may also be a source path
+		outputPath = sourceDirectory.resolve("Main.swf");
+		build("--debug=true");
+		writeFile(outputPath, "swf modified by another build");
+		List<String> changes = findChanges("--debug=true");
+		Assertions.assertEquals(1, changes.size());
+		Assertions.assertTrue(changes.get(0).startsWith("output "), changes.get(0));
+	}
+
+	@Test
+	void testDirectoryOutputIsNeverUpToDate() throws IOException {
+		outputPath = projectDirectory.resolve("bin/js-debug");
+		BuildFingerprints fingerprints = new BuildFingerprints(fingerprintsPath);
+		BuildFingerprints.Target target = fingerprints.createTarget("application").addOutput(outputPath)
+				.addValue("compiler options", "--debug=true")
+				.addFiles("source files", Collections.singletonList(sourceDirectory));
+		writeFile(outputPath.resolve("index.html"), "<html></html>");
+		target.markBuilt();
+		fingerprints.save();
+		List<String> changes = findChanges("--debug=true");
+		Assertions.assertEquals(1, changes.size(),
+				"BuildFingerprints must not skip a target if its output is a directory.");
+		Assertions.assertTrue(changes.get(0).startsWith("output "), changes.get(0));
+	}
+}
@@ -15,6 +15,7 @@ limitations under the License.
 */
 package com.as3mxml.asconfigc.utils;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Assertions;
@@ -468,4 +469,13 @@ class OptionsUtilsTests {
 		Assertions.assertEquals("--define=CONFIG::TEST,\"'123'\"", options.get(0),
 				"OptionsUtils.parseAdditionalOptions() returned incorrect value.");
 	}
+
+	@Test
+	void testSplitOptionValues() {
+		Assertions.assertEquals(Arrays.asList("src", "my lib", "a,b"),
+				OptionsUtils.splitOptionValues("src,\"my lib\",'a,b'"),
+				"OptionsUtils.splitOptionValues() returned incorrect values.");
+		Assertions.assertEquals(Arrays.asList("src"), OptionsUtils.splitOptionValues("src"),
+				"OptionsUtils.splitOptionValues() returned incorrect values.");
+	}
 }
\ No newline at end of file
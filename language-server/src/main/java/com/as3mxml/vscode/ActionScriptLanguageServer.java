@@ -95,6 +95,8 @@ public class ActionScriptLanguageServer implements LanguageServer, LanguageClien
      * 
      * - supportsSimpleSnippets: The client offers partial support for snippets,
      * such as $0
+     * - symbolCachePath: A directory where the workspace symbol index may be
+     * saved between sessions
      */
     @Override
     public CompletableFuture<InitializeResult> initialize(InitializeParams params) {
@@ -103,6 +105,7 @@ public class ActionScriptLanguageServer implements LanguageServer, LanguageClien
         boolean supportsSimpleSnippets = false;
         String preferredRoyaleTarget = null;
         boolean notifyActiveProject = false;
+        String symbolCachePath = null;
         if (params.getInitializationOptions() != null) {
             JsonObject initializationOptions = (JsonObject) params.getInitializationOptions();
             if (initializationOptions.has("supportsSimpleSnippets")) {
@@ -114,10 +117,16 @@ public class ActionScriptLanguageServer implements LanguageServer, LanguageClien
             if (initializationOptions.has("notifyActiveProject")) {
                 notifyActiveProject = initializationOptions.get("notifyActiveProject").getAsBoolean();
             }
+            if (initializationOptions.has("symbolCachePath")) {
+                symbolCachePath = initializationOptions.get("symbolCachePath").getAsString();
+            }
         }
         actionScriptServices.setClientSupportsSimpleSnippets(supportsSimpleSnippets);
         actionScriptServices.setPreferredRoyaleTarget(preferredRoyaleTarget);
         actionScriptServices.setNotifyActiveProject(notifyActiveProject);
+        if (symbolCachePath != null) {
+            actionScriptServices.setSymbolCachePath(Paths.get(symbolCachePath));
+        }
         // setting everything above should happen before adding workspace folders
         List<WorkspaceFolder> folders = params.getWorkspaceFolders();
         if (folders != null) {
@@ -143,6 +152,7 @@ public class ActionScriptLanguageServer implements LanguageServer, LanguageClien
 
         CompletionOptions completionOptions = new CompletionOptions();
         completionOptions.setTriggerCharacters(Arrays.asList(".", ":", " ", "<"));
+        completionOptions.setResolveProvider(true);
         serverCapabilities.setCompletionProvider(completionOptions);
 
         serverCapabilities.setDefinitionProvider(true);
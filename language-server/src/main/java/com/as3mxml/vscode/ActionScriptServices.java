@@ -38,11 +38,11 @@ import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.apache.royale.compiler.clients.problems.ProblemQuery;
@@ -79,10 +79,12 @@ import org.eclipse.lsp4j.CodeLens;
 import org.eclipse.lsp4j.CodeLensParams;
 import org.eclipse.lsp4j.Command;
 import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemResolveSupportCapabilities;
 import org.eclipse.lsp4j.CompletionList;
 import org.eclipse.lsp4j.CompletionParams;
 import org.eclipse.lsp4j.DefinitionParams;
 import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
@@ -145,10 +147,12 @@ import com.as3mxml.vscode.compiler.problems.LSPFileNotFoundProblem;
 import com.as3mxml.vscode.compiler.problems.LSPMainClassNotFoundProblem;
 import com.as3mxml.vscode.compiler.problems.SyntaxFallbackProblem;
 import com.as3mxml.vscode.formatter.VSCodeFormatterConfiguration;
+import com.as3mxml.vscode.project.ASConfigFileCache;
 import com.as3mxml.vscode.project.ActionScriptProjectData;
 import com.as3mxml.vscode.project.ILspProject;
 import com.as3mxml.vscode.project.IProjectConfigStrategy;
 import com.as3mxml.vscode.project.IProjectConfigStrategyFactory;
+import com.as3mxml.vscode.project.LspWorkspace;
 import com.as3mxml.vscode.project.ProjectOptions;
 import com.as3mxml.vscode.project.SimpleProjectConfigStrategy;
 import com.as3mxml.vscode.providers.CodeActionProvider;
@@ -174,10 +178,20 @@ import com.as3mxml.vscode.utils.CompilationUnitUtils;
 import com.as3mxml.vscode.utils.CompilationUnitUtils.IncludeFileData;
 import com.as3mxml.vscode.utils.CompilerProblemFilter;
 import com.as3mxml.vscode.utils.CompilerProjectUtils;
+import com.as3mxml.vscode.utils.CompletionItemFilter;
+import com.as3mxml.vscode.utils.CompletionItemResolveCache;
+import com.as3mxml.vscode.utils.DefinitionDocumentationUtils;
 import com.as3mxml.vscode.utils.FileTracker;
+import com.as3mxml.vscode.utils.IdentifierOccurrenceIndex;
 import com.as3mxml.vscode.utils.LanguageServerCompilerUtils;
+import com.as3mxml.vscode.utils.LintCache;
+import com.as3mxml.vscode.utils.DiagnosticsPublisher;
+import com.as3mxml.vscode.utils.IncrementalProblemCache;
+import com.as3mxml.vscode.utils.ParallelProblemChecker;
+import com.as3mxml.vscode.utils.ParallelUnitSearch;
 import com.as3mxml.vscode.utils.ProblemTracker;
-import com.as3mxml.vscode.utils.RealTimeProblemsChecker;
+import com.as3mxml.vscode.utils.RealTimeProblemsScheduler;
+import com.as3mxml.vscode.utils.WorkspaceSymbolIndex;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
@@ -209,14 +223,24 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
     private ClientCapabilities clientCapabilities;
     private boolean completionSupportsSnippets = false;
     private boolean completionSupportsSimpleSnippets = false;
+    private boolean completionSupportsResolve = false;
+    private boolean completionResolvesAdditionalTextEdits = false;
+    private CompletionItemResolveCache completionItemResolveCache = new CompletionItemResolveCache();
+    private int completionMaxItems = CompletionItemFilter.DEFAULT_MAX_ITEMS;
     private SymbolCapabilities workspaceSymbolCapabilities;
     private FileTracker fileTracker;
+    private WorkspaceSymbolIndex workspaceSymbolIndex = new WorkspaceSymbolIndex();
     private CompilerProblemFilter compilerProblemFilter = new CompilerProblemFilter();
     private boolean initialized = false;
     private boolean frameworkSDKIsRoyale = false;
     private boolean frameworkSDKIsFallback = false;
-    private RealTimeProblemsChecker realTimeProblemsChecker;
-    private Future<?> realTimeProblemsFuture;
+    private RealTimeProblemsScheduler realTimeProblemsScheduler;
+    private long realTimeProblemsDelay = RealTimeProblemsScheduler.DEFAULT_DELAY;
+    private ParallelProblemChecker parallelProblemChecker = new ParallelProblemChecker();
+    private ParallelUnitSearch parallelUnitSearch = new ParallelUnitSearch();
+    private DiagnosticsPublisher diagnosticsPublisher = new DiagnosticsPublisher();
+    private LintCache lintCache = new LintCache();
+    private IdentifierOccurrenceIndex identifierOccurrenceIndex;
     private Set<URI> notOnSourcePathSet = new HashSet<>();
     private boolean realTimeProblems = true;
     private boolean showFileOutsideSourcePath = true;
@@ -239,10 +263,11 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
     private String jvmargs;
 
     public ActionScriptServices(IProjectConfigStrategyFactory factory) {
-        compilerWorkspace = new Workspace();
+        compilerWorkspace = new LspWorkspace(path -> onCompilerWorkspaceFileChanged(path));
         compilerWorkspace.setASDocDelegate(new VSCodeASDocDelegate(compilerWorkspace));
         fileTracker = new FileTracker(compilerWorkspace);
-        actionScriptProjectManager = new ActionScriptProjectManager(fileTracker, factory,
+        identifierOccurrenceIndex = new IdentifierOccurrenceIndex(fileTracker);
+        actionScriptProjectManager = new ActionScriptProjectManager(fileTracker, diagnosticsPublisher, factory,
                 (projectData) -> onAddProject(projectData), (projectData) -> onRemoveProject(projectData));
         updateFrameworkSDK();
     }
@@ -257,6 +282,10 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         }
     }
 
+    public void setSymbolCachePath(Path value) {
+        workspaceSymbolIndex.setCacheDirectory(value);
+    }
+
     public void setPreferredRoyaleTarget(String value) {
         if (preferredRoyaleTarget == null && value == null) {
             return;
@@ -284,6 +313,26 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         checkProjectForProblems(projectData);
     }
 
+    private void onCompilerWorkspaceFileChanged(String path) {
+        Path changedPath = Paths.get(path);
+        for (ActionScriptProjectData projectData : actionScriptProjectManager.getAllProjectData()) {
+            ILspProject project = projectData.project;
+            if (project == null) {
+                continue;
+            }
+            project.fileChanged(changedPath);
+            // if it's an included file, the parent file changed too
+            IncludeFileData includeFileData = projectData.includedFiles.get(changedPath.toString());
+            if (includeFileData != null) {
+                project.fileChanged(Paths.get(includeFileData.parentPath));
+                // the parent file's definitions may have text from the
+                // included file
+                DefinitionDocumentationUtils.getTextCache()
+                        .fileChanged(FilenameNormalization.normalize(includeFileData.parentPath));
+            }
+        }
+    }
+
     private void onRemoveProject(ActionScriptProjectData projectData) {
     }
 
@@ -305,6 +354,21 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         } catch (NullPointerException e) {
             // ignore
         }
+        completionSupportsResolve = false;
+        completionResolvesAdditionalTextEdits = false;
+        try {
+            CompletionItemResolveSupportCapabilities resolveSupport = clientCapabilities.getTextDocument()
+                    .getCompletion().getCompletionItem().getResolveSupport();
+            if (resolveSupport != null) {
+                // older clients may not resolve completion items at all, so
+                // they always get the detail and documentation immediately
+                completionSupportsResolve = true;
+                completionResolvesAdditionalTextEdits = resolveSupport.getProperties() != null
+                        && resolveSupport.getProperties().contains("additionalTextEdits");
+            }
+        } catch (NullPointerException e) {
+            // ignore
+        }
         workspaceSymbolCapabilities = null;
         try {
             workspaceSymbolCapabilities = clientCapabilities.getWorkspace().getSymbol();
@@ -319,7 +383,7 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
 
     public void setLanguageClient(ActionScriptLanguageClient value) {
         languageClient = value;
-        actionScriptProjectManager.setLanguageClient(languageClient);
+        diagnosticsPublisher.setLanguageClient(languageClient);
     }
 
     public void shutdown() {
@@ -327,16 +391,17 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             compilerShell.dispose();
             compilerShell = null;
         }
-        if (realTimeProblemsFuture != null) {
-            realTimeProblemsChecker.clear();
-            realTimeProblemsChecker = null;
-            realTimeProblemsFuture.cancel(true);
-            realTimeProblemsFuture = null;
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.dispose();
+            realTimeProblemsScheduler = null;
         }
+        parallelProblemChecker.dispose();
+        parallelUnitSearch.dispose();
         if (sourcePathWatcherThread != null) {
             sourcePathWatcherThread.interrupt();
             sourcePathWatcherThread = null;
         }
+        workspaceSymbolIndex.save();
     }
 
     public List<ActionScriptProjectData> getProjects() {
@@ -367,8 +432,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -378,7 +443,9 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         compilerWorkspace.startBuilding();
         try {
             CompletionProvider provider = new CompletionProvider(actionScriptProjectManager, fileTracker,
-                    completionSupportsSnippets, completionSupportsSimpleSnippets, frameworkSDKIsRoyale);
+                    completionSupportsSnippets, completionSupportsSimpleSnippets, frameworkSDKIsRoyale,
+                    completionSupportsResolve ? completionItemResolveCache : null,
+                    completionResolvesAdditionalTextEdits, completionMaxItems);
             return provider.completion(params, cancelToken);
         } finally {
             compilerWorkspace.doneBuilding();
@@ -386,12 +453,34 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
     }
 
     /**
-     * This function is never called. We resolve completion items immediately in
-     * completion() instead of requiring a separate step.
+     * Adds the detail, documentation, and auto-import text edits that
+     * completion() left out of an item, so that they are created only for the
+     * items that the user looks at.
      */
     @Override
     public CompletableFuture<CompletionItem> resolveCompletionItem(CompletionItem unresolved) {
-        return CompletableFuture.completedFuture(new CompletionItem());
+        if (!concurrentRequests) {
+            return CompletableFuture.completedFuture(resolveCompletionItem2(unresolved, null));
+        }
+        return CompletableFutures.computeAsync(compilerWorkspace.getExecutorService(), cancelToken -> {
+            cancelToken.checkCanceled();
+            return resolveCompletionItem2(unresolved, cancelToken);
+        });
+    }
+
+    private CompletionItem resolveCompletionItem2(CompletionItem unresolved, CancelChecker cancelToken) {
+        // pending changes aren't flushed here because the item should
+        // describe the same definition that was found by completion()
+        if (cancelToken != null) {
+            cancelToken.checkCanceled();
+        }
+
+        compilerWorkspace.startBuilding();
+        try {
+            return completionItemResolveCache.resolve(unresolved);
+        } finally {
+            compilerWorkspace.doneBuilding();
+        }
     }
 
     /**
@@ -412,8 +501,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
     private Hover hover2(HoverParams params, CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -448,8 +537,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
     private SignatureHelp signatureHelp2(SignatureHelpParams params, CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -485,8 +574,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -522,8 +611,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -558,8 +647,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -594,8 +683,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
     private List<? extends Location> references2(ReferenceParams params, CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -604,7 +693,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
 
         compilerWorkspace.startBuilding();
         try {
-            ReferencesProvider provider = new ReferencesProvider(actionScriptProjectManager, fileTracker);
+            ReferencesProvider provider = new ReferencesProvider(actionScriptProjectManager, fileTracker,
+                    identifierOccurrenceIndex, parallelUnitSearch, languageClient);
             return provider.references(params, cancelToken);
         } finally {
             compilerWorkspace.doneBuilding();
@@ -638,8 +728,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             WorkspaceSymbolParams params, CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -648,7 +738,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
 
         compilerWorkspace.startBuilding();
         try {
-            WorkspaceSymbolProvider provider = new WorkspaceSymbolProvider(actionScriptProjectManager);
+            WorkspaceSymbolProvider provider = new WorkspaceSymbolProvider(actionScriptProjectManager, fileTracker,
+                    workspaceSymbolIndex);
             provider.symbolCapabilities = workspaceSymbolCapabilities;
             return provider.workspaceSymbol(params, cancelToken);
         } finally {
@@ -670,8 +761,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
     public WorkspaceSymbol resolveWorkspaceSymbol2(WorkspaceSymbol workspaceSymbol, CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -680,7 +771,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
 
         compilerWorkspace.startBuilding();
         try {
-            WorkspaceSymbolProvider provider = new WorkspaceSymbolProvider(actionScriptProjectManager);
+            WorkspaceSymbolProvider provider = new WorkspaceSymbolProvider(actionScriptProjectManager, fileTracker,
+                    workspaceSymbolIndex);
             provider.symbolCapabilities = workspaceSymbolCapabilities;
             return provider.resolveWorkspaceSymbol(workspaceSymbol, cancelToken);
         } finally {
@@ -708,8 +800,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -750,8 +842,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
     private List<Either<Command, CodeAction>> codeAction2(CodeActionParams params, CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -806,8 +898,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
 
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -856,8 +948,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
     private WorkspaceEdit rename2(RenameParams params, CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -866,7 +958,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
 
         compilerWorkspace.startBuilding();
         try {
-            RenameProvider provider = new RenameProvider(actionScriptProjectManager, fileTracker);
+            RenameProvider provider = new RenameProvider(actionScriptProjectManager, fileTracker,
+                    identifierOccurrenceIndex, parallelUnitSearch, languageClient);
             WorkspaceEdit result = provider.rename(params, cancelToken);
             if (result == null) {
                 if (languageClient != null) {
@@ -915,8 +1008,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
     private List<InlayHint> inlayHint2(InlayHintParams params, CancelChecker cancelToken) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow(false);
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         if (cancelToken != null) {
@@ -963,6 +1056,9 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         // example: if we modify to source-path compiler option
         String text = textDocument.getText();
         fileTracker.openFile(path, text);
+        DefinitionDocumentationUtils.getTextCache()
+                .fileChanged(FilenameNormalization.normalize(path.toAbsolutePath().toString()));
+        workspaceSymbolIndex.fileChanged(FilenameNormalization.normalize(path.toAbsolutePath().toString()));
 
         ActionScriptProjectData projectData = actionScriptProjectManager.getProjectDataForSourceFile(path);
         if (projectData == null) {
@@ -1017,6 +1113,9 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             return;
         }
         fileTracker.changeFile(path, params.getContentChanges());
+        DefinitionDocumentationUtils.getTextCache()
+                .fileChanged(FilenameNormalization.normalize(path.toAbsolutePath().toString()));
+        workspaceSymbolIndex.fileChanged(FilenameNormalization.normalize(path.toAbsolutePath().toString()));
 
         ActionScriptProjectData projectData = actionScriptProjectManager.getProjectDataForSourceFile(path);
         if (projectData == null) {
@@ -1033,21 +1132,6 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         String normalizedChangedPathAsString = FilenameNormalization.normalize(path.toAbsolutePath().toString());
         IFileSpecification fileSpec = fileTracker.getFileSpecification(normalizedChangedPathAsString);
 
-        // if we're checking a compilation unit for problems in real time, and
-        // the path of this new change is the same, we'll re-check for problems
-        // when its done
-        // this is the fastest way to check for problems while the user is typing
-
-        if (realTimeProblems && realTimeProblemsChecker != null) {
-            synchronized (realTimeProblemsChecker) {
-                IFileSpecification otherFileSpec = realTimeProblemsChecker.getFileSpecification();
-                if (otherFileSpec != null && otherFileSpec.getPath().equals(normalizedChangedPathAsString)) {
-                    realTimeProblemsChecker.setFileSpecification(fileSpec);
-                    return;
-                }
-            }
-        }
-
         ICompilationUnit unit = null;
         compilerWorkspace.startBuilding();
         try {
@@ -1063,6 +1147,25 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             compilerWorkspace.doneBuilding();
         }
 
+        // while checking for problems in real time, the compiler is notified
+        // of changes when the user stops typing, or when another request needs
+        // the latest changes. this is the fastest way to check for problems
+        // while the user is typing.
+        if (unit != null && realTimeProblems
+                && !projectData.equals(actionScriptProjectManager.getFallbackProjectData())) {
+            if (realTimeProblemsScheduler == null) {
+                realTimeProblemsScheduler = new RealTimeProblemsScheduler(diagnosticsPublisher,
+                        compilerProblemFilter, compilerWorkspace);
+                realTimeProblemsScheduler.setDelay(realTimeProblemsDelay);
+            }
+            realTimeProblemsScheduler.fileChanged(unit, fileSpec, projectData);
+            return;
+        }
+
+        if (realTimeProblemsScheduler != null) {
+            // pass any older pending change to the compiler first
+            realTimeProblemsScheduler.remove(normalizedChangedPathAsString);
+        }
         compilerWorkspace.fileChanged(fileSpec);
 
         if (unit == null) {
@@ -1070,21 +1173,9 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             // entire project, it should be created (or we'll fall back to simple
             // syntax checking)
             checkProjectForProblems(projectData);
-        } else if (realTimeProblems) {
-            if (realTimeProblemsChecker == null) {
-                realTimeProblemsChecker = new RealTimeProblemsChecker(languageClient, compilerProblemFilter);
-                realTimeProblemsFuture = compilerWorkspace.getExecutorService().submit(realTimeProblemsChecker);
-            }
-            if (projectData.equals(actionScriptProjectManager.getFallbackProjectData())) {
-                realTimeProblemsChecker.clear();
-            } else {
-                realTimeProblemsChecker.setCompilationUnit(unit, fileSpec, projectData);
-            }
-        } else if (realTimeProblemsFuture != null) {
-            realTimeProblemsChecker.clear();
-            realTimeProblemsChecker = null;
-            realTimeProblemsFuture.cancel(true);
-            realTimeProblemsFuture = null;
+        } else if (!realTimeProblems && realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.dispose();
+            realTimeProblemsScheduler = null;
         }
     }
 
@@ -1107,7 +1198,14 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             return;
         }
 
+        if (realTimeProblemsScheduler != null) {
+            // the file won't be checked in real time after it is closed
+            realTimeProblemsScheduler.remove(FilenameNormalization.normalize(path.toAbsolutePath().toString()));
+        }
         fileTracker.closeFile(path);
+        DefinitionDocumentationUtils.getTextCache()
+                .fileChanged(FilenameNormalization.normalize(path.toAbsolutePath().toString()));
+        workspaceSymbolIndex.fileChanged(FilenameNormalization.normalize(path.toAbsolutePath().toString()));
 
         boolean clearProblems = false;
 
@@ -1216,6 +1314,19 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
                 continue;
             }
 
+            // line offsets cached for a closed file are no longer valid
+            fileTracker.invalidateLineOffsets(changedPath);
+            // the modification time may have a coarse resolution, so don't
+            // reuse the parsed copy of an asconfig.json file (or a file that
+            // it extends) that is known to have changed
+            ASConfigFileCache.invalidate(changedPath);
+            identifierOccurrenceIndex.remove(changedPath.toString());
+            DefinitionDocumentationUtils.getTextCache()
+                    .fileChanged(FilenameNormalization.normalize(changedPath.toAbsolutePath().toString()));
+            workspaceSymbolIndex
+                    .fileChanged(FilenameNormalization.normalize(changedPath.toAbsolutePath().toString()));
+            actionScriptProjectManager.invalidateConfigFileProbe(changedPath);
+
             // first check if any project's config file has changed
             for (ActionScriptProjectData projectData : actionScriptProjectManager.getAllProjectData()) {
                 IProjectConfigStrategy config = projectData.config;
@@ -1231,6 +1342,9 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
                 ActionScriptProjectData projectData = actionScriptProjectManager
                         .getProjectDataForLinterConfigFile(changedPath);
                 if (projectData != null) {
+                    // the lint problems of every file may have changed
+                    lintCache.invalidateSettings(projectData.projectRoot);
+                    projectData.problemCache.clear();
                     foldersToCheck.add(projectData);
                 }
             }
@@ -1245,6 +1359,9 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
                 if (allProjectData.size() > 0) {
                     IFileSpecification fileSpec = fileTracker.getFileSpecification(normalizedChangedPathAsString);
                     compilerWorkspace.fileChanged(fileSpec);
+                    if (!changedPath.toFile().exists()) {
+                        workspaceSymbolIndex.removeRecord(normalizedChangedPathAsString);
+                    }
                     // for some reason, simply calling fileAdded(),
                     // fileRemoved(), or fileChanged() doesn't always work
                     // properly for SWC files.
@@ -1265,6 +1382,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
                         (changeType.equals(FileChangeType.Changed) && !changedPath.toFile().exists())) {
                     IFileSpecification fileSpec = fileTracker.getFileSpecification(normalizedChangedPathAsString);
                     compilerWorkspace.fileRemoved(fileSpec);
+                    workspaceSymbolIndex.removeRecord(normalizedChangedPathAsString);
+                    lintCache.remove(normalizedChangedPathAsString);
                     clearProblemsForURI(Paths.get(normalizedChangedPathAsString).toUri());
                     // deleting a file may change errors in other existing files,
                     // so we need to do a full check
@@ -1394,6 +1513,9 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         this.updateSDK(settings);
         this.updateQuickCompileEnabled(settings);
         this.updateRealTimeProblems(settings);
+        this.updateRealTimeProblemsDelay(settings);
+        this.updateProblemsMaxParallelism(settings);
+        this.updateCompletionMaxItems(settings);
         this.updateSourcePathWarning(settings);
         this.updateJVMArgs(settings);
         this.updateConcurrentRequests(settings);
@@ -1460,14 +1582,16 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             if (forceChange) {
                 IProjectConfigStrategy config = projectData.config;
                 config.forceChanged();
+                projectData.problemCache.clear();
             }
             checkProjectForProblems(projectData);
         }
         if (fallbackConfig != null) {
+            ActionScriptProjectData projectData = actionScriptProjectManager.getFallbackProjectData();
             if (forceChange) {
                 fallbackConfig.forceChanged();
+                projectData.problemCache.clear();
             }
-            ActionScriptProjectData projectData = actionScriptProjectManager.getFallbackProjectData();
             checkProjectForProblems(projectData);
         }
     }
@@ -2001,6 +2125,9 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
                         configurator = null;
                     } else {
                         project.setTargetSettings(targetSettings);
+                        // the units of the project's SWC libraries may have
+                        // been added without addCompilationUnits()
+                        project.syncCompilationUnits();
                     }
                 }
 
@@ -2042,16 +2169,14 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         ArrayList<Diagnostic> diagnostics = new ArrayList<>();
         publish.setDiagnostics(diagnostics);
         publish.setUri(uri.toString());
-        if (languageClient != null) {
-            languageClient.publishDiagnostics(publish);
-        }
+        diagnosticsPublisher.publish(publish);
     }
 
     private void checkProjectForProblems(ActionScriptProjectData projectData) {
         // make sure that the latest changes have been passed to
         // workspace.fileChanged() before proceeding
-        if (realTimeProblemsChecker != null) {
-            realTimeProblemsChecker.updateNow();
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.flushPendingChanges();
         }
 
         getProject(projectData);
@@ -2100,6 +2225,11 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             if (!hasFatalProblems) {
                 checkReachableCompilationUnitsForErrors(problemQuery, projectData);
             }
+        } catch (InterruptedException e) {
+            // some units weren't checked, so the problems are incomplete and
+            // shouldn't replace the ones that were published before
+            Thread.currentThread().interrupt();
+            return;
         } finally {
             compilerWorkspace.doneBuilding();
         }
@@ -2159,9 +2289,9 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         } else {
             problemTracker.makeStale();
         }
-        if (languageClient != null) {
-            filesMap.values().forEach(languageClient::publishDiagnostics);
-        }
+        // files with the same problems as the last time that they were
+        // published are skipped
+        filesMap.values().forEach(diagnosticsPublisher::publish);
     }
 
     private ProblemQuery projectDataToProblemQuery(ActionScriptProjectData projectData) {
@@ -2172,42 +2302,47 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         return new ProblemQuery(compilerProblemSettings);
     }
 
-    private void populateCompilationUnits(ILspProject project) {
-        List<ICompilerProblem> problems = new ArrayList<>();
-        boolean continueCheckingForErrors = true;
-        while (continueCheckingForErrors) {
-            try {
-                // at this point, we want to build all compilation units,
-                // including the ones that aren't considered reachable yet.
-                // we'll filter out the unreachable units later
-                for (ICompilationUnit unit : project.getCompilationUnits()) {
-                    if (unit == null) {
-                        continue;
-                    }
-                    UnitType unitType = unit.getCompilationUnitType();
-                    if (!UnitType.AS_UNIT.equals(unitType) && !UnitType.MXML_UNIT.equals(unitType)) {
-                        // compiled compilation units won't have problems
-                        continue;
-                    }
-                    // reuse the existing list so that we don't allocate a list
-                    // for every compilation unit
-                    problems.clear();
-
-                    checkCompilationUnitForAllProblems(unit, project, problems);
-                    problems.clear();
+    private void populateCompilationUnits(ILspProject project) throws InterruptedException {
+        // at this point, we want to build all compilation units,
+        // including the ones that aren't considered reachable yet.
+        // we'll filter out the unreachable units later.
+        // building a compilation unit may add more units to the project, so
+        // keep building new units until there aren't any more.
+        Set<ICompilationUnit> visitedUnits = new HashSet<>();
+        while (true) {
+            List<ICompilationUnit> unitsToBuild = new ArrayList<>();
+            for (ICompilationUnit unit : getCompilationUnitsSnapshot(project)) {
+                if (unit == null || !visitedUnits.add(unit)) {
+                    continue;
+                }
+                UnitType unitType = unit.getCompilationUnitType();
+                if (!UnitType.AS_UNIT.equals(unitType) && !UnitType.MXML_UNIT.equals(unitType)) {
+                    // compiled compilation units won't have problems
+                    continue;
                 }
-                continueCheckingForErrors = false;
+                unitsToBuild.add(unit);
+            }
+            if (unitsToBuild.size() == 0) {
+                break;
+            }
+            // the problems are reported later, for reachable units only
+            parallelProblemChecker.check(unitsToBuild, (unit, problems) -> buildCompilationUnit(unit, problems));
+        }
+    }
+
+    private List<ICompilationUnit> getCompilationUnitsSnapshot(ILspProject project) {
+        while (true) {
+            try {
+                return new ArrayList<>(project.getCompilationUnits());
             } catch (ConcurrentModificationException e) {
-                // when we finished building one of the compilation
-                // units, more were added to the collection, so we need
-                // to start over because we can't iterate over a modified
-                // collection.
+                // a compilation unit was added while copying, which is
+                // unlikely, but copying again is cheap
             }
         }
     }
 
     private void checkReachableCompilationUnitsForErrors(ProblemQuery problemQuery,
-            ActionScriptProjectData projectData) {
+            ActionScriptProjectData projectData) throws InterruptedException {
         if (!initialized) {
             // do this later because we can't publish diagnostics yet
             return;
@@ -2270,7 +2405,7 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         // start fresh when checking all compilation units
         projectData.includedFiles.clear();
 
-        List<ICompilerProblem> problems = new ArrayList<>();
+        List<ICompilationUnit> unitsToCheck = new ArrayList<>();
         List<ICompilationUnit> reachableUnits = new ArrayList<>();
         // there shouldn't be any concurrent modification exceptions when looping
         // over the reachable units, but to be safe, copy all of the compilation
@@ -2297,9 +2432,7 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
                 PublishDiagnosticsParams publish = new PublishDiagnosticsParams();
                 publish.setDiagnostics(new ArrayList<>());
                 publish.setUri(unitUri.toString());
-                if (languageClient != null) {
-                    languageClient.publishDiagnostics(publish);
-                }
+                diagnosticsPublisher.publish(publish);
             }
 
             // we don't check for errors in the fallback project
@@ -2328,25 +2461,95 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
                 continue;
             }
 
-            // reuse the existing list so that we don't allocate a list
-            // for every compilation unit
-            problems.clear();
+            unitsToCheck.add(unit);
+        }
 
-            // we should have already built, so this will be fast
-            // if we hadn't built, we would not have all of the roots
-            checkCompilationUnitForAllProblems(unit, project, problems);
+        // only the units that changed since the last check, and the units
+        // that depend on them, need to be checked again
+        Set<String> unitPaths = new LinkedHashSet<>();
+        for (ICompilationUnit unit : unitsToCheck) {
+            unitPaths.add(unit.getAbsoluteFilename());
+        }
+        IncrementalProblemCache problemCache = projectData.problemCache;
+        Set<String> pathsToCheck = problemCache.getPathsToCheck(project, unitPaths,
+                unitPath -> fileTracker.getModificationStamp(Paths.get(unitPath)));
+        List<ICompilationUnit> changedUnits = new ArrayList<>();
+        for (ICompilationUnit unit : unitsToCheck) {
+            if (pathsToCheck.contains(unit.getAbsoluteFilename())) {
+                changedUnits.add(unit);
+            }
+        }
+
+        // we should have already built, so this will be fast
+        // if we hadn't built, we would not have all of the roots
+        Map<String, List<ICompilerProblem>> problemsByPath = parallelProblemChecker.check(changedUnits,
+                (unit, problems) -> checkCompilationUnitForAllProblems(unit, projectData, problems));
+        for (String unitPath : unitPaths) {
+            List<ICompilerProblem> problems = problemsByPath.get(unitPath);
+            if (problems == null) {
+                problems = problemCache.getProblems(unitPath);
+                if (problems == null) {
+                    continue;
+                }
+            }
             problemQuery.addAll(problems);
-            // clear for the next compilation unit
-            problems.clear();
+        }
 
-            // just to be safe, find all of the included files
-            // after we've checked for problems
+        // just to be safe, find all of the included files
+        // after we've checked for problems
+        for (ICompilationUnit unit : unitsToCheck) {
             CompilationUnitUtils.findIncludedFiles(unit, projectData.includedFiles);
         }
+
+        // a unit's problems may come from the files that it includes, so
+        // the unit needs to be checked again when they change
+        Map<String, Set<String>> includedPathsByParent = new HashMap<>();
+        for (Map.Entry<String, IncludeFileData> entry : projectData.includedFiles.entrySet()) {
+            String includedPath = entry.getKey();
+            String parentPath = entry.getValue().parentPath;
+            if (includedPath.equals(parentPath)) {
+                // <fx:Script> without a source attribute
+                continue;
+            }
+            includedPathsByParent.computeIfAbsent(parentPath, key -> new HashSet<>()).add(includedPath);
+        }
+        for (ICompilationUnit unit : changedUnits) {
+            String unitPath = unit.getAbsoluteFilename();
+            List<ICompilerProblem> problems = problemsByPath.get(unitPath);
+            boolean hasErrors = problems.stream().anyMatch(problem -> DiagnosticSeverity.Error
+                    .equals(LanguageServerCompilerUtils.getDiagnosticSeverityFromCompilerProblem(problem)));
+            Set<String> includedPaths = includedPathsByParent.getOrDefault(unitPath, Collections.emptySet());
+            problemCache.put(unitPath, problems, project.getPathsOfDependencies(unit), includedPaths, hasErrors);
+        }
     }
 
-    private void checkCompilationUnitForAllProblems(ICompilationUnit unit, ILspProject project,
+    private void buildCompilationUnit(ICompilationUnit unit, List<ICompilerProblem> problems) {
+        try {
+            if (initialized) {
+                // if we pass in null, it's designed to ignore certain errors
+                // that don't matter for IDE code intelligence.
+                unit.waitForBuildFinish(problems, null);
+            } else {
+                // we can't publish diagnostics yet, but we can start the build
+                // process in the background so that it's faster when we're ready
+                // to publish diagnostics after initialization
+                unit.getSyntaxTreeRequest();
+                unit.getFileScopeRequest();
+                unit.getOutgoingDependenciesRequest();
+                unit.getABCBytesRequest();
+            }
+        } catch (Exception e) {
+            System.err.println("Exception during waitForBuildFinish(): " + e);
+            e.printStackTrace(System.err);
+
+            InternalCompilerProblem problem = new InternalCompilerProblem(e);
+            problems.add(problem);
+        }
+    }
+
+    private void checkCompilationUnitForAllProblems(ICompilationUnit unit, ActionScriptProjectData projectData,
             List<ICompilerProblem> problems) {
+        ILspProject project = projectData.project;
         try {
             if (initialized) {
                 // if we pass in null, it's designed to ignore certain errors
@@ -2363,8 +2566,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
                     ASTUtils.findDisabledConfigConditionBlockProblems(ast, problems);
                 }
                 if (lint_enabled) {
-                    LintingProvider lintingProvider = new LintingProvider(fileTracker);
-                    lintingProvider.linting(unit.getAbsoluteFilename(), problems);
+                    LintingProvider lintingProvider = new LintingProvider(fileTracker, lintCache);
+                    lintingProvider.linting(projectData.projectRoot, unit.getAbsoluteFilename(), problems);
                 }
             } else {
                 // we can't publish diagnostics yet, but we can start the build
@@ -2481,7 +2684,60 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
         realTimeProblems = newRealTimeProblems;
         if (newRealTimeProblems) {
             checkForProblemsNow(true);
+        } else if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.dispose();
+            realTimeProblemsScheduler = null;
+        }
+    }
+
+    private void updateRealTimeProblemsDelay(JsonObject settings) {
+        if (!settings.has("as3mxml")) {
+            return;
+        }
+        JsonObject as3mxml = settings.get("as3mxml").getAsJsonObject();
+        if (!as3mxml.has("problems")) {
+            return;
+        }
+        JsonObject problems = as3mxml.get("problems").getAsJsonObject();
+        if (!problems.has("realTimeDelay")) {
+            return;
+        }
+        realTimeProblemsDelay = problems.get("realTimeDelay").getAsLong();
+        if (realTimeProblemsScheduler != null) {
+            realTimeProblemsScheduler.setDelay(realTimeProblemsDelay);
+        }
+    }
+
+    private void updateProblemsMaxParallelism(JsonObject settings) {
+        if (!settings.has("as3mxml")) {
+            return;
+        }
+        JsonObject as3mxml = settings.get("as3mxml").getAsJsonObject();
+        if (!as3mxml.has("problems")) {
+            return;
+        }
+        JsonObject problems = as3mxml.get("problems").getAsJsonObject();
+        if (!problems.has("maxParallelism")) {
+            return;
+        }
+        int maxParallelism = problems.get("maxParallelism").getAsInt();
+        parallelProblemChecker.setParallelism(maxParallelism);
+        parallelUnitSearch.setParallelism(maxParallelism);
+    }
+
+    private void updateCompletionMaxItems(JsonObject settings) {
+        if (!settings.has("as3mxml")) {
+            return;
+        }
+        JsonObject as3mxml = settings.get("as3mxml").getAsJsonObject();
+        if (!as3mxml.has("completion")) {
+            return;
+        }
+        JsonObject completion = as3mxml.get("completion").getAsJsonObject();
+        if (!completion.has("maxItems")) {
+            return;
         }
+        completionMaxItems = completion.get("maxItems").getAsInt();
     }
 
     private void updateSourcePathWarning(JsonObject settings) {
@@ -3084,6 +3340,8 @@ public class ActionScriptServices implements TextDocumentService, WorkspaceServi
             return;
         }
         lint_enabled = newLintEnabled;
+        // the linter config file isn't watched while linting is disabled
+        lintCache.clear();
         checkForProblemsNow(true);
     }
 
@@ -0,0 +1,257 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.asdoc;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.dom4j.Attribute;
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.Element;
+import org.dom4j.io.SAXReader;
+
+/**
+ * Caches the parsed DITA documentation of each package in a SWC, so that
+ * looking up the documentation of another definition in the same package
+ * doesn't need to read and parse the XML again.
+ *
+ * The cache is limited by the total size of the XML that it has parsed, and
+ * the least recently used packages are removed first. The parsed documents are
+ * softly referenced, so they may also be released if memory runs low. An entry
+ * is replaced when the SWC file's modification time or size changes.
+ *
+ * A few SWC files are kept open, so that loading multiple packages from the
+ * same SWC doesn't need to open it again each time.
+ */
+public class PackageDITACache {
+	private static final long MAX_XML_BYTES = 32L * 1024L * 1024L;
+	private static final int MAX_ENTRIES = 1024;
+	private static final int MAX_OPEN_ZIP_FILES = 8;
+	// used when the size of a zip entry is unknown
+	private static final long DEFAULT_XML_BYTES = 64L * 1024L;
+
+	public interface FallbackDocsResolver {
+		/**
+		 * Returns a file on the file system that contains the package's DITA,
+		 * if the SWC doesn't contain it, or null.
+		 */
+		File getFallbackDocsFile(File swcFile, String packageName);
+	}
+
+	/**
+	 * The DITA for a package, with its top-level elements indexed by element
+	 * name and ID.
+	 */
+	public static class PackageDITA {
+		private Document document;
+		private Map<String, Element> elementsByNameAndID = new HashMap<>();
+
+		public PackageDITA(Document document) {
+			this.document = document;
+			for (Object element : document.getRootElement().elements()) {
+				Element childElement = (Element) element;
+				Attribute idAttribute = childElement.attribute("id");
+				if (idAttribute == null) {
+					continue;
+				}
+				// like a search of the elements, the first match is used
+				elementsByNameAndID.putIfAbsent(getKey(childElement.getName(), idAttribute.getStringValue()),
+						childElement);
+			}
+		}
+
+		public Document getDocument() {
+			return document;
+		}
+
+		public Element getElement(String elementName, String id) {
+			return elementsByNameAndID.get(getKey(elementName, id));
+		}
+
+		private static String getKey(String elementName, String id) {
+			return elementName + " " + id;
+		}
+	}
+
+	private static class CacheEntry {
+		public long lastModified;
+		public long length;
+		public long xmlBytes;
+		// null if the package doesn't have any DITA
+		public SoftReference<PackageDITA> dita;
+	}
+
+	private static class OpenZipFile {
+		public ZipFile zipFile;
+		public long lastModified;
+		public long length;
+	}
+
+	private FallbackDocsResolver fallbackDocsResolver;
+	private LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private LinkedHashMap<String, OpenZipFile> openZipFiles = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalXMLBytes = 0L;
+
+	public PackageDITACache(FallbackDocsResolver fallbackDocsResolver) {
+		this.fallbackDocsResolver = fallbackDocsResolver;
+	}
+
+	/**
+	 * Returns the DITA for the package in the SWC, or null if there is none.
+	 */
+	public synchronized PackageDITA get(File swcFile, String packageName) {
+		String key = swcFile.getAbsolutePath() + "\n" + packageName;
+		long lastModified = swcFile.lastModified();
+		long length = swcFile.length();
+		CacheEntry entry = entries.get(key);
+		if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+			if (entry.dita == null) {
+				// this package has no DITA
+				return null;
+			}
+			PackageDITA dita = entry.dita.get();
+			if (dita != null) {
+				return dita;
+			}
+			// the garbage collector released it, so it needs to be parsed again
+		}
+		if (entry != null) {
+			removeEntry(key);
+		}
+		entry = new CacheEntry();
+		entry.lastModified = lastModified;
+		entry.length = length;
+		PackageDITA dita = load(swcFile, packageName, lastModified, length, entry);
+		if (dita != null) {
+			entry.dita = new SoftReference<>(dita);
+		}
+		entries.put(key, entry);
+		totalXMLBytes += entry.xmlBytes;
+		trimEntries();
+		return dita;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		totalXMLBytes = 0L;
+		for (OpenZipFile openZipFile : openZipFiles.values()) {
+			closeZipFile(openZipFile.zipFile);
+		}
+		openZipFiles.clear();
+	}
+
+	private PackageDITA load(File swcFile, String packageName, long lastModified, long length, CacheEntry entry) {
+		InputStream stream = null;
+		try {
+			ZipFile zipFile = getZipFile(swcFile, lastModified, length);
+			if (zipFile != null) {
+				ZipEntry zipEntry = zipFile.getEntry("docs/" + packageName + ".xml");
+				if (zipEntry != null) {
+					stream = zipFile.getInputStream(zipEntry);
+					entry.xmlBytes = zipEntry.getSize() >= 0 ? zipEntry.getSize() : DEFAULT_XML_BYTES;
+				}
+			}
+			if (stream == null && fallbackDocsResolver != null) {
+				File docsFile = fallbackDocsResolver.getFallbackDocsFile(swcFile, packageName);
+				if (docsFile != null && docsFile.isFile()) {
+					stream = new FileInputStream(docsFile);
+					entry.xmlBytes = docsFile.length();
+				}
+			}
+			if (stream == null) {
+				return null;
+			}
+			SAXReader xmlReader = new SAXReader();
+			return new PackageDITA(xmlReader.read(stream));
+		} catch (IOException e) {
+			return null;
+		} catch (DocumentException e) {
+			return null;
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	private ZipFile getZipFile(File swcFile, long lastModified, long length) throws IOException {
+		String key = swcFile.getAbsolutePath();
+		OpenZipFile openZipFile = openZipFiles.get(key);
+		if (openZipFile != null) {
+			if (openZipFile.lastModified == lastModified && openZipFile.length == length) {
+				return openZipFile.zipFile;
+			}
+			openZipFiles.remove(key);
+			closeZipFile(openZipFile.zipFile);
+		}
+		if (!swcFile.isFile()) {
+			return null;
+		}
+		openZipFile = new OpenZipFile();
+		openZipFile.zipFile = new ZipFile(swcFile);
+		openZipFile.lastModified = lastModified;
+		openZipFile.length = length;
+		openZipFiles.put(key, openZipFile);
+		if (openZipFiles.size() > MAX_OPEN_ZIP_FILES) {
+			Iterator<OpenZipFile> iterator = openZipFiles.values().iterator();
+			OpenZipFile eldest = iterator.next();
+			iterator.remove();
+			closeZipFile(eldest.zipFile);
+		}
+		return openZipFile.zipFile;
+	}
+
+	private void removeEntry(String key) {
+		CacheEntry entry = entries.remove(key);
+		if (entry != null) {
+			totalXMLBytes -= entry.xmlBytes;
+		}
+	}
+
+	private void trimEntries() {
+		Iterator<CacheEntry> iterator = entries.values().iterator();
+		// always keep the most recently used entry, even if it's very large
+		while ((totalXMLBytes > MAX_XML_BYTES || entries.size() > MAX_ENTRIES) && entries.size() > 1) {
+			CacheEntry eldest = iterator.next();
+			iterator.remove();
+			totalXMLBytes -= eldest.xmlBytes;
+		}
+	}
+
+	private static void closeZipFile(ZipFile zipFile) {
+		try {
+			zipFile.close();
+		} catch (IOException e) {
+		}
+	}
+}
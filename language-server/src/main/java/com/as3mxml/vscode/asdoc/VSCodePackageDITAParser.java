@@ -19,15 +19,10 @@
 package com.as3mxml.vscode.asdoc;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.zip.ZipException;
-import java.util.zip.ZipFile;
 
 import org.apache.royale.compiler.asdoc.IASDocComment;
 import org.apache.royale.compiler.asdoc.IPackageDITAParser;
@@ -47,7 +42,6 @@ import org.apache.royale.compiler.workspaces.IWorkspace;
 import org.apache.royale.swc.ISWC;
 import org.apache.royale.swc.dita.IDITAEntry;
 import org.apache.royale.swc.dita.IDITAList;
-import org.apache.royale.swc.io.SWCReader;
 import org.dom4j.Attribute;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
@@ -60,11 +54,32 @@ import org.dom4j.io.SAXReader;
  */
 public final class VSCodePackageDITAParser implements IPackageDITAParser {
 	private IWorkspace workspace;
+	private PackageDITACache packageDITACache = new PackageDITACache(
+			(swcFile, packageName) -> getFallbackDocsFile(swcFile, packageName));
 
 	public VSCodePackageDITAParser(IWorkspace workspace) {
 		this.workspace = workspace;
 	}
 
+	/**
+	 * The playerglobal and airglobal SWCs don't contain their documentation,
+	 * so it is read from a separate folder that is distributed with the
+	 * language server.
+	 */
+	private static File getFallbackDocsFile(File swcFile, String packageName) {
+		String fileName = swcFile.getName();
+		if (!fileName.endsWith(".swc") || (!fileName.contains("playerglobal") && !fileName.contains("airglobal"))) {
+			return null;
+		}
+		try {
+			File jarPath = new File(
+					VSCodePackageDITAParser.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+			return new File(jarPath.getParentFile().getParentFile(), "playerglobal_docs/" + packageName + ".xml");
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+
 	public IDITAList parse(String swcFilePath, InputStream stream) {
 		SAXReader xmlReader = new SAXReader();
 		Document xmlDoc = null;
@@ -229,15 +244,16 @@ public final class VSCodePackageDITAParser implements IPackageDITAParser {
 			}
 
 			private Element getDefinitionDITAFromPackageDITA(IDefinition definition) {
-				InputStream packageDITAStream = getPackageDITAStream(definition.getPackageName());
-				if (packageDITAStream == null) {
+				String packageName = definition.getPackageName();
+				if (packageName == null || packageName.length() == 0) {
+					packageName = "__Global__";
+				}
+				ISWC swc = workspace.getSWCManager().get(new File(swcFilePath));
+				if (swc == null) {
 					return null;
 				}
-				SAXReader xmlReader = new SAXReader();
-				Document xmlDoc = null;
-				try {
-					xmlDoc = xmlReader.read(packageDITAStream);
-				} catch (DocumentException e) {
+				PackageDITACache.PackageDITA packageDITA = packageDITACache.get(swc.getSWCFile(), packageName);
+				if (packageDITA == null) {
 					return null;
 				}
 				String elementName = null;
@@ -254,57 +270,16 @@ public final class VSCodePackageDITAParser implements IPackageDITAParser {
 						builder.append("globalClassifier:");
 					}
 				}
+				if (elementName == null) {
+					return null;
+				}
 				if (definition.getPackageName().length() > 0) {
 					builder.append(definition.getPackageName());
 					builder.append(":");
 				}
 				builder.append(definition.getBaseName());
 				String definitionID = builder.toString();
-
-				for (Object element : xmlDoc.getRootElement().elements(elementName)) {
-					Element childElement = (Element) element;
-					Attribute idAttribute = childElement.attribute("id");
-					if (idAttribute != null && idAttribute.getStringValue().equals(definitionID)) {
-						return childElement;
-					}
-				}
-				return null;
-			}
-
-			private InputStream getPackageDITAStream(String packageName) {
-				if (packageName == null || packageName.length() == 0) {
-					packageName = "__Global__";
-				}
-				InputStream stream = null;
-				String fileName = new File(swcFilePath).getName();
-				String filePath = "docs/" + packageName + ".xml";
-				ISWC swc = workspace.getSWCManager().get(new File(swcFilePath));
-				if (swc == null) {
-					return null;
-				}
-				try {
-					ZipFile zipFile = new ZipFile(swc.getSWCFile());
-					stream = SWCReader.getInputStream(zipFile, filePath);
-				} catch (ZipException e) {
-					return null;
-				} catch (IOException e) {
-					return null;
-				}
-				if (stream == null && fileName.endsWith(".swc")
-						&& (fileName.contains("playerglobal") || fileName.contains("airglobal"))) {
-					try {
-						File jarPath = new File(VSCodePackageDITAParser.class.getProtectionDomain().getCodeSource()
-								.getLocation().toURI());
-						File docsFile = new File(jarPath.getParentFile().getParentFile(),
-								"playerglobal_docs/" + packageName + ".xml");
-						stream = new FileInputStream(docsFile);
-					} catch (URISyntaxException e) {
-						return null;
-					} catch (FileNotFoundException e) {
-						return null;
-					}
-				}
-				return stream;
+				return packageDITA.getElement(elementName, definitionID);
 			}
 		};
 	}
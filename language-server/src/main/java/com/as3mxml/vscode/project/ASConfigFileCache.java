@@ -0,0 +1,131 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.project;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.ValidationMessage;
+import com.networknt.schema.SpecVersion.VersionFlag;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Shares the compiled asconfig.json schema between all projects, and caches
+ * the parsed and validated contents of each asconfig.json file, including
+ * any files that are referenced with "extends". A file is read and validated
+ * again only if its modification time or size has changed, so workspace
+ * folders that extend the same base config share one parsed copy.
+ *
+ * The cached JSON is shared, so callers must not modify it.
+ */
+public class ASConfigFileCache {
+	private static final String SCHEMA_PATH = "/schemas/asconfig.schema.json";
+
+	private static class ParsedFile {
+		public long lastModified;
+		public long size;
+		// null if the file isn't valid
+		public JsonNode json;
+	}
+
+	private static JsonSchema schema;
+	private static ObjectMapper mapper;
+	private static Map<Path, ParsedFile> parsedFiles = new ConcurrentHashMap<>();
+
+	static {
+		mapper = new ObjectMapper();
+		// VSCode allows comments, so we should too
+		mapper.configure(JsonParser.Feature.ALLOW_COMMENTS, true);
+		mapper.configure(JsonParser.Feature.ALLOW_TRAILING_COMMA, true);
+	}
+
+	/**
+	 * Returns the asconfig.json schema, which is compiled the first time that
+	 * it is requested.
+	 */
+	public static synchronized JsonSchema getSchema() throws IOException {
+		if (schema == null) {
+			try (InputStream schemaInputStream = ASConfigFileCache.class.getResourceAsStream(SCHEMA_PATH)) {
+				if (schemaInputStream == null) {
+					throw new IOException("Resource not found: " + SCHEMA_PATH);
+				}
+				JsonSchemaFactory factory = JsonSchemaFactory.getInstance(VersionFlag.V7);
+				schema = factory.getSchema(schemaInputStream);
+			}
+		}
+		return schema;
+	}
+
+	/**
+	 * Returns the parsed contents of an asconfig.json file, or null if the
+	 * file can't be read, or if it isn't valid JSON, or if it doesn't match
+	 * the schema.
+	 */
+	public static JsonNode getJson(Path path) throws IOException {
+		JsonSchema compiledSchema = getSchema();
+		Path absolutePath = path.toAbsolutePath().normalize();
+		File file = absolutePath.toFile();
+		long lastModified = file.lastModified();
+		long size = file.length();
+		ParsedFile parsedFile = parsedFiles.get(absolutePath);
+		if (parsedFile != null && parsedFile.lastModified == lastModified && parsedFile.size == size) {
+			return parsedFile.json;
+		}
+		parsedFile = new ParsedFile();
+		parsedFile.lastModified = lastModified;
+		parsedFile.size = size;
+		try {
+			String contents = FileUtils.readFileToString(file, "utf-8");
+			JsonNode json = mapper.readTree(contents);
+			Set<ValidationMessage> errors = compiledSchema.validate(json);
+			if (errors.isEmpty()) {
+				parsedFile.json = json;
+			}
+		} catch (Exception e) {
+			// this exception is expected sometimes if the JSON is invalid
+		}
+		if (lastModified == 0L) {
+			// the file doesn't exist, so there's nothing worth caching
+			parsedFiles.remove(absolutePath);
+		} else {
+			parsedFiles.put(absolutePath, parsedFile);
+		}
+		return parsedFile.json;
+	}
+
+	/**
+	 * Call when a file is deleted, or when its contents may have changed
+	 * without a change to its modification time or size.
+	 */
+	public static void invalidate(Path path) {
+		parsedFiles.remove(path.toAbsolutePath().normalize());
+	}
+
+	public static void clear() {
+		parsedFiles.clear();
+	}
+}
@@ -16,7 +16,6 @@ limitations under the License.
 package com.as3mxml.vscode.project;
 
 import java.io.File;
-import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URISyntaxException;
@@ -27,15 +26,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 
-import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.networknt.schema.JsonSchema;
-import com.networknt.schema.JsonSchemaFactory;
-import com.networknt.schema.ValidationMessage;
-import com.networknt.schema.SpecVersion.VersionFlag;
 import com.as3mxml.asconfigc.ASConfigCException;
 import com.as3mxml.asconfigc.TopLevelFields;
 import com.as3mxml.asconfigc.compiler.CompilerOptions;
@@ -47,7 +39,6 @@ import com.as3mxml.asconfigc.utils.JsonUtils;
 import com.as3mxml.asconfigc.utils.OptionsUtils;
 import com.as3mxml.vscode.utils.ActionScriptSDKUtils;
 
-import org.apache.commons.io.FileUtils;
 import org.eclipse.lsp4j.WorkspaceFolder;
 
 /**
@@ -127,10 +118,9 @@ public class ASConfigProjectConfigStrategy implements IProjectConfigStrategy {
         List<String> compilerOptions = null;
         List<String> targets = null;
         List<String> sourcePaths = null;
-        JsonSchema schema = null;
-        try (InputStream schemaInputStream = getClass().getResourceAsStream("/schemas/asconfig.schema.json")) {
-            JsonSchemaFactory factory = JsonSchemaFactory.getInstance(VersionFlag.V7);
-            schema = factory.getSchema(schemaInputStream);
+        try {
+            // compile the schema now, so that a failure is reported
+            ASConfigFileCache.getSchema();
         } catch (Exception e) {
             // this exception is unexpected, so it should be reported
             System.err.println("Failed to load asconfig.json schema: " + e);
@@ -142,20 +132,15 @@ public class ASConfigProjectConfigStrategy implements IProjectConfigStrategy {
         while (currentAsconfigFile != null) {
             JsonNode currentJson = null;
             try {
-                String contents = FileUtils.readFileToString(currentAsconfigFile, "utf-8");
-                ObjectMapper mapper = new ObjectMapper();
-                // VSCode allows comments, so we should too
-                mapper.configure(JsonParser.Feature.ALLOW_COMMENTS, true);
-                mapper.configure(JsonParser.Feature.ALLOW_TRAILING_COMMA, true);
-                currentJson = mapper.readTree(contents);
-                Set<ValidationMessage> errors = schema.validate(currentJson);
-                if (!errors.isEmpty()) {
-                    // don't print anything to the console. the editor will validate
-                    // and display any errors, if necessary.
-                    return null;
-                }
+                // files that haven't changed since the last time are not read
+                // or validated again
+                currentJson = ASConfigFileCache.getJson(currentAsconfigFile.toPath());
             } catch (Exception e) {
-                // this exception is expected sometimes if the JSON is invalid
+                return null;
+            }
+            if (currentJson == null) {
+                // don't print anything to the console. the editor will validate
+                // and display any errors, if necessary.
                 return null;
             }
             if (json != null) {
@@ -21,6 +21,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.as3mxml.vscode.utils.CompilationUnitUtils.IncludeFileData;
+import com.as3mxml.vscode.utils.DefinitionDocumentationUtils;
+import com.as3mxml.vscode.utils.IncrementalProblemCache;
 import com.as3mxml.vscode.utils.LanguageServerCompilerUtils;
 import com.as3mxml.vscode.utils.ProblemTracker;
 
@@ -56,6 +58,7 @@ public class ActionScriptProjectData {
 	public Map<WatchKey, Path> sourceOrLibraryPathWatchKeys = new HashMap<>();
 	public ProblemTracker codeProblemTracker = new ProblemTracker();
 	public ProblemTracker configProblemTracker = new ProblemTracker();
+	public IncrementalProblemCache problemCache = new IncrementalProblemCache();
 	public Map<String, IncludeFileData> includedFiles = new HashMap<>();
 
 	public void cleanup() {
@@ -71,6 +74,7 @@ public class ActionScriptProjectData {
 				}
 				project = null;
 				currentProject.delete();
+				DefinitionDocumentationUtils.getTextCache().removeProject(currentProject);
 			} finally {
 				workspace.endIdleState(IWorkspace.NIL_COMPILATIONUNITS_TO_UPDATE);
 			}
@@ -81,6 +85,7 @@ public class ActionScriptProjectData {
 		}
 		sourceOrLibraryPathWatchKeys.clear();
 
+		problemCache.clear();
 		configurator = null;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.project;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.royale.compiler.units.ICompilationUnit;
+
+/**
+ * Maps the normalized absolute path of each compilation unit in a project to
+ * the unit itself, so that finding the unit for an open file doesn't require
+ * a scan of every unit in the project. Kept in sync by the project as units
+ * are added and removed.
+ *
+ * If multiple units have the same path, the first one added is returned, which
+ * matches the old behavior of a linear scan. If that unit is removed, the next
+ * one is returned instead.
+ */
+public class CompilationUnitPathIndex {
+	// the lists are never modified after they're added to the map, so they
+	// may be read without locking
+	private Map<Path, List<ICompilationUnit>> pathToUnits = new ConcurrentHashMap<>();
+
+	public ICompilationUnit get(Path path) {
+		if (path == null) {
+			return null;
+		}
+		List<ICompilationUnit> units = pathToUnits.get(normalize(path));
+		if (units == null || units.isEmpty()) {
+			return null;
+		}
+		return units.get(0);
+	}
+
+	/**
+	 * Returns every unit with the specified path.
+	 */
+	public List<ICompilationUnit> getAll(Path path) {
+		if (path == null) {
+			return Collections.emptyList();
+		}
+		List<ICompilationUnit> units = pathToUnits.get(normalize(path));
+		if (units == null) {
+			return Collections.emptyList();
+		}
+		return units;
+	}
+
+	public void add(ICompilationUnit unit) {
+		Path path = getPath(unit);
+		if (path == null) {
+			return;
+		}
+		pathToUnits.compute(path, (key, oldUnits) -> {
+			if (oldUnits == null) {
+				return Collections.singletonList(unit);
+			}
+			if (oldUnits.contains(unit)) {
+				return oldUnits;
+			}
+			List<ICompilationUnit> newUnits = new ArrayList<>(oldUnits);
+			newUnits.add(unit);
+			return Collections.unmodifiableList(newUnits);
+		});
+	}
+
+	public void addAll(Collection<ICompilationUnit> units) {
+		if (units == null) {
+			return;
+		}
+		for (ICompilationUnit unit : units) {
+			add(unit);
+		}
+	}
+
+	public void remove(ICompilationUnit unit) {
+		Path path = getPath(unit);
+		if (path == null) {
+			return;
+		}
+		pathToUnits.computeIfPresent(path, (key, oldUnits) -> {
+			if (!oldUnits.contains(unit)) {
+				return oldUnits;
+			}
+			List<ICompilationUnit> newUnits = new ArrayList<>(oldUnits);
+			newUnits.remove(unit);
+			if (newUnits.isEmpty()) {
+				return null;
+			}
+			return Collections.unmodifiableList(newUnits);
+		});
+	}
+
+	public void removeAll(Collection<ICompilationUnit> units) {
+		if (units == null) {
+			return;
+		}
+		for (ICompilationUnit unit : units) {
+			remove(unit);
+		}
+	}
+
+	public void clear() {
+		pathToUnits.clear();
+	}
+
+	public int size() {
+		return pathToUnits.size();
+	}
+
+	private static Path getPath(ICompilationUnit unit) {
+		// it's possible for the collection of compilation units to contain
+		// null values, so be sure to check for null values
+		if (unit == null) {
+			return null;
+		}
+		String absoluteFilename = unit.getAbsoluteFilename();
+		if (absoluteFilename == null) {
+			return null;
+		}
+		return normalize(Paths.get(absoluteFilename));
+	}
+
+	private static Path normalize(Path path) {
+		return path.toAbsolutePath().normalize();
+	}
+}
@@ -0,0 +1,255 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.project;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.royale.compiler.definitions.IDefinition;
+import org.apache.royale.compiler.units.ICompilationUnit;
+import org.apache.royale.compiler.units.requests.IFileScopeRequestResult;
+
+/**
+ * Indexes the externally visible definitions of every compilation unit in a
+ * project by base name, qualified name, and package name, so that finding a
+ * definition doesn't require a walk through every unit's file scope.
+ *
+ * Each unit has its own record, which is kept in sync by the project as units
+ * are added and removed. When a unit's file changes, the project marks its
+ * record as dirty, and only the dirty records are updated the next time that
+ * the index is queried.
+ *
+ * The file scopes of dirty units are resolved without holding the index's
+ * lock, because resolving a file scope may wait for the compiler. A resolved
+ * file scope is published only if its unit wasn't marked dirty again while it
+ * was being resolved.
+ */
+public class DefinitionIndex {
+	private static class UnitRecord {
+		public IFileScopeRequestResult fileScopeResult;
+		public List<IDefinition> definitions = Collections.emptyList();
+	}
+
+	private Map<ICompilationUnit, UnitRecord> records = new LinkedHashMap<>();
+	// the value changes every time that the unit is marked dirty
+	private Map<ICompilationUnit, Long> dirtyUnits = new LinkedHashMap<>();
+	private long dirtyStamp = 0L;
+	private Map<String, List<IDefinition>> definitionsByBaseName = new HashMap<>();
+	private Map<String, List<IDefinition>> definitionsByQualifiedName = new HashMap<>();
+	private Map<String, List<IDefinition>> definitionsByPackageName = new HashMap<>();
+
+	/**
+	 * Adds records for new compilation units. Their definitions are indexed
+	 * the next time that the index is queried.
+	 */
+	public synchronized void addUnits(Collection<ICompilationUnit> units) {
+		for (ICompilationUnit unit : units) {
+			if (unit == null) {
+				continue;
+			}
+			if (!records.containsKey(unit)) {
+				records.put(unit, new UnitRecord());
+			}
+			dirtyUnits.put(unit, ++dirtyStamp);
+		}
+	}
+
+	public synchronized void removeUnits(Collection<ICompilationUnit> units) {
+		for (ICompilationUnit unit : units) {
+			if (unit == null) {
+				continue;
+			}
+			UnitRecord record = records.remove(unit);
+			if (record != null) {
+				removeFromMaps(record);
+			}
+			dirtyUnits.remove(unit);
+		}
+	}
+
+	/**
+	 * Should be called when a unit's file changes. Its definitions are indexed
+	 * again the next time that the index is queried.
+	 */
+	public synchronized void markDirty(ICompilationUnit unit) {
+		if (records.containsKey(unit)) {
+			dirtyUnits.put(unit, ++dirtyStamp);
+		}
+	}
+
+	/**
+	 * Returns every indexed definition.
+	 */
+	public List<IDefinition> getDefinitions() {
+		updateDirtyUnits();
+		List<IDefinition> result = new ArrayList<>();
+		synchronized (this) {
+			for (UnitRecord record : records.values()) {
+				result.addAll(record.definitions);
+			}
+		}
+		return result;
+	}
+
+	public List<IDefinition> getDefinitionsByBaseName(String baseName) {
+		updateDirtyUnits();
+		synchronized (this) {
+			return copyOf(definitionsByBaseName.get(baseName));
+		}
+	}
+
+	public List<IDefinition> getDefinitionsByQualifiedName(String qualifiedName) {
+		updateDirtyUnits();
+		synchronized (this) {
+			return copyOf(definitionsByQualifiedName.get(qualifiedName));
+		}
+	}
+
+	/**
+	 * Returns the definitions in the specified package. The top-level
+	 * package is the empty string.
+	 */
+	public List<IDefinition> getDefinitionsByPackageName(String packageName) {
+		updateDirtyUnits();
+		synchronized (this) {
+			return copyOf(definitionsByPackageName.get(packageName));
+		}
+	}
+
+	public synchronized int size() {
+		return records.size();
+	}
+
+	public synchronized void clear() {
+		records.clear();
+		dirtyUnits.clear();
+		definitionsByBaseName.clear();
+		definitionsByQualifiedName.clear();
+		definitionsByPackageName.clear();
+	}
+
+	private void updateDirtyUnits() {
+		Map<ICompilationUnit, Long> unitsToUpdate = null;
+		synchronized (this) {
+			if (dirtyUnits.isEmpty()) {
+				return;
+			}
+			unitsToUpdate = new LinkedHashMap<>(dirtyUnits);
+		}
+		// another thread may update the same units at the same time, but the
+		// compiler resolves each file scope only once
+		Map<ICompilationUnit, IFileScopeRequestResult> fileScopeResults = new HashMap<>();
+		for (ICompilationUnit unit : unitsToUpdate.keySet()) {
+			IFileScopeRequestResult fileScopeResult = null;
+			try {
+				fileScopeResult = unit.getFileScopeRequest().get();
+			} catch (Exception e) {
+				// safe to ignore
+			}
+			fileScopeResults.put(unit, fileScopeResult);
+		}
+		synchronized (this) {
+			for (Map.Entry<ICompilationUnit, Long> entry : unitsToUpdate.entrySet()) {
+				ICompilationUnit unit = entry.getKey();
+				if (!entry.getValue().equals(dirtyUnits.get(unit))) {
+					// removed, updated by another thread, or marked dirty
+					// again while its file scope was being resolved
+					continue;
+				}
+				dirtyUnits.remove(unit);
+				updateRecord(records.get(unit), fileScopeResults.get(unit));
+			}
+		}
+	}
+
+	private void updateRecord(UnitRecord record, IFileScopeRequestResult fileScopeResult) {
+		if (fileScopeResult == record.fileScopeResult) {
+			return;
+		}
+		removeFromMaps(record);
+		record.fileScopeResult = fileScopeResult;
+		record.definitions = new ArrayList<>();
+		if (fileScopeResult == null) {
+			return;
+		}
+		Collection<IDefinition> definitions = fileScopeResult.getExternallyVisibleDefinitions();
+		if (definitions == null) {
+			return;
+		}
+		for (IDefinition definition : definitions) {
+			if (definition == null) {
+				continue;
+			}
+			record.definitions.add(definition);
+			addToMap(definitionsByBaseName, definition.getBaseName(), definition);
+			addToMap(definitionsByQualifiedName, definition.getQualifiedName(), definition);
+			addToMap(definitionsByPackageName, definition.getPackageName(), definition);
+		}
+	}
+
+	private void removeFromMaps(UnitRecord record) {
+		for (IDefinition definition : record.definitions) {
+			removeFromMap(definitionsByBaseName, definition.getBaseName(), definition);
+			removeFromMap(definitionsByQualifiedName, definition.getQualifiedName(), definition);
+			removeFromMap(definitionsByPackageName, definition.getPackageName(), definition);
+		}
+	}
+
+	private static void addToMap(Map<String, List<IDefinition>> map, String key, IDefinition definition) {
+		if (key == null) {
+			return;
+		}
+		List<IDefinition> definitions = map.get(key);
+		if (definitions == null) {
+			definitions = new ArrayList<>(1);
+			map.put(key, definitions);
+		}
+		definitions.add(definition);
+	}
+
+	private static void removeFromMap(Map<String, List<IDefinition>> map, String key, IDefinition definition) {
+		if (key == null) {
+			return;
+		}
+		List<IDefinition> definitions = map.get(key);
+		if (definitions == null) {
+			return;
+		}
+		// compare by identity because definitions from different units may be
+		// equal to each other
+		for (int i = 0; i < definitions.size(); i++) {
+			if (definitions.get(i) == definition) {
+				definitions.remove(i);
+				break;
+			}
+		}
+		if (definitions.isEmpty()) {
+			map.remove(key);
+		}
+	}
+
+	private static List<IDefinition> copyOf(List<IDefinition> definitions) {
+		if (definitions == null) {
+			return Collections.emptyList();
+		}
+		return new ArrayList<>(definitions);
+	}
+}
@@ -15,6 +15,7 @@ limitations under the License.
 */
 package com.as3mxml.vscode.project;
 
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Set;
 
@@ -28,6 +29,8 @@ import org.apache.royale.compiler.units.ICompilationUnit;
 public interface ILspProject extends IRoyaleProject {
 	public Set<String> getQNamesOfDependencies(ICompilationUnit from);
 
+	public Set<String> getPathsOfDependencies(ICompilationUnit from);
+
 	public IDefinition resolveSpecifier(IClassDefinition classDefinition, String specifierName);
 
 	public Collection<ICompilerProblem> getFatalProblems();
@@ -39,4 +42,38 @@ public interface ILspProject extends IRoyaleProject {
 	public String getContainerInterface();
 
 	public void collectProblems(Collection<ICompilerProblem> problems);
+
+	public ICompilationUnit getCompilationUnitForPath(Path path);
+
+	/**
+	 * Returns a value that changes every time that compilation units are added
+	 * to or removed from the project.
+	 */
+	public long getCompilationUnitsStamp();
+
+	/**
+	 * Called after the compiler workspace is notified that a file has
+	 * changed, so that the project's indexes can update the records of the
+	 * file's compilation units.
+	 */
+	public void fileChanged(Path path);
+
+	/**
+	 * Returns the index of the project's definitions, which is kept up to
+	 * date as compilation units are added, removed, or changed.
+	 */
+	public DefinitionIndex getDefinitionIndex();
+
+	/**
+	 * Returns the reverse index of the project's type hierarchy, which is
+	 * kept up to date as compilation units are added, removed, or changed.
+	 */
+	public TypeHierarchyIndex getTypeHierarchyIndex();
+
+	/**
+	 * Adds the compilation units that were added to the project without
+	 * calling addCompilationUnits(), such as the units of SWC libraries, to
+	 * the project's indexes. Should be called after the project is configured.
+	 */
+	public void syncCompilationUnits();
 }
\ No newline at end of file
@@ -15,6 +15,8 @@ limitations under the License.
 */
 package com.as3mxml.vscode.project;
 
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -26,6 +28,8 @@ import org.apache.royale.compiler.internal.workspaces.Workspace;
 import org.apache.royale.compiler.units.ICompilationUnit;
 
 public class LspJSProject extends RoyaleJSProject implements ILspProject {
+	private LspProjectIndexes indexes = new LspProjectIndexes(this);
+
 	public LspJSProject(Workspace workspace, IBackend backend) {
 		super(workspace, backend);
 		// using a custom handler to create compilation units for .as source
@@ -45,4 +49,59 @@ public class LspJSProject extends RoyaleJSProject implements ILspProject {
 		}
 		return result;
 	}
+
+	public Set<String> getPathsOfDependencies(ICompilationUnit from) {
+		Set<String> result = new HashSet<>();
+		for (ICompilationUnit to : getDirectDependencies(from)) {
+			String path = to.getAbsoluteFilename();
+			if (path != null) {
+				result.add(path);
+			}
+		}
+		return result;
+	}
+
+	public ICompilationUnit getCompilationUnitForPath(Path path) {
+		return indexes.getCompilationUnitForPath(path);
+	}
+
+	public long getCompilationUnitsStamp() {
+		return indexes.getCompilationUnitsStamp();
+	}
+
+	public void fileChanged(Path path) {
+		indexes.fileChanged(path);
+	}
+
+	public DefinitionIndex getDefinitionIndex() {
+		return indexes.getDefinitionIndex();
+	}
+
+	public TypeHierarchyIndex getTypeHierarchyIndex() {
+		return indexes.getTypeHierarchyIndex();
+	}
+
+	public void syncCompilationUnits() {
+		indexes.syncUnits(getCompilationUnits());
+	}
+
+	@Override
+	public void addCompilationUnits(Collection<ICompilationUnit> units) {
+		super.addCompilationUnits(units);
+		indexes.addUnits(units);
+	}
+
+	@Override
+	public void addCompilationUnitsAndUpdateDefinitions(Collection<ICompilationUnit> units)
+			throws InterruptedException {
+		super.addCompilationUnitsAndUpdateDefinitions(units);
+		indexes.addUnits(units);
+	}
+
+	@Override
+	public void removeCompilationUnits(Collection<ICompilationUnit> units) {
+		indexes.removeUnits(units);
+		super.removeCompilationUnits(units);
+		indexes.compilationUnitsChanged();
+	}
 }
\ No newline at end of file
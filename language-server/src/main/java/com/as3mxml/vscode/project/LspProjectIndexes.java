@@ -0,0 +1,139 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.project;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.royale.compiler.projects.ICompilerProject;
+import org.apache.royale.compiler.units.ICompilationUnit;
+
+/**
+ * The indexes of an <code>ILspProject</code>, which the project keeps in sync
+ * as its compilation units are added, removed, or changed. Shared by
+ * <code>LspProject</code> and <code>LspJSProject</code>, which extend
+ * different compiler projects.
+ *
+ * The units of SWC libraries may be added to the project without calling its
+ * <code>addCompilationUnits()</code>, so the project should call
+ * <code>syncUnits()</code> after its library path is configured.
+ */
+public class LspProjectIndexes {
+	private CompilationUnitPathIndex compilationUnitPathIndex = new CompilationUnitPathIndex();
+	private DefinitionIndex definitionIndex = new DefinitionIndex();
+	private TypeHierarchyIndex typeHierarchyIndex;
+	private AtomicLong compilationUnitsStamp = new AtomicLong();
+	private Set<ICompilationUnit> units = new HashSet<>();
+
+	public LspProjectIndexes(ICompilerProject project) {
+		typeHierarchyIndex = new TypeHierarchyIndex(project);
+	}
+
+	public ICompilationUnit getCompilationUnitForPath(Path path) {
+		return compilationUnitPathIndex.get(path);
+	}
+
+	public long getCompilationUnitsStamp() {
+		return compilationUnitsStamp.get();
+	}
+
+	public DefinitionIndex getDefinitionIndex() {
+		return definitionIndex;
+	}
+
+	public TypeHierarchyIndex getTypeHierarchyIndex() {
+		return typeHierarchyIndex;
+	}
+
+	/**
+	 * Should be called after the units have been added to the project.
+	 */
+	public void addUnits(Collection<ICompilationUnit> units) {
+		synchronized (this.units) {
+			this.units.addAll(units);
+		}
+		compilationUnitPathIndex.addAll(units);
+		definitionIndex.addUnits(units);
+		typeHierarchyIndex.addUnits(units);
+		compilationUnitsChanged();
+	}
+
+	/**
+	 * Should be called before the units are removed from the project, and
+	 * followed by <code>compilationUnitsChanged()</code> after they have been
+	 * removed.
+	 */
+	public void removeUnits(Collection<ICompilationUnit> units) {
+		synchronized (this.units) {
+			this.units.removeAll(units);
+		}
+		compilationUnitPathIndex.removeAll(units);
+		definitionIndex.removeUnits(units);
+		typeHierarchyIndex.removeUnits(units);
+	}
+
+	/**
+	 * Adds the project's units that the indexes don't have yet, and removes
+	 * the units that are no longer in the project.
+	 */
+	public void syncUnits(Collection<ICompilationUnit> projectUnits) {
+		Set<ICompilationUnit> projectUnitSet = new HashSet<>();
+		List<ICompilationUnit> addedUnits = new ArrayList<>();
+		List<ICompilationUnit> removedUnits = new ArrayList<>();
+		synchronized (units) {
+			for (ICompilationUnit unit : projectUnits) {
+				if (unit == null) {
+					continue;
+				}
+				projectUnitSet.add(unit);
+				if (!units.contains(unit)) {
+					addedUnits.add(unit);
+				}
+			}
+			for (ICompilationUnit unit : units) {
+				if (!projectUnitSet.contains(unit)) {
+					removedUnits.add(unit);
+				}
+			}
+		}
+		if (addedUnits.isEmpty() && removedUnits.isEmpty()) {
+			return;
+		}
+		removeUnits(removedUnits);
+		addUnits(addedUnits);
+	}
+
+	/**
+	 * Changes the value returned by <code>getCompilationUnitsStamp()</code>.
+	 * Must be called only after the project's units have changed, so that
+	 * anything that reads the new stamp also sees the new units.
+	 */
+	public void compilationUnitsChanged() {
+		compilationUnitsStamp.incrementAndGet();
+	}
+
+	public void fileChanged(Path path) {
+		for (ICompilationUnit unit : compilationUnitPathIndex.getAll(path)) {
+			definitionIndex.markDirty(unit);
+			typeHierarchyIndex.markDirty(unit);
+		}
+	}
+}
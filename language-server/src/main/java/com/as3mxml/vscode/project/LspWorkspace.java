@@ -0,0 +1,42 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.project;
+
+import java.util.function.Consumer;
+
+import org.apache.royale.compiler.filespecs.IFileSpecification;
+import org.apache.royale.compiler.internal.workspaces.Workspace;
+
+/**
+ * A workspace that reports the paths of changed files, so that the indexes
+ * kept by each project can be updated without walking every compilation unit.
+ */
+public class LspWorkspace extends Workspace {
+	private Consumer<String> fileChangedCallback;
+
+	public LspWorkspace(Consumer<String> fileChangedCallback) {
+		super();
+		this.fileChangedCallback = fileChangedCallback;
+	}
+
+	@Override
+	public void fileChanged(IFileSpecification changedFile) {
+		super.fileChanged(changedFile);
+		if (fileChangedCallback != null) {
+			fileChangedCallback.accept(changedFile.getPath());
+		}
+	}
+}
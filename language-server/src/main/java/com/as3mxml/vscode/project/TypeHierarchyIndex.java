@@ -0,0 +1,443 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.project;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import org.apache.royale.compiler.constants.IASLanguageConstants;
+import org.apache.royale.compiler.definitions.IClassDefinition;
+import org.apache.royale.compiler.definitions.IDefinition;
+import org.apache.royale.compiler.definitions.IInterfaceDefinition;
+import org.apache.royale.compiler.definitions.ITypeDefinition;
+import org.apache.royale.compiler.projects.ICompilerProject;
+import org.apache.royale.compiler.units.ICompilationUnit;
+import org.apache.royale.compiler.units.requests.IFileScopeRequestResult;
+
+/**
+ * A reverse index of the type hierarchy of a project, which maps the
+ * qualified name of each class to its direct subclasses, and the qualified
+ * name of each interface to the classes that implement it directly and the
+ * interfaces that extend it directly.
+ *
+ * Like <code>DefinitionIndex</code>, each compilation unit has its own record,
+ * which is replaced only when the unit is marked dirty and it has a new file
+ * scope. The edges are stored by qualified name, so a unit's record remains
+ * valid when the files that it extends or implements change. When a unit no
+ * longer defines a type, the records with edges to that type are replaced too.
+ * A record with a super type that couldn't be resolved is replaced only after
+ * new types are added to the index.
+ *
+ * The records of dirty units are created without holding the index's lock,
+ * because resolving a file scope or a super type may wait for the compiler.
+ * A new record is published only if its unit wasn't marked dirty again while
+ * it was being created.
+ */
+public class TypeHierarchyIndex {
+	private static class Edge {
+		public ICompilationUnit unit;
+		public String superTypeName;
+		public ITypeDefinition subType;
+
+		public Edge(ICompilationUnit unit, String superTypeName, ITypeDefinition subType) {
+			this.unit = unit;
+			this.superTypeName = superTypeName;
+			this.subType = subType;
+		}
+	}
+
+	private static class UnitRecord {
+		public IFileScopeRequestResult fileScopeResult;
+		public Set<String> typeNames = Collections.emptySet();
+		public List<Edge> subclassEdges = new ArrayList<>();
+		public List<Edge> implementationEdges = new ArrayList<>();
+		public List<Edge> subinterfaceEdges = new ArrayList<>();
+		// true if a super type couldn't be resolved. it may not have been
+		// added to the project yet, so the record should be created again
+		// when new types are added.
+		public boolean incomplete = false;
+	}
+
+	private ICompilerProject project;
+	private Map<ICompilationUnit, UnitRecord> records = new LinkedHashMap<>();
+	// the value changes every time that the unit is marked dirty
+	private Map<ICompilationUnit, Long> dirtyUnits = new LinkedHashMap<>();
+	private long dirtyStamp = 0L;
+	private Map<String, List<Edge>> subclasses = new HashMap<>();
+	private Map<String, List<Edge>> implementations = new HashMap<>();
+	private Map<String, List<Edge>> subinterfaces = new HashMap<>();
+
+	public TypeHierarchyIndex(ICompilerProject project) {
+		this.project = project;
+	}
+
+	/**
+	 * Adds records for new compilation units. Their types are indexed the
+	 * next time that the index is queried.
+	 */
+	public synchronized void addUnits(Collection<ICompilationUnit> units) {
+		for (ICompilationUnit unit : units) {
+			if (unit == null) {
+				continue;
+			}
+			if (!records.containsKey(unit)) {
+				records.put(unit, new UnitRecord());
+			}
+			dirtyUnits.put(unit, ++dirtyStamp);
+		}
+	}
+
+	public synchronized void removeUnits(Collection<ICompilationUnit> units) {
+		for (ICompilationUnit unit : units) {
+			if (unit == null) {
+				continue;
+			}
+			UnitRecord record = records.remove(unit);
+			dirtyUnits.remove(unit);
+			if (record == null) {
+				continue;
+			}
+			removeFromMaps(record);
+			invalidateDependents(record.typeNames);
+		}
+	}
+
+	/**
+	 * Should be called when a unit's file changes. Its types are indexed
+	 * again the next time that the index is queried.
+	 */
+	public synchronized void markDirty(ICompilationUnit unit) {
+		if (records.containsKey(unit)) {
+			dirtyUnits.put(unit, ++dirtyStamp);
+		}
+	}
+
+	/**
+	 * Returns the classes that extend the specified class. If recursive is
+	 * true, subclasses of subclasses are included too.
+	 */
+	public List<IClassDefinition> getSubclasses(String qualifiedName, boolean recursive) {
+		updateDirtyUnits();
+		Set<ITypeDefinition> result = new LinkedHashSet<>();
+		synchronized (this) {
+			collectSubtypes(Collections.singletonList(qualifiedName), subclasses, recursive, result);
+		}
+		return toClassList(result);
+	}
+
+	/**
+	 * Returns the interfaces that extend the specified interface. If recursive
+	 * is true, interfaces that extend those interfaces are included too.
+	 */
+	public List<IInterfaceDefinition> getSubinterfaces(String qualifiedName, boolean recursive) {
+		updateDirtyUnits();
+		Set<ITypeDefinition> result = new LinkedHashSet<>();
+		synchronized (this) {
+			collectSubtypes(Collections.singletonList(qualifiedName), subinterfaces, recursive, result);
+		}
+		List<IInterfaceDefinition> interfaces = new ArrayList<>();
+		for (ITypeDefinition typeDefinition : result) {
+			interfaces.add((IInterfaceDefinition) typeDefinition);
+		}
+		return interfaces;
+	}
+
+	/**
+	 * Returns every class that implements the specified interface, including
+	 * classes that implement an interface that extends it, and classes that
+	 * inherit the interface from a base class.
+	 */
+	public List<IClassDefinition> getImplementations(String qualifiedName) {
+		updateDirtyUnits();
+		synchronized (this) {
+			return findImplementations(qualifiedName);
+		}
+	}
+
+	public synchronized int size() {
+		return records.size();
+	}
+
+	public synchronized void clear() {
+		records.clear();
+		dirtyUnits.clear();
+		subclasses.clear();
+		implementations.clear();
+		subinterfaces.clear();
+	}
+
+	private List<IClassDefinition> findImplementations(String qualifiedName) {
+		Set<ITypeDefinition> interfaces = new LinkedHashSet<>();
+		collectSubtypes(Collections.singletonList(qualifiedName), subinterfaces, true, interfaces);
+		List<String> interfaceNames = new ArrayList<>();
+		interfaceNames.add(qualifiedName);
+		for (ITypeDefinition interfaceDefinition : interfaces) {
+			interfaceNames.add(interfaceDefinition.getQualifiedName());
+		}
+		Set<ITypeDefinition> directImplementations = new LinkedHashSet<>();
+		for (String interfaceName : interfaceNames) {
+			List<Edge> edges = implementations.get(interfaceName);
+			if (edges == null) {
+				continue;
+			}
+			for (Edge edge : edges) {
+				directImplementations.add(edge.subType);
+			}
+		}
+		Set<ITypeDefinition> result = new LinkedHashSet<>(directImplementations);
+		List<String> classNames = new ArrayList<>();
+		for (ITypeDefinition classDefinition : directImplementations) {
+			classNames.add(classDefinition.getQualifiedName());
+		}
+		collectSubtypes(classNames, subclasses, true, result);
+		return toClassList(result);
+	}
+
+	private void updateDirtyUnits() {
+		// publishing new records may mark more units dirty, and their records
+		// must be created before the query continues
+		while (true) {
+			Map<ICompilationUnit, Long> unitsToUpdate = null;
+			Map<ICompilationUnit, IFileScopeRequestResult> oldFileScopeResults = new HashMap<>();
+			synchronized (this) {
+				if (dirtyUnits.isEmpty()) {
+					return;
+				}
+				unitsToUpdate = new LinkedHashMap<>(dirtyUnits);
+				for (ICompilationUnit unit : unitsToUpdate.keySet()) {
+					oldFileScopeResults.put(unit, records.get(unit).fileScopeResult);
+				}
+			}
+			Map<ICompilationUnit, UnitRecord> newRecords = new HashMap<>();
+			for (ICompilationUnit unit : unitsToUpdate.keySet()) {
+				IFileScopeRequestResult fileScopeResult = null;
+				try {
+					fileScopeResult = unit.getFileScopeRequest().get();
+				} catch (Exception e) {
+					// safe to ignore
+				}
+				if (fileScopeResult == oldFileScopeResults.get(unit)) {
+					continue;
+				}
+				newRecords.put(unit, createRecord(unit, fileScopeResult));
+			}
+			synchronized (this) {
+				publishRecords(unitsToUpdate, newRecords);
+			}
+		}
+	}
+
+	private void publishRecords(Map<ICompilationUnit, Long> unitsToUpdate,
+			Map<ICompilationUnit, UnitRecord> newRecords) {
+		boolean typesAdded = false;
+		for (Map.Entry<ICompilationUnit, Long> entry : unitsToUpdate.entrySet()) {
+			ICompilationUnit unit = entry.getKey();
+			if (!entry.getValue().equals(dirtyUnits.get(unit))) {
+				// removed, updated by another thread, or marked dirty again
+				// while its record was being created
+				continue;
+			}
+			dirtyUnits.remove(unit);
+			UnitRecord newRecord = newRecords.get(unit);
+			if (newRecord == null) {
+				// the file scope hasn't changed
+				continue;
+			}
+			UnitRecord record = records.get(unit);
+			removeFromMaps(record);
+			records.put(unit, newRecord);
+			addToMaps(newRecord);
+			Set<String> removedTypeNames = new HashSet<>(record.typeNames);
+			removedTypeNames.removeAll(newRecord.typeNames);
+			invalidateDependents(removedTypeNames);
+			if (!record.typeNames.containsAll(newRecord.typeNames)) {
+				typesAdded = true;
+			}
+		}
+		if (typesAdded) {
+			// a super type that couldn't be resolved before may exist now
+			for (Map.Entry<ICompilationUnit, UnitRecord> entry : records.entrySet()) {
+				UnitRecord record = entry.getValue();
+				if (record.incomplete) {
+					invalidate(entry.getKey(), record);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the edges of the records that extend or implement any of the
+	 * specified types, and marks their units dirty so that the records are
+	 * created again.
+	 */
+	private void invalidateDependents(Set<String> typeNames) {
+		for (String typeName : typeNames) {
+			invalidateEdges(subclasses.get(typeName));
+			invalidateEdges(implementations.get(typeName));
+			invalidateEdges(subinterfaces.get(typeName));
+		}
+	}
+
+	private void invalidateEdges(List<Edge> edges) {
+		if (edges == null) {
+			return;
+		}
+		// invalidating a record removes its edges from the same list
+		for (Edge edge : new ArrayList<>(edges)) {
+			UnitRecord record = records.get(edge.unit);
+			if (record != null) {
+				invalidate(edge.unit, record);
+			}
+		}
+	}
+
+	private void invalidate(ICompilationUnit unit, UnitRecord record) {
+		removeFromMaps(record);
+		record.subclassEdges.clear();
+		record.implementationEdges.clear();
+		record.subinterfaceEdges.clear();
+		record.incomplete = false;
+		// the type names are kept so that the new record can be compared
+		record.fileScopeResult = null;
+		dirtyUnits.put(unit, ++dirtyStamp);
+	}
+
+	private UnitRecord createRecord(ICompilationUnit unit, IFileScopeRequestResult fileScopeResult) {
+		UnitRecord record = new UnitRecord();
+		record.fileScopeResult = fileScopeResult;
+		if (fileScopeResult == null) {
+			return record;
+		}
+		Collection<IDefinition> definitions = fileScopeResult.getExternallyVisibleDefinitions();
+		if (definitions == null) {
+			return record;
+		}
+		record.typeNames = new HashSet<>();
+		for (IDefinition definition : definitions) {
+			if (definition instanceof IClassDefinition) {
+				IClassDefinition classDefinition = (IClassDefinition) definition;
+				record.typeNames.add(classDefinition.getQualifiedName());
+				IClassDefinition baseClass = classDefinition.resolveBaseClass(project);
+				if (baseClass != null) {
+					record.subclassEdges.add(new Edge(unit, baseClass.getQualifiedName(), classDefinition));
+				} else if (!IASLanguageConstants.Object.equals(classDefinition.getQualifiedName())) {
+					record.incomplete = true;
+				}
+				IInterfaceDefinition[] interfaces = classDefinition.resolveImplementedInterfaces(project);
+				if (interfaces != null) {
+					for (IInterfaceDefinition interfaceDefinition : interfaces) {
+						if (interfaceDefinition == null) {
+							record.incomplete = true;
+							continue;
+						}
+						record.implementationEdges
+								.add(new Edge(unit, interfaceDefinition.getQualifiedName(), classDefinition));
+					}
+				}
+			} else if (definition instanceof IInterfaceDefinition) {
+				IInterfaceDefinition interfaceDefinition = (IInterfaceDefinition) definition;
+				record.typeNames.add(interfaceDefinition.getQualifiedName());
+				IInterfaceDefinition[] interfaces = interfaceDefinition.resolveExtendedInterfaces(project);
+				if (interfaces != null) {
+					for (IInterfaceDefinition extendedInterface : interfaces) {
+						if (extendedInterface == null) {
+							record.incomplete = true;
+							continue;
+						}
+						record.subinterfaceEdges
+								.add(new Edge(unit, extendedInterface.getQualifiedName(), interfaceDefinition));
+					}
+				}
+			}
+		}
+		return record;
+	}
+
+	private void addToMaps(UnitRecord record) {
+		addEdges(subclasses, record.subclassEdges);
+		addEdges(implementations, record.implementationEdges);
+		addEdges(subinterfaces, record.subinterfaceEdges);
+	}
+
+	private void removeFromMaps(UnitRecord record) {
+		removeEdges(subclasses, record.subclassEdges);
+		removeEdges(implementations, record.implementationEdges);
+		removeEdges(subinterfaces, record.subinterfaceEdges);
+	}
+
+	private static void addEdges(Map<String, List<Edge>> map, List<Edge> edges) {
+		for (Edge edge : edges) {
+			List<Edge> mapEdges = map.get(edge.superTypeName);
+			if (mapEdges == null) {
+				mapEdges = new ArrayList<>(1);
+				map.put(edge.superTypeName, mapEdges);
+			}
+			mapEdges.add(edge);
+		}
+	}
+
+	private static void removeEdges(Map<String, List<Edge>> map, List<Edge> edges) {
+		for (Edge edge : edges) {
+			List<Edge> mapEdges = map.get(edge.superTypeName);
+			if (mapEdges == null) {
+				continue;
+			}
+			mapEdges.remove(edge);
+			if (mapEdges.isEmpty()) {
+				map.remove(edge.superTypeName);
+			}
+		}
+	}
+
+	private static void collectSubtypes(List<String> qualifiedNames, Map<String, List<Edge>> map,
+			boolean recursive, Set<ITypeDefinition> result) {
+		Set<String> visited = new HashSet<>(qualifiedNames);
+		Queue<String> queue = new ArrayDeque<>(qualifiedNames);
+		while (!queue.isEmpty()) {
+			List<Edge> edges = map.get(queue.remove());
+			if (edges == null) {
+				continue;
+			}
+			for (Edge edge : edges) {
+				ITypeDefinition subType = edge.subType;
+				result.add(subType);
+				String subTypeName = subType.getQualifiedName();
+				// a cycle is an error, but the index shouldn't loop forever
+				if (recursive && visited.add(subTypeName)) {
+					queue.add(subTypeName);
+				}
+			}
+		}
+	}
+
+	private static List<IClassDefinition> toClassList(Set<ITypeDefinition> typeDefinitions) {
+		List<IClassDefinition> result = new ArrayList<>();
+		for (ITypeDefinition typeDefinition : typeDefinitions) {
+			result.add((IClassDefinition) typeDefinition);
+		}
+		return result;
+	}
+}
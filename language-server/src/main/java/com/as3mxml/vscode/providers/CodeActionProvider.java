@@ -15,7 +15,6 @@ limitations under the License.
 */
 package com.as3mxml.vscode.providers;
 
-import java.io.StringReader;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -304,8 +303,7 @@ public class CodeActionProvider {
             List<Either<Command, CodeAction>> codeActions) {
         Position position = diagnostic.getRange().getStart();
         IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-        int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-                includeFileData);
+        int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
         IASNode offsetNode = actionScriptProjectManager.getOffsetNode(path, currentOffset, projectData);
         if (offsetNode instanceof IMXMLInstanceNode) {
             MXMLData mxmlData = actionScriptProjectManager.getMXMLDataForPath(path, projectData);
@@ -314,8 +312,7 @@ public class CodeActionProvider {
                 if (offsetTag != null) {
                     // workaround for bug in Royale compiler
                     Position newPosition = new Position(position.getLine(), position.getCharacter() + 1);
-                    int newOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path),
-                            newPosition, includeFileData);
+                    int newOffset = fileTracker.getOffsetFromPosition(path, newPosition, includeFileData);
                     offsetNode = actionScriptProjectManager.getEmbeddedActionScriptNodeInMXMLTag(offsetTag, path,
                             newOffset, projectData);
                 }
@@ -364,8 +361,7 @@ public class CodeActionProvider {
             ActionScriptProjectData projectData, List<Either<Command, CodeAction>> codeActions) {
         Position position = diagnostic.getRange().getStart();
         IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-        int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-                includeFileData);
+        int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
         IASNode offsetNode = actionScriptProjectManager.getOffsetNode(path, currentOffset, projectData);
         if (offsetNode instanceof IMXMLInstanceNode) {
             MXMLData mxmlData = actionScriptProjectManager.getMXMLDataForPath(path, projectData);
@@ -374,8 +370,7 @@ public class CodeActionProvider {
                 if (offsetTag != null) {
                     // workaround for bug in Royale compiler
                     Position newPosition = new Position(position.getLine(), position.getCharacter() + 1);
-                    int newOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path),
-                            newPosition, includeFileData);
+                    int newOffset = fileTracker.getOffsetFromPosition(path, newPosition, includeFileData);
                     offsetNode = actionScriptProjectManager.getEmbeddedActionScriptNodeInMXMLTag(offsetTag, path,
                             newOffset, projectData);
                 }
@@ -412,8 +407,7 @@ public class CodeActionProvider {
         ILspProject project = projectData.project;
         Position position = diagnostic.getRange().getStart();
         IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-        int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-                includeFileData);
+        int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
         IASNode offsetNode = actionScriptProjectManager.getOffsetNode(path, currentOffset, projectData);
         if (!(offsetNode instanceof ITryNode)) {
             return;
@@ -443,8 +437,7 @@ public class CodeActionProvider {
         ILspProject project = projectData.project;
         Position position = diagnostic.getRange().getStart();
         IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-        int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-                includeFileData);
+        int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
         IASNode offsetNode = actionScriptProjectManager.getOffsetNode(path, currentOffset, projectData);
         if (offsetNode == null) {
             return;
@@ -485,8 +478,7 @@ public class CodeActionProvider {
         ILspProject project = projectData.project;
         Position position = diagnostic.getRange().getStart();
         IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-        int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-                includeFileData);
+        int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
         IASNode offsetNode = actionScriptProjectManager.getOffsetNode(path, currentOffset, projectData);
         if (offsetNode == null) {
             return;
@@ -498,8 +490,7 @@ public class CodeActionProvider {
                 if (offsetTag != null) {
                     // workaround for bug in Royale compiler
                     Position newPosition = new Position(position.getLine(), position.getCharacter() + 1);
-                    int newOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path),
-                            newPosition, includeFileData);
+                    int newOffset = fileTracker.getOffsetFromPosition(path, newPosition, includeFileData);
                     offsetNode = actionScriptProjectManager.getEmbeddedActionScriptNodeInMXMLTag(offsetTag, path,
                             newOffset, projectData);
                 }
@@ -548,8 +539,7 @@ public class CodeActionProvider {
         ILspProject project = projectData.project;
         Position position = diagnostic.getRange().getStart();
         IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-        int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-                includeFileData);
+        int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
         IASNode offsetNode = actionScriptProjectManager.getOffsetNode(path, currentOffset, projectData);
         if (offsetNode == null) {
             return;
@@ -561,8 +551,7 @@ public class CodeActionProvider {
                 if (offsetTag != null) {
                     // workaround for bug in Royale compiler
                     Position newPosition = new Position(position.getLine(), position.getCharacter() + 1);
-                    int newOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path),
-                            newPosition, includeFileData);
+                    int newOffset = fileTracker.getOffsetFromPosition(path, newPosition, includeFileData);
                     offsetNode = actionScriptProjectManager.getEmbeddedActionScriptNodeInMXMLTag(offsetTag, path,
                             newOffset, projectData);
                 }
@@ -638,8 +627,7 @@ public class CodeActionProvider {
         ILspProject project = projectData.project;
         Position position = diagnostic.getRange().getStart();
         IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-        int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-                includeFileData);
+        int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
         IASNode offsetNode = actionScriptProjectManager.getOffsetNode(path, currentOffset, projectData);
         IMXMLTagData offsetTag = null;
         boolean isMXML = path.toUri().toString().endsWith(FILE_EXTENSION_MXML);
@@ -652,8 +640,7 @@ public class CodeActionProvider {
         if (offsetNode instanceof IMXMLInstanceNode && offsetTag != null) {
             // workaround for bug in Royale compiler
             Position newPosition = new Position(position.getLine(), position.getCharacter() + 1);
-            int newOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), newPosition,
-                    includeFileData);
+            int newOffset = fileTracker.getOffsetFromPosition(path, newPosition, includeFileData);
             offsetNode = actionScriptProjectManager.getEmbeddedActionScriptNodeInMXMLTag(offsetTag, path, newOffset,
                     projectData);
         }
@@ -676,7 +663,7 @@ public class CodeActionProvider {
         String typeString = identifierNode.getName();
 
         List<IDefinition> definitions = ASTUtils.findDefinitionsThatMatchName(typeString, false,
-                project.getCompilationUnits());
+                project.getDefinitionIndex());
         for (IDefinition definitionToImport : definitions) {
             WorkspaceEdit edit = CodeActionsUtils.createWorkspaceEditForAddImport(definitionToImport, fileText, uri,
                     importRange);
@@ -706,9 +693,14 @@ public class CodeActionProvider {
             return;
         }
 
-        int startOffset = LanguageServerCompilerUtils.getOffsetFromPosition(new StringReader(fileText),
-                range.getStart());
-        int endOffset = LanguageServerCompilerUtils.getOffsetFromPosition(new StringReader(fileText), range.getEnd());
+        int startOffset = fileTracker.getOffsetFromPosition(path, range.getStart());
+        int endOffset = fileTracker.getOffsetFromPosition(path, range.getEnd());
+        if (startOffset < 0 || endOffset < startOffset || endOffset > fileText.length()) {
+            // -1 means that the file couldn't be read. positions past the end
+            // of the file are clamped, but the range of an out of date
+            // diagnostic may be inverted, or it may not match the text.
+            return;
+        }
 
         String importText = fileText.substring(startOffset, endOffset);
         CodeAction codeAction = new CodeAction();
@@ -18,7 +18,6 @@ package com.as3mxml.vscode.providers;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -128,6 +127,7 @@ import com.as3mxml.vscode.asdoc.IRoyaleASDocTagConstants;
 import com.as3mxml.vscode.asdoc.VSCodeASDocComment;
 import com.as3mxml.vscode.asdoc.VSCodeASDocComment.VSCodeASDocTag;
 import com.as3mxml.vscode.project.ActionScriptProjectData;
+import com.as3mxml.vscode.project.DefinitionIndex;
 import com.as3mxml.vscode.project.ILspProject;
 import com.as3mxml.vscode.utils.ASTUtils;
 import com.as3mxml.vscode.utils.ActionScriptProjectManager;
@@ -135,6 +135,8 @@ import com.as3mxml.vscode.utils.AddImportData;
 import com.as3mxml.vscode.utils.CodeActionsUtils;
 import com.as3mxml.vscode.utils.CompilationUnitUtils.IncludeFileData;
 import com.as3mxml.vscode.utils.CompilerProjectUtils;
+import com.as3mxml.vscode.utils.CompletionItemFilter;
+import com.as3mxml.vscode.utils.CompletionItemResolveCache;
 import com.as3mxml.vscode.utils.CompletionItemUtils;
 import com.as3mxml.vscode.utils.DefinitionTextUtils;
 import com.as3mxml.vscode.utils.DefinitionUtils;
@@ -159,19 +161,56 @@ public class CompletionProvider {
     private boolean completionSupportsSnippets;
     private boolean completionSupportsSimpleSnippets;
     private boolean frameworkSDKIsRoyale;
+    private CompletionItemResolveCache completionItemResolveCache;
+    private boolean completionResolvesAdditionalTextEdits;
+    private int completionItemResolveListID;
+    private CompletionItemFilter completionItemFilter = new CompletionItemFilter("");
     private Set<String> completionTypes = new HashSet<>();
+    private int maxItems;
 
+    /**
+     * If <code>completionItemResolveCache</code> is not null, the detail and
+     * documentation of items for definitions are added later, when the client
+     * resolves them. If <code>completionResolvesAdditionalTextEdits</code> is
+     * true, the text edits that add imports are added later too.
+     *
+     * <code>maxItems</code> is the maximum number of items to return. If more
+     * items match what has been typed, the list is incomplete. Use 0 for no
+     * limit.
+     */
     public CompletionProvider(ActionScriptProjectManager actionScriptProjectManager, FileTracker fileTracker,
             boolean completionSupportsSnippets, boolean completionSupportsSimpleSnippets,
-            boolean frameworkSDKIsRoyale) {
+            boolean frameworkSDKIsRoyale, CompletionItemResolveCache completionItemResolveCache,
+            boolean completionResolvesAdditionalTextEdits, int maxItems) {
         this.actionScriptProjectManager = actionScriptProjectManager;
         this.fileTracker = fileTracker;
         this.completionSupportsSnippets = completionSupportsSnippets;
         this.completionSupportsSimpleSnippets = completionSupportsSimpleSnippets;
         this.frameworkSDKIsRoyale = frameworkSDKIsRoyale;
+        this.completionItemResolveCache = completionItemResolveCache;
+        this.completionResolvesAdditionalTextEdits = completionItemResolveCache != null
+                && completionResolvesAdditionalTextEdits;
+        this.maxItems = maxItems;
     }
 
     public Either<List<CompletionItem>, CompletionList> completion(CompletionParams params, CancelChecker cancelToken) {
+        completionItemFilter = new CompletionItemFilter("");
+        Path filterPath = LanguageServerCompilerUtils.getPathFromLanguageServerURI(params.getTextDocument().getUri());
+        if (filterPath != null) {
+            int filterOffset = fileTracker.getOffsetFromPosition(filterPath, params.getPosition());
+            completionItemFilter = CompletionItemFilter.fromOffset(fileTracker.getText(filterPath), filterOffset);
+        }
+        Either<List<CompletionItem>, CompletionList> result = findCompletionItems(params, cancelToken);
+        if (result.isRight()) {
+            // definitions that don't match were skipped already, but other
+            // items, like keywords, still need to be filtered
+            completionItemFilter.filter(result.getRight(), maxItems);
+        }
+        return result;
+    }
+
+    private Either<List<CompletionItem>, CompletionList> findCompletionItems(CompletionParams params,
+            CancelChecker cancelToken) {
         try {
             if (cancelToken != null) {
                 cancelToken.checkCanceled();
@@ -181,6 +220,10 @@ public class CompletionProvider {
             // somewhere, completion results might be missing items.
             completionTypes.clear();
 
+            if (completionItemResolveCache != null) {
+                completionItemResolveListID = completionItemResolveCache.startList();
+            }
+
             TextDocumentIdentifier textDocument = params.getTextDocument();
             Position position = params.getPosition();
             String uriString = textDocument.getUri();
@@ -206,8 +249,7 @@ public class CompletionProvider {
             }
 
             IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-            int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-                    includeFileData);
+            int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
             if (currentOffset == -1) {
                 CompletionList result = new CompletionList();
                 result.setIsIncomplete(false);
@@ -843,8 +885,7 @@ public class CompletionProvider {
         XmlnsRange xmlnsRange = XmlnsRange.fromOffsetTag(offsetTag, currentOffset);
         Position xmlnsPosition = null;
         if (xmlnsRange.endIndex >= 0) {
-            xmlnsPosition = LanguageServerCompilerUtils.getPositionFromOffset(new StringReader(fileText),
-                    xmlnsRange.endIndex);
+            xmlnsPosition = fileTracker.getPositionFromOffset(path, xmlnsRange.endIndex);
         }
 
         boolean includeOpenTagBracket = getTagNeedsOpenBracket(path, currentOffset);
@@ -1593,7 +1634,7 @@ public class CompletionProvider {
                 }
             }
 
-            CompletionItem item = CompletionItemUtils.createDefinitionItem(functionDefinition, project);
+            CompletionItem item = createDefinitionItem(functionDefinition, project);
             item.setInsertText(insertText.toString());
             if ((!isGetter && otherIsGetter) || (!isSetter && otherIsSetter)) {
                 item.setLabel(functionNameWithModifier);
@@ -1751,42 +1792,30 @@ public class CompletionProvider {
 
     private void autoCompleteImport(String importName, ILspProject project, CompletionList result) {
         List<CompletionItem> items = result.getItems();
-        for (ICompilationUnit unit : project.getCompilationUnits()) {
-            if (unit == null) {
-                continue;
-            }
-            Collection<IDefinition> definitions = null;
-            try {
-                definitions = unit.getFileScopeRequest().get().getExternallyVisibleDefinitions();
-            } catch (Exception e) {
-                // safe to ignore
+        for (IDefinition definition : project.getDefinitionIndex().getDefinitions()) {
+            String qualifiedName = definition.getQualifiedName();
+            if (qualifiedName.equals(definition.getBaseName())) {
+                // this definition is top-level. no import required.
                 continue;
             }
-            for (IDefinition definition : definitions) {
-                String qualifiedName = definition.getQualifiedName();
-                if (qualifiedName.equals(definition.getBaseName())) {
-                    // this definition is top-level. no import required.
-                    continue;
+            if (qualifiedName.startsWith(importName)) {
+                int index = importName.lastIndexOf(".");
+                if (index != -1) {
+                    qualifiedName = qualifiedName.substring(index + 1);
                 }
-                if (qualifiedName.startsWith(importName)) {
-                    int index = importName.lastIndexOf(".");
-                    if (index != -1) {
-                        qualifiedName = qualifiedName.substring(index + 1);
-                    }
-                    index = qualifiedName.indexOf(".");
-                    if (index > 0) {
-                        qualifiedName = qualifiedName.substring(0, index);
-                    }
-                    CompletionItem item = new CompletionItem();
-                    item.setLabel(qualifiedName);
-                    if (definition.getBaseName().equals(qualifiedName)) {
-                        item.setKind(LanguageServerCompilerUtils.getCompletionItemKindFromDefinition(definition));
-                    } else {
-                        item.setKind(CompletionItemKind.Module);
-                    }
-                    if (!items.contains(item)) {
-                        items.add(item);
-                    }
+                index = qualifiedName.indexOf(".");
+                if (index > 0) {
+                    qualifiedName = qualifiedName.substring(0, index);
+                }
+                CompletionItem item = new CompletionItem();
+                item.setLabel(qualifiedName);
+                if (definition.getBaseName().equals(qualifiedName)) {
+                    item.setKind(LanguageServerCompilerUtils.getCompletionItemKindFromDefinition(definition));
+                } else {
+                    item.setKind(CompletionItemKind.Module);
+                }
+                if (!items.contains(item)) {
+                    items.add(item);
                 }
             }
         }
@@ -2228,7 +2257,7 @@ public class CompletionProvider {
                     escapedEventName = eventName.replaceAll("\\$",
                             Matcher.quoteReplacement("\\$"));
                 }
-                CompletionItem item = CompletionItemUtils.createDefinitionItem(eventDefinition, project);
+                CompletionItem item = createDefinitionItem(eventDefinition, project);
                 if (isAttribute && (completionSupportsSnippets || completionSupportsSimpleSnippets)
                         && nextChar != '=') {
                     item.setInsertTextFormat(InsertTextFormat.Snippet);
@@ -2307,7 +2336,7 @@ public class CompletionProvider {
                     escapedStyleName = styleName.replaceAll("\\$",
                             Matcher.quoteReplacement("\\$"));
                 }
-                CompletionItem item = CompletionItemUtils.createDefinitionItem(styleDefinition, project);
+                CompletionItem item = createDefinitionItem(styleDefinition, project);
                 if (isAttribute && (completionSupportsSnippets || completionSupportsSimpleSnippets)
                         && nextChar != '=') {
                     item.setInsertTextFormat(InsertTextFormat.Snippet);
@@ -2386,7 +2415,7 @@ public class CompletionProvider {
                     escapedEffectName = effectName.replaceAll("\\$",
                             Matcher.quoteReplacement("\\$"));
                 }
-                CompletionItem item = CompletionItemUtils.createDefinitionItem(effectDefinition, project);
+                CompletionItem item = createDefinitionItem(effectDefinition, project);
                 if (isAttribute && (completionSupportsSnippets || completionSupportsSimpleSnippets)
                         && nextChar != '=') {
                     item.setInsertTextFormat(InsertTextFormat.Snippet);
@@ -2441,6 +2470,10 @@ public class CompletionProvider {
             // vscode expects all items to have a name
             return;
         }
+        if (!completionItemFilter.matches(definitionBaseName)) {
+            // skip the work of creating an item that will be filtered out
+            return;
+        }
         if (definitionBaseName.startsWith(VECTOR_HIDDEN_PREFIX)) {
             return;
         }
@@ -2524,7 +2557,19 @@ public class CompletionProvider {
             }
         }
 
-        CompletionItem item = CompletionItemUtils.createDefinitionItem(definition, project);
+        AddImportData itemAddImportData = null;
+        if (ASTUtils.needsImport(offsetNode, definition.getQualifiedName())) {
+            itemAddImportData = addImportData;
+        }
+        CompletionItem item = null;
+        if (itemAddImportData != null && completionResolvesAdditionalTextEdits) {
+            // the text edit that adds the import is created when the item is
+            // resolved
+            item = createDefinitionItem(definition, project, itemAddImportData);
+            itemAddImportData = null;
+        } else {
+            item = createDefinitionItem(definition, project);
+        }
         if (priority > 0) {
             // if we ever target JDK 11, use repeat() instead
             item.setSortText(String.join("", Collections.nCopies(3 + priority, "0")) + definitionBaseName);
@@ -2547,8 +2592,8 @@ public class CompletionProvider {
                 item.setCommand(showParamsCommand);
             }
         }
-        if (ASTUtils.needsImport(offsetNode, definition.getQualifiedName())) {
-            TextEdit textEdit = CodeActionsUtils.createTextEditForAddImport(definition, addImportData);
+        if (itemAddImportData != null) {
+            TextEdit textEdit = CodeActionsUtils.createTextEditForAddImport(definition, itemAddImportData);
             if (textEdit != null) {
                 item.setAdditionalTextEdits(Collections.singletonList(textEdit));
             }
@@ -2556,6 +2601,20 @@ public class CompletionProvider {
         result.getItems().add(item);
     }
 
+    private CompletionItem createDefinitionItem(IDefinition definition, ILspProject project) {
+        return createDefinitionItem(definition, project, null);
+    }
+
+    private CompletionItem createDefinitionItem(IDefinition definition, ILspProject project,
+            AddImportData addImportData) {
+        if (completionItemResolveCache == null) {
+            return CompletionItemUtils.createDefinitionItem(definition, project);
+        }
+        CompletionItem item = CompletionItemUtils.createUnresolvedDefinitionItem(definition);
+        completionItemResolveCache.add(completionItemResolveListID, item, definition, project, addImportData);
+        return item;
+    }
+
     private void addDefinitionAutoCompleteMXML(IDefinition definition, Position xmlnsPosition, boolean isAttribute,
             String prefix, String uri, boolean includeOpenTagBracket, boolean includeOpenTagPrefix, char nextChar,
             IMXMLTagData offsetTag, ILspProject project, CompletionList result) {
@@ -2574,7 +2633,11 @@ public class CompletionProvider {
             // vscode expects all items to have a name
             return;
         }
-        CompletionItem item = CompletionItemUtils.createDefinitionItem(definition, project);
+        if (!completionItemFilter.matches(definitionBaseName)) {
+            // skip the work of creating an item that will be filtered out
+            return;
+        }
+        CompletionItem item = createDefinitionItem(definition, project);
         String escapedDefinitionBaseName = definitionBaseName;
         if (completionSupportsSnippets || completionSupportsSimpleSnippets) {
             escapedDefinitionBaseName = definitionBaseName.replaceAll("\\$",
@@ -2856,65 +2919,52 @@ public class CompletionProvider {
             }
         }
 
-        for (ICompilationUnit unit : project.getCompilationUnits()) {
-            if (unit == null) {
+        for (IDefinition definition : project.getDefinitionIndex().getDefinitions()) {
+            if (!(definition instanceof ITypeDefinition)) {
                 continue;
             }
-            Collection<IDefinition> definitions = null;
-            try {
-                definitions = unit.getFileScopeRequest().get().getExternallyVisibleDefinitions();
-            } catch (Exception e) {
-                // safe to ignore
+            ITypeDefinition typeDefinition = (ITypeDefinition) definition;
+            if (typeFilter != null && !DefinitionUtils.extendsOrImplements(project, typeDefinition, typeFilter)) {
                 continue;
             }
 
-            for (IDefinition definition : definitions) {
-                if (!(definition instanceof ITypeDefinition)) {
-                    continue;
-                }
-                ITypeDefinition typeDefinition = (ITypeDefinition) definition;
-                if (typeFilter != null && !DefinitionUtils.extendsOrImplements(project, typeDefinition, typeFilter)) {
-                    continue;
-                }
-
-                // first check that the tag either doesn't have a short name yet
-                // or that the definition's base name matches the short name
-                if (tagStartShortNameForComparison.length() == 0
-                        || typeDefinition.getBaseName().toLowerCase().startsWith(tagStartShortNameForComparison)) {
-                    // if a prefix already exists, make sure the definition is
-                    // in a namespace with that prefix
-                    if (tagPrefix.length() > 0) {
-                        Collection<XMLName> tagNames = project.getTagNamesForClass(typeDefinition.getQualifiedName());
-                        for (XMLName tagName : tagNames) {
-                            String tagNameNamespace = tagName.getXMLNamespace();
-                            // getTagNamesForClass() returns the 2006 namespace, even if that's
-                            // not what we're using in this file
-                            if (tagNameNamespace.equals(IMXMLLanguageConstants.NAMESPACE_MXML_2006)) {
-                                // use the language namespace of the root tag instead
-                                tagNameNamespace = mxmlData.getRootTag().getMXMLDialect().getLanguageNamespace();
-                            }
-                            if (prefixMap != null) {
-                                String[] prefixes = prefixMap.getPrefixesForNamespace(tagNameNamespace);
-                                for (String otherPrefix : prefixes) {
-                                    if (tagPrefix.equals(otherPrefix)) {
-                                        addDefinitionAutoCompleteMXML(typeDefinition, xmlnsPosition, false, null, null,
-                                                false, false, nextChar, offsetTag, project, result);
-                                    }
+            // first check that the tag either doesn't have a short name yet
+            // or that the definition's base name matches the short name
+            if (tagStartShortNameForComparison.length() == 0
+                    || typeDefinition.getBaseName().toLowerCase().startsWith(tagStartShortNameForComparison)) {
+                // if a prefix already exists, make sure the definition is
+                // in a namespace with that prefix
+                if (tagPrefix.length() > 0) {
+                    Collection<XMLName> tagNames = project.getTagNamesForClass(typeDefinition.getQualifiedName());
+                    for (XMLName tagName : tagNames) {
+                        String tagNameNamespace = tagName.getXMLNamespace();
+                        // getTagNamesForClass() returns the 2006 namespace, even if that's
+                        // not what we're using in this file
+                        if (tagNameNamespace.equals(IMXMLLanguageConstants.NAMESPACE_MXML_2006)) {
+                            // use the language namespace of the root tag instead
+                            tagNameNamespace = mxmlData.getRootTag().getMXMLDialect().getLanguageNamespace();
+                        }
+                        if (prefixMap != null) {
+                            String[] prefixes = prefixMap.getPrefixesForNamespace(tagNameNamespace);
+                            for (String otherPrefix : prefixes) {
+                                if (tagPrefix.equals(otherPrefix)) {
+                                    addDefinitionAutoCompleteMXML(typeDefinition, xmlnsPosition, false, null, null,
+                                            false, false, nextChar, offsetTag, project, result);
                                 }
                             }
                         }
-                        if (tagNamespacePackage != null
-                                && tagNamespacePackage.equals(typeDefinition.getPackageName())) {
-                            addDefinitionAutoCompleteMXML(typeDefinition, xmlnsPosition, false, null, null, false,
-                                    false, nextChar, offsetTag, project, result);
-                        }
-                    } else {
-                        // no prefix yet, so complete the definition with a prefix
-                        MXMLNamespace ns = MXMLNamespaceUtils.getMXMLNamespaceForTypeDefinition(typeDefinition,
-                                mxmlData, project);
-                        addDefinitionAutoCompleteMXML(typeDefinition, xmlnsPosition, false, ns.prefix, ns.uri, false,
-                                true, nextChar, offsetTag, project, result);
                     }
+                    if (tagNamespacePackage != null
+                            && tagNamespacePackage.equals(typeDefinition.getPackageName())) {
+                        addDefinitionAutoCompleteMXML(typeDefinition, xmlnsPosition, false, null, null, false,
+                                false, nextChar, offsetTag, project, result);
+                    }
+                } else {
+                    // no prefix yet, so complete the definition with a prefix
+                    MXMLNamespace ns = MXMLNamespaceUtils.getMXMLNamespaceForTypeDefinition(typeDefinition,
+                            mxmlData, project);
+                    addDefinitionAutoCompleteMXML(typeDefinition, xmlnsPosition, false, ns.prefix, ns.uri, false,
+                            true, nextChar, offsetTag, project, result);
                 }
             }
         }
@@ -2923,41 +2973,29 @@ public class CompletionProvider {
     private void autoCompleteDefinitionsForMXML(CompletionList result, ILspProject project, ICompilationUnit offsetUnit,
             IMXMLTagData offsetTag, boolean typesOnly, boolean includeOpenTagBracket, char nextChar, String typeFilter,
             AddImportData addImportData, Position xmlnsPosition) {
-        for (ICompilationUnit unit : project.getCompilationUnits()) {
-            if (unit == null) {
-                continue;
-            }
-            Collection<IDefinition> definitions = null;
-            try {
-                definitions = unit.getFileScopeRequest().get().getExternallyVisibleDefinitions();
-            } catch (Exception e) {
-                // safe to ignore
-                continue;
-            }
-            for (IDefinition definition : definitions) {
-                boolean isType = definition instanceof ITypeDefinition;
-                if (!typesOnly || isType) {
-                    if (isType) {
-                        IMetaTag excludeClassMetaTag = definition
-                                .getMetaTagByName(IMetaAttributeConstants.ATTRIBUTE_EXCLUDECLASS);
-                        if (excludeClassMetaTag != null) {
-                            // skip types with [ExcludeClass] metadata
-                            continue;
-                        }
+        for (IDefinition definition : project.getDefinitionIndex().getDefinitions()) {
+            boolean isType = definition instanceof ITypeDefinition;
+            if (!typesOnly || isType) {
+                if (isType) {
+                    IMetaTag excludeClassMetaTag = definition
+                            .getMetaTagByName(IMetaAttributeConstants.ATTRIBUTE_EXCLUDECLASS);
+                    if (excludeClassMetaTag != null) {
+                        // skip types with [ExcludeClass] metadata
+                        continue;
                     }
-                    if (isType) {
-                        ITypeDefinition typeDefinition = (ITypeDefinition) definition;
-                        if (typeFilter != null
-                                && !DefinitionUtils.extendsOrImplements(project, typeDefinition, typeFilter)) {
-                            continue;
-                        }
-
-                        addMXMLTypeDefinitionAutoComplete(typeDefinition, xmlnsPosition, offsetUnit, offsetTag,
-                                includeOpenTagBracket, nextChar, project, result);
-                    } else {
-                        addDefinitionAutoCompleteActionScript(definition, null, (char) -1, null, null,
-                                false, addImportData, project, result);
+                }
+                if (isType) {
+                    ITypeDefinition typeDefinition = (ITypeDefinition) definition;
+                    if (typeFilter != null
+                            && !DefinitionUtils.extendsOrImplements(project, typeDefinition, typeFilter)) {
+                        continue;
                     }
+
+                    addMXMLTypeDefinitionAutoComplete(typeDefinition, xmlnsPosition, offsetUnit, offsetTag,
+                            includeOpenTagBracket, nextChar, project, result);
+                } else {
+                    addDefinitionAutoCompleteActionScript(definition, null, (char) -1, null, null,
+                            false, addImportData, project, result);
                 }
             }
         }
@@ -2971,36 +3009,29 @@ public class CompletionProvider {
         if (definitionToSkip != null) {
             skipQualifiedName = definitionToSkip.getQualifiedName();
         }
-        Collection<ICompilationUnit> units = new ArrayList<>(project.getCompilationUnits());
-        for (ICompilationUnit unit : units) {
-            if (unit == null) {
-                continue;
-            }
-            Collection<IDefinition> definitions = null;
-            try {
-                definitions = unit.getFileScopeRequest().get().getExternallyVisibleDefinitions();
-            } catch (Exception e) {
-                // safe to ignore
-                continue;
-            }
-            for (IDefinition definition : definitions) {
-                boolean isType = definition instanceof ITypeDefinition;
-                if (!typesOnly || isType) {
-                    if (requiredPackageName == null || definition.getPackageName().equals(requiredPackageName)) {
-                        if (skipQualifiedName != null && skipQualifiedName.equals(definition.getQualifiedName())) {
+        DefinitionIndex definitionIndex = project.getDefinitionIndex();
+        // when the package is known, only the definitions in that package
+        // need to be considered
+        List<IDefinition> definitions = requiredPackageName != null
+                ? definitionIndex.getDefinitionsByPackageName(requiredPackageName)
+                : definitionIndex.getDefinitions();
+        for (IDefinition definition : definitions) {
+            boolean isType = definition instanceof ITypeDefinition;
+            if (!typesOnly || isType) {
+                if (requiredPackageName == null || definition.getPackageName().equals(requiredPackageName)) {
+                    if (skipQualifiedName != null && skipQualifiedName.equals(definition.getQualifiedName())) {
+                        continue;
+                    }
+                    if (isType) {
+                        IMetaTag excludeClassMetaTag = definition
+                                .getMetaTagByName(IMetaAttributeConstants.ATTRIBUTE_EXCLUDECLASS);
+                        if (excludeClassMetaTag != null) {
+                            // skip types with [ExcludeClass] metadata
                             continue;
                         }
-                        if (isType) {
-                            IMetaTag excludeClassMetaTag = definition
-                                    .getMetaTagByName(IMetaAttributeConstants.ATTRIBUTE_EXCLUDECLASS);
-                            if (excludeClassMetaTag != null) {
-                                // skip types with [ExcludeClass] metadata
-                                continue;
-                            }
-                        }
-                        addDefinitionAutoCompleteActionScript(definition, offsetNode, nextChar, null,
-                                priorityNewClass, isParamOfTypeFunction, addImportData, project, result);
                     }
+                    addDefinitionAutoCompleteActionScript(definition, offsetNode, nextChar, null,
+                            priorityNewClass, isParamOfTypeFunction, addImportData, project, result);
                 }
             }
         }
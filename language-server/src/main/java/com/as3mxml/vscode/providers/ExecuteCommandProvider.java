@@ -16,16 +16,15 @@ limitations under the License.
 package com.as3mxml.vscode.providers;
 
 import java.io.File;
-import java.io.StringReader;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -40,16 +39,21 @@ import org.apache.royale.compiler.tree.as.IImportNode;
 import org.apache.royale.compiler.units.ICompilationUnit;
 import org.apache.royale.utils.FilenameNormalization;
 import org.eclipse.lsp4j.ApplyWorkspaceEditParams;
+import org.eclipse.lsp4j.ApplyWorkspaceEditResponse;
 import org.eclipse.lsp4j.ExecuteCommandParams;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.lsp4j.WorkspaceEdit;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4j.jsonrpc.CompletableFutures;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
 
 import com.as3mxml.asconfigc.compiler.ProjectType;
 import com.as3mxml.vscode.commands.ICommandConstants;
 import com.as3mxml.vscode.project.ActionScriptProjectData;
+import com.as3mxml.vscode.project.DefinitionIndex;
 import com.as3mxml.vscode.project.ILspProject;
 import com.as3mxml.vscode.services.ActionScriptLanguageClient;
 import com.as3mxml.vscode.utils.ASTUtils;
@@ -65,6 +69,7 @@ import com.as3mxml.vscode.utils.ImportRange;
 import com.as3mxml.vscode.utils.ImportTextEditUtils;
 import com.as3mxml.vscode.utils.LanguageServerCompilerUtils;
 import com.as3mxml.vscode.utils.MXMLDataUtils;
+import com.as3mxml.vscode.utils.SearchProgressReporter;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
@@ -72,6 +77,7 @@ import com.google.gson.JsonPrimitive;
 public class ExecuteCommandProvider {
     private static final String FILE_EXTENSION_MXML = ".mxml";
     private static final String FILE_EXTENSION_AS = ".as";
+    private static final int ORGANIZE_IMPORTS_BATCH_SIZE = 100;
 
     private ActionScriptProjectManager actionScriptProjectManager;
     private FileTracker fileTracker;
@@ -134,38 +140,60 @@ public class ExecuteCommandProvider {
     }
 
     private CompletableFuture<Object> executeOrganizeImportsInDirectoryCommand(ExecuteCommandParams params) {
+        // the result isn't complete until the client has applied the edits of
+        // every batch, so it can't be computed like other commands
+        CompletableFuture<Object> result = new CompletableFuture<>();
         if (!concurrentRequests) {
-            return CompletableFuture.completedFuture(executeOrganizeImportsInDirectoryCommand2(params, null));
+            executeOrganizeImportsInDirectoryCommand2(params, null, result);
+            return result;
         }
-        return CompletableFutures.computeAsync(compilerWorkspace.getExecutorService(), cancelToken -> {
-            cancelToken.checkCanceled();
-            return executeOrganizeImportsInDirectoryCommand2(params, cancelToken);
+        compilerWorkspace.getExecutorService().execute(() -> {
+            executeOrganizeImportsInDirectoryCommand2(params, compilerWorkspace.getExecutorService(), result);
         });
+        return result;
     }
 
-    private Object executeOrganizeImportsInDirectoryCommand2(ExecuteCommandParams params, CancelChecker cancelToken) {
+    private void executeOrganizeImportsInDirectoryCommand2(ExecuteCommandParams params,
+            Executor executor, CompletableFuture<Object> result) {
+        if (result.isCancelled()) {
+            return;
+        }
+        List<Path> filePaths = null;
+        try {
+            filePaths = findFilesForOrganizeImports(params);
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        if (filePaths.size() == 0) {
+            result.complete(new Object());
+            return;
+        }
+
+        // files are organized in batches, so that only one batch of files is
+        // held in memory at a time, and other requests may run between them
+        SearchProgressReporter progressReporter = new SearchProgressReporter(languageClient,
+                params.getWorkDoneToken(), null);
+        progressReporter.begin("Organizing imports");
+        organizeImportsInNextBatch(filePaths, 0, progressReporter, executor, result);
+    }
+
+    private List<Path> findFilesForOrganizeImports(ExecuteCommandParams params) {
+        List<Path> filePaths = new ArrayList<>();
         List<Object> args = params.getArguments();
         JsonObject uriObject = (JsonObject) args.get(0);
         String directoryURI = uriObject.get("external").getAsString();
 
         Path directoryPath = LanguageServerCompilerUtils.getPathFromLanguageServerURI(directoryURI);
         if (directoryPath == null) {
-            if (cancelToken != null) {
-                cancelToken.checkCanceled();
-            }
-            return new Object();
+            return filePaths;
         }
 
         File directoryFile = directoryPath.toFile();
         if (!directoryFile.isDirectory()) {
-            if (cancelToken != null) {
-                cancelToken.checkCanceled();
-            }
-            return new Object();
+            return filePaths;
         }
 
-        List<Path> filesToClose = new ArrayList<>();
-        List<String> fileURIs = new ArrayList<>();
         List<File> directories = new ArrayList<>();
         directories.add(directoryFile);
         for (int i = 0; i < directories.size(); i++) {
@@ -184,51 +212,102 @@ public class ExecuteCommandProvider {
                 if (!file.getName().endsWith(FILE_EXTENSION_AS) && !file.getName().endsWith(FILE_EXTENSION_MXML)) {
                     continue;
                 }
-                fileURIs.add(file.toURI().toString());
-                Path filePath = file.toPath();
-                if (!fileTracker.isOpen(filePath)) {
-                    filesToClose.add(file.toPath());
-                    openFileForOrganizeImports(filePath);
-                }
+                filePaths.add(file.toPath());
             }
         }
-        if (fileURIs.size() == 0) {
-            if (cancelToken != null) {
-                cancelToken.checkCanceled();
-            }
-            return new Object();
-        }
+        return filePaths;
+    }
 
-        compilerWorkspace.startBuilding();
+    /**
+     * Organizes the imports in one batch of files, and sends the edits to the
+     * client. The next batch isn't started until the client has applied the
+     * edits. If there is an executor, the next batch runs on it. Otherwise,
+     * it runs on the thread that receives the client's response.
+     */
+    private void organizeImportsInNextBatch(List<Path> filePaths, int startIndex,
+            SearchProgressReporter progressReporter, Executor executor, CompletableFuture<Object> result) {
+        if (result.isCancelled()) {
+            progressReporter.end();
+            return;
+        }
+        int endIndex = Math.min(startIndex + ORGANIZE_IMPORTS_BATCH_SIZE, filePaths.size());
         ApplyWorkspaceEditParams editParams = null;
         try {
-            if (cancelToken != null) {
-                cancelToken.checkCanceled();
+            editParams = organizeImportsInBatch(filePaths.subList(startIndex, endIndex));
+        } catch (Exception e) {
+            progressReporter.end();
+            result.completeExceptionally(e);
+            return;
+        }
+        progressReporter.report(endIndex, filePaths.size());
+        CompletableFuture<ApplyWorkspaceEditResponse> applyEditFuture = null;
+        if (editParams != null) {
+            applyEditFuture = languageClient.applyEdit(editParams);
+        } else {
+            applyEditFuture = CompletableFuture.completedFuture(null);
+        }
+        applyEditFuture.whenComplete((response, error) -> {
+            if (error != null) {
+                progressReporter.end();
+                result.completeExceptionally(error);
+                return;
+            }
+            if (response != null && !response.isApplied()) {
+                // the remaining batches shouldn't be applied if the client
+                // rejected this one
+                progressReporter.end();
+                String message = "Failed to organize imports";
+                if (response.getFailureReason() != null) {
+                    message += ": " + response.getFailureReason();
+                }
+                result.completeExceptionally(
+                        new ResponseErrorException(new ResponseError(ResponseErrorCode.RequestFailed, message, null)));
+                return;
+            }
+            if (endIndex >= filePaths.size()) {
+                progressReporter.end();
+                result.complete(new Object());
+                return;
+            }
+            Runnable nextBatch = () -> {
+                organizeImportsInNextBatch(filePaths, endIndex, progressReporter, executor, result);
+            };
+            if (executor != null) {
+                executor.execute(nextBatch);
+            } else {
+                nextBatch.run();
+            }
+        });
+    }
+
+    private ApplyWorkspaceEditParams organizeImportsInBatch(List<Path> filePaths) {
+        List<Path> filesToClose = new ArrayList<>();
+        for (Path filePath : filePaths) {
+            if (!fileTracker.isOpen(filePath)) {
+                filesToClose.add(filePath);
+                openFileForOrganizeImports(filePath);
             }
+        }
+        compilerWorkspace.startBuilding();
+        try {
             Map<String, List<TextEdit>> changes = new HashMap<>();
-            for (String fileURI : fileURIs) {
-                organizeImportsInUri(fileURI, OrganizeImportsKind.ORGANIZE, changes);
+            for (Path filePath : filePaths) {
+                organizeImportsInUri(filePath.toUri().toString(), OrganizeImportsKind.ORGANIZE, changes);
             }
-
-            if (changes.keySet().size() > 0) {
-                editParams = new ApplyWorkspaceEditParams();
-                WorkspaceEdit workspaceEdit = new WorkspaceEdit();
-                workspaceEdit.setChanges(changes);
-                editParams.setEdit(workspaceEdit);
+            if (changes.keySet().size() == 0) {
+                return null;
             }
+            ApplyWorkspaceEditParams editParams = new ApplyWorkspaceEditParams();
+            WorkspaceEdit workspaceEdit = new WorkspaceEdit();
+            workspaceEdit.setChanges(changes);
+            editParams.setEdit(workspaceEdit);
+            return editParams;
         } finally {
             compilerWorkspace.doneBuilding();
             for (Path filePath : filesToClose) {
-                fileTracker.closeFile(filePath);
+                closeFileForOrganizeImports(filePath);
             }
         }
-        if (cancelToken != null) {
-            cancelToken.checkCanceled();
-        }
-        if (editParams != null) {
-            languageClient.applyEdit(editParams);
-        }
-        return new Object();
     }
 
     private CompletableFuture<Object> executeOrganizeImportsInUriCommand(ExecuteCommandParams params) {
@@ -292,7 +371,7 @@ public class ExecuteCommandProvider {
             compilerWorkspace.doneBuilding();
         }
         if (!isOpen) {
-            fileTracker.closeFile(path);
+            closeFileForOrganizeImports(path);
         }
         if (cancelToken != null) {
             cancelToken.checkCanceled();
@@ -330,6 +409,16 @@ public class ExecuteCommandProvider {
         compilerWorkspace.fileChanged(fileSpec);
     }
 
+    private void closeFileForOrganizeImports(Path path) {
+        fileTracker.closeFile(path);
+
+        // notify the workspace that it should read the file from the file
+        // system again, instead of the copy that was opened in memory
+        String normalizedPath = FilenameNormalization.normalize(path.toAbsolutePath().toString());
+        IFileSpecification fileSpec = fileTracker.getFileSpecification(normalizedPath);
+        compilerWorkspace.fileChanged(fileSpec);
+    }
+
     public static enum OrganizeImportsKind {
         ORGANIZE,
         REMOVE_ONLY,
@@ -394,9 +483,10 @@ public class ExecuteCommandProvider {
         }
         if (missingNames != null) {
             importsToAdd = new HashSet<>();
-            Collection<ICompilationUnit> units = project.getCompilationUnits();
+            DefinitionIndex definitionIndex = project.getDefinitionIndex();
             for (String missingName : missingNames) {
-                List<IDefinition> definitions = ASTUtils.findDefinitionsThatMatchName(missingName, false, units);
+                List<IDefinition> definitions = ASTUtils.findDefinitionsThatMatchName(missingName, false,
+                        definitionIndex);
                 if (definitions.size() == 1) {
                     // add an import only if exactly one type is found
                     importsToAdd.add(definitions.get(0).getQualifiedName());
@@ -461,8 +551,7 @@ public class ExecuteCommandProvider {
                 }
                 return new Object();
             }
-            int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(new StringReader(text),
-                    new Position(line, character));
+            int currentOffset = fileTracker.getOffsetFromPosition(pathForImport, new Position(line, character));
             ImportRange importRange = null;
             if (uri.endsWith(FILE_EXTENSION_MXML)) {
                 MXMLData mxmlData = actionScriptProjectManager.getMXMLDataForPath(pathForImport, projectData);
@@ -17,15 +17,14 @@ package com.as3mxml.vscode.providers;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 import com.as3mxml.vscode.project.ILspProject;
 import com.as3mxml.vscode.asdoc.VSCodeASDocComment;
 import com.as3mxml.vscode.project.ActionScriptProjectData;
+import com.as3mxml.vscode.project.TypeHierarchyIndex;
 import com.as3mxml.vscode.utils.CompilationUnitUtils.IncludeFileData;
-import com.as3mxml.vscode.utils.DefinitionUtils;
 import com.as3mxml.vscode.utils.FileTracker;
 import com.as3mxml.vscode.utils.LanguageServerCompilerUtils;
 import com.as3mxml.vscode.utils.MXMLDataUtils;
@@ -36,6 +35,7 @@ import org.apache.royale.compiler.definitions.IClassDefinition;
 import org.apache.royale.compiler.definitions.IDefinition;
 import org.apache.royale.compiler.definitions.IInterfaceDefinition;
 import org.apache.royale.compiler.internal.mxml.MXMLData;
+import org.apache.royale.compiler.internal.scopes.ASProjectScope;
 import org.apache.royale.compiler.mxml.IMXMLTagData;
 import org.apache.royale.compiler.tree.as.IASNode;
 import org.apache.royale.compiler.tree.as.IIdentifierNode;
@@ -93,8 +93,7 @@ public class ImplementationProvider {
         ILspProject project = projectData.project;
 
         IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-        int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-                includeFileData);
+        int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
         if (currentOffset == -1) {
             if (cancelToken != null) {
                 cancelToken.checkCanceled();
@@ -166,7 +165,11 @@ public class ImplementationProvider {
         }
 
         List<Location> result = new ArrayList<>();
-        for (ICompilationUnit unit : project.getCompilationUnits()) {
+        ASProjectScope projectScope = (ASProjectScope) project.getScope();
+        TypeHierarchyIndex typeHierarchyIndex = project.getTypeHierarchyIndex();
+        for (IClassDefinition classDefinition : typeHierarchyIndex
+                .getImplementations(interfaceDefinition.getQualifiedName())) {
+            ICompilationUnit unit = projectScope.getCompilationUnitForDefinition(classDefinition);
             if (unit == null) {
                 continue;
             }
@@ -174,25 +177,9 @@ public class ImplementationProvider {
             if (!UnitType.AS_UNIT.equals(unitType) && !UnitType.MXML_UNIT.equals(unitType)) {
                 continue;
             }
-            Collection<IDefinition> definitions = null;
-            try {
-                definitions = unit.getFileScopeRequest().get().getExternallyVisibleDefinitions();
-            } catch (Exception e) {
-                // safe to ignore
-                continue;
-            }
-
-            for (IDefinition definition : definitions) {
-                if (!(definition instanceof IClassDefinition)) {
-                    continue;
-                }
-                IClassDefinition classDefinition = (IClassDefinition) definition;
-                if (DefinitionUtils.isImplementationOfInterface(classDefinition, interfaceDefinition, project)) {
-                    Location location = actionScriptProjectManager.definitionToLocation(classDefinition, project);
-                    if (location != null) {
-                        result.add(location);
-                    }
-                }
+            Location location = actionScriptProjectManager.definitionToLocation(classDefinition, project);
+            if (location != null) {
+                result.add(location);
             }
         }
         return result;
@@ -17,6 +17,7 @@ package com.as3mxml.vscode.providers;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.royale.compiler.config.ConfigurationPathResolver;
@@ -29,6 +30,8 @@ import org.apache.royale.linter.config.Configuration;
 import org.apache.royale.linter.config.Configurator;
 
 import com.as3mxml.vscode.utils.FileTracker;
+import com.as3mxml.vscode.utils.HashUtils;
+import com.as3mxml.vscode.utils.LintCache;
 
 public class LintingProvider {
 	private static final String FILE_EXTENSION_CSS = ".css";
@@ -36,12 +39,14 @@ public class LintingProvider {
 	private static final String FILE_EXTENSION_AS = ".as";
 
 	private FileTracker fileTracker;
+	private LintCache lintCache;
 
-	public LintingProvider(FileTracker fileTracker) {
+	public LintingProvider(FileTracker fileTracker, LintCache lintCache) {
 		this.fileTracker = fileTracker;
+		this.lintCache = lintCache;
 	}
 
-	public void linting(String filePathString, List<ICompilerProblem> problems) {
+	public void linting(Path projectRoot, String filePathString, List<ICompilerProblem> problems) {
 		if (filePathString.endsWith(FILE_EXTENSION_CSS)) {
 			return;
 		}
@@ -50,20 +55,37 @@ public class LintingProvider {
 		if (fileText == null) {
 			return;
 		}
+		if (projectRoot == null) {
+			projectRoot = Paths.get(System.getProperty("user.dir"));
+		}
+		String stringFilePath = filePath.toString();
+		LinterSettings settings = lintCache.getSettings(projectRoot, this::loadSettings);
+		long textHash = HashUtils.fnv1a(fileText);
+		List<ICompilerProblem> lintProblems = lintCache.getProblems(stringFilePath, textHash, settings);
+		if (lintProblems == null) {
+			lintProblems = new ArrayList<>();
+			lint(stringFilePath, fileText, settings, lintProblems);
+			lintCache.putProblems(stringFilePath, textHash, settings, lintProblems);
+		}
+		problems.addAll(lintProblems);
+	}
+
+	private LinterSettings loadSettings(Path projectRoot) {
 		Configurator configurator = new Configurator();
-		ConfigurationPathResolver resolver = new ConfigurationPathResolver(System.getProperty("user.dir"));
+		ConfigurationPathResolver resolver = new ConfigurationPathResolver(projectRoot.toString());
 		configurator.setConfigurationPathResolver(resolver);
 		configurator.setConfiguration(new String[0], "files");
 		Configuration configuration = configurator.getConfiguration();
-		LinterSettings settings = LinterUtils.configurationToLinterSettings(configuration);
-		String stringFilePath = filePath.toString();
-		if (stringFilePath.endsWith(FILE_EXTENSION_AS)) {
+		return LinterUtils.configurationToLinterSettings(configuration);
+	}
+
+	private void lint(String filePath, String fileText, LinterSettings settings, List<ICompilerProblem> problems) {
+		if (filePath.endsWith(FILE_EXTENSION_AS)) {
 			ASLinter linter = new ASLinter(settings);
-			linter.lint(stringFilePath, fileText, problems);
-		} else if (stringFilePath.endsWith(FILE_EXTENSION_MXML)) {
+			linter.lint(filePath, fileText, problems);
+		} else if (filePath.endsWith(FILE_EXTENSION_MXML)) {
 			MXMLLinter linter = new MXMLLinter(settings);
-			linter.lint(stringFilePath, fileText, problems);
+			linter.lint(filePath, fileText, problems);
 		}
 	}
-
-}
+}
\ No newline at end of file
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.antlr.runtime.ANTLRStringStream;
 import org.apache.royale.compiler.common.ISourceLocation;
@@ -67,6 +68,7 @@ import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.ReferenceParams;
 import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.eclipse.lsp4j.services.LanguageClient;
 
 import com.as3mxml.vscode.asdoc.VSCodeASDocComment;
 import com.as3mxml.vscode.project.ActionScriptProjectData;
@@ -78,8 +80,11 @@ import com.as3mxml.vscode.utils.CompilationUnitUtils.IncludeFileData;
 import com.as3mxml.vscode.utils.CompilerProjectUtils;
 import com.as3mxml.vscode.utils.DefinitionUtils;
 import com.as3mxml.vscode.utils.FileTracker;
+import com.as3mxml.vscode.utils.IdentifierOccurrenceIndex;
 import com.as3mxml.vscode.utils.LanguageServerCompilerUtils;
 import com.as3mxml.vscode.utils.MXMLDataUtils;
+import com.as3mxml.vscode.utils.ParallelUnitSearch;
+import com.as3mxml.vscode.utils.SearchProgressReporter;
 import com.google.common.collect.ImmutableList;
 
 public class ReferencesProvider {
@@ -88,16 +93,29 @@ public class ReferencesProvider {
 
     private ActionScriptProjectManager actionScriptProjectManager;
     private FileTracker fileTracker;
+    private IdentifierOccurrenceIndex identifierOccurrenceIndex;
+    private ParallelUnitSearch parallelUnitSearch;
+    private LanguageClient languageClient;
+    private CancelChecker cancelToken;
+    private SearchProgressReporter progressReporter = new SearchProgressReporter(null, null, null);
 
-    public ReferencesProvider(ActionScriptProjectManager actionScriptProjectManager, FileTracker fileTracker) {
+    public ReferencesProvider(ActionScriptProjectManager actionScriptProjectManager, FileTracker fileTracker,
+            IdentifierOccurrenceIndex identifierOccurrenceIndex, ParallelUnitSearch parallelUnitSearch,
+            LanguageClient languageClient) {
         this.actionScriptProjectManager = actionScriptProjectManager;
         this.fileTracker = fileTracker;
+        this.identifierOccurrenceIndex = identifierOccurrenceIndex;
+        this.parallelUnitSearch = parallelUnitSearch;
+        this.languageClient = languageClient;
     }
 
     public List<? extends Location> references(ReferenceParams params, CancelChecker cancelToken) {
         if (cancelToken != null) {
             cancelToken.checkCanceled();
         }
+        this.cancelToken = cancelToken;
+        progressReporter = new SearchProgressReporter(languageClient, params.getWorkDoneToken(),
+                params.getPartialResultToken());
         TextDocumentIdentifier textDocument = params.getTextDocument();
         Position position = params.getPosition();
         String uriString = textDocument.getUri();
@@ -119,8 +137,7 @@ public class ReferencesProvider {
         ILspProject project = projectData.project;
 
         IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-        int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-                includeFileData);
+        int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
         if (currentOffset == -1) {
             if (cancelToken != null) {
                 cancelToken.checkCanceled();
@@ -477,6 +494,8 @@ public class ReferencesProvider {
             isLocal = FunctionClassification.LOCAL.equals(functionDef.getFunctionClassification());
         }
 
+        Set<String> namesToFind = IdentifierOccurrenceIndex.getNamesToFind(definition, project);
+        List<ICompilationUnit> unitsToSearch = new ArrayList<>();
         for (ICompilationUnit unit : project.getCompilationUnits()) {
             if (unit == null) {
                 continue;
@@ -490,7 +509,40 @@ public class ReferencesProvider {
                 // no need to check this file
                 continue;
             }
-            referencesForDefinitionInCompilationUnit(definition, unit, project, result);
+            unitsToSearch.add(unit);
+        }
+
+        IDefinition definitionToFind = definition;
+        progressReporter.begin("Finding references");
+        try {
+            List<List<Location>> unitResults = parallelUnitSearch.search(unitsToSearch, unit -> {
+                if (!identifierOccurrenceIndex.mayContainAny(unit.getAbsoluteFilename(), namesToFind)) {
+                    // the file's text doesn't contain the name anywhere
+                    return null;
+                }
+                List<Location> unitLocations = new ArrayList<>();
+                referencesForDefinitionInCompilationUnit(definitionToFind, unit, project, unitLocations);
+                if (unitLocations.isEmpty()) {
+                    return null;
+                }
+                return unitLocations;
+            }, cancelToken, (unit, unitLocations, completedCount, totalCount) -> {
+                if (unitLocations != null) {
+                    // results for large symbols appear without waiting for
+                    // every file to be searched
+                    progressReporter.partialResult(unitLocations);
+                }
+                progressReporter.report(completedCount, totalCount);
+            });
+            if (progressReporter.canSendPartialResults()) {
+                // the client already received everything
+                return;
+            }
+            for (List<Location> unitLocations : unitResults) {
+                result.addAll(unitLocations);
+            }
+        } finally {
+            progressReporter.end();
         }
     }
 
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.antlr.runtime.ANTLRStringStream;
 import org.apache.royale.compiler.common.ISourceLocation;
@@ -77,6 +78,7 @@ import org.eclipse.lsp4j.VersionedTextDocumentIdentifier;
 import org.eclipse.lsp4j.WorkspaceEdit;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.LanguageClient;
 
 import com.as3mxml.vscode.asdoc.VSCodeASDocComment;
 import com.as3mxml.vscode.project.ActionScriptProjectData;
@@ -88,8 +90,11 @@ import com.as3mxml.vscode.utils.CompilationUnitUtils.IncludeFileData;
 import com.as3mxml.vscode.utils.CompilerProjectUtils;
 import com.as3mxml.vscode.utils.DefinitionUtils;
 import com.as3mxml.vscode.utils.FileTracker;
+import com.as3mxml.vscode.utils.IdentifierOccurrenceIndex;
 import com.as3mxml.vscode.utils.LanguageServerCompilerUtils;
 import com.as3mxml.vscode.utils.MXMLDataUtils;
+import com.as3mxml.vscode.utils.ParallelUnitSearch;
+import com.as3mxml.vscode.utils.SearchProgressReporter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.Files;
 
@@ -98,18 +103,41 @@ public class RenameProvider {
     private static final String FILE_EXTENSION_MXML = ".mxml";
     private static final String FILE_EXTENSION_SWC = ".swc";
 
+    private static class UnitTextEdits {
+        public ICompilationUnit unit;
+        public List<TextEdit> textEdits;
+
+        public UnitTextEdits(ICompilationUnit unit, List<TextEdit> textEdits) {
+            this.unit = unit;
+            this.textEdits = textEdits;
+        }
+    }
+
     private ActionScriptProjectManager actionScriptProjectManager;
     private FileTracker fileTracker;
-
-    public RenameProvider(ActionScriptProjectManager actionScriptProjectManager, FileTracker fileTracker) {
+    private IdentifierOccurrenceIndex identifierOccurrenceIndex;
+    private ParallelUnitSearch parallelUnitSearch;
+    private LanguageClient languageClient;
+    private CancelChecker cancelToken;
+    private SearchProgressReporter progressReporter = new SearchProgressReporter(null, null, null);
+
+    public RenameProvider(ActionScriptProjectManager actionScriptProjectManager, FileTracker fileTracker,
+            IdentifierOccurrenceIndex identifierOccurrenceIndex, ParallelUnitSearch parallelUnitSearch,
+            LanguageClient languageClient) {
         this.actionScriptProjectManager = actionScriptProjectManager;
         this.fileTracker = fileTracker;
+        this.identifierOccurrenceIndex = identifierOccurrenceIndex;
+        this.parallelUnitSearch = parallelUnitSearch;
+        this.languageClient = languageClient;
     }
 
     public WorkspaceEdit rename(RenameParams params, CancelChecker cancelToken) {
         if (cancelToken != null) {
             cancelToken.checkCanceled();
         }
+        this.cancelToken = cancelToken;
+        // rename doesn't support partial results, but it may report progress
+        progressReporter = new SearchProgressReporter(languageClient, params.getWorkDoneToken(), null);
         TextDocumentIdentifier textDocument = params.getTextDocument();
         Position position = params.getPosition();
         String uriString = textDocument.getUri();
@@ -131,8 +159,7 @@ public class RenameProvider {
         ILspProject project = projectData.project;
 
         IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-        int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-                includeFileData);
+        int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
         if (currentOffset == -1) {
             if (cancelToken != null) {
                 cancelToken.checkCanceled();
@@ -508,8 +535,8 @@ public class RenameProvider {
             isLocal = FunctionClassification.LOCAL.equals(functionDef.getFunctionClassification());
         }
 
-        Path originalDefinitionFilePath = null;
-        Path newDefinitionFilePath = null;
+        Set<String> namesToFind = IdentifierOccurrenceIndex.getNamesToFind(definition, project);
+        List<ICompilationUnit> unitsToSearch = new ArrayList<>();
         for (ICompilationUnit unit : project.getCompilationUnits()) {
             if (unit == null) {
                 continue;
@@ -523,60 +550,36 @@ public class RenameProvider {
                 // no need to check this file
                 continue;
             }
-            ArrayList<TextEdit> textEdits = new ArrayList<>();
-            if (unit.getAbsoluteFilename().endsWith(FILE_EXTENSION_MXML)) {
-                IMXMLDataManager mxmlDataManager = project.getWorkspace().getMXMLDataManager();
-                MXMLData mxmlData = (MXMLData) mxmlDataManager
-                        .get(fileTracker.getFileSpecification(unit.getAbsoluteFilename()));
-                IMXMLTagData rootTag = mxmlData.getRootTag();
-                if (rootTag != null) {
-                    IDefinition rootTagDefinition = null;
-                    List<IDefinition> definitions = unit.getDefinitionPromises();
-                    if (definitions.size() > 0) {
-                        rootTagDefinition = definitions.get(0);
-                        if (rootTagDefinition instanceof DefinitionPromise) {
-                            DefinitionPromise definitionPromise = (DefinitionPromise) rootTagDefinition;
-                            rootTagDefinition = definitionPromise.getActualDefinition();
-                        }
-                    }
-                    boolean includeIDs = definition instanceof IVariableDefinition && rootTagDefinition != null
-                            && rootTagDefinition.equals(definition.getParent());
-                    ArrayList<ISourceLocation> units = new ArrayList<>();
-                    MXMLDataUtils.findMXMLUnits(mxmlData.getRootTag(), definition, includeIDs, project, units);
-                    for (ISourceLocation otherUnit : units) {
-                        TextEdit textEdit = new TextEdit();
-                        textEdit.setNewText(newName);
-
-                        Range range = LanguageServerCompilerUtils.getRangeFromSourceLocation(otherUnit);
-                        if (range == null) {
-                            continue;
-                        }
-                        textEdit.setRange(range);
+            unitsToSearch.add(unit);
+        }
 
-                        textEdits.add(textEdit);
-                    }
+        IDefinition definitionToRename = definition;
+        progressReporter.begin("Renaming " + definition.getBaseName());
+        List<UnitTextEdits> unitResults = null;
+        try {
+            unitResults = parallelUnitSearch.search(unitsToSearch, unit -> {
+                if (!identifierOccurrenceIndex.mayContainAny(unit.getAbsoluteFilename(), namesToFind)) {
+                    // the file's text doesn't contain the name anywhere
+                    return null;
                 }
-            }
-            IASNode ast = ASTUtils.getCompilationUnitAST(unit);
-            if (ast != null) {
-                ArrayList<IIdentifierNode> identifiers = new ArrayList<>();
-                ASTUtils.findIdentifiersForDefinition(ast, definition, project, identifiers);
-                for (IIdentifierNode identifierNode : identifiers) {
-                    TextEdit textEdit = new TextEdit();
-                    textEdit.setNewText(newName);
-
-                    Range range = LanguageServerCompilerUtils.getRangeFromSourceLocation(identifierNode);
-                    if (range == null) {
-                        continue;
-                    }
-                    textEdit.setRange(range);
-
-                    textEdits.add(textEdit);
+                List<TextEdit> textEdits = renameDefinitionInCompilationUnit(definitionToRename, newName, unit,
+                        project);
+                if (textEdits == null) {
+                    return null;
                 }
-            }
-            if (textEdits.size() == 0) {
-                continue;
-            }
+                return new UnitTextEdits(unit, textEdits);
+            }, cancelToken, (unit, unitTextEdits, completedCount, totalCount) -> {
+                progressReporter.report(completedCount, totalCount);
+            });
+        } finally {
+            progressReporter.end();
+        }
+
+        Path originalDefinitionFilePath = null;
+        Path newDefinitionFilePath = null;
+        for (UnitTextEdits unitTextEdits : unitResults) {
+            ICompilationUnit unit = unitTextEdits.unit;
+            List<TextEdit> textEdits = unitTextEdits.textEdits;
 
             Path textDocumentPath = Paths.get(unit.getAbsoluteFilename());
             if (definitionIsMainDefinitionInCompilationUnit(unit, definition)) {
@@ -603,6 +606,65 @@ public class RenameProvider {
         return result;
     }
 
+    private List<TextEdit> renameDefinitionInCompilationUnit(IDefinition definition, String newName,
+            ICompilationUnit unit, ILspProject project) {
+        ArrayList<TextEdit> textEdits = new ArrayList<>();
+        if (unit.getAbsoluteFilename().endsWith(FILE_EXTENSION_MXML)) {
+            IMXMLDataManager mxmlDataManager = project.getWorkspace().getMXMLDataManager();
+            MXMLData mxmlData = (MXMLData) mxmlDataManager
+                    .get(fileTracker.getFileSpecification(unit.getAbsoluteFilename()));
+            IMXMLTagData rootTag = mxmlData.getRootTag();
+            if (rootTag != null) {
+                IDefinition rootTagDefinition = null;
+                List<IDefinition> definitions = unit.getDefinitionPromises();
+                if (definitions.size() > 0) {
+                    rootTagDefinition = definitions.get(0);
+                    if (rootTagDefinition instanceof DefinitionPromise) {
+                        DefinitionPromise definitionPromise = (DefinitionPromise) rootTagDefinition;
+                        rootTagDefinition = definitionPromise.getActualDefinition();
+                    }
+                }
+                boolean includeIDs = definition instanceof IVariableDefinition && rootTagDefinition != null
+                        && rootTagDefinition.equals(definition.getParent());
+                ArrayList<ISourceLocation> units = new ArrayList<>();
+                MXMLDataUtils.findMXMLUnits(mxmlData.getRootTag(), definition, includeIDs, project, units);
+                for (ISourceLocation otherUnit : units) {
+                    TextEdit textEdit = new TextEdit();
+                    textEdit.setNewText(newName);
+
+                    Range range = LanguageServerCompilerUtils.getRangeFromSourceLocation(otherUnit);
+                    if (range == null) {
+                        continue;
+                    }
+                    textEdit.setRange(range);
+
+                    textEdits.add(textEdit);
+                }
+            }
+        }
+        IASNode ast = ASTUtils.getCompilationUnitAST(unit);
+        if (ast != null) {
+            ArrayList<IIdentifierNode> identifiers = new ArrayList<>();
+            ASTUtils.findIdentifiersForDefinition(ast, definition, project, identifiers);
+            for (IIdentifierNode identifierNode : identifiers) {
+                TextEdit textEdit = new TextEdit();
+                textEdit.setNewText(newName);
+
+                Range range = LanguageServerCompilerUtils.getRangeFromSourceLocation(identifierNode);
+                if (range == null) {
+                    continue;
+                }
+                textEdit.setRange(range);
+
+                textEdits.add(textEdit);
+            }
+        }
+        if (textEdits.size() == 0) {
+            return null;
+        }
+        return textEdits;
+    }
+
     private boolean definitionIsMainDefinitionInCompilationUnit(ICompilationUnit unit, IDefinition definition) {
         IASScope[] scopes;
         try {
@@ -97,8 +97,7 @@ public class TypeDefinitionProvider {
 		}
 
 		IncludeFileData includeFileData = projectData.includedFiles.get(path.toString());
-		int currentOffset = LanguageServerCompilerUtils.getOffsetFromPosition(fileTracker.getReader(path), position,
-				includeFileData);
+		int currentOffset = fileTracker.getOffsetFromPosition(path, position, includeFileData);
 		if (currentOffset == -1) {
 			if (cancelToken != null) {
 				cancelToken.checkCanceled();
@@ -15,13 +15,20 @@ limitations under the License.
 */
 package com.as3mxml.vscode.providers;
 
+import java.io.File;
 import java.net.URI;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 import org.apache.royale.compiler.definitions.IClassDefinition;
@@ -41,8 +48,12 @@ import org.apache.royale.compiler.scopes.IASScope;
 import org.apache.royale.compiler.units.ICompilationUnit;
 import org.apache.royale.compiler.units.ICompilationUnit.UnitType;
 import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.SymbolCapabilities;
 import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.SymbolTag;
 import org.eclipse.lsp4j.WorkspaceSymbol;
 import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.lsp4j.jsonrpc.CancelChecker;
@@ -52,15 +63,25 @@ import com.as3mxml.vscode.project.ActionScriptProjectData;
 import com.as3mxml.vscode.project.ILspProject;
 import com.as3mxml.vscode.utils.ActionScriptProjectManager;
 import com.as3mxml.vscode.utils.DefinitionURI;
+import com.as3mxml.vscode.utils.FileTracker;
+import com.as3mxml.vscode.utils.WorkspaceSymbolIndex;
+import com.as3mxml.vscode.utils.WorkspaceSymbolIndex.ProjectFiles;
+import com.as3mxml.vscode.utils.WorkspaceSymbolIndex.SymbolEntry;
+import com.as3mxml.vscode.utils.WorkspaceSymbolIndex.SymbolRecord;
 
 public class WorkspaceSymbolProvider {
 	private static final Pattern FULLY_QUALIFIED_NAME_PATTERN = Pattern
 			.compile("^([A-Za-z0_\\$][A-Za-z0-9_\\$]*\\.)*[A-Za-z_\\$][A-Za-z0-9_\\$]*$");
 	private ActionScriptProjectManager actionScriptProjectManager;
+	private FileTracker fileTracker;
+	private WorkspaceSymbolIndex symbolIndex;
 	public SymbolCapabilities symbolCapabilities;
 
-	public WorkspaceSymbolProvider(ActionScriptProjectManager actionScriptProjectManager) {
+	public WorkspaceSymbolProvider(ActionScriptProjectManager actionScriptProjectManager, FileTracker fileTracker,
+			WorkspaceSymbolIndex symbolIndex) {
 		this.actionScriptProjectManager = actionScriptProjectManager;
+		this.fileTracker = fileTracker;
+		this.symbolIndex = symbolIndex;
 	}
 
 	public Either<List<? extends SymbolInformation>, List<? extends WorkspaceSymbol>> workspaceSymbol(
@@ -75,110 +96,36 @@ public class WorkspaceSymbolProvider {
 			} catch (NullPointerException e) {
 			}
 		}
-		Set<String> qualifiedNames = new HashSet<>();
-		List<WorkspaceSymbol> result = new ArrayList<>();
 		String query = params.getQuery();
-		StringBuilder currentQuery = new StringBuilder();
-		List<String> queries = new ArrayList<>();
-		for (int i = 0, length = query.length(); i < length; i++) {
-			String charAtI = query.substring(i, i + 1);
-			if (i > 0 && charAtI.toUpperCase().equals(charAtI)) {
-				queries.add(currentQuery.toString().toLowerCase());
-				currentQuery = new StringBuilder();
-			}
-			currentQuery.append(charAtI);
-		}
-		if (currentQuery.length() > 0) {
-			queries.add(currentQuery.toString().toLowerCase());
-		}
+		List<String> queries = WorkspaceSymbolIndex.parseQuery(query);
 		String fullyQualifiedQuery = null;
 		if (FULLY_QUALIFIED_NAME_PATTERN.matcher(query).matches()) {
 			fullyQualifiedQuery = query.toLowerCase();
 		}
-		for (ActionScriptProjectData projectData : actionScriptProjectManager.getAllProjectData()) {
-			ILspProject project = projectData.project;
-			if (project == null) {
-				continue;
+
+		Set<String> indexedPaths = updateIndex(cancelToken);
+
+		Set<String> qualifiedNames = new HashSet<>();
+		List<WorkspaceSymbol> result = new ArrayList<>();
+		final String finalFullyQualifiedQuery = fullyQualifiedQuery;
+		final boolean finalAllowResolveRange = allowResolveRange;
+		symbolIndex.findEntries(indexedPaths, queries, entry -> {
+			// every fully-qualified match also matches the queries
+			boolean fullyQualifiedMatch = entry.packageLevel && finalFullyQualifiedQuery != null
+					&& entry.qualifiedName.toLowerCase().startsWith(finalFullyQualifiedQuery);
+			if (entry.packageLevel && !qualifiedNames.add(entry.qualifiedName)) {
+				// we've already added this symbol
+				// this can happen when multiple files or libraries define
+				// the same symbol
+				return;
 			}
-			for (ICompilationUnit unit : project.getCompilationUnits()) {
-				if (unit == null) {
-					continue;
-				}
-				UnitType unitType = unit.getCompilationUnitType();
-				if (UnitType.SWC_UNIT.equals(unitType)) {
-					List<IDefinition> definitions = unit.getDefinitionPromises();
-					for (IDefinition definition : definitions) {
-						if (definition instanceof DefinitionPromise) {
-							// we won't be able to detect what type of definition
-							// this is without getting the actual definition from the
-							// promise.
-							DefinitionPromise promise = (DefinitionPromise) definition;
-							definition = promise.getActualDefinition();
-						}
-						if (definition == null) {
-							// one reason this could happen is a badly-formed
-							// playerglobal.swc file
-							continue;
-						}
-						if (definition.isImplicit()) {
-							continue;
-						}
-						String qualifiedName = definition.getQualifiedName();
-						boolean fullyQualifiedMatch = fullyQualifiedQuery != null
-								&& qualifiedName.toLowerCase().startsWith(fullyQualifiedQuery);
-						if (fullyQualifiedMatch || matchesQueries(queries, qualifiedName)) {
-							if (qualifiedNames.contains(qualifiedName)) {
-								// we've already added this symbol
-								// this can happen when there are multiple root
-								// folders in the workspace
-								continue;
-							}
-							WorkspaceSymbol symbol = actionScriptProjectManager.definitionToWorkspaceSymbol(definition,
-									project, allowResolveRange);
-							if (symbol != null) {
-								if (fullyQualifiedMatch) {
-									symbol.setName(qualifiedName);
-								}
-								qualifiedNames.add(qualifiedName);
-								result.add(symbol);
-							}
-						}
-						if (definition instanceof ITypeDefinition) {
-							ITypeDefinition typeDef = (ITypeDefinition) definition;
-							IASScope typeScope = typeDef.getContainedScope();
-							if (typeScope != null) {
-								Collection<IDefinition> localDefs = new ArrayList<>(typeScope.getAllLocalDefinitions());
-								for (IDefinition localDef : localDefs) {
-									if (localDef.isOverride() || localDef.isPrivate()) {
-										// skip overrides and private
-										continue;
-									}
-									if (!matchesQueries(queries, localDef.getQualifiedName())) {
-										continue;
-									}
-									WorkspaceSymbol localSymbol = actionScriptProjectManager
-											.definitionToWorkspaceSymbol(localDef,
-													project, allowResolveRange);
-									if (localSymbol != null) {
-										result.add(localSymbol);
-									}
-								}
-							}
-						}
-					}
-				} else if (UnitType.AS_UNIT.equals(unitType) || UnitType.MXML_UNIT.equals(unitType)) {
-					IASScope[] scopes;
-					try {
-						scopes = unit.getFileScopeRequest().get().getScopes();
-					} catch (Exception e) {
-						return Either.forRight(Collections.emptyList());
-					}
-					for (IASScope scope : scopes) {
-						querySymbolsInScope(queries, fullyQualifiedQuery, scope, allowResolveRange, qualifiedNames,
-								project, result);
-					}
-				}
+			WorkspaceSymbol symbol = entryToWorkspaceSymbol(entry, fullyQualifiedMatch, finalAllowResolveRange);
+			if (symbol != null) {
+				result.add(symbol);
 			}
+		});
+		if (symbolIndex.needsSave()) {
+			CompletableFuture.runAsync(() -> symbolIndex.save());
 		}
 		if (cancelToken != null) {
 			cancelToken.checkCanceled();
@@ -193,33 +140,226 @@ public class WorkspaceSymbolProvider {
 		if (!workspaceSymbol.getLocation().isRight()) {
 			return workspaceSymbol;
 		}
+		Location location = resolveLocation(workspaceSymbol.getLocation().getRight().getUri());
+		if (location != null) {
+			workspaceSymbol.setLocation(Either.forLeft(location));
+			return workspaceSymbol;
+		}
+		if (cancelToken != null) {
+			cancelToken.checkCanceled();
+		}
+		return workspaceSymbol;
+	}
+
+	/**
+	 * Creates the full location of a definition in a SWC from the URI created
+	 * by <code>DefinitionURI</code>. Returns null if the definition can't be
+	 * found.
+	 */
+	private Location resolveLocation(String definitionURI) {
 		URI uri = null;
 		try {
-			uri = URI.create(workspaceSymbol.getLocation().getRight().getUri());
+			uri = URI.create(definitionURI);
 		} catch (Exception e) {
-			return workspaceSymbol;
+			return null;
 		}
 		String query = uri.getQuery();
+		if (query == null) {
+			return null;
+		}
 		DefinitionURI decodedQuery = DefinitionURI.decode(query, actionScriptProjectManager);
 		IDefinition definition = decodedQuery.definition;
 		ICompilerProject project = decodedQuery.project;
-		if (definition != null && project != null) {
-			Location location = actionScriptProjectManager
-					.definitionToLocation(definition, project);
-			if (location != null) {
-				workspaceSymbol.setLocation(Either.forLeft(location));
-				return workspaceSymbol;
+		if (definition == null || project == null) {
+			return null;
+		}
+		return actionScriptProjectManager.definitionToLocation(definition, project);
+	}
+
+	/**
+	 * Ensures that every SWC and source file in every project has an up-to-date
+	 * record in the index, and returns the paths of those files. A project's
+	 * compilation units are walked only after units have been added or
+	 * removed, and a file's record is checked only after the file has changed.
+	 */
+	private Set<String> updateIndex(CancelChecker cancelToken) {
+		symbolIndex.load();
+		Set<String> indexedPaths = new LinkedHashSet<>();
+		for (ActionScriptProjectData projectData : actionScriptProjectManager.getAllProjectData()) {
+			ILspProject project = projectData.project;
+			if (project == null) {
+				continue;
+			}
+			long compilationUnitsStamp = project.getCompilationUnitsStamp();
+			ProjectFiles files = symbolIndex.getProjectFiles(project);
+			if (files == null || files.compilationUnitsStamp != compilationUnitsStamp
+					|| !allVerified(files.swcPaths)) {
+				ProjectFiles oldFiles = files;
+				files = scanProject(project, compilationUnitsStamp, indexedPaths);
+				symbolIndex.putProjectFiles(project, files);
+				if (oldFiles != null) {
+					removeRecords(oldFiles.sourcePaths, files.sourcePaths);
+					removeRecords(oldFiles.swcPaths, files.swcPaths);
+				}
+			} else {
+				for (String path : files.sourcePaths) {
+					if (symbolIndex.isVerified(path) || indexedPaths.contains(path)) {
+						continue;
+					}
+					ICompilationUnit unit = project.getCompilationUnitForPath(Paths.get(path));
+					if (unit != null) {
+						updateSourceRecord(path, unit, project);
+					}
+				}
+			}
+			indexedPaths.addAll(files.swcPaths);
+			indexedPaths.addAll(files.sourcePaths);
+			if (cancelToken != null) {
+				cancelToken.checkCanceled();
 			}
 		}
-		if (cancelToken != null) {
-			cancelToken.checkCanceled();
+		return indexedPaths;
+	}
+
+	/**
+	 * Removes the records of files that are no longer in a project. If
+	 * another project still has one of these files, its record is created
+	 * again the next time that project is checked.
+	 */
+	private void removeRecords(Set<String> oldPaths, Set<String> newPaths) {
+		for (String path : oldPaths) {
+			if (!newPaths.contains(path)) {
+				symbolIndex.removeRecord(path);
+			}
 		}
-		return workspaceSymbol;
 	}
 
-	private void querySymbolsInScope(List<String> queries, String fullyQualifiedQuery, IASScope scope,
-			boolean allowResolveRange, Set<String> foundSymbols, ILspProject project,
-			Collection<WorkspaceSymbol> result) {
+	private boolean allVerified(Set<String> paths) {
+		for (String path : paths) {
+			if (!symbolIndex.isVerified(path)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private ProjectFiles scanProject(ILspProject project, long compilationUnitsStamp, Set<String> indexedPaths) {
+		Set<String> sourcePaths = new LinkedHashSet<>();
+		Map<String, List<ICompilationUnit>> swcUnits = new HashMap<>();
+		for (ICompilationUnit unit : project.getCompilationUnits()) {
+			if (unit == null) {
+				continue;
+			}
+			String path = unit.getAbsoluteFilename();
+			if (path == null) {
+				continue;
+			}
+			UnitType unitType = unit.getCompilationUnitType();
+			if (UnitType.SWC_UNIT.equals(unitType)) {
+				List<ICompilationUnit> units = swcUnits.get(path);
+				if (units == null) {
+					units = new ArrayList<>();
+					swcUnits.put(path, units);
+				}
+				units.add(unit);
+			} else if (UnitType.AS_UNIT.equals(unitType) || UnitType.MXML_UNIT.equals(unitType)) {
+				if (!sourcePaths.add(path) || indexedPaths.contains(path)) {
+					// this can happen when there are multiple root
+					// folders in the workspace
+					continue;
+				}
+				if (!symbolIndex.isVerified(path)) {
+					updateSourceRecord(path, unit, project);
+				}
+			}
+		}
+		for (Map.Entry<String, List<ICompilationUnit>> entry : swcUnits.entrySet()) {
+			String path = entry.getKey();
+			if (indexedPaths.contains(path) || symbolIndex.isVerified(path)) {
+				// another project uses the same library, or it hasn't changed
+				continue;
+			}
+			updateSWCRecord(path, entry.getValue(), project);
+		}
+		return new ProjectFiles(compilationUnitsStamp, sourcePaths, new HashSet<>(swcUnits.keySet()));
+	}
+
+	private void updateSourceRecord(String path, ICompilationUnit unit, ILspProject project) {
+		symbolIndex.markVerified(path);
+		File file = new File(path);
+		long lastModified = file.lastModified();
+		long fileSize = file.length();
+		long modificationStamp = fileTracker.getModificationStamp(Paths.get(path));
+		SymbolRecord record = symbolIndex.getRecord(path);
+		if (record != null && record.isValid(lastModified, fileSize, modificationStamp)) {
+			return;
+		}
+		IASScope[] scopes;
+		try {
+			scopes = unit.getFileScopeRequest().get().getScopes();
+		} catch (Exception e) {
+			// try again next time
+			symbolIndex.fileChanged(path);
+			return;
+		}
+		List<SymbolEntry> entries = new ArrayList<>();
+		for (IASScope scope : scopes) {
+			collectSymbolsInScope(scope, project, entries);
+		}
+		// don't save symbols from unsaved changes in the editor
+		boolean persistent = !fileTracker.isOpen(Paths.get(path));
+		symbolIndex.putRecord(new SymbolRecord(path, lastModified, fileSize, modificationStamp, persistent, entries));
+	}
+
+	private void updateSWCRecord(String path, List<ICompilationUnit> units, ILspProject project) {
+		symbolIndex.markVerified(path);
+		File file = new File(path);
+		long lastModified = file.lastModified();
+		long fileSize = file.length();
+		SymbolRecord record = symbolIndex.getRecord(path);
+		if (record != null && record.isValid(lastModified, fileSize, 0L)) {
+			return;
+		}
+		List<SymbolEntry> entries = new ArrayList<>();
+		for (ICompilationUnit unit : units) {
+			List<IDefinition> definitions = unit.getDefinitionPromises();
+			for (IDefinition definition : definitions) {
+				if (definition instanceof DefinitionPromise) {
+					// we won't be able to detect what type of definition
+					// this is without getting the actual definition from the
+					// promise.
+					DefinitionPromise promise = (DefinitionPromise) definition;
+					definition = promise.getActualDefinition();
+				}
+				if (definition == null) {
+					// one reason this could happen is a badly-formed
+					// playerglobal.swc file
+					continue;
+				}
+				if (definition.isImplicit()) {
+					continue;
+				}
+				addEntry(definition, true, project, entries);
+				if (definition instanceof ITypeDefinition) {
+					ITypeDefinition typeDef = (ITypeDefinition) definition;
+					IASScope typeScope = typeDef.getContainedScope();
+					if (typeScope != null) {
+						Collection<IDefinition> localDefs = new ArrayList<>(typeScope.getAllLocalDefinitions());
+						for (IDefinition localDef : localDefs) {
+							if (localDef.isOverride() || localDef.isPrivate()) {
+								// skip overrides and private
+								continue;
+							}
+							addEntry(localDef, false, project, entries);
+						}
+					}
+				}
+			}
+		}
+		symbolIndex.putRecord(new SymbolRecord(path, lastModified, fileSize, 0L, true, entries));
+	}
+
+	private void collectSymbolsInScope(IASScope scope, ILspProject project, List<SymbolEntry> entries) {
 		Collection<IDefinition> localDefs = new ArrayList<>(scope.getAllLocalDefinitions());
 		for (IDefinition definition : localDefs) {
 			if (definition.isImplicit()) {
@@ -228,127 +368,102 @@ public class WorkspaceSymbolProvider {
 			if (definition instanceof IPackageDefinition) {
 				IPackageDefinition packageDefinition = (IPackageDefinition) definition;
 				IASScope packageScope = packageDefinition.getContainedScope();
-				querySymbolsInScope(queries, fullyQualifiedQuery, packageScope, allowResolveRange, foundSymbols,
-						project,
-						result);
+				collectSymbolsInScope(packageScope, project, entries);
 			} else if (definition instanceof IClassDefinition) {
 				IClassDefinition classDefinition = (IClassDefinition) definition;
-				String qualifiedName = definition.getQualifiedName();
-				boolean fullyQualifiedMatch = false;
-				if (ClassClassification.PACKAGE_MEMBER.equals(classDefinition.getClassClassification())) {
-					if (foundSymbols.contains(qualifiedName)) {
-						// skip symbols that we've already encountered because
-						// we don't want duplicates in the result
-						continue;
-					}
-					foundSymbols.add(qualifiedName);
-					fullyQualifiedMatch = fullyQualifiedQuery != null
-							&& qualifiedName.toLowerCase().startsWith(fullyQualifiedQuery);
-				}
-				if (fullyQualifiedMatch || matchesQueries(queries, qualifiedName)) {
-					WorkspaceSymbol symbol = actionScriptProjectManager.definitionToWorkspaceSymbol(classDefinition,
-							project, allowResolveRange);
-					if (symbol != null) {
-						if (fullyQualifiedMatch) {
-							symbol.setName(qualifiedName);
-						}
-						result.add(symbol);
-					}
-				}
+				boolean packageLevel = ClassClassification.PACKAGE_MEMBER
+						.equals(classDefinition.getClassClassification());
+				addEntry(classDefinition, packageLevel, project, entries);
 				IASScope typeScope = classDefinition.getContainedScope();
-				querySymbolsInScope(queries, fullyQualifiedQuery, typeScope, allowResolveRange, foundSymbols, project,
-						result);
+				collectSymbolsInScope(typeScope, project, entries);
 			} else if (definition instanceof IInterfaceDefinition) {
 				IInterfaceDefinition interfaceDefinition = (IInterfaceDefinition) definition;
-				String qualifiedName = definition.getQualifiedName();
-				boolean fullyQualifiedMatch = false;
-				if (InterfaceClassification.PACKAGE_MEMBER.equals(interfaceDefinition.getInterfaceClassification())) {
-					if (foundSymbols.contains(qualifiedName)) {
-						// skip symbols that we've already encountered because
-						// we don't want duplicates in the result
-						continue;
-					}
-					foundSymbols.add(qualifiedName);
-					fullyQualifiedMatch = fullyQualifiedQuery != null
-							&& qualifiedName.toLowerCase().startsWith(fullyQualifiedQuery);
-				}
-				if (fullyQualifiedMatch || matchesQueries(queries, qualifiedName)) {
-					WorkspaceSymbol symbol = actionScriptProjectManager.definitionToWorkspaceSymbol(interfaceDefinition,
-							project, allowResolveRange);
-					if (symbol != null) {
-						if (fullyQualifiedMatch) {
-							symbol.setName(qualifiedName);
-						}
-						result.add(symbol);
-					}
-				}
+				boolean packageLevel = InterfaceClassification.PACKAGE_MEMBER
+						.equals(interfaceDefinition.getInterfaceClassification());
+				addEntry(interfaceDefinition, packageLevel, project, entries);
 				IASScope typeScope = interfaceDefinition.getContainedScope();
-				querySymbolsInScope(queries, fullyQualifiedQuery, typeScope, allowResolveRange, foundSymbols, project,
-						result);
+				collectSymbolsInScope(typeScope, project, entries);
 			} else if (definition instanceof IFunctionDefinition) {
 				IFunctionDefinition functionDefinition = (IFunctionDefinition) definition;
-				String qualifiedName = definition.getQualifiedName();
-				boolean fullyQualifiedMatch = false;
-				if (FunctionClassification.PACKAGE_MEMBER.equals(functionDefinition.getFunctionClassification())) {
-					if (foundSymbols.contains(qualifiedName)) {
-						// skip symbols that we've already encountered because
-						// we don't want duplicates in the result
-						continue;
-					}
-					foundSymbols.add(qualifiedName);
-					fullyQualifiedMatch = fullyQualifiedQuery != null
-							&& qualifiedName.toLowerCase().startsWith(fullyQualifiedQuery);
-				}
-				if (!fullyQualifiedMatch && !matchesQueries(queries, qualifiedName)) {
-					continue;
-				}
-				WorkspaceSymbol symbol = actionScriptProjectManager.definitionToWorkspaceSymbol(functionDefinition,
-						project, allowResolveRange);
-				if (symbol != null) {
-					if (fullyQualifiedMatch) {
-						symbol.setName(qualifiedName);
-					}
-					result.add(symbol);
-				}
+				boolean packageLevel = FunctionClassification.PACKAGE_MEMBER
+						.equals(functionDefinition.getFunctionClassification());
+				addEntry(functionDefinition, packageLevel, project, entries);
 			} else if (definition instanceof IVariableDefinition) {
 				IVariableDefinition variableDefinition = (IVariableDefinition) definition;
-				String qualifiedName = definition.getQualifiedName();
-				boolean fullyQualifiedMatch = false;
-				if (VariableClassification.PACKAGE_MEMBER.equals(variableDefinition.getVariableClassification())) {
-					if (foundSymbols.contains(qualifiedName)) {
-						// skip symbols that we've already encountered because
-						// we don't want duplicates in the result
-						continue;
-					}
-					foundSymbols.add(qualifiedName);
-					fullyQualifiedMatch = fullyQualifiedQuery != null
-							&& qualifiedName.toLowerCase().startsWith(fullyQualifiedQuery);
-				}
-				if (!fullyQualifiedMatch && !matchesQueries(queries, qualifiedName)) {
-					continue;
-				}
-				WorkspaceSymbol symbol = actionScriptProjectManager.definitionToWorkspaceSymbol(variableDefinition,
-						project, allowResolveRange);
-				if (symbol != null) {
-					if (fullyQualifiedMatch) {
-						symbol.setName(qualifiedName);
-					}
-					result.add(symbol);
-				}
+				boolean packageLevel = VariableClassification.PACKAGE_MEMBER
+						.equals(variableDefinition.getVariableClassification());
+				addEntry(variableDefinition, packageLevel, project, entries);
 			}
 		}
 	}
 
-	private boolean matchesQueries(List<String> queries, String target) {
-		String lowerCaseTarget = target.toLowerCase();
-		int fromIndex = 0;
-		for (String query : queries) {
-			int index = lowerCaseTarget.indexOf(query, fromIndex);
-			if (index == -1) {
-				return false;
+	private void addEntry(IDefinition definition, boolean packageLevel, ILspProject project,
+			List<SymbolEntry> entries) {
+		// always allow the range to be resolved later because creating the
+		// location of a definition in a SWC is expensive
+		WorkspaceSymbol symbol = actionScriptProjectManager.definitionToWorkspaceSymbol(definition, project, true);
+		if (symbol == null || !symbol.getLocation().isLeft()) {
+			return;
+		}
+		Location location = symbol.getLocation().getLeft();
+		SymbolEntry entry = new SymbolEntry();
+		entry.name = symbol.getName();
+		entry.qualifiedName = definition.getQualifiedName();
+		entry.kind = symbol.getKind().getValue();
+		entry.containerName = symbol.getContainerName();
+		entry.uri = location.getUri();
+		Range range = location.getRange();
+		if (range != null) {
+			entry.startLine = range.getStart().getLine();
+			entry.startCharacter = range.getStart().getCharacter();
+			entry.endLine = range.getEnd().getLine();
+			entry.endCharacter = range.getEnd().getCharacter();
+		}
+		entry.packageLevel = packageLevel;
+		List<SymbolTag> tags = symbol.getTags();
+		entry.deprecated = tags != null && tags.contains(SymbolTag.Deprecated);
+		entries.add(entry);
+	}
+
+	private WorkspaceSymbol entryToWorkspaceSymbol(SymbolEntry entry, boolean fullyQualifiedMatch,
+			boolean allowResolveRange) {
+		return entryToWorkspaceSymbol(entry, fullyQualifiedMatch, allowResolveRange, this::resolveLocation);
+	}
+
+	/**
+	 * Creates a symbol from an entry in the index. An entry from a SWC has no
+	 * range, so if the client can't resolve the range later, the location is
+	 * created now with <code>locationResolver</code>, which is passed the
+	 * entry's URI.
+	 */
+	static WorkspaceSymbol entryToWorkspaceSymbol(SymbolEntry entry, boolean fullyQualifiedMatch,
+			boolean allowResolveRange, Function<String, Location> locationResolver) {
+		WorkspaceSymbol symbol = new WorkspaceSymbol();
+		symbol.setName(fullyQualifiedMatch ? entry.qualifiedName : entry.name);
+		symbol.setKind(SymbolKind.forValue(entry.kind));
+		if (entry.containerName != null) {
+			symbol.setContainerName(entry.containerName);
+		}
+		Location location = null;
+		if (entry.hasRange()) {
+			location = new Location();
+			location.setUri(entry.uri);
+			location.setRange(new Range(new Position(entry.startLine, entry.startCharacter),
+					new Position(entry.endLine, entry.endCharacter)));
+		} else if (allowResolveRange) {
+			location = new Location();
+			location.setUri(entry.uri);
+		} else {
+			// the client can't resolve the range later, so do it now
+			location = locationResolver.apply(entry.uri);
+			if (location == null || location.getRange() == null) {
+				return null;
 			}
-			fromIndex = index + query.length();
 		}
-		return true;
+		symbol.setLocation(Either.forLeft(location));
+		if (entry.deprecated) {
+			symbol.setTags(Collections.singletonList(SymbolTag.Deprecated));
+		}
+		return symbol;
 	}
-}
\ No newline at end of file
+}
@@ -120,7 +120,7 @@ public class ASDocUtils {
 		IDefinition typeNameDefinition = null;
 		if (typeName != null) {
 			typeNameDefinition = DefinitionUtils.getDefinitionByName(typeName,
-					project.getCompilationUnits());
+					project.getDefinitionIndex());
 			if (typeNameDefinition == null && typeName.indexOf('.') == -1) {
 				String localTypeName = CompilationUnitUtils.getPrimaryQualifiedName(compilationUnit);
 				if (localTypeName != null) {
@@ -130,7 +130,7 @@ public class ASDocUtils {
 						// try to find it in the same package as the current file
 						typeName = localTypeName.substring(0, endOfPackage + 1) + typeName;
 						typeNameDefinition = DefinitionUtils.getDefinitionByName(typeName,
-								project.getCompilationUnits());
+								project.getDefinitionIndex());
 					}
 				}
 			}
@@ -17,7 +17,6 @@ package com.as3mxml.vscode.utils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -82,6 +81,7 @@ import org.apache.royale.compiler.units.ICompilationUnit;
 
 import com.as3mxml.vscode.compiler.problems.DisabledConfigConditionBlockProblem;
 import com.as3mxml.vscode.compiler.problems.UnusedImportProblem;
+import com.as3mxml.vscode.project.DefinitionIndex;
 
 public class ASTUtils {
     private static final String DOT_STAR = ".*";
@@ -317,72 +317,55 @@ public class ASTUtils {
     }
 
     public static List<IDefinition> findDefinitionsThatMatchName(String nameToFind, boolean allowDuplicates,
-            Collection<ICompilationUnit> compilationUnits) {
+            DefinitionIndex definitionIndex) {
 
         ArrayList<IDefinition> result = new ArrayList<>();
         Set<String> qualifiedNames = allowDuplicates ? null : new HashSet<>();
-        for (ICompilationUnit unit : compilationUnits) {
-            if (unit == null) {
+        for (IDefinition definition : definitionIndex.getDefinitionsByBaseName(nameToFind)) {
+            if (definition.isImplicit()) {
                 continue;
             }
-            try {
-                Collection<IDefinition> definitions = unit.getFileScopeRequest().get()
-                        .getExternallyVisibleDefinitions();
-                if (definitions == null) {
+            if (definition instanceof IClassDefinition) {
+                IClassDefinition classDefinition = (IClassDefinition) definition;
+                if (!ClassClassification.PACKAGE_MEMBER
+                        .equals(classDefinition.getClassClassification())) {
                     continue;
                 }
-                for (IDefinition definition : definitions) {
-                    if (definition.isImplicit()) {
-                        continue;
-                    }
-                    if (definition instanceof IClassDefinition) {
-                        IClassDefinition classDefinition = (IClassDefinition) definition;
-                        if (!ClassClassification.PACKAGE_MEMBER
-                                .equals(classDefinition.getClassClassification())) {
-                            continue;
-                        }
-                    } else if (definition instanceof IInterfaceDefinition) {
-                        IInterfaceDefinition interfaceDefinition = (IInterfaceDefinition) definition;
-                        if (!InterfaceClassification.PACKAGE_MEMBER
-                                .equals(interfaceDefinition.getInterfaceClassification())) {
-                            continue;
-                        }
-                    } else if (definition instanceof IFunctionDefinition) {
-                        IFunctionDefinition functionDefinition = (IFunctionDefinition) definition;
-                        if (!FunctionClassification.PACKAGE_MEMBER
-                                .equals(functionDefinition.getFunctionClassification())) {
-                            continue;
-                        }
-                    } else if (definition instanceof IVariableDefinition) {
-                        IVariableDefinition variableDefinition = (IVariableDefinition) definition;
-                        if (!VariableClassification.PACKAGE_MEMBER
-                                .equals(variableDefinition.getVariableClassification())) {
-                            continue;
-                        }
-                    } else {
-                        // unknown definition type
-                        continue;
-                    }
-                    String baseName = definition.getBaseName();
-                    if (!baseName.equals(nameToFind)) {
-                        continue;
-                    }
-                    String qualifiedName = definition.getQualifiedName();
-                    if (baseName.equals(qualifiedName)) {
-                        // this definition is top-level. no import required.
-                        continue;
-                    }
-                    if (!allowDuplicates) {
-                        if (qualifiedNames.contains(qualifiedName)) {
-                            continue;
-                        }
-                        qualifiedNames.add(qualifiedName);
-                    }
-                    result.add(definition);
+            } else if (definition instanceof IInterfaceDefinition) {
+                IInterfaceDefinition interfaceDefinition = (IInterfaceDefinition) definition;
+                if (!InterfaceClassification.PACKAGE_MEMBER
+                        .equals(interfaceDefinition.getInterfaceClassification())) {
+                    continue;
+                }
+            } else if (definition instanceof IFunctionDefinition) {
+                IFunctionDefinition functionDefinition = (IFunctionDefinition) definition;
+                if (!FunctionClassification.PACKAGE_MEMBER
+                        .equals(functionDefinition.getFunctionClassification())) {
+                    continue;
+                }
+            } else if (definition instanceof IVariableDefinition) {
+                IVariableDefinition variableDefinition = (IVariableDefinition) definition;
+                if (!VariableClassification.PACKAGE_MEMBER
+                        .equals(variableDefinition.getVariableClassification())) {
+                    continue;
+                }
+            } else {
+                // unknown definition type
+                continue;
+            }
+            String baseName = definition.getBaseName();
+            String qualifiedName = definition.getQualifiedName();
+            if (baseName.equals(qualifiedName)) {
+                // this definition is top-level. no import required.
+                continue;
+            }
+            if (!allowDuplicates) {
+                if (qualifiedNames.contains(qualifiedName)) {
+                    continue;
                 }
-            } catch (Exception e) {
-                // safe to ignore
+                qualifiedNames.add(qualifiedName);
             }
+            result.add(definition);
         }
         return result;
     }
@@ -15,12 +15,14 @@ limitations under the License.
 */
 package com.as3mxml.vscode.utils;
 
-import java.io.IOException;
-import java.io.Reader;
+import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -60,7 +62,6 @@ import org.eclipse.lsp4j.SymbolTag;
 import org.eclipse.lsp4j.WorkspaceFolder;
 import org.eclipse.lsp4j.WorkspaceSymbol;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
-import org.eclipse.lsp4j.services.LanguageClient;
 
 import com.as3mxml.vscode.project.ActionScriptProjectData;
 import com.as3mxml.vscode.project.ILspProject;
@@ -75,20 +76,37 @@ public class ActionScriptProjectManager {
     private static final String FILE_EXTENSION_ANE = ".ane";
     private static final String SDK_LIBRARY_PATH_SIGNATURE_UNIX = "/frameworks/libs/";
     private static final String SDK_LIBRARY_PATH_SIGNATURE_WINDOWS = "\\frameworks\\libs\\";
+    // if a client doesn't send file events, a config file that was created or
+    // deleted will still be noticed after this amount of time
+    private static final long CONFIG_FILE_PROBE_EXPIRATION_MS = 10000L;
+
+    private static class ConfigFileProbe {
+        public boolean exists;
+        public long time;
+
+        public ConfigFileProbe(boolean exists, long time) {
+            this.exists = exists;
+            this.time = time;
+        }
+    }
 
     private List<ActionScriptProjectData> allProjectData = new ArrayList<>();
     private List<WorkspaceFolder> workspaceFolders = new ArrayList<>();
     private FileTracker fileTracker;
     private IProjectConfigStrategyFactory projectConfigStrategyFactory;
     private ActionScriptProjectData fallbackProjectData;
-    private LanguageClient languageClient;
+    private DiagnosticsPublisher diagnosticsPublisher;
     private Consumer<ActionScriptProjectData> addProjectCallback;
     private Consumer<ActionScriptProjectData> removeProjectCallback;
+    private PathTrie<Integer> sourcePathTrie = new PathTrie<>();
+    private List<Object> sourcePathTrieSignature = new ArrayList<>();
+    private Map<Path, ConfigFileProbe> configFileProbes = new ConcurrentHashMap<>();
 
-    public ActionScriptProjectManager(FileTracker fileTracker, IProjectConfigStrategyFactory factory,
-            Consumer<ActionScriptProjectData> addProjectCallback,
+    public ActionScriptProjectManager(FileTracker fileTracker, DiagnosticsPublisher diagnosticsPublisher,
+            IProjectConfigStrategyFactory factory, Consumer<ActionScriptProjectData> addProjectCallback,
             Consumer<ActionScriptProjectData> removeProjectCallback) {
         this.fileTracker = fileTracker;
+        this.diagnosticsPublisher = diagnosticsPublisher;
         this.projectConfigStrategyFactory = factory;
         this.addProjectCallback = addProjectCallback;
         this.removeProjectCallback = removeProjectCallback;
@@ -125,18 +143,6 @@ public class ActionScriptProjectManager {
         }
     }
 
-    public void setLanguageClient(LanguageClient value) {
-        languageClient = value;
-        for (ActionScriptProjectData projectData : allProjectData) {
-            projectData.codeProblemTracker.setLanguageClient(value);
-            projectData.configProblemTracker.setLanguageClient(value);
-        }
-        if (fallbackProjectData != null) {
-            fallbackProjectData.codeProblemTracker.setLanguageClient(value);
-            fallbackProjectData.configProblemTracker.setLanguageClient(value);
-        }
-    }
-
     public ActionScriptProjectData getFallbackProjectData() {
         return fallbackProjectData;
     }
@@ -152,8 +158,8 @@ public class ActionScriptProjectManager {
             fallbackProjectData = null;
         }
         fallbackProjectData = new ActionScriptProjectData(projectRoot, folder, config);
-        fallbackProjectData.codeProblemTracker.setLanguageClient(languageClient);
-        fallbackProjectData.configProblemTracker.setLanguageClient(languageClient);
+        fallbackProjectData.codeProblemTracker.setDiagnosticsPublisher(diagnosticsPublisher);
+        fallbackProjectData.configProblemTracker.setDiagnosticsPublisher(diagnosticsPublisher);
         return fallbackProjectData;
     }
 
@@ -180,11 +186,7 @@ public class ActionScriptProjectManager {
         // first try to find the path in an existing project
         ActionScriptProjectData bestMatch = null;
         ActionScriptProjectData fallback = null;
-        for (ActionScriptProjectData projectData : allProjectData) {
-            ILspProject project = projectData.project;
-            if (project == null) {
-                continue;
-            }
+        for (ActionScriptProjectData projectData : getProjectDataWithSourcePath(path)) {
             Path projectRoot = projectData.projectRoot;
             if (projectRoot == null) {
                 continue;
@@ -193,21 +195,19 @@ public class ActionScriptProjectManager {
                 // even if it's in the source path, it's not a better match
                 continue;
             }
-            if (SourcePathUtils.isInProjectSourcePath(path, project, projectData.configurator)) {
-                if (path.startsWith(projectRoot)) {
-                    // if the source path is inside the project root folder, then
-                    // the project is a candidate (we'll compare depths later)
-                    bestMatch = projectData;
-                    continue;
-                }
-                // if path is in the source path, but not inside the workspace
-                // folder, save it as possible result for later. in other words,
-                // we always prefer a workspace that contains the file, so we'll
-                // check the other workspaces before using the fallback.
-                if (fallback == null) {
-                    fallback = projectData;
-                    continue;
-                }
+            if (path.startsWith(projectRoot)) {
+                // if the source path is inside the project root folder, then
+                // the project is a candidate (we'll compare depths later)
+                bestMatch = projectData;
+                continue;
+            }
+            // if path is in the source path, but not inside the workspace
+            // folder, save it as possible result for later. in other words,
+            // we always prefer a workspace that contains the file, so we'll
+            // check the other workspaces before using the fallback.
+            if (fallback == null) {
+                fallback = projectData;
+                continue;
             }
         }
         if (bestMatch != null) {
@@ -442,6 +442,7 @@ public class ActionScriptProjectManager {
 
     public List<ActionScriptProjectData> getAllProjectDataForSourceFile(Path path) {
         List<ActionScriptProjectData> result = new ArrayList<>();
+        List<ActionScriptProjectData> projectDataWithSourcePath = getProjectDataWithSourcePath(path);
         for (ActionScriptProjectData projectData : allProjectData) {
             ILspProject project = projectData.project;
             if (project == null) {
@@ -449,7 +450,7 @@ public class ActionScriptProjectManager {
                 if (path.startsWith(projectRoot)) {
                     result.add(projectData);
                 }
-            } else if (SourcePathUtils.isInProjectSourcePath(path, project, projectData.configurator)) {
+            } else if (projectDataWithSourcePath.contains(projectData)) {
                 result.add(projectData);
             }
         }
@@ -531,23 +532,13 @@ public class ActionScriptProjectManager {
                     // this is not ideal, but MXML variable definitions may not have a
                     // node associated with them, so we need to figure this out from the
                     // offset instead of a pre-calculated line and column -JT
-                    Reader definitionReader = fileTracker.getReader(definitionPath);
-                    if (definitionReader == null) {
+                    if (fileTracker.getPositionFromOffset(definitionPath, nameStart, start) == null) {
                         // we might get here if it's from a SWC, but the associated
                         // source file is missing.
                         return null;
-                    } else {
-                        try {
-                            LanguageServerCompilerUtils.getPositionFromOffset(definitionReader, nameStart, start);
-                            end.setLine(start.getLine());
-                            end.setCharacter(start.getCharacter() + nameLength);
-                        } finally {
-                            try {
-                                definitionReader.close();
-                            } catch (IOException e) {
-                            }
-                        }
                     }
+                    end.setLine(start.getLine());
+                    end.setCharacter(start.getCharacter() + nameLength);
                 }
             } else {
                 start.setLine(line);
@@ -864,22 +855,13 @@ public class ActionScriptProjectManager {
                 return;
             }
 
-            Reader reader = fileTracker.getReader(resolvedPath);
-            if (reader == null) {
+            Position position = fileTracker.getPositionFromOffset(resolvedPath, nameOffset);
+            if (position == null) {
                 // we can't get the code at all
                 return;
             }
-
-            try {
-                Position position = LanguageServerCompilerUtils.getPositionFromOffset(reader, nameOffset);
-                nameLine = position.getLine();
-                nameColumn = position.getCharacter();
-            } finally {
-                try {
-                    reader.close();
-                } catch (IOException e) {
-                }
-            }
+            nameLine = position.getLine();
+            nameColumn = position.getCharacter();
         }
         if (nameLine == -1 || nameColumn == -1) {
             // we can't find the name, so give up
@@ -901,8 +883,8 @@ public class ActionScriptProjectManager {
     private ActionScriptProjectData addProject(Path projectRoot, WorkspaceFolder workspaceFolder) {
         IProjectConfigStrategy config = projectConfigStrategyFactory.create(projectRoot, workspaceFolder);
         ActionScriptProjectData projectData = new ActionScriptProjectData(projectRoot, workspaceFolder, config);
-        projectData.codeProblemTracker.setLanguageClient(languageClient);
-        projectData.configProblemTracker.setLanguageClient(languageClient);
+        projectData.codeProblemTracker.setDiagnosticsPublisher(diagnosticsPublisher);
+        projectData.configProblemTracker.setDiagnosticsPublisher(diagnosticsPublisher);
         allProjectData.add(projectData);
         addProjectCallback.accept(projectData);
         return projectData;
@@ -911,8 +893,9 @@ public class ActionScriptProjectManager {
     private void removeProject(ActionScriptProjectData projectData) {
         removeProjectCallback.accept(projectData);
         allProjectData.remove(projectData);
-        projectData.codeProblemTracker.releaseStale();
-        projectData.configProblemTracker.releaseStale();
+        // the removed project's problems shouldn't be displayed anymore
+        projectData.codeProblemTracker.releaseAll();
+        projectData.configProblemTracker.releaseAll();
         projectData.cleanup();
     }
 
@@ -956,7 +939,7 @@ public class ActionScriptProjectManager {
             Path currentPath = path.getParent();
             do {
                 Path configFilePath = currentPath.resolve(configFileName);
-                if (configFilePath.toFile().exists()) {
+                if (configFileExists(configFilePath)) {
                     if (configFilePath.equals(projectData.config.getConfigFilePath())) {
                         // an existing project already contains this file
                         return;
@@ -981,6 +964,89 @@ public class ActionScriptProjectManager {
         addProject(fallbackProjectRoot, fallbackFolder);
     }
 
+    /**
+     * Should be called when a file is created, changed, or deleted, in case it
+     * is a project's config file.
+     */
+    public void invalidateConfigFileProbe(Path path) {
+        configFileProbes.remove(path);
+    }
+
+    private boolean configFileExists(Path configFilePath) {
+        long now = System.currentTimeMillis();
+        ConfigFileProbe probe = configFileProbes.get(configFilePath);
+        if (probe != null && (now - probe.time) < CONFIG_FILE_PROBE_EXPIRATION_MS) {
+            return probe.exists;
+        }
+        boolean exists = configFilePath.toFile().exists();
+        configFileProbes.put(configFilePath, new ConfigFileProbe(exists, now));
+        return exists;
+    }
+
+    /**
+     * Returns the projects with a source path or include-sources entry that
+     * contains the path, in the same order as all project data.
+     */
+    private synchronized List<ActionScriptProjectData> getProjectDataWithSourcePath(Path path) {
+        updateSourcePathTrie();
+        List<Integer> indexes = sourcePathTrie.getValuesForPath(path);
+        if (indexes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Collections.sort(indexes);
+        List<ActionScriptProjectData> result = new ArrayList<>(indexes.size());
+        int previousIndex = -1;
+        for (int index : indexes) {
+            if (index == previousIndex) {
+                continue;
+            }
+            previousIndex = index;
+            result.add(allProjectData.get(index));
+        }
+        return result;
+    }
+
+    private void updateSourcePathTrie() {
+        // a project's source path can change only when its project or
+        // configurator is replaced, so those are compared by identity
+        List<Object> signature = new ArrayList<>(allProjectData.size() * 3);
+        for (ActionScriptProjectData projectData : allProjectData) {
+            signature.add(projectData);
+            signature.add(projectData.project);
+            signature.add(projectData.configurator);
+        }
+        if (signature.size() == sourcePathTrieSignature.size()) {
+            boolean changed = false;
+            for (int i = 0; i < signature.size(); i++) {
+                if (signature.get(i) != sourcePathTrieSignature.get(i)) {
+                    changed = true;
+                    break;
+                }
+            }
+            if (!changed) {
+                return;
+            }
+        }
+        sourcePathTrie.clear();
+        for (int i = 0; i < allProjectData.size(); i++) {
+            ActionScriptProjectData projectData = allProjectData.get(i);
+            ILspProject project = projectData.project;
+            if (project == null) {
+                continue;
+            }
+            for (File sourcePath : project.getSourcePath()) {
+                sourcePathTrie.add(sourcePath.toPath(), i);
+            }
+            if (projectData.configurator != null) {
+                Configuration configuration = projectData.configurator.getConfiguration();
+                for (String includedSource : configuration.getIncludeSources()) {
+                    sourcePathTrie.add(Paths.get(includedSource), i);
+                }
+            }
+        }
+        sourcePathTrieSignature = signature;
+    }
+
     private List<ActionScriptProjectData> getAllProjectDataForWorkspaceFolder(WorkspaceFolder folder) {
         return allProjectData.stream().filter(projectData -> folder.equals(projectData.folder))
                 .collect(Collectors.toList());
@@ -221,6 +221,10 @@ public class CompilerProjectUtils {
         if (project == null) {
             return null;
         }
+        if (project instanceof ILspProject) {
+            ILspProject lspProject = (ILspProject) project;
+            return lspProject.getCompilationUnitForPath(pathToFind);
+        }
         for (ICompilationUnit unit : project.getCompilationUnits()) {
             // it's possible for the collection of compilation units to contain
             // null values, so be sure to check for null values before checking
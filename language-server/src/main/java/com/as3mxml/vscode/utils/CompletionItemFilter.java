@@ -0,0 +1,156 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+
+/**
+ * Filters completion items by the identifier that is being typed where
+ * completion was requested, so that the client receives only the items that
+ * it would display anyway.
+ *
+ * Like the client's own filtering, a name matches if it contains the
+ * characters of the prefix in order, ignoring case. If there are too many
+ * matches, the best ones are kept, and the list is marked as incomplete, so
+ * that the client requests it again as more characters are typed.
+ */
+public class CompletionItemFilter {
+    public static final int DEFAULT_MAX_ITEMS = 1000;
+    public static final int NO_MATCH = -1;
+
+    private static final int MATCH_EXACT = 0;
+    private static final int MATCH_PREFIX = 1;
+    private static final int MATCH_PREFIX_IGNORE_CASE = 2;
+    private static final int MATCH_SUBSTRING_IGNORE_CASE = 3;
+    private static final int MATCH_SUBSEQUENCE_IGNORE_CASE = 4;
+
+    private static class RankedItem {
+        public CompletionItem item;
+        public int rank;
+        public String sortText;
+
+        public RankedItem(CompletionItem item, int rank) {
+            this.item = item;
+            this.rank = rank;
+            sortText = item.getSortText() != null ? item.getSortText() : item.getLabel();
+        }
+    }
+
+    private static final Comparator<RankedItem> RANKED_ITEM_COMPARATOR = (RankedItem item1, RankedItem item2) -> {
+        if (item1.rank != item2.rank) {
+            return item1.rank - item2.rank;
+        }
+        return item1.sortText.compareTo(item2.sortText);
+    };
+
+    private String prefix;
+
+    public CompletionItemFilter(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Creates a filter for the identifier characters that appear immediately
+     * before the offset in the text.
+     */
+    public static CompletionItemFilter fromOffset(String text, int offset) {
+        if (text == null || offset < 0 || offset > text.length()) {
+            return new CompletionItemFilter("");
+        }
+        int startIndex = offset;
+        while (startIndex > 0 && Character.isJavaIdentifierPart(text.charAt(startIndex - 1))) {
+            startIndex--;
+        }
+        return new CompletionItemFilter(text.substring(startIndex, offset));
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public boolean matches(String name) {
+        return getMatchRank(name) != NO_MATCH;
+    }
+
+    /**
+     * Returns how well the name matches the prefix, where a smaller value is
+     * a better match, or <code>NO_MATCH</code>.
+     */
+    public int getMatchRank(String name) {
+        int prefixLength = prefix.length();
+        if (prefixLength == 0) {
+            return MATCH_EXACT;
+        }
+        if (name == null || name.length() < prefixLength) {
+            return NO_MATCH;
+        }
+        if (name.startsWith(prefix)) {
+            return name.length() == prefixLength ? MATCH_EXACT : MATCH_PREFIX;
+        }
+        if (name.regionMatches(true, 0, prefix, 0, prefixLength)) {
+            return MATCH_PREFIX_IGNORE_CASE;
+        }
+        for (int i = 1; i <= name.length() - prefixLength; i++) {
+            if (name.regionMatches(true, i, prefix, 0, prefixLength)) {
+                return MATCH_SUBSTRING_IGNORE_CASE;
+            }
+        }
+        int prefixIndex = 0;
+        for (int i = 0; i < name.length() && prefixIndex < prefixLength; i++) {
+            if (Character.toLowerCase(name.charAt(i)) == Character.toLowerCase(prefix.charAt(prefixIndex))) {
+                prefixIndex++;
+            }
+        }
+        return prefixIndex == prefixLength ? MATCH_SUBSEQUENCE_IGNORE_CASE : NO_MATCH;
+    }
+
+    /**
+     * Removes the items that don't match the prefix. If more than
+     * <code>maxItems</code> items match, only the best matches are kept, and
+     * the list is marked as incomplete. A <code>maxItems</code> value of
+     * <code>0</code> means that there is no limit.
+     */
+    public void filter(CompletionList list, int maxItems) {
+        List<CompletionItem> items = list.getItems();
+        boolean mayExceedLimit = maxItems > 0 && items.size() > maxItems;
+        if (prefix.length() == 0 && !mayExceedLimit) {
+            return;
+        }
+        List<RankedItem> rankedItems = new ArrayList<>();
+        for (CompletionItem item : items) {
+            String filterText = item.getFilterText() != null ? item.getFilterText() : item.getLabel();
+            int rank = getMatchRank(filterText);
+            if (rank != NO_MATCH) {
+                rankedItems.add(new RankedItem(item, rank));
+            }
+        }
+        if (maxItems > 0 && rankedItems.size() > maxItems) {
+            rankedItems.sort(RANKED_ITEM_COMPARATOR);
+            rankedItems = rankedItems.subList(0, maxItems);
+            list.setIsIncomplete(true);
+        }
+        List<CompletionItem> filteredItems = new ArrayList<>(rankedItems.size());
+        for (RankedItem rankedItem : rankedItems) {
+            filteredItems.add(rankedItem.item);
+        }
+        list.setItems(filteredItems);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.royale.compiler.definitions.IDefinition;
+import org.apache.royale.compiler.projects.ICompilerProject;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.TextEdit;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+
+/**
+ * Remembers the definitions of the items in the most recent completion lists,
+ * so that the detail, the documentation, and the text edit that adds an
+ * import may be created in <code>completionItem/resolve</code> for the few
+ * items that the user actually looks at, instead of for every item in the
+ * list.
+ *
+ * An item's data is a small handle made of the list's ID and the item's
+ * index in the list. A few lists are kept, because the editor may resolve an
+ * item from a list that it is still displaying after it has requested a new
+ * one. Items from older lists can't be resolved anymore.
+ */
+public class CompletionItemResolveCache {
+    private static class PendingItem {
+        public IDefinition definition;
+        public ICompilerProject project;
+        // null if the definition doesn't need to be imported
+        public AddImportData addImportData;
+    }
+
+    private static final int MAX_LISTS = 4;
+
+    private int listID = 0;
+    private Map<Integer, List<PendingItem>> pendingLists = new LinkedHashMap<Integer, List<PendingItem>>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<PendingItem>> eldest) {
+            return size() > MAX_LISTS;
+        }
+    };
+
+    /**
+     * Starts a new completion list, and returns its ID. If there are too many
+     * lists, the items from the oldest list can't be resolved anymore.
+     */
+    public synchronized int startList() {
+        listID++;
+        pendingLists.put(listID, new ArrayList<>());
+        return listID;
+    }
+
+    /**
+     * Adds an item created with
+     * <code>CompletionItemUtils.createUnresolvedDefinitionItem()</code> to
+     * the list, and sets its data. If the definition needs to be imported,
+     * <code>addImportData</code> should not be null, and the text edit will
+     * be added when the item is resolved.
+     */
+    public void add(int listID, CompletionItem item, IDefinition definition, ICompilerProject project,
+            AddImportData addImportData) {
+        PendingItem pendingItem = new PendingItem();
+        pendingItem.definition = definition;
+        pendingItem.project = project;
+        pendingItem.addImportData = addImportData;
+        synchronized (this) {
+            List<PendingItem> pendingItems = pendingLists.get(listID);
+            if (pendingItems != null) {
+                JsonArray data = new JsonArray();
+                data.add(listID);
+                data.add(pendingItems.size());
+                item.setData(data);
+                pendingItems.add(pendingItem);
+                return;
+            }
+        }
+        // too many newer lists were started while this one was being
+        // created, so the item can't be resolved later
+        resolve(item, pendingItem);
+    }
+
+    /**
+     * Adds the detail, the documentation, and the text edit that adds an
+     * import, if they are missing. If the item's list has been forgotten, it
+     * is returned without changes.
+     */
+    public CompletionItem resolve(CompletionItem item) {
+        PendingItem pendingItem = findPendingItem(item);
+        if (pendingItem == null) {
+            return item;
+        }
+        resolve(item, pendingItem);
+        return item;
+    }
+
+    /**
+     * Indicates if an item's list is still remembered, so that the item may be
+     * resolved.
+     */
+    public boolean contains(CompletionItem item) {
+        return findPendingItem(item) != null;
+    }
+
+    /**
+     * Returns the number of items in the most recent list.
+     */
+    public synchronized int size() {
+        List<PendingItem> pendingItems = pendingLists.get(listID);
+        if (pendingItems == null) {
+            return 0;
+        }
+        return pendingItems.size();
+    }
+
+    public synchronized void clear() {
+        listID++;
+        pendingLists.clear();
+    }
+
+    private PendingItem findPendingItem(CompletionItem item) {
+        Object data = item.getData();
+        if (!(data instanceof JsonArray)) {
+            return null;
+        }
+        JsonArray dataArray = (JsonArray) data;
+        if (dataArray.size() != 2 || !isNumber(dataArray.get(0)) || !isNumber(dataArray.get(1))) {
+            return null;
+        }
+        int itemListID = dataArray.get(0).getAsInt();
+        int index = dataArray.get(1).getAsInt();
+        synchronized (this) {
+            List<PendingItem> pendingItems = pendingLists.get(itemListID);
+            if (pendingItems == null || index < 0 || index >= pendingItems.size()) {
+                return null;
+            }
+            return pendingItems.get(index);
+        }
+    }
+
+    private void resolve(CompletionItem item, PendingItem pendingItem) {
+        if (item.getDetail() == null && item.getDocumentation() == null) {
+            CompletionItemUtils.resolveDefinitionItem(item, pendingItem.definition, pendingItem.project);
+        }
+        if (pendingItem.addImportData != null && item.getAdditionalTextEdits() == null) {
+            TextEdit textEdit = CodeActionsUtils.createTextEditForAddImport(pendingItem.definition,
+                    pendingItem.addImportData);
+            if (textEdit != null) {
+                item.setAdditionalTextEdits(Collections.singletonList(textEdit));
+            }
+        }
+    }
+
+    private static boolean isNumber(JsonElement element) {
+        return element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber();
+    }
+}
@@ -31,15 +31,20 @@ import org.eclipse.lsp4j.MarkupKind;
 
 public class CompletionItemUtils {
     public static CompletionItem createDefinitionItem(IDefinition definition, ICompilerProject project) {
+        CompletionItem item = createUnresolvedDefinitionItem(definition);
+        resolveDefinitionItem(item, definition, project);
+        return item;
+    }
+
+    /**
+     * Creates a completion item for a definition without its detail and
+     * documentation, which may be added later with
+     * <code>resolveDefinitionItem()</code>.
+     */
+    public static CompletionItem createUnresolvedDefinitionItem(IDefinition definition) {
         CompletionItem item = new CompletionItem();
         item.setKind(LanguageServerCompilerUtils.getCompletionItemKindFromDefinition(definition));
-        item.setDetail(DefinitionTextUtils.definitionToDetail(definition, project));
         item.setLabel(definition.getBaseName());
-        String docs = DefinitionDocumentationUtils.getDocumentationForDefinition(definition, true,
-                project, false);
-        if (docs != null) {
-            item.setDocumentation(new MarkupContent(MarkupKind.MARKDOWN, docs));
-        }
 
         List<CompletionItemTag> tags = new ArrayList<>();
         IDeprecationInfo deprecationInfo = definition.getDeprecationInfo();
@@ -52,6 +57,15 @@ public class CompletionItemUtils {
         return item;
     }
 
+    public static void resolveDefinitionItem(CompletionItem item, IDefinition definition, ICompilerProject project) {
+        item.setDetail(DefinitionTextUtils.definitionToDetail(definition, project));
+        String docs = DefinitionDocumentationUtils.getDocumentationForDefinition(definition, true,
+                project, false);
+        if (docs != null) {
+            item.setDocumentation(new MarkupContent(MarkupKind.MARKDOWN, docs));
+        }
+    }
+
     public static CompletionItem createPackageBlockItem(String packageName, boolean asSnippet) {
         StringBuilder labelBuilder = new StringBuilder();
         labelBuilder.append(IASKeywordConstants.PACKAGE);
@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Set;
 
 import org.apache.royale.compiler.asdoc.IASDocTag;
 import org.apache.royale.compiler.definitions.IClassDefinition;
@@ -53,9 +54,36 @@ public class DefinitionDocumentationUtils {
     private static final String RB_SWC_SUFFIX = "_rb.swc";
     private static final String FRAMEWORKS = "frameworks";
     private static final String FILE_EXTENSION_SWC = ".swc";
+    private static final String TEXT_KIND_DOCUMENTATION = "documentation";
+    private static final String TEXT_KIND_DOCUMENTATION_DITA = "documentation-dita";
+    private static final String TEXT_KIND_MARKDOWN_DOCUMENTATION = "markdown-documentation";
+    private static final String TEXT_KIND_MARKDOWN_DOCUMENTATION_DITA = "markdown-documentation-dita";
+
+    private static final DefinitionTextCache textCache = new DefinitionTextCache();
+
+    /**
+     * The cache of documentation and detail text that is shared by
+     * completion, hover, and other features.
+     */
+    public static DefinitionTextCache getTextCache() {
+        return textCache;
+    }
 
     public static String getDocumentationForDefinition(IDefinition definition, boolean useMarkdown,
             ICompilerProject project, boolean allowDITA) {
+        String kind = null;
+        if (useMarkdown) {
+            kind = allowDITA ? TEXT_KIND_MARKDOWN_DOCUMENTATION_DITA : TEXT_KIND_MARKDOWN_DOCUMENTATION;
+        } else {
+            kind = allowDITA ? TEXT_KIND_DOCUMENTATION_DITA : TEXT_KIND_DOCUMENTATION;
+        }
+        return textCache.get(definition, project, kind,
+                (d, dependencyPaths) -> createDocumentationForDefinition(d, useMarkdown, project, allowDITA,
+                        dependencyPaths));
+    }
+
+    private static String createDocumentationForDefinition(IDefinition definition, boolean useMarkdown,
+            ICompilerProject project, boolean allowDITA, Set<String> dependencyPaths) {
         if (!(definition instanceof IDocumentableDefinition)) {
             return null;
         }
@@ -67,7 +95,8 @@ public class DefinitionDocumentationUtils {
         }
         comment.compile(useMarkdown);
         if (documentableDefinition.isOverride() && comment.hasTag(IASDocTagConstants.INHERIT_DOC)) {
-            return getDocumentationForInheritDoc(documentableDefinition, useMarkdown, project, allowDITA);
+            return getDocumentationForInheritDoc(documentableDefinition, useMarkdown, project, allowDITA,
+                    dependencyPaths);
         }
         return getDocumentationForDefinitionInternal(documentableDefinition, comment, useMarkdown, project, allowDITA);
     }
@@ -202,7 +231,7 @@ public class DefinitionDocumentationUtils {
     }
 
     private static String getDocumentationForInheritDoc(IDocumentableDefinition definition, boolean useMarkdown,
-            ICompilerProject project, boolean allowDITA) {
+            ICompilerProject project, boolean allowDITA, Set<String> dependencyPaths) {
         String nameToFind = definition.getBaseName();
         IDefinition parentDefinition = definition.getParent();
         if (!(parentDefinition instanceof IClassDefinition)) {
@@ -212,6 +241,7 @@ public class DefinitionDocumentationUtils {
         Iterator<IInterfaceDefinition> interfaceIterator = parentClass.interfaceIterator(project);
         while (interfaceIterator.hasNext()) {
             IInterfaceDefinition interfaceDefinition = interfaceIterator.next();
+            addDependencyPath(interfaceDefinition, dependencyPaths);
             String interfaceResult = getDocumentationForInheritDocType(interfaceDefinition, nameToFind,
                     useMarkdown, project, allowDITA);
             if (interfaceResult != null) {
@@ -221,6 +251,7 @@ public class DefinitionDocumentationUtils {
         IClassIterator classIterator = parentClass.classIterator(project, true);
         while (classIterator.hasNext()) {
             IClassDefinition currentClass = classIterator.next();
+            addDependencyPath(currentClass, dependencyPaths);
             String classResult = getDocumentationForInheritDocType(currentClass, nameToFind, useMarkdown, project,
                     allowDITA);
             if (classResult != null) {
@@ -230,6 +261,14 @@ public class DefinitionDocumentationUtils {
         return null;
     }
 
+    private static void addDependencyPath(IDefinition definition, Set<String> dependencyPaths) {
+        // the inherited documentation may change when this file changes
+        String filePath = definition.getContainingFilePath();
+        if (filePath != null) {
+            dependencyPaths.add(filePath);
+        }
+    }
+
     private static String getDocumentationForDefinitionInternal(IDefinition definition, VSCodeASDocComment comment,
             boolean useMarkdown, ICompilerProject project, boolean allowDITA) {
         String description = comment.getDescription();
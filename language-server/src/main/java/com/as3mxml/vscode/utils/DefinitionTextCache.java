@@ -0,0 +1,313 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.io.File;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.royale.compiler.definitions.IDefinition;
+import org.apache.royale.compiler.projects.ICompilerProject;
+
+/**
+ * Caches text rendered for a definition, like its detail or its
+ * documentation, so that completion lists and hovers that show the same
+ * definitions many times don't need to build the same strings again. Text is
+ * cached separately for each project because it is rendered against the
+ * project, like when resolving types.
+ *
+ * Text for a definition from a SWC is reused until the SWC file's
+ * modification time or size changes. Text for a definition from source code
+ * is reused until its file changes, or until a file that it depends on
+ * changes, like a file with documentation that it inherits. The least
+ * recently used entries are removed when the cache is full.
+ *
+ * The cache holds its definitions and projects with weak references, so
+ * that it doesn't keep a project that was replaced or removed in memory. A
+ * project's entries should be removed with <code>removeProject()</code>
+ * when the project is deleted.
+ */
+public class DefinitionTextCache {
+    private static final int MAX_ENTRIES = 16384;
+    // the modification time and size of a SWC file are checked again after
+    // this delay, instead of for every definition in a completion list
+    private static final long SWC_STAMP_EXPIRATION_MS = 1000L;
+    private static final String FILE_EXTENSION_SWC = ".swc";
+
+    public interface TextFactory {
+        /**
+         * Returns the text for the definition, or null if it has none. If the
+         * text includes content from other files, like inherited
+         * documentation, their paths should be added to dependencyPaths.
+         */
+        String createText(IDefinition definition, Set<String> dependencyPaths);
+    }
+
+    private static class KeyReference<T> extends WeakReference<T> {
+        public EntryKey key;
+
+        public KeyReference(T referent, EntryKey key, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.key = key;
+        }
+    }
+
+    private static class EntryKey {
+        public WeakReference<IDefinition> definition;
+        // null if the text isn't rendered against a project
+        public WeakReference<ICompilerProject> project;
+        public String kind;
+        private int hashCode;
+
+        /**
+         * If queue is not null, the key is removed from the cache after its
+         * definition or its project is garbage collected.
+         */
+        public EntryKey(IDefinition definition, ICompilerProject project, String kind,
+                ReferenceQueue<Object> queue) {
+            if (queue != null) {
+                this.definition = new KeyReference<>(definition, this, queue);
+                if (project != null) {
+                    this.project = new KeyReference<>(project, this, queue);
+                }
+            } else {
+                this.definition = new WeakReference<>(definition);
+                if (project != null) {
+                    this.project = new WeakReference<>(project);
+                }
+            }
+            this.kind = kind;
+            int result = System.identityHashCode(definition);
+            result = 31 * result + System.identityHashCode(project);
+            hashCode = 31 * result + kind.hashCode();
+        }
+
+        public ICompilerProject getProject() {
+            if (project == null) {
+                return null;
+            }
+            return project.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof EntryKey)) {
+                return false;
+            }
+            EntryKey otherKey = (EntryKey) other;
+            if ((this.project == null) != (otherKey.project == null)) {
+                return false;
+            }
+            IDefinition definition = this.definition.get();
+            ICompilerProject project = getProject();
+            if (definition == null || (this.project != null && project == null)) {
+                // garbage collected, so only the same key is equal
+                return false;
+            }
+            // a changed compilation unit creates new definitions, so they
+            // are compared by identity
+            return definition == otherKey.definition.get() && project == otherKey.getProject()
+                    && kind.equals(otherKey.kind);
+        }
+    }
+
+    private static class CacheEntry {
+        // null if the definition has no text of this kind
+        public String text;
+        // the definition's file, and any files that the text depends on
+        public Set<String> filePaths;
+        public boolean fromSWC;
+        public long lastModified;
+        public long length;
+    }
+
+    private static class SWCStamp {
+        public long lastModified;
+        public long length;
+        public long checkedTime;
+    }
+
+    private LinkedHashMap<EntryKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private Map<String, Set<EntryKey>> keysByFilePath = new HashMap<>();
+    private Map<String, SWCStamp> swcStamps = new HashMap<>();
+    private ReferenceQueue<Object> collectedReferences = new ReferenceQueue<>();
+    // incremented when any file changes, to detect a change while text is
+    // being created
+    private int changeCount = 0;
+
+    /**
+     * Returns the cached text of the specified kind for the definition, or
+     * creates it with the factory, if it isn't cached or is no longer valid.
+     */
+    public String get(IDefinition definition, ICompilerProject project, String kind, TextFactory factory) {
+        String filePath = definition.getContainingFilePath();
+        if (filePath == null) {
+            return factory.createText(definition, new HashSet<>());
+        }
+        boolean fromSWC = filePath.endsWith(FILE_EXTENSION_SWC);
+        EntryKey key = new EntryKey(definition, project, kind, null);
+        SWCStamp swcStamp = null;
+        int startChangeCount = 0;
+        synchronized (this) {
+            removeCollectedEntries();
+            startChangeCount = changeCount;
+            if (fromSWC) {
+                swcStamp = getSWCStamp(filePath);
+            }
+            CacheEntry entry = entries.get(key);
+            if (entry != null) {
+                if (!fromSWC || (entry.lastModified == swcStamp.lastModified && entry.length == swcStamp.length)) {
+                    return entry.text;
+                }
+                removeEntry(key);
+            }
+        }
+        // the text is created outside of the lock because it may need to
+        // read documentation from a SWC
+        Set<String> filePaths = new HashSet<>();
+        String text = factory.createText(definition, filePaths);
+        filePaths.add(filePath);
+        synchronized (this) {
+            if (startChangeCount != changeCount) {
+                // a file changed while the text was being created, so it may
+                // already be out of date
+                return text;
+            }
+            // the stored key is removed when its references are collected
+            key = new EntryKey(definition, project, kind, collectedReferences);
+            CacheEntry entry = new CacheEntry();
+            entry.text = text;
+            entry.filePaths = filePaths;
+            entry.fromSWC = fromSWC;
+            if (fromSWC) {
+                entry.lastModified = swcStamp.lastModified;
+                entry.length = swcStamp.length;
+            }
+            removeEntry(key);
+            entries.put(key, entry);
+            for (String entryFilePath : filePaths) {
+                Set<EntryKey> keys = keysByFilePath.get(entryFilePath);
+                if (keys == null) {
+                    keys = new HashSet<>();
+                    keysByFilePath.put(entryFilePath, keys);
+                }
+                keys.add(key);
+            }
+            if (entries.size() > MAX_ENTRIES) {
+                removeEntry(entries.keySet().iterator().next());
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Should be called when a file changes. The text for the definitions from
+     * the file is removed, along with any text that depends on the file.
+     */
+    public synchronized void fileChanged(String filePath) {
+        changeCount++;
+        if (filePath.endsWith(FILE_EXTENSION_SWC)) {
+            swcStamps.remove(filePath);
+        }
+        // don't keep old definitions (and everything that they reference) in
+        // memory until they are the least recently used
+        Set<EntryKey> keys = keysByFilePath.get(filePath);
+        if (keys == null) {
+            return;
+        }
+        for (EntryKey key : new HashSet<>(keys)) {
+            removeEntry(key);
+        }
+    }
+
+    /**
+     * Should be called when a project is deleted. The text rendered against
+     * the project is removed.
+     */
+    public synchronized void removeProject(ICompilerProject project) {
+        changeCount++;
+        for (EntryKey key : new ArrayList<>(entries.keySet())) {
+            if (key.getProject() == project) {
+                removeEntry(key);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        keysByFilePath.clear();
+        swcStamps.clear();
+        changeCount++;
+    }
+
+    private void removeCollectedEntries() {
+        Reference<? extends Object> reference = null;
+        while ((reference = collectedReferences.poll()) != null) {
+            removeEntry(((KeyReference<?>) reference).key);
+        }
+    }
+
+    private void removeEntry(EntryKey key) {
+        CacheEntry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (String filePath : entry.filePaths) {
+            Set<EntryKey> keys = keysByFilePath.get(filePath);
+            if (keys == null) {
+                continue;
+            }
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByFilePath.remove(filePath);
+            }
+        }
+    }
+
+    private SWCStamp getSWCStamp(String filePath) {
+        long now = System.currentTimeMillis();
+        SWCStamp stamp = swcStamps.get(filePath);
+        if (stamp != null && (now - stamp.checkedTime) < SWC_STAMP_EXPIRATION_MS) {
+            return stamp;
+        }
+        File file = new File(filePath);
+        stamp = new SWCStamp();
+        stamp.lastModified = file.lastModified();
+        stamp.length = file.length();
+        stamp.checkedTime = now;
+        swcStamps.put(filePath, stamp);
+        return stamp;
+    }
+}
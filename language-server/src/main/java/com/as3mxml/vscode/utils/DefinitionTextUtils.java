@@ -15,10 +15,12 @@ limitations under the License.
 */
 package com.as3mxml.vscode.utils;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.royale.abc.ABCConstants;
 import org.apache.royale.compiler.constants.IASKeywordConstants;
@@ -45,10 +47,13 @@ import org.apache.royale.compiler.definitions.IVariableDefinition;
 import org.apache.royale.compiler.definitions.metadata.IMetaTag;
 import org.apache.royale.compiler.definitions.metadata.IMetaTagAttribute;
 import org.apache.royale.compiler.projects.ICompilerProject;
+import org.apache.royale.compiler.units.ICompilationUnit;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 
+import com.as3mxml.vscode.project.ILspProject;
+
 public class DefinitionTextUtils {
     private static final String UNDERSCORE_UNDERSCORE_AS3_PACKAGE = "__AS3__.";
     private static final String NAMESPACE_ID_AS3 = "AS3";
@@ -59,6 +64,8 @@ public class DefinitionTextUtils {
     private static final String NAMESPACE_MX_INTERNAL = "http://www.adobe.com/2006/flex/mx/internal";
     private static final String NEW_LINE = "\n";
     private static final String INDENT = "\t";
+    private static final String TEXT_KIND_DETAIL = "detail";
+    private static final String FILE_EXTENSION_SWC = ".swc";
     private static final String ASDOC_START = "/**";
     private static final String ASDOC_LINE_START = " * ";
     private static final String ASDOC_END = " */";
@@ -716,6 +723,50 @@ public class DefinitionTextUtils {
     }
 
     public static String definitionToDetail(IDefinition definition, ICompilerProject currentProject) {
+        return DefinitionDocumentationUtils.getTextCache().get(definition, currentProject, TEXT_KIND_DETAIL,
+                (d, dependencyPaths) -> {
+                    addResolvedValueDependencyPaths(d, currentProject, dependencyPaths);
+                    return createDetailForDefinition(d, currentProject);
+                });
+    }
+
+    /**
+     * The detail of a constant or a function may include an initial value or
+     * a default value that is resolved from another file, so the text depends
+     * on the files that the definition's file depends on.
+     */
+    private static void addResolvedValueDependencyPaths(IDefinition definition, ICompilerProject currentProject,
+            Set<String> dependencyPaths) {
+        if (!(currentProject instanceof ILspProject)) {
+            return;
+        }
+        boolean hasResolvedValue = definition instanceof IConstantDefinition;
+        if (!hasResolvedValue && definition instanceof IFunctionDefinition) {
+            IFunctionDefinition functionDefinition = (IFunctionDefinition) definition;
+            for (IParameterDefinition parameterDefinition : functionDefinition.getParameters()) {
+                if (parameterDefinition.hasDefaultValue()) {
+                    hasResolvedValue = true;
+                    break;
+                }
+            }
+        }
+        if (!hasResolvedValue) {
+            return;
+        }
+        String filePath = definition.getContainingFilePath();
+        if (filePath == null || filePath.endsWith(FILE_EXTENSION_SWC)) {
+            // values in a SWC are already resolved
+            return;
+        }
+        ILspProject lspProject = (ILspProject) currentProject;
+        ICompilationUnit unit = lspProject.getCompilationUnitForPath(Paths.get(filePath));
+        if (unit == null) {
+            return;
+        }
+        dependencyPaths.addAll(lspProject.getPathsOfDependencies(unit));
+    }
+
+    private static String createDetailForDefinition(IDefinition definition, ICompilerProject currentProject) {
         StringBuilder detailBuilder = new StringBuilder();
         if (definition instanceof IClassDefinition) {
             IClassDefinition classDefinition = (IClassDefinition) definition;
@@ -17,10 +17,10 @@ package com.as3mxml.vscode.utils;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
 
+import com.as3mxml.vscode.project.DefinitionIndex;
 import com.as3mxml.vscode.project.ILspProject;
 
 import org.apache.royale.abc.ABCParser;
@@ -309,58 +309,40 @@ public class DefinitionUtils {
 		return definition;
 	}
 
-	public static IDefinition getDefinitionByName(String qualifiedName, Collection<ICompilationUnit> compilationUnits) {
-		for (ICompilationUnit unit : compilationUnits) {
-			if (unit == null) {
+	public static IDefinition getDefinitionByName(String qualifiedName, DefinitionIndex definitionIndex) {
+		for (IDefinition definition : definitionIndex.getDefinitionsByQualifiedName(qualifiedName)) {
+			if (definition.isImplicit()) {
 				continue;
 			}
-			try {
-				Collection<IDefinition> definitions = unit.getFileScopeRequest().get()
-						.getExternallyVisibleDefinitions();
-				if (definitions == null) {
+			if (definition instanceof IClassDefinition) {
+				IClassDefinition classDefinition = (IClassDefinition) definition;
+				if (!ClassClassification.PACKAGE_MEMBER
+						.equals(classDefinition.getClassClassification())) {
 					continue;
 				}
-				for (IDefinition definition : definitions) {
-					if (definition.isImplicit()) {
-						continue;
-					}
-					if (definition instanceof IClassDefinition) {
-						IClassDefinition classDefinition = (IClassDefinition) definition;
-						if (!ClassClassification.PACKAGE_MEMBER
-								.equals(classDefinition.getClassClassification())) {
-							continue;
-						}
-					} else if (definition instanceof IInterfaceDefinition) {
-						IInterfaceDefinition interfaceDefinition = (IInterfaceDefinition) definition;
-						if (!InterfaceClassification.PACKAGE_MEMBER
-								.equals(interfaceDefinition.getInterfaceClassification())) {
-							continue;
-						}
-					} else if (definition instanceof IFunctionDefinition) {
-						IFunctionDefinition functionDefinition = (IFunctionDefinition) definition;
-						if (!FunctionClassification.PACKAGE_MEMBER
-								.equals(functionDefinition.getFunctionClassification())) {
-							continue;
-						}
-					} else if (definition instanceof IVariableDefinition) {
-						IVariableDefinition variableDefinition = (IVariableDefinition) definition;
-						if (!VariableClassification.PACKAGE_MEMBER
-								.equals(variableDefinition.getVariableClassification())) {
-							continue;
-						}
-					} else {
-						// unknown definition type
-						continue;
-					}
-					if (!qualifiedName.equals(definition.getQualifiedName())) {
-						// this definition is top-level. no import required.
-						continue;
-					}
-					return definition;
+			} else if (definition instanceof IInterfaceDefinition) {
+				IInterfaceDefinition interfaceDefinition = (IInterfaceDefinition) definition;
+				if (!InterfaceClassification.PACKAGE_MEMBER
+						.equals(interfaceDefinition.getInterfaceClassification())) {
+					continue;
+				}
+			} else if (definition instanceof IFunctionDefinition) {
+				IFunctionDefinition functionDefinition = (IFunctionDefinition) definition;
+				if (!FunctionClassification.PACKAGE_MEMBER
+						.equals(functionDefinition.getFunctionClassification())) {
+					continue;
 				}
-			} catch (Exception e) {
-				// safe to ignore
+			} else if (definition instanceof IVariableDefinition) {
+				IVariableDefinition variableDefinition = (IVariableDefinition) definition;
+				if (!VariableClassification.PACKAGE_MEMBER
+						.equals(variableDefinition.getVariableClassification())) {
+					continue;
+				}
+			} else {
+				// unknown definition type
+				continue;
 			}
+			return definition;
 		}
 		return null;
 	}
@@ -0,0 +1,204 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.Gson;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticRelatedInformation;
+import org.eclipse.lsp4j.DiagnosticTag;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.LanguageClient;
+
+/**
+ * Sends diagnostics to the language client, but only if they are different
+ * from the last diagnostics sent for the same URI. Remembers a hash of the
+ * diagnostics that were last published for each URI, and counts how many
+ * publishes were sent or skipped.
+ *
+ * All diagnostics should be published through the same instance, so that the
+ * hashes match what the client is currently displaying. A URI without a hash
+ * has no diagnostics displayed, so publishing an empty list removes the
+ * URI's hash, and the hashes of closed, deleted, or removed files aren't kept
+ * forever.
+ */
+public class DiagnosticsPublisher {
+    private LanguageClient languageClient;
+    private Gson gson = new MessageJsonHandler(Collections.emptyMap()).getGson();
+    private Map<String, Long> publishedHashes = new HashMap<>();
+    private AtomicLong publishCount = new AtomicLong();
+    private AtomicLong publishedBytes = new AtomicLong();
+    private AtomicLong skippedCount = new AtomicLong();
+
+    public LanguageClient getLanguageClient() {
+        return languageClient;
+    }
+
+    public synchronized void setLanguageClient(LanguageClient value) {
+        if (languageClient != value) {
+            // a new client isn't displaying anything yet
+            publishedHashes.clear();
+        }
+        languageClient = value;
+    }
+
+    /**
+     * Publishes diagnostics, unless they are the same as the last diagnostics
+     * published for the same URI. Returns true if they were published.
+     * Synchronized so that the client receives diagnostics for a URI in the
+     * same order that the hashes are stored.
+     */
+    public synchronized boolean publish(PublishDiagnosticsParams params) {
+        if (languageClient == null) {
+            return false;
+        }
+        String uri = params.getUri();
+        List<Diagnostic> diagnostics = params.getDiagnostics();
+        if (diagnostics == null || diagnostics.isEmpty()) {
+            if (publishedHashes.remove(uri) == null) {
+                // the client isn't displaying anything for this URI
+                skippedCount.incrementAndGet();
+                return false;
+            }
+        } else {
+            long hash = getHash(params);
+            Long oldHash = publishedHashes.put(uri, hash);
+            if (oldHash != null && oldHash.longValue() == hash) {
+                skippedCount.incrementAndGet();
+                return false;
+            }
+        }
+        publishCount.incrementAndGet();
+        // skipped diagnostics aren't serialized, so only the ones that are
+        // sent are measured
+        publishedBytes.addAndGet(gson.toJson(params).getBytes(StandardCharsets.UTF_8).length);
+        languageClient.publishDiagnostics(params);
+        return true;
+    }
+
+    /**
+     * The number of times that diagnostics were sent to the client.
+     */
+    public long getPublishCount() {
+        return publishCount.get();
+    }
+
+    /**
+     * The total size, in bytes, of the serialized diagnostics that were sent
+     * to the client.
+     */
+    public long getPublishedBytes() {
+        return publishedBytes.get();
+    }
+
+    /**
+     * The number of times that diagnostics were not sent to the client
+     * because they had not changed.
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * The number of URIs that have diagnostics displayed by the client.
+     */
+    public synchronized int size() {
+        return publishedHashes.size();
+    }
+
+    private static long getHash(PublishDiagnosticsParams params) {
+        long hash = HashUtils.FNV_OFFSET_BASIS;
+        hash = hash(hash, params.getVersion());
+        List<Diagnostic> diagnostics = params.getDiagnostics();
+        if (diagnostics == null) {
+            return hash;
+        }
+        hash = hash(hash, diagnostics.size());
+        for (Diagnostic diagnostic : diagnostics) {
+            hash = hash(hash, diagnostic.getRange());
+            hash = hash(hash, diagnostic.getSeverity() != null ? diagnostic.getSeverity().getValue() : 0);
+            hash = hash(hash, diagnostic.getCode());
+            hash = hash(hash, diagnostic.getCodeDescription() != null ? diagnostic.getCodeDescription().getHref()
+                    : null);
+            hash = hash(hash, diagnostic.getSource());
+            hash = hash(hash, diagnostic.getMessage());
+            List<DiagnosticTag> tags = diagnostic.getTags();
+            if (tags != null) {
+                hash = hash(hash, tags.size());
+                for (DiagnosticTag tag : tags) {
+                    hash = hash(hash, tag.getValue());
+                }
+            }
+            List<DiagnosticRelatedInformation> relatedInformation = diagnostic.getRelatedInformation();
+            if (relatedInformation != null) {
+                hash = hash(hash, relatedInformation.size());
+                for (DiagnosticRelatedInformation info : relatedInformation) {
+                    Location location = info.getLocation();
+                    if (location != null) {
+                        hash = hash(hash, location.getUri());
+                        hash = hash(hash, location.getRange());
+                    }
+                    hash = hash(hash, info.getMessage());
+                }
+            }
+            hash = hash(hash, diagnostic.getData());
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, Range range) {
+        if (range == null) {
+            return hash(hash, -1);
+        }
+        hash = hash(hash, range.getStart().getLine());
+        hash = hash(hash, range.getStart().getCharacter());
+        hash = hash(hash, range.getEnd().getLine());
+        return hash(hash, range.getEnd().getCharacter());
+    }
+
+    private static long hash(long hash, Object value) {
+        if (value == null) {
+            return hash(hash, -1);
+        }
+        if (value instanceof Either) {
+            Either<?, ?> either = (Either<?, ?>) value;
+            hash = hash(hash, either.getLeft());
+            return hash(hash, either.getRight());
+        }
+        if (value instanceof Integer) {
+            return hash(hash, ((Integer) value).intValue());
+        }
+        String stringValue = value.toString();
+        // include the length so that consecutive strings can't run together
+        hash = hash(hash, stringValue.length());
+        return HashUtils.fnv1a(hash, stringValue);
+    }
+
+    private static long hash(long hash, int value) {
+        return HashUtils.fnv1a(hash, value);
+    }
+}
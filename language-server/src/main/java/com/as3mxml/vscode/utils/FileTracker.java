@@ -22,10 +22,15 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.nio.file.Path;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.as3mxml.vscode.utils.CompilationUnitUtils.IncludeFileData;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.royale.compiler.filespecs.IFileSpecification;
@@ -35,7 +40,20 @@ import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextDocumentContentChangeEvent;
 
 public class FileTracker {
-    private Map<Path, String> sourceByPath = new HashMap<>();
+    private static final int MAX_LINE_OFFSET_TABLES = 2000;
+
+    private Map<Path, TextDocumentBuffer> sourceByPath = new ConcurrentHashMap<>();
+    private Map<Path, LineOffsetTable> lineOffsetsByPath = Collections
+            .synchronizedMap(new LinkedHashMap<Path, LineOffsetTable>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Path, LineOffsetTable> eldest) {
+                    return size() > MAX_LINE_OFFSET_TABLES;
+                }
+            });
+    private Map<Path, Long> modificationStamps = new ConcurrentHashMap<>();
+    private AtomicLong nextModificationStamp = new AtomicLong(1L);
     private LanguageServerFileSpecGetter fileSpecGetter;
 
     public FileTracker(IWorkspace compilerWorkspace) {
@@ -43,6 +61,9 @@ public class FileTracker {
     }
 
     public boolean isOpen(Path path) {
+        if (path == null) {
+            return false;
+        }
         return sourceByPath.containsKey(path);
     }
 
@@ -51,25 +72,35 @@ public class FileTracker {
     }
 
     public void openFile(Path path, String text) {
-        sourceByPath.put(path, text);
+        sourceByPath.put(path, new TextDocumentBuffer(text));
+        touch(path);
     }
 
     public String closeFile(Path path) {
-        return sourceByPath.remove(path);
+        TextDocumentBuffer buffer = sourceByPath.remove(path);
+        touch(path);
+        if (buffer == null) {
+            return null;
+        }
+        return buffer.toString();
     }
 
     public void changeFile(Path path, List<TextDocumentContentChangeEvent> contentChanges) {
         for (TextDocumentContentChangeEvent change : contentChanges) {
+            TextDocumentBuffer buffer = sourceByPath.get(path);
             if (change.getRange() == null) {
-                sourceByPath.put(path, change.getText());
-            } else if (sourceByPath.containsKey(path)) {
-                String existingText = sourceByPath.get(path);
-                String newText = patch(existingText, change);
-                sourceByPath.put(path, newText);
+                if (buffer != null) {
+                    buffer.setText(change.getText());
+                } else {
+                    sourceByPath.put(path, new TextDocumentBuffer(change.getText()));
+                }
+            } else if (buffer != null) {
+                patch(buffer, change);
             } else {
                 System.err.println("Failed to apply changes to code intelligence from path: " + path);
             }
         }
+        touch(path);
     }
 
     public Reader getReader(Path path) {
@@ -77,9 +108,10 @@ public class FileTracker {
             return null;
         }
         Reader reader = null;
-        if (sourceByPath.containsKey(path)) {
+        TextDocumentBuffer buffer = sourceByPath.get(path);
+        if (buffer != null) {
             // if the file is open, use the edited code
-            String code = sourceByPath.get(path);
+            String code = buffer.toString();
             reader = new StringReader(code);
         } else {
             File file = new File(path.toAbsolutePath().toString());
@@ -97,8 +129,12 @@ public class FileTracker {
     }
 
     public String getText(Path path) {
-        if (sourceByPath.containsKey(path)) {
-            return sourceByPath.get(path);
+        if (path == null) {
+            return null;
+        }
+        TextDocumentBuffer buffer = sourceByPath.get(path);
+        if (buffer != null) {
+            return buffer.toString();
         }
         Reader reader = getReader(path);
         if (reader == null) {
@@ -116,25 +152,125 @@ public class FileTracker {
         }
     }
 
+    /**
+     * Converts a language server position to the absolute character offset.
+     * If the file is open, uses the edited code. Otherwise, uses a cached
+     * table of line offsets for the file on the file system. Returns -1 if
+     * the file cannot be read.
+     */
+    public int getOffsetFromPosition(Path path, Position position) {
+        if (path == null) {
+            return -1;
+        }
+        TextDocumentBuffer buffer = sourceByPath.get(path);
+        if (buffer != null) {
+            return buffer.getOffset(position.getLine(), position.getCharacter());
+        }
+        LineOffsetTable table = getLineOffsetTable(path);
+        if (table == null) {
+            return -1;
+        }
+        return table.getOffset(position.getLine(), position.getCharacter());
+    }
+
+    public int getOffsetFromPosition(Path path, Position position, IncludeFileData includeFileData) {
+        int offset = getOffsetFromPosition(path, position);
+        if (offset == -1) {
+            return -1;
+        }
+        return LanguageServerCompilerUtils.adjustOffsetForIncludeFile(offset, includeFileData);
+    }
+
+    /**
+     * Converts the absolute character offset to a language server position.
+     * Returns null if the file cannot be read.
+     */
+    public Position getPositionFromOffset(Path path, int offset) {
+        return getPositionFromOffset(path, offset, new Position());
+    }
+
+    public Position getPositionFromOffset(Path path, int offset, Position result) {
+        if (path == null) {
+            return null;
+        }
+        TextDocumentBuffer buffer = sourceByPath.get(path);
+        if (buffer != null) {
+            result.setLine(buffer.getLine(offset));
+            result.setCharacter(buffer.getCharacter(offset));
+            return result;
+        }
+        LineOffsetTable table = getLineOffsetTable(path);
+        if (table == null) {
+            return null;
+        }
+        result.setLine(table.getLine(offset));
+        result.setCharacter(table.getCharacter(offset));
+        return result;
+    }
+
+    /**
+     * Discards the cached line offsets for a file that changed on the file
+     * system.
+     */
+    public void invalidateLineOffsets(Path path) {
+        lineOffsetsByPath.remove(path);
+    }
+
+    /**
+     * Returns a value that changes every time that a file is opened, edited,
+     * or closed. Returns 0 for a file that has never been opened. Combined
+     * with the file's size and modification time on the file system, may be
+     * used to detect whether cached data for a file is stale.
+     */
+    public long getModificationStamp(Path path) {
+        Long stamp = modificationStamps.get(path);
+        if (stamp == null) {
+            return 0L;
+        }
+        return stamp;
+    }
+
     public IFileSpecification getFileSpecification(String filePath) {
         return fileSpecGetter.getFileSpecification(filePath);
     }
 
-    private String patch(String sourceText, TextDocumentContentChangeEvent change) {
+    private void touch(Path path) {
+        modificationStamps.put(path, nextModificationStamp.getAndIncrement());
+    }
+
+    private LineOffsetTable getLineOffsetTable(Path path) {
+        File file = path.toFile();
+        if (!file.isFile()) {
+            lineOffsetsByPath.remove(path);
+            return null;
+        }
+        long lastModified = file.lastModified();
+        long fileSize = file.length();
+        LineOffsetTable table = lineOffsetsByPath.get(path);
+        if (table != null && table.isValid(lastModified, fileSize)) {
+            return table;
+        }
+        try (Reader reader = new FileReader(file)) {
+            table = LineOffsetTable.fromReader(reader, lastModified, fileSize);
+        } catch (IOException e) {
+            return null;
+        }
+        lineOffsetsByPath.put(path, table);
+        return table;
+    }
+
+    private void patch(TextDocumentBuffer buffer, TextDocumentContentChangeEvent change) {
         Range range = change.getRange();
         Position start = range.getStart();
-        StringReader reader = new StringReader(sourceText);
-        int offset = LanguageServerCompilerUtils.getOffsetFromPosition(reader, start);
-        StringBuilder builder = new StringBuilder();
-        builder.append(sourceText.substring(0, offset));
-        builder.append(change.getText());
+        int offset = buffer.getOffset(start.getLine(), start.getCharacter());
+        int endOffset = 0;
         Integer rangeLength = change.getRangeLength();
-        if (rangeLength == null) {
+        if (rangeLength != null) {
+            endOffset = offset + rangeLength;
+        } else {
             Position end = range.getEnd();
-            reader = new StringReader(sourceText);
-            rangeLength = LanguageServerCompilerUtils.getOffsetFromPosition(reader, end) - offset;
+            endOffset = buffer.getOffset(end.getLine(), end.getCharacter());
         }
-        builder.append(sourceText.substring(offset + rangeLength));
-        return builder.toString();
+        buffer.replace(offset, endOffset, change.getText());
     }
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.as3mxml.vscode.project.ILspProject;
+
+import org.apache.royale.compiler.common.XMLName;
+import org.apache.royale.compiler.definitions.IDefinition;
+import org.apache.royale.compiler.definitions.ITypeDefinition;
+
+/**
+ * Remembers which words appear in the text of each source file, so that
+ * searches for references to a definition can skip the files that can't
+ * possibly refer to it, without resolving any of their identifiers.
+ *
+ * Each file's words are stored as a sorted array of hash codes, which is much
+ * smaller than a set of strings. A hash collision only means that a file is
+ * checked when it didn't need to be. A file's record is created again when
+ * its size, modification time, or modification stamp changes.
+ */
+public class IdentifierOccurrenceIndex {
+    private static final String INCLUDE_DIRECTIVE = "include";
+    private static final String SCRIPT_SOURCE_ATTRIBUTE = "source";
+    private static final String FILE_EXTENSION_MXML = ".mxml";
+
+    private static class FileRecord {
+        public long lastModified;
+        public long fileSize;
+        public long modificationStamp;
+        public int[] wordHashes;
+        // the file may include code from another file, which wasn't indexed
+        public boolean mayIncludeOtherFiles;
+    }
+
+    private FileTracker fileTracker;
+    private Map<String, FileRecord> records = new ConcurrentHashMap<>();
+
+    public IdentifierOccurrenceIndex(FileTracker fileTracker) {
+        this.fileTracker = fileTracker;
+    }
+
+    /**
+     * Returns the names that a reference to the definition may use. In
+     * addition to the definition's base name, a type may be referenced in
+     * MXML with the name of a tag that has been mapped to it.
+     */
+    public static Set<String> getNamesToFind(IDefinition definition, ILspProject project) {
+        Set<String> result = new LinkedHashSet<>();
+        result.add(definition.getBaseName());
+        if (definition instanceof ITypeDefinition) {
+            Collection<XMLName> tagNames = project.getTagNamesForClass(definition.getQualifiedName());
+            if (tagNames != null) {
+                for (XMLName tagName : tagNames) {
+                    result.add(tagName.getName());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the file contains at least one of the specified names,
+     * or if the file couldn't be read. Returns false only if none of the
+     * names can appear in the file.
+     */
+    public boolean mayContainAny(String path, Collection<String> names) {
+        FileRecord record = getRecord(path);
+        if (record == null || record.mayIncludeOtherFiles) {
+            return true;
+        }
+        for (String name : names) {
+            if (Arrays.binarySearch(record.wordHashes, name.hashCode()) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void remove(String path) {
+        records.remove(path);
+    }
+
+    public void clear() {
+        records.clear();
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    private FileRecord getRecord(String path) {
+        Path filePath = Paths.get(path);
+        File file = filePath.toFile();
+        long lastModified = file.lastModified();
+        long fileSize = file.length();
+        long modificationStamp = fileTracker.getModificationStamp(filePath);
+        FileRecord record = records.get(path);
+        if (record != null && record.lastModified == lastModified && record.fileSize == fileSize
+                && record.modificationStamp == modificationStamp) {
+            return record;
+        }
+        String text = fileTracker.getText(filePath);
+        if (text == null) {
+            records.remove(path);
+            return null;
+        }
+        record = new FileRecord();
+        record.lastModified = lastModified;
+        record.fileSize = fileSize;
+        record.modificationStamp = modificationStamp;
+        record.wordHashes = getWordHashes(text);
+        if (Arrays.binarySearch(record.wordHashes, INCLUDE_DIRECTIVE.hashCode()) >= 0) {
+            record.mayIncludeOtherFiles = true;
+        } else if (path.endsWith(FILE_EXTENSION_MXML)
+                && Arrays.binarySearch(record.wordHashes, SCRIPT_SOURCE_ATTRIBUTE.hashCode()) >= 0) {
+            // <fx:Script source="..."/>
+            record.mayIncludeOtherFiles = true;
+        }
+        records.put(path, record);
+        return record;
+    }
+
+    /**
+     * Splits the text into words that may be identifiers, including the
+     * words in comments and strings, and returns the sorted and unique hash
+     * codes of those words.
+     */
+    public static int[] getWordHashes(String text) {
+        int[] hashes = new int[64];
+        int hashCount = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (!isWordChar(c)) {
+                i++;
+                continue;
+            }
+            // same as String.hashCode(), without creating a substring
+            int hash = 0;
+            while (i < length) {
+                c = text.charAt(i);
+                if (!isWordChar(c)) {
+                    break;
+                }
+                hash = 31 * hash + c;
+                i++;
+            }
+            if (hashCount == hashes.length) {
+                hashes = Arrays.copyOf(hashes, hashes.length * 2);
+            }
+            hashes[hashCount] = hash;
+            hashCount++;
+        }
+        Arrays.sort(hashes, 0, hashCount);
+        int uniqueCount = 0;
+        for (int j = 0; j < hashCount; j++) {
+            if (uniqueCount == 0 || hashes[uniqueCount - 1] != hashes[j]) {
+                hashes[uniqueCount] = hashes[j];
+                uniqueCount++;
+            }
+        }
+        return Arrays.copyOf(hashes, uniqueCount);
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
@@ -0,0 +1,223 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+import org.apache.royale.compiler.problems.ICompilerProblem;
+
+/**
+ * Remembers the problems found in each source file during the previous check
+ * of a project, along with the files that it depended on. When the project is
+ * checked again, only the files that changed, and the files that depend on
+ * them, need to be checked. The problems for every other file are reused.
+ *
+ * <p>
+ * When files are added or removed, every file is checked again, because an
+ * added file may cause problems in a file that doesn't depend on it, like a
+ * duplicate definition or an ambiguous reference.
+ * </p>
+ */
+public class IncrementalProblemCache {
+    private static class Entry {
+        public long modificationStamp;
+        public long lastModified;
+        public List<ICompilerProblem> problems;
+        public Set<String> dependencies;
+        // the versions of the files included by the file, like with
+        // include "x.as" or <fx:Script source="x.as"/>
+        public Map<String, long[]> includedFiles;
+        public boolean hasErrors;
+    }
+
+    private Object owner;
+    private Map<String, Entry> entries = new HashMap<>();
+    private Set<String> previousPaths = new HashSet<>();
+    // the versions of the files when the check started, so that a file that
+    // changes during the check will be checked again next time
+    private Map<String, long[]> checkedVersions = new HashMap<>();
+    private Map<String, long[]> checkedIncludedVersions = new HashMap<>();
+    private ToLongFunction<String> modificationStamps;
+
+    /**
+     * Discards all cached problems, so that the next check is a full check.
+     */
+    public synchronized void clear() {
+        owner = null;
+        entries.clear();
+        previousPaths.clear();
+        checkedVersions.clear();
+        checkedIncludedVersions.clear();
+        modificationStamps = null;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the paths that need to be checked again. A path needs to be
+     * checked if it wasn't checked before, if its modification stamp or its
+     * modification time on the file system has changed, if a file that it
+     * includes has changed, if it previously had errors, or if it depends on another path that needs to be checked.
+     * Every path needs to be checked if any paths were added or removed since
+     * the previous check.
+     *
+     * <p>
+     * Files with errors are always checked again because an error, like an
+     * unresolved type, may be fixed by adding a file that nothing depends on
+     * yet.
+     * </p>
+     *
+     * @param owner              the project that the paths belong to. if it
+     *                           has changed since the previous check, every
+     *                           path needs to be checked.
+     * @param paths              every path that will be checked or reused
+     * @param modificationStamps returns the modification stamp of an open
+     *                           file, or 0 if the file isn't open
+     */
+    public synchronized Set<String> getPathsToCheck(Object owner, Collection<String> paths,
+            ToLongFunction<String> modificationStamps) {
+        if (this.owner != owner) {
+            this.owner = owner;
+            entries.clear();
+        }
+        this.modificationStamps = modificationStamps;
+        checkedVersions.clear();
+        checkedIncludedVersions.clear();
+        Set<String> currentPaths = new HashSet<>(paths);
+        boolean pathsChanged = !currentPaths.equals(previousPaths);
+        previousPaths = currentPaths;
+        entries.keySet().retainAll(currentPaths);
+        Set<String> changedPaths = new HashSet<>();
+        for (String path : paths) {
+            long modificationStamp = modificationStamps.applyAsLong(path);
+            long lastModified = new File(path).lastModified();
+            Entry entry = entries.get(path);
+            boolean includedFilesChanged = entry != null && includedFilesChanged(entry);
+            if (pathsChanged || entry == null || entry.hasErrors || entry.modificationStamp != modificationStamp
+                    || entry.lastModified != lastModified || includedFilesChanged) {
+                changedPaths.add(path);
+                checkedVersions.put(path, new long[] { modificationStamp, lastModified });
+            }
+        }
+        if (pathsChanged || changedPaths.isEmpty()) {
+            return changedPaths;
+        }
+
+        Map<String, Set<String>> dependents = new HashMap<>();
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            for (String dependency : mapEntry.getValue().dependencies) {
+                dependents.computeIfAbsent(dependency, key -> new HashSet<>()).add(mapEntry.getKey());
+            }
+        }
+        Set<String> result = new LinkedHashSet<>();
+        ArrayDeque<String> queue = new ArrayDeque<>(changedPaths);
+        Set<String> visited = new HashSet<>(changedPaths);
+        while (!queue.isEmpty()) {
+            String path = queue.poll();
+            if (currentPaths.contains(path)) {
+                result.add(path);
+                if (!checkedVersions.containsKey(path)) {
+                    // a dependent that didn't change keeps its version
+                    Entry entry = entries.get(path);
+                    checkedVersions.put(path, new long[] { entry.modificationStamp, entry.lastModified });
+                }
+            }
+            Set<String> pathDependents = dependents.get(path);
+            if (pathDependents == null) {
+                continue;
+            }
+            for (String dependent : pathDependents) {
+                if (visited.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean includedFilesChanged(Entry entry) {
+        boolean changed = false;
+        for (Map.Entry<String, long[]> mapEntry : entry.includedFiles.entrySet()) {
+            String includedPath = mapEntry.getKey();
+            long[] version = getVersion(includedPath);
+            // if the included file changes during the check, it will be
+            // checked again next time
+            checkedIncludedVersions.put(includedPath, version);
+            if (!Arrays.equals(version, mapEntry.getValue())) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private long[] getVersion(String path) {
+        return new long[] { modificationStamps.applyAsLong(path), new File(path).lastModified() };
+    }
+
+    /**
+     * Returns the problems found in the previous check of the specified path,
+     * or null if the path has not been checked.
+     */
+    public synchronized List<ICompilerProblem> getProblems(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            return null;
+        }
+        return entry.problems;
+    }
+
+    /**
+     * Stores the problems found for a path returned by
+     * <code>getPathsToCheck()</code>.
+     *
+     * @param includedPaths the files included by the path, which are checked
+     *                      as part of the path
+     */
+    public synchronized void put(String path, List<ICompilerProblem> problems, Set<String> dependencies,
+            Collection<String> includedPaths, boolean hasErrors) {
+        long[] version = checkedVersions.remove(path);
+        if (version == null) {
+            return;
+        }
+        Entry entry = new Entry();
+        entry.modificationStamp = version[0];
+        entry.lastModified = version[1];
+        entry.problems = problems;
+        entry.dependencies = dependencies;
+        entry.includedFiles = new HashMap<>();
+        for (String includedPath : includedPaths) {
+            long[] includedVersion = checkedIncludedVersions.get(includedPath);
+            if (includedVersion == null) {
+                includedVersion = getVersion(includedPath);
+            }
+            entry.includedFiles.put(includedPath, includedVersion);
+        }
+        entry.hasErrors = hasErrors;
+        entries.put(path, entry);
+    }
+}
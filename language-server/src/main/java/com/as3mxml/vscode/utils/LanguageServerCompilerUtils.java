@@ -181,6 +181,10 @@ public class LanguageServerCompilerUtils {
             }
         }
 
+        return adjustOffsetForIncludeFile(offset, includeFileData);
+    }
+
+    public static int adjustOffsetForIncludeFile(int offset, IncludeFileData includeFileData) {
         if (includeFileData != null) {
             int originalOffset = offset;
             // we're actually going to use the offset from the file that
@@ -0,0 +1,120 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * The offset where each line starts in a file that isn't open in the editor.
+ * Stores the file's size and modification time, so that a cached table can be
+ * checked against the file system without reading the file again.
+ */
+public class LineOffsetTable {
+    private int[] lineStarts;
+    private int lineCount;
+    private int length;
+    private long lastModified;
+    private long fileSize;
+
+    private LineOffsetTable(int[] lineStarts, int lineCount, int length, long lastModified, long fileSize) {
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+        this.length = length;
+        this.lastModified = lastModified;
+        this.fileSize = fileSize;
+    }
+
+    public static LineOffsetTable fromReader(Reader reader, long lastModified, long fileSize) throws IOException {
+        int[] lineStarts = new int[64];
+        lineStarts[0] = 0;
+        int lineCount = 1;
+        int length = 0;
+        char[] chars = new char[8192];
+        int count = 0;
+        while ((count = reader.read(chars)) != -1) {
+            for (int i = 0; i < count; i++) {
+                if (chars[i] == '\n') {
+                    if (lineCount == lineStarts.length) {
+                        lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+                    }
+                    lineStarts[lineCount] = length + i + 1;
+                    lineCount++;
+                }
+            }
+            length += count;
+        }
+        return new LineOffsetTable(lineStarts, lineCount, length, lastModified, fileSize);
+    }
+
+    public boolean isValid(long lastModified, long fileSize) {
+        return this.lastModified == lastModified && this.fileSize == fileSize;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Converts a zero-based line and character to an offset, with the same
+     * behavior as LanguageServerCompilerUtils.getOffsetFromPosition().
+     */
+    public int getOffset(int line, int character) {
+        if (line < 0) {
+            return 0;
+        }
+        if (line >= lineCount) {
+            return length;
+        }
+        int offset = lineStarts[line] + Math.max(0, character);
+        if (offset > length) {
+            return length;
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the zero-based line that contains the specified offset.
+     */
+    public int getLine(int offset) {
+        if (offset > length) {
+            offset = length;
+        }
+        int index = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        if (index >= 0) {
+            return index;
+        }
+        return Math.max(0, -index - 2);
+    }
+
+    /**
+     * Returns the zero-based character on its line of the specified offset.
+     */
+    public int getCharacter(int offset) {
+        if (offset < 0) {
+            return 0;
+        }
+        if (offset > length) {
+            offset = length;
+        }
+        return offset - lineStarts[getLine(offset)];
+    }
+}
@@ -0,0 +1,90 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.royale.compiler.problems.ICompilerProblem;
+import org.apache.royale.linter.LinterSettings;
+
+/**
+ * Caches the linter settings for each project, and the lint problems for each
+ * file. Settings are loaded again only after <code>invalidateSettings()</code>
+ * is called for the project, and a file is linted again only if its text or
+ * its project's settings have changed.
+ */
+public class LintCache {
+    private static class LintResult {
+        public long textHash;
+        public LinterSettings settings;
+        public List<ICompilerProblem> problems;
+    }
+
+    private Map<Path, LinterSettings> settingsByProjectRoot = new ConcurrentHashMap<>();
+    private Map<String, LintResult> resultsByPath = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cached settings for the project, or loads them, if they
+     * haven't been loaded yet.
+     */
+    public LinterSettings getSettings(Path projectRoot, Function<Path, LinterSettings> loader) {
+        return settingsByProjectRoot.computeIfAbsent(projectRoot, loader);
+    }
+
+    /**
+     * Call when the linter configuration file for a project changes. Problems
+     * found with the old settings won't be reused.
+     */
+    public void invalidateSettings(Path projectRoot) {
+        settingsByProjectRoot.remove(projectRoot);
+    }
+
+    /**
+     * Call when a file is deleted, so that its problems aren't kept forever.
+     */
+    public void remove(String path) {
+        resultsByPath.remove(path);
+    }
+
+    public void clear() {
+        settingsByProjectRoot.clear();
+        resultsByPath.clear();
+    }
+
+    /**
+     * Returns the problems found the last time that the file was linted, if
+     * its text and settings were the same. Otherwise, returns null.
+     */
+    public List<ICompilerProblem> getProblems(String path, long textHash, LinterSettings settings) {
+        LintResult result = resultsByPath.get(path);
+        if (result == null || result.textHash != textHash || result.settings != settings) {
+            return null;
+        }
+        return result.problems;
+    }
+
+    public void putProblems(String path, long textHash, LinterSettings settings, List<ICompilerProblem> problems) {
+        LintResult result = new LintResult();
+        result.textHash = textHash;
+        result.settings = settings;
+        result.problems = problems;
+        resultsByPath.put(path, result);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.royale.compiler.problems.ICompilerProblem;
+import org.apache.royale.compiler.problems.InternalCompilerProblem;
+import org.apache.royale.compiler.units.ICompilationUnit;
+
+/**
+ * Checks multiple compilation units for problems at the same time, using a
+ * pool with a limited number of threads.
+ */
+public class ParallelProblemChecker {
+    public interface UnitChecker {
+        void check(ICompilationUnit unit, List<ICompilerProblem> problems);
+    }
+
+    private ForkJoinPool pool;
+    private int parallelism;
+
+    public ParallelProblemChecker() {
+        this(0);
+    }
+
+    public ParallelProblemChecker(int parallelism) {
+        setParallelism(parallelism);
+    }
+
+    public static int getDefaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    public synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * The maximum number of compilation units to check at the same time. If
+     * less than 1, uses the number of available processors.
+     */
+    public synchronized void setParallelism(int value) {
+        if (value < 1) {
+            value = getDefaultParallelism();
+        }
+        if (parallelism == value) {
+            return;
+        }
+        parallelism = value;
+        if (pool != null) {
+            // any checks that are already running will finish normally
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    /**
+     * Checks each compilation unit and returns the problems for each unit,
+     * grouped by file path, in the same order as the units. If the calling
+     * thread is interrupted, or the pool is disposed, before every unit has
+     * been checked, throws an exception instead of returning the problems of
+     * some of the units.
+     */
+    public Map<String, List<ICompilerProblem>> check(List<ICompilationUnit> units, UnitChecker checker)
+            throws InterruptedException {
+        Map<String, List<ICompilerProblem>> result = new LinkedHashMap<>();
+        if (units.size() < 2 || getParallelism() == 1) {
+            for (ICompilationUnit unit : units) {
+                List<ICompilerProblem> problems = new ArrayList<>();
+                checker.check(unit, problems);
+                addProblems(unit, problems, result);
+            }
+            return result;
+        }
+
+        List<Callable<List<ICompilerProblem>>> tasks = new ArrayList<>(units.size());
+        for (ICompilationUnit unit : units) {
+            tasks.add(() -> {
+                List<ICompilerProblem> problems = new ArrayList<>();
+                checker.check(unit, problems);
+                return problems;
+            });
+        }
+        List<Future<List<ICompilerProblem>>> futures = getPool().invokeAll(tasks);
+        // invokeAll() doesn't stop waiting when the thread is interrupted
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            ICompilationUnit unit = units.get(i);
+            List<ICompilerProblem> problems = null;
+            try {
+                problems = futures.get(i).get();
+            } catch (CancellationException e) {
+                // dispose() stopped the pool before the unit was checked
+                throw new InterruptedException("Problem checker disposed");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                Exception exception = (cause instanceof Exception) ? (Exception) cause : e;
+                System.err.println("Exception while checking for problems: " + cause);
+                cause.printStackTrace(System.err);
+                problems = new ArrayList<>();
+                problems.add(new InternalCompilerProblem(exception));
+            }
+            addProblems(unit, problems, result);
+        }
+        return result;
+    }
+
+    public synchronized void dispose() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    private void addProblems(ICompilationUnit unit, List<ICompilerProblem> problems,
+            Map<String, List<ICompilerProblem>> result) {
+        String path = unit.getAbsoluteFilename();
+        List<ICompilerProblem> bucket = result.get(path);
+        if (bucket == null) {
+            result.put(path, problems);
+        } else {
+            bucket.addAll(problems);
+        }
+    }
+}
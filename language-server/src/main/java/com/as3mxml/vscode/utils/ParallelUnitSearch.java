@@ -0,0 +1,236 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.royale.compiler.units.ICompilationUnit;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+
+/**
+ * Searches multiple compilation units at the same time, using a pool with a
+ * limited number of threads. Used by requests like references and rename,
+ * which need to check every unit in a project.
+ *
+ * The thread that calls <code>search()</code> waits for the results, and it
+ * checks whether the request has been cancelled while it waits. After a
+ * request is cancelled, units that haven't started yet are skipped, and
+ * <code>search()</code> returns after the units that already started have
+ * finished.
+ */
+public class ParallelUnitSearch {
+    private static final long CANCEL_CHECK_INTERVAL_MS = 50L;
+
+    public interface UnitSearcher<T> {
+        /**
+         * Searches the compilation unit, and returns null if nothing was
+         * found.
+         */
+        T search(ICompilationUnit unit);
+    }
+
+    public interface UnitResultHandler<T> {
+        /**
+         * Called on the thread that called <code>search()</code> after each
+         * unit is searched, in the order that the searches finish. The result
+         * may be null.
+         */
+        void handle(ICompilationUnit unit, T result, int completedCount, int totalCount);
+    }
+
+    private static class RunningTasks {
+        private int count = 0;
+
+        public synchronized void start() {
+            count++;
+        }
+
+        public synchronized void finish() {
+            count--;
+            if (count == 0) {
+                notifyAll();
+            }
+        }
+
+        public synchronized void awaitFinished() throws InterruptedException {
+            while (count > 0) {
+                wait();
+            }
+        }
+    }
+
+    private ForkJoinPool pool;
+    private int parallelism;
+
+    public ParallelUnitSearch() {
+        this(0);
+    }
+
+    public ParallelUnitSearch(int parallelism) {
+        setParallelism(parallelism);
+    }
+
+    public synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * The maximum number of compilation units to search at the same time. If
+     * less than 1, uses the number of available processors.
+     */
+    public synchronized void setParallelism(int value) {
+        if (value < 1) {
+            value = ParallelProblemChecker.getDefaultParallelism();
+        }
+        if (parallelism == value) {
+            return;
+        }
+        parallelism = value;
+        if (pool != null) {
+            // any searches that are already running will finish normally
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    /**
+     * Searches each compilation unit and returns the results that aren't
+     * null, in the same order as the units. If the request is cancelled,
+     * throws the exception from the cancel checker.
+     */
+    public <T> List<T> search(List<ICompilationUnit> units, UnitSearcher<T> searcher, CancelChecker cancelToken,
+            UnitResultHandler<T> resultHandler) {
+        int totalCount = units.size();
+        if (totalCount < 2 || getParallelism() == 1) {
+            List<T> result = new ArrayList<>();
+            for (int i = 0; i < totalCount; i++) {
+                if (cancelToken != null) {
+                    cancelToken.checkCanceled();
+                }
+                ICompilationUnit unit = units.get(i);
+                T unitResult = searcher.search(unit);
+                if (unitResult != null) {
+                    result.add(unitResult);
+                }
+                if (resultHandler != null) {
+                    resultHandler.handle(unit, unitResult, i + 1, totalCount);
+                }
+            }
+            return result;
+        }
+
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        RunningTasks runningTasks = new RunningTasks();
+        CompletionService<T> completionService = new ExecutorCompletionService<>(getPool());
+        Map<Future<T>, Integer> indexesByFuture = new HashMap<>();
+        for (int i = 0; i < totalCount; i++) {
+            ICompilationUnit unit = units.get(i);
+            Future<T> future = completionService.submit(() -> {
+                // started before checking for cancel, so that a unit that
+                // gets past the check is always waited for
+                runningTasks.start();
+                try {
+                    if (cancelled.get() || (cancelToken != null && cancelToken.isCanceled())) {
+                        return null;
+                    }
+                    return searcher.search(unit);
+                } finally {
+                    runningTasks.finish();
+                }
+            });
+            indexesByFuture.put(future, i);
+        }
+        List<T> unitResults = new ArrayList<>(totalCount);
+        for (int i = 0; i < totalCount; i++) {
+            unitResults.add(null);
+        }
+        int completedCount = 0;
+        try {
+            while (completedCount < totalCount) {
+                if (cancelToken != null) {
+                    cancelToken.checkCanceled();
+                }
+                Future<T> future = completionService.poll(CANCEL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    continue;
+                }
+                completedCount++;
+                int index = indexesByFuture.get(future);
+                ICompilationUnit unit = units.get(index);
+                T unitResult = null;
+                try {
+                    unitResult = future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    System.err.println("Exception while searching " + unit.getAbsoluteFilename() + ": " + cause);
+                    cause.printStackTrace(System.err);
+                }
+                unitResults.set(index, unitResult);
+                if (resultHandler != null) {
+                    resultHandler.handle(unit, unitResult, completedCount, totalCount);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (completedCount < totalCount) {
+                // stop any units that haven't started yet
+                cancelled.set(true);
+                for (Future<T> future : indexesByFuture.keySet()) {
+                    future.cancel(false);
+                }
+                // units that already started may still be using the project,
+                // so wait for them before the caller continues
+                try {
+                    runningTasks.awaitFinished();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        List<T> result = new ArrayList<>();
+        for (T unitResult : unitResults) {
+            if (unitResult != null) {
+                result.add(unitResult);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void dispose() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+}
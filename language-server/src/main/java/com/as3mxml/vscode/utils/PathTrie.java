@@ -0,0 +1,118 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps folder paths to values, so that the values for every folder that
+ * contains a path may be found by walking the path's elements once, instead
+ * of calling <code>Path.startsWith()</code> for each folder.
+ *
+ * Like <code>Path.startsWith()</code>, paths are compared element by element,
+ * and elements are compared without case on file systems where
+ * <code>Path.equals()</code> ignores case.
+ */
+public class PathTrie<V> {
+    private static final boolean IGNORE_CASE = Paths.get("a").equals(Paths.get("A"));
+
+    private static class Node<V> {
+        public Map<String, Node<V>> children;
+        public List<V> values;
+    }
+
+    private Node<V> root = new Node<>();
+    private int size = 0;
+
+    /**
+     * Adds a value for the folder. A folder may have multiple values.
+     */
+    public void add(Path folder, V value) {
+        Node<V> node = root;
+        for (String key : getKeys(folder)) {
+            if (node.children == null) {
+                node.children = new HashMap<>();
+            }
+            Node<V> child = node.children.get(key);
+            if (child == null) {
+                child = new Node<>();
+                node.children.put(key, child);
+            }
+            node = child;
+        }
+        if (node.values == null) {
+            node.values = new ArrayList<>(1);
+        }
+        node.values.add(value);
+        size++;
+    }
+
+    /**
+     * Returns the values of every folder that the path starts with, including
+     * the path itself, ordered from the shortest folder to the longest.
+     */
+    public List<V> getValuesForPath(Path path) {
+        List<V> result = new ArrayList<>();
+        Node<V> node = root;
+        for (String key : getKeys(path)) {
+            if (node.children == null) {
+                break;
+            }
+            node = node.children.get(key);
+            if (node == null) {
+                break;
+            }
+            if (node.values != null) {
+                result.addAll(node.values);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        root = new Node<>();
+        size = 0;
+    }
+
+    private static List<String> getKeys(Path path) {
+        List<String> keys = new ArrayList<>(path.getNameCount() + 1);
+        Path pathRoot = path.getRoot();
+        // a relative path can't start with an absolute path, so the root is
+        // always the first key, even if it is empty
+        keys.add(pathRoot != null ? normalizeKey(pathRoot.toString()) : "");
+        for (Path name : path) {
+            keys.add(normalizeKey(name.toString()));
+        }
+        return keys;
+    }
+
+    private static String normalizeKey(String key) {
+        if (IGNORE_CASE) {
+            return key.toLowerCase(Locale.ROOT);
+        }
+        return key;
+    }
+}
@@ -20,26 +20,27 @@ import java.util.ArrayList;
 import java.util.HashSet;
 
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
-import org.eclipse.lsp4j.services.LanguageClient;
 
 /**
  * Tracks files that have previously had problems so that they can be cleared
- * when the problems are fixed.
+ * when the problems are fixed. Diagnostics are sent through a
+ * DiagnosticsPublisher, so files that still have the same problems aren't
+ * published again.
  */
 public class ProblemTracker {
-    private LanguageClient languageClient;
+    private DiagnosticsPublisher diagnosticsPublisher;
     private HashSet<URI> newFilesWithProblems = new HashSet<>();
     private HashSet<URI> staleFilesWithProblems = new HashSet<>();
 
     public ProblemTracker() {
     }
 
-    public LanguageClient getLanguageClient() {
-        return languageClient;
+    public DiagnosticsPublisher getDiagnosticsPublisher() {
+        return diagnosticsPublisher;
     }
 
-    public void setLanguageClient(LanguageClient value) {
-        languageClient = value;
+    public void setDiagnosticsPublisher(DiagnosticsPublisher value) {
+        diagnosticsPublisher = value;
     }
 
     public void trackFileWithProblems(URI uri) {
@@ -59,8 +60,8 @@ public class ProblemTracker {
             PublishDiagnosticsParams publish = new PublishDiagnosticsParams();
             publish.setDiagnostics(new ArrayList<>());
             publish.setUri(uri.toString());
-            if (languageClient != null) {
-                languageClient.publishDiagnostics(publish);
+            if (diagnosticsPublisher != null) {
+                diagnosticsPublisher.publish(publish);
             }
         }
         staleFilesWithProblems.clear();
@@ -68,4 +69,13 @@ public class ProblemTracker {
         newFilesWithProblems = staleFilesWithProblems;
         staleFilesWithProblems = temp;
     }
+
+    /**
+     * Clears the problems of every tracked file, like when the project is
+     * removed.
+     */
+    public void releaseAll() {
+        makeStale();
+        releaseStale();
+    }
 }
@@ -0,0 +1,351 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.as3mxml.vscode.project.ActionScriptProjectData;
+import com.as3mxml.vscode.project.ILspProject;
+
+import org.apache.royale.compiler.clients.problems.ProblemQuery;
+import org.apache.royale.compiler.filespecs.IFileSpecification;
+import org.apache.royale.compiler.problems.ICompilerProblem;
+import org.apache.royale.compiler.problems.InternalCompilerProblem2;
+import org.apache.royale.compiler.tree.as.IASNode;
+import org.apache.royale.compiler.units.ICompilationUnit;
+import org.apache.royale.compiler.units.requests.IABCBytesRequestResult;
+import org.apache.royale.compiler.units.requests.IFileScopeRequestResult;
+import org.apache.royale.compiler.units.requests.IOutgoingDependenciesRequestResult;
+import org.apache.royale.compiler.units.requests.IRequest;
+import org.apache.royale.compiler.units.requests.ISyntaxTreeRequestResult;
+import org.apache.royale.compiler.workspaces.IWorkspace;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+
+/**
+ * Checks open files for problems while the user is typing. Edits to the same
+ * file are merged until the file has been idle for the debounce delay, and
+ * then the file is checked on a background thread. Files that are waiting to
+ * be checked are processed in the order that they became idle, so one busy
+ * file can't starve the others. If a file changes again while it is being
+ * checked, the results of the stale check are discarded.
+ *
+ * Nothing runs while there are no pending edits.
+ */
+public class RealTimeProblemsScheduler {
+	public static final long DEFAULT_DELAY = 150;
+
+	public RealTimeProblemsScheduler(DiagnosticsPublisher diagnosticsPublisher, CompilerProblemFilter filter,
+			IWorkspace workspace) {
+		this.diagnosticsPublisher = diagnosticsPublisher;
+		this.compilerProblemFilter = filter;
+		this.workspace = workspace;
+	}
+
+	public CompilerProblemFilter compilerProblemFilter;
+	public DiagnosticsPublisher diagnosticsPublisher;
+
+	private IWorkspace workspace;
+	private long delay = DEFAULT_DELAY;
+	private Map<String, PendingCheck> pendingChecks = new ConcurrentHashMap<>();
+	private ScheduledExecutorService debounceExecutor = Executors
+			.newSingleThreadScheduledExecutor(createThreadFactory("as3mxml-real-time-problems-debounce"));
+	private ExecutorService checkExecutor = Executors
+			.newSingleThreadExecutor(createThreadFactory("as3mxml-real-time-problems"));
+
+	private static class PendingCheck {
+		public final String path;
+		public ActionScriptProjectData projectData;
+		public ICompilationUnit compilationUnit;
+		public IFileSpecification fileSpec;
+		public boolean fileSpecApplied = true;
+		public long generation = 0;
+		public boolean queued = false;
+		public boolean removed = false;
+		public ScheduledFuture<?> debounce;
+
+		public PendingCheck(String path) {
+			this.path = path;
+		}
+	}
+
+	private static ThreadFactory createThreadFactory(String name) {
+		return runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	public long getDelay() {
+		return delay;
+	}
+
+	/**
+	 * The number of milliseconds that a file must be idle before it is
+	 * checked for problems.
+	 */
+	public void setDelay(long value) {
+		delay = Math.max(0, value);
+	}
+
+	/**
+	 * Returns true if the specified file has edits that haven't been checked
+	 * for problems yet.
+	 */
+	public boolean isPending(String path) {
+		return pendingChecks.containsKey(path);
+	}
+
+	/**
+	 * Records a change to a file and restarts its debounce delay. The change is
+	 * not passed to <code>workspace.fileChanged()</code> until the delay ends,
+	 * or until <code>flushPendingChanges()</code> is called.
+	 */
+	public void fileChanged(ICompilationUnit compilationUnit, IFileSpecification fileSpec,
+			ActionScriptProjectData projectData) {
+		String path = fileSpec.getPath();
+		while (true) {
+			PendingCheck check = pendingChecks.computeIfAbsent(path, PendingCheck::new);
+			synchronized (check) {
+				if (check.removed) {
+					// the check finished after we got it from the map, but
+					// before we could update it. try again with a new one.
+					continue;
+				}
+				check.compilationUnit = compilationUnit;
+				check.fileSpec = fileSpec;
+				check.projectData = projectData;
+				check.fileSpecApplied = false;
+				check.generation++;
+				if (check.debounce != null) {
+					check.debounce.cancel(false);
+				}
+				check.debounce = debounceExecutor.schedule(() -> debounceComplete(check), delay,
+						TimeUnit.MILLISECONDS);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Passes the latest changes to <code>workspace.fileChanged()</code> so that
+	 * the compiler is up to date. Files are still checked for problems when
+	 * their debounce delay ends.
+	 */
+	public void flushPendingChanges() {
+		for (PendingCheck check : pendingChecks.values()) {
+			synchronized (check) {
+				applyFileSpec(check);
+			}
+		}
+	}
+
+	/**
+	 * Stops checking the specified file for problems, after passing any
+	 * pending change to <code>workspace.fileChanged()</code>.
+	 */
+	public void remove(String path) {
+		PendingCheck check = pendingChecks.get(path);
+		if (check == null) {
+			return;
+		}
+		synchronized (check) {
+			applyFileSpec(check);
+			removeCheck(check);
+		}
+	}
+
+	/**
+	 * Stops checking all files for problems, after passing any pending changes
+	 * to <code>workspace.fileChanged()</code>.
+	 */
+	public void clear() {
+		for (PendingCheck check : pendingChecks.values()) {
+			synchronized (check) {
+				applyFileSpec(check);
+				removeCheck(check);
+			}
+		}
+	}
+
+	public void dispose() {
+		clear();
+		debounceExecutor.shutdownNow();
+		checkExecutor.shutdownNow();
+	}
+
+	private void applyFileSpec(PendingCheck check) {
+		if (check.fileSpecApplied) {
+			return;
+		}
+		check.fileSpecApplied = true;
+		workspace.fileChanged(check.fileSpec);
+	}
+
+	private void removeCheck(PendingCheck check) {
+		check.removed = true;
+		check.generation++;
+		if (check.debounce != null) {
+			check.debounce.cancel(false);
+			check.debounce = null;
+		}
+		pendingChecks.remove(check.path, check);
+	}
+
+	private boolean isStale(PendingCheck check, long generation) {
+		synchronized (check) {
+			return check.generation != generation;
+		}
+	}
+
+	private void debounceComplete(PendingCheck check) {
+		synchronized (check) {
+			check.debounce = null;
+			if (check.removed) {
+				return;
+			}
+			applyFileSpec(check);
+			if (check.queued) {
+				// the file is already waiting to be checked, and the check
+				// will use the latest generation when it starts
+				return;
+			}
+			check.queued = true;
+		}
+		checkExecutor.submit(() -> checkForProblems(check));
+	}
+
+	private void checkForProblems(PendingCheck check) {
+		long generation;
+		ICompilationUnit compilationUnit;
+		ActionScriptProjectData projectData;
+		synchronized (check) {
+			check.queued = false;
+			if (check.removed) {
+				return;
+			}
+			generation = check.generation;
+			compilationUnit = check.compilationUnit;
+			projectData = check.projectData;
+		}
+		if (compilationUnit.getProject() == null) {
+			// this compilation unit is no longer valid
+			synchronized (check) {
+				if (check.generation == generation) {
+					removeCheck(check);
+				}
+			}
+			return;
+		}
+
+		ArrayList<Diagnostic> diagnostics = new ArrayList<>();
+		ArrayList<ICompilerProblem> problems = new ArrayList<>();
+		try {
+			// each request is handled by the compiler's threads, and we wait
+			// for them to finish instead of polling. if the file changes again
+			// in the meantime, skip the rest because another check will follow.
+			IRequest<ISyntaxTreeRequestResult, ICompilationUnit> syntaxTreeRequest = compilationUnit
+					.getSyntaxTreeRequest();
+			IRequest<IFileScopeRequestResult, ICompilationUnit> fileScopeRequest = compilationUnit
+					.getFileScopeRequest();
+			IRequest<IOutgoingDependenciesRequestResult, ICompilationUnit> outgoingDepsRequest = compilationUnit
+					.getOutgoingDependenciesRequest();
+			IRequest<IABCBytesRequestResult, ICompilationUnit> abcBytesRequest = compilationUnit
+					.getABCBytesRequest();
+
+			ISyntaxTreeRequestResult syntaxTreeResult = syntaxTreeRequest.get();
+			if (isStale(check, generation)) {
+				return;
+			}
+			Collections.addAll(problems, syntaxTreeResult.getProblems());
+			Collections.addAll(problems, fileScopeRequest.get().getProblems());
+			if (isStale(check, generation)) {
+				return;
+			}
+			Collections.addAll(problems, outgoingDepsRequest.get().getProblems());
+			ICompilerProblem[] probs = abcBytesRequest.get().getProblems();
+			if (isStale(check, generation)) {
+				return;
+			}
+			for (ICompilerProblem prob : probs) {
+				if (!(prob instanceof InternalCompilerProblem2)) {
+					problems.add(prob);
+				}
+			}
+
+			IASNode ast = syntaxTreeResult.getAST();
+			if (ast != null) {
+				ILspProject project = projectData.project;
+				String qualifiedName = CompilationUnitUtils.getPrimaryQualifiedName(compilationUnit);
+				Set<String> requiredImports = project.getQNamesOfDependencies(compilationUnit);
+				ASTUtils.findUnusedImportProblems(ast, qualifiedName, requiredImports, problems);
+				ASTUtils.findDisabledConfigConditionBlockProblems(ast, problems);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (Exception e) {
+			System.err.println("Exception in compiler while checking for problems: " + e);
+			e.printStackTrace(System.err);
+
+			Diagnostic diagnostic = LSPUtils.createDiagnosticWithoutRange();
+			diagnostic.setSeverity(DiagnosticSeverity.Error);
+			diagnostic.setMessage("A fatal error occurred while checking a file for problems: "
+					+ compilationUnit.getAbsoluteFilename());
+			diagnostics.add(diagnostic);
+		}
+
+		ProblemQuery problemQuery = new ProblemQuery(projectData.configurator.getCompilerProblemSettings());
+		problemQuery.addAll(problems);
+		for (ICompilerProblem problem : problemQuery.getFilteredProblems()) {
+			if (compilerProblemFilter != null && !compilerProblemFilter.isAllowed(problem)) {
+				continue;
+			}
+			Diagnostic diagnostic = LanguageServerCompilerUtils.getDiagnosticFromCompilerProblem(problem);
+			diagnostics.add(diagnostic);
+		}
+
+		synchronized (check) {
+			if (check.generation != generation) {
+				// a newer check will publish the latest problems
+				return;
+			}
+			removeCheck(check);
+		}
+
+		URI uri = Paths.get(compilationUnit.getAbsoluteFilename()).toUri();
+		PublishDiagnosticsParams publish = new PublishDiagnosticsParams();
+		publish.setDiagnostics(diagnostics);
+		publish.setUri(uri.toString());
+		if (diagnosticsPublisher != null) {
+			diagnosticsPublisher.publish(publish);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import org.eclipse.lsp4j.ProgressParams;
+import org.eclipse.lsp4j.WorkDoneProgressBegin;
+import org.eclipse.lsp4j.WorkDoneProgressEnd;
+import org.eclipse.lsp4j.WorkDoneProgressNotification;
+import org.eclipse.lsp4j.WorkDoneProgressReport;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.LanguageClient;
+
+/**
+ * Sends work done progress and partial results for a request that works
+ * through many files, using the tokens provided by the client with the
+ * request. If the client didn't provide a token, the notifications are not
+ * sent.
+ */
+public class SearchProgressReporter {
+    private LanguageClient languageClient;
+    private Either<String, Integer> workDoneToken;
+    private Either<String, Integer> partialResultToken;
+    private int lastPercentage = -1;
+
+    public SearchProgressReporter(LanguageClient languageClient, Either<String, Integer> workDoneToken,
+            Either<String, Integer> partialResultToken) {
+        this.languageClient = languageClient;
+        this.workDoneToken = workDoneToken;
+        this.partialResultToken = partialResultToken;
+    }
+
+    /**
+     * Returns true if results may be sent with <code>partialResult()</code>.
+     * In that case, the response to the request should not repeat them.
+     */
+    public boolean canSendPartialResults() {
+        return languageClient != null && partialResultToken != null;
+    }
+
+    public void begin(String title) {
+        if (languageClient == null || workDoneToken == null) {
+            return;
+        }
+        WorkDoneProgressBegin begin = new WorkDoneProgressBegin();
+        begin.setTitle(title);
+        begin.setCancellable(false);
+        begin.setPercentage(0);
+        lastPercentage = 0;
+        sendWorkDone(begin);
+    }
+
+    public void report(int completedCount, int totalCount) {
+        if (languageClient == null || workDoneToken == null || totalCount == 0) {
+            return;
+        }
+        int percentage = (int) ((100L * completedCount) / totalCount);
+        if (percentage == lastPercentage) {
+            // don't flood the client with notifications
+            return;
+        }
+        lastPercentage = percentage;
+        WorkDoneProgressReport report = new WorkDoneProgressReport();
+        report.setPercentage(percentage);
+        report.setMessage(completedCount + "/" + totalCount + " files");
+        sendWorkDone(report);
+    }
+
+    public void end() {
+        if (languageClient == null || workDoneToken == null) {
+            return;
+        }
+        sendWorkDone(new WorkDoneProgressEnd());
+    }
+
+    public void partialResult(Object value) {
+        if (!canSendPartialResults()) {
+            return;
+        }
+        languageClient.notifyProgress(new ProgressParams(partialResultToken, Either.forRight(value)));
+    }
+
+    private void sendWorkDone(WorkDoneProgressNotification notification) {
+        languageClient.notifyProgress(new ProgressParams(workDoneToken, Either.forLeft(notification)));
+    }
+}
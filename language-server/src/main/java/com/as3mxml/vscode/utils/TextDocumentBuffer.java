@@ -0,0 +1,249 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.Arrays;
+
+/**
+ * Stores the text of an open document in a gap buffer, along with the offset
+ * where each line starts. Incremental edits only move the text between the
+ * previous edit and the current one, and converting a line and character to
+ * an offset doesn't require scanning the text.
+ *
+ * The full text is materialized as a String only when requested, and the same
+ * String is returned until the next edit.
+ */
+public class TextDocumentBuffer {
+    private static final int MIN_GAP_SIZE = 256;
+
+    private char[] buffer;
+    private int gapStart;
+    private int gapEnd;
+
+    // lineStarts[0] is always 0. only '\n' starts a new line, to match
+    // LanguageServerCompilerUtils.getOffsetFromPosition()
+    private int[] lineStarts;
+    private int lineCount;
+
+    private String snapshot;
+    private int version = 0;
+
+    public TextDocumentBuffer(String text) {
+        setText(text);
+    }
+
+    public synchronized void setText(String text) {
+        if (text == null) {
+            text = "";
+        }
+        int length = text.length();
+        buffer = new char[length + MIN_GAP_SIZE];
+        text.getChars(0, length, buffer, 0);
+        gapStart = length;
+        gapEnd = buffer.length;
+        lineStarts = new int[16];
+        lineStarts[0] = 0;
+        lineCount = 1;
+        insertLineStarts(1, text, 0);
+        snapshot = text;
+        version++;
+    }
+
+    /**
+     * Incremented every time that the text changes.
+     */
+    public synchronized int getVersion() {
+        return version;
+    }
+
+    public synchronized int length() {
+        return buffer.length - (gapEnd - gapStart);
+    }
+
+    public synchronized int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Converts a zero-based line and character to an offset. A line past the
+     * end of the document resolves to the end of the document, and a
+     * character past the end of a line continues onto the following lines.
+     */
+    public synchronized int getOffset(int line, int character) {
+        int length = length();
+        if (line < 0) {
+            return 0;
+        }
+        if (line >= lineCount) {
+            return length;
+        }
+        int offset = lineStarts[line] + Math.max(0, character);
+        if (offset > length) {
+            return length;
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the zero-based line that contains the specified offset.
+     */
+    public synchronized int getLine(int offset) {
+        int length = length();
+        if (offset > length) {
+            offset = length;
+        }
+        int index = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        if (index >= 0) {
+            return index;
+        }
+        return Math.max(0, -index - 2);
+    }
+
+    /**
+     * Returns the zero-based character on its line of the specified offset.
+     */
+    public synchronized int getCharacter(int offset) {
+        if (offset < 0) {
+            return 0;
+        }
+        int length = length();
+        if (offset > length) {
+            offset = length;
+        }
+        return offset - lineStarts[getLine(offset)];
+    }
+
+    /**
+     * Replaces the text between <code>start</code> (inclusive) and
+     * <code>end</code> (exclusive) with new text.
+     */
+    public synchronized void replace(int start, int end, String text) {
+        int length = length();
+        if (start < 0) {
+            start = 0;
+        }
+        if (start > length) {
+            start = length;
+        }
+        if (end > length) {
+            end = length;
+        }
+        if (end < start) {
+            end = start;
+        }
+        if (text == null) {
+            text = "";
+        }
+        moveGap(start);
+        // deleting is simply a matter of expanding the gap
+        gapEnd += end - start;
+        int insertLength = text.length();
+        ensureGap(insertLength);
+        text.getChars(0, insertLength, buffer, gapStart);
+        gapStart += insertLength;
+
+        updateLineStarts(start, end, text);
+        snapshot = null;
+        version++;
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (snapshot == null) {
+            StringBuilder builder = new StringBuilder(length());
+            builder.append(buffer, 0, gapStart);
+            builder.append(buffer, gapEnd, buffer.length - gapEnd);
+            snapshot = builder.toString();
+        }
+        return snapshot;
+    }
+
+    private void moveGap(int position) {
+        if (position < gapStart) {
+            int count = gapStart - position;
+            System.arraycopy(buffer, position, buffer, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+        } else if (position > gapStart) {
+            int count = position - gapStart;
+            System.arraycopy(buffer, gapEnd, buffer, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+        }
+    }
+
+    private void ensureGap(int required) {
+        int gapSize = gapEnd - gapStart;
+        if (gapSize >= required) {
+            return;
+        }
+        int textLength = buffer.length - gapSize;
+        int newGapSize = Math.max(MIN_GAP_SIZE, Math.max(required, textLength / 8));
+        char[] newBuffer = new char[textLength + newGapSize];
+        System.arraycopy(buffer, 0, newBuffer, 0, gapStart);
+        int afterGap = buffer.length - gapEnd;
+        int newGapEnd = newBuffer.length - afterGap;
+        System.arraycopy(buffer, gapEnd, newBuffer, newGapEnd, afterGap);
+        buffer = newBuffer;
+        gapEnd = newGapEnd;
+    }
+
+    private void updateLineStarts(int start, int end, String text) {
+        // lines that start inside the replaced range no longer exist
+        int firstRemoved = getLine(start) + 1;
+        int lastRemoved = firstRemoved;
+        while (lastRemoved < lineCount && lineStarts[lastRemoved] <= end) {
+            lastRemoved++;
+        }
+        int removedCount = lastRemoved - firstRemoved;
+        if (removedCount > 0) {
+            System.arraycopy(lineStarts, lastRemoved, lineStarts, firstRemoved, lineCount - lastRemoved);
+            lineCount -= removedCount;
+        }
+        // shift the lines after the replaced range
+        int delta = text.length() - (end - start);
+        if (delta != 0) {
+            for (int i = firstRemoved; i < lineCount; i++) {
+                lineStarts[i] += delta;
+            }
+        }
+        insertLineStarts(firstRemoved, text, start);
+    }
+
+    private void insertLineStarts(int index, String text, int textOffset) {
+        int insertCount = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                insertCount++;
+            }
+        }
+        if (insertCount == 0) {
+            return;
+        }
+        if (lineCount + insertCount > lineStarts.length) {
+            int newSize = Math.max(lineStarts.length * 2, lineCount + insertCount);
+            lineStarts = Arrays.copyOf(lineStarts, newSize);
+        }
+        System.arraycopy(lineStarts, index, lineStarts, index + insertCount, lineCount - index);
+        lineCount += insertCount;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lineStarts[index] = textOffset + i + 1;
+                index++;
+            }
+        }
+    }
+}
@@ -0,0 +1,457 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * An index of the symbols in SWC files and source files that may be searched
+ * without resolving any definitions. Each file has its own record, which is
+ * replaced when the file changes. Records may be saved to disk and loaded
+ * again in the next session, and a loaded record is considered valid as long
+ * as the file's size and modification time have not changed.
+ *
+ * Once a record has been checked against the file system, it is considered
+ * up-to-date until <code>fileChanged()</code> is called for its path.
+ *
+ * Each record keeps its lower-case qualified names sorted by every suffix, so
+ * the first part of a query is found by binary search, whether it starts at a
+ * package segment, at a camel-case hump, or anywhere else in the name.
+ */
+public class WorkspaceSymbolIndex {
+    private static final int FILE_FORMAT_VERSION = 1;
+    private static final String CACHE_FILE_NAME = "workspace-symbols.bin";
+
+    private Map<String, SymbolRecord> records = new ConcurrentHashMap<>();
+    private Set<String> verifiedPaths = ConcurrentHashMap.newKeySet();
+    private Map<Object, ProjectFiles> projectFiles = Collections.synchronizedMap(new WeakHashMap<>());
+    private Path cacheDirectory;
+    private boolean loaded = false;
+    private volatile boolean needsSave = false;
+
+    public static class SymbolEntry {
+        public String name;
+        public String qualifiedName;
+        public int kind;
+        public String containerName;
+        public String uri;
+        public int startLine = -1;
+        public int startCharacter = -1;
+        public int endLine = -1;
+        public int endCharacter = -1;
+        public boolean packageLevel;
+        public boolean deprecated;
+
+        private String lowerCaseQualifiedName;
+
+        public boolean hasRange() {
+            return startLine != -1 && startCharacter != -1 && endLine != -1 && endCharacter != -1;
+        }
+    }
+
+    /**
+     * All of the symbols for a single SWC or source file.
+     */
+    public static class SymbolRecord {
+        public final String path;
+        public final long lastModified;
+        public final long fileSize;
+        public final long modificationStamp;
+        public final boolean persistent;
+        public final List<SymbolEntry> entries;
+
+        private int[] suffixEntries;
+        private int[] suffixOffsets;
+
+        public SymbolRecord(String path, long lastModified, long fileSize, long modificationStamp,
+                boolean persistent, List<SymbolEntry> entries) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.fileSize = fileSize;
+            this.modificationStamp = modificationStamp;
+            this.persistent = persistent;
+            this.entries = entries;
+            buildSuffixes();
+        }
+
+        public boolean isValid(long lastModified, long fileSize, long modificationStamp) {
+            return this.lastModified == lastModified && this.fileSize == fileSize
+                    && this.modificationStamp == modificationStamp;
+        }
+
+        private void buildSuffixes() {
+            int suffixCount = 0;
+            for (SymbolEntry entry : entries) {
+                entry.lowerCaseQualifiedName = entry.qualifiedName.toLowerCase();
+                suffixCount += entry.lowerCaseQualifiedName.length();
+            }
+            // each suffix is the index of its entry in the upper 32 bits and
+            // its offset in the lower 32 bits
+            Long[] order = new Long[suffixCount];
+            int index = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                int length = entries.get(i).lowerCaseQualifiedName.length();
+                for (int j = 0; j < length; j++) {
+                    order[index] = ((long) i << 32) | j;
+                    index++;
+                }
+            }
+            Arrays.sort(order, (a, b) -> compareSuffix((int) (a >>> 32), (int) a.longValue(),
+                    entries.get((int) (b >>> 32)).lowerCaseQualifiedName, (int) b.longValue()));
+            suffixEntries = new int[suffixCount];
+            suffixOffsets = new int[suffixCount];
+            for (int i = 0; i < suffixCount; i++) {
+                long value = order[i];
+                suffixEntries[i] = (int) (value >>> 32);
+                suffixOffsets[i] = (int) value;
+            }
+        }
+
+        /**
+         * Compares the suffix of an entry's lower-case qualified name to the
+         * suffix of another string, without creating any substrings.
+         */
+        private int compareSuffix(int entryIndex, int offset, String other, int otherOffset) {
+            String name = entries.get(entryIndex).lowerCaseQualifiedName;
+            int length = Math.min(name.length() - offset, other.length() - otherOffset);
+            for (int i = 0; i < length; i++) {
+                int result = name.charAt(offset + i) - other.charAt(otherOffset + i);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return (name.length() - offset) - (other.length() - otherOffset);
+        }
+
+        /**
+         * Passes each entry that matches the queries returned by
+         * <code>parseQuery()</code> to the consumer. Each entry is passed at
+         * most once.
+         */
+        public void findEntries(List<String> queries, Consumer<SymbolEntry> consumer) {
+            if (queries.isEmpty()) {
+                entries.forEach(consumer);
+                return;
+            }
+            String prefix = queries.get(0);
+            // find the first suffix that is not less than the prefix
+            int low = 0;
+            int high = suffixEntries.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compareSuffix(suffixEntries[middle], suffixOffsets[middle], prefix, 0) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            BitSet found = null;
+            for (int i = low; i < suffixEntries.length; i++) {
+                int entryIndex = suffixEntries[i];
+                SymbolEntry entry = entries.get(entryIndex);
+                if (!entry.lowerCaseQualifiedName.startsWith(prefix, suffixOffsets[i])) {
+                    break;
+                }
+                if (found == null) {
+                    found = new BitSet(entries.size());
+                }
+                if (found.get(entryIndex)) {
+                    continue;
+                }
+                found.set(entryIndex);
+                if (matchesQueries(queries, entry.lowerCaseQualifiedName)) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * The SWC and source files of a project, as of the last time that its
+     * compilation units were added or removed.
+     */
+    public static class ProjectFiles {
+        public final long compilationUnitsStamp;
+        public final Set<String> sourcePaths;
+        public final Set<String> swcPaths;
+
+        public ProjectFiles(long compilationUnitsStamp, Set<String> sourcePaths, Set<String> swcPaths) {
+            this.compilationUnitsStamp = compilationUnitsStamp;
+            this.sourcePaths = sourcePaths;
+            this.swcPaths = swcPaths;
+        }
+    }
+
+    /**
+     * Splits a query into lower-case parts at each upper-case letter. For
+     * example, <code>TeFi</code> becomes <code>te</code> and <code>fi</code>.
+     */
+    public static List<String> parseQuery(String query) {
+        List<String> queries = new ArrayList<>();
+        StringBuilder currentQuery = new StringBuilder();
+        for (int i = 0, length = query.length(); i < length; i++) {
+            String charAtI = query.substring(i, i + 1);
+            if (i > 0 && charAtI.toUpperCase().equals(charAtI)) {
+                queries.add(currentQuery.toString().toLowerCase());
+                currentQuery = new StringBuilder();
+            }
+            currentQuery.append(charAtI);
+        }
+        if (currentQuery.length() > 0) {
+            queries.add(currentQuery.toString().toLowerCase());
+        }
+        return queries;
+    }
+
+    /**
+     * Checks if every part of a query appears in the lower-case target, in
+     * order. Each part may appear anywhere after the previous one, so both
+     * substrings and camel-case humps match.
+     */
+    public static boolean matchesQueries(List<String> queries, String lowerCaseTarget) {
+        int fromIndex = 0;
+        for (String query : queries) {
+            int index = lowerCaseTarget.indexOf(query, fromIndex);
+            if (index == -1) {
+                return false;
+            }
+            fromIndex = index + query.length();
+        }
+        return true;
+    }
+
+    public SymbolRecord getRecord(String path) {
+        return records.get(path);
+    }
+
+    public void putRecord(SymbolRecord record) {
+        records.put(record.path, record);
+        if (record.persistent) {
+            needsSave = true;
+        }
+    }
+
+    public void removeRecord(String path) {
+        verifiedPaths.remove(path);
+        if (records.remove(path) != null) {
+            needsSave = true;
+        }
+    }
+
+    /**
+     * Indicates if the record for a path has been checked since the last time
+     * that the file changed.
+     */
+    public boolean isVerified(String path) {
+        return verifiedPaths.contains(path);
+    }
+
+    /**
+     * Marks the record for a path as up-to-date. Should be called before the
+     * record is checked against the file system, so that a change made while
+     * the record is being updated isn't missed.
+     */
+    public void markVerified(String path) {
+        verifiedPaths.add(path);
+    }
+
+    /**
+     * Should be called when a file is opened, edited, closed, or changed on
+     * the file system. Its record will be checked again the next time that
+     * the index is queried.
+     */
+    public void fileChanged(String path) {
+        verifiedPaths.remove(path);
+    }
+
+    public ProjectFiles getProjectFiles(Object project) {
+        return projectFiles.get(project);
+    }
+
+    public void putProjectFiles(Object project, ProjectFiles files) {
+        projectFiles.put(project, files);
+    }
+
+    /**
+     * Passes each entry in the specified records that matches the queries
+     * returned by <code>parseQuery()</code> to the consumer.
+     */
+    public void findEntries(Collection<String> paths, List<String> queries, Consumer<SymbolEntry> consumer) {
+        for (String path : paths) {
+            SymbolRecord record = records.get(path);
+            if (record == null) {
+                continue;
+            }
+            record.findEntries(queries, consumer);
+        }
+    }
+
+    public Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * The directory where the index is saved between sessions. If null, the
+     * index is kept in memory only.
+     */
+    public void setCacheDirectory(Path value) {
+        cacheDirectory = value;
+        loaded = false;
+    }
+
+    public boolean needsSave() {
+        return needsSave;
+    }
+
+    /**
+     * Loads the records saved by a previous session, if they have not been
+     * loaded already. Records that were already created in this session are
+     * not replaced.
+     */
+    public synchronized void load() {
+        if (loaded || cacheDirectory == null) {
+            return;
+        }
+        loaded = true;
+        File cacheFile = cacheDirectory.resolve(CACHE_FILE_NAME).toFile();
+        if (!cacheFile.isFile()) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (input.readInt() != FILE_FORMAT_VERSION) {
+                return;
+            }
+            int recordCount = input.readInt();
+            for (int i = 0; i < recordCount; i++) {
+                SymbolRecord record = readRecord(input);
+                records.putIfAbsent(record.path, record);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to load workspace symbol index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves every persistent record for a file that still exists.
+     */
+    public synchronized void save() {
+        if (cacheDirectory == null || !needsSave) {
+            return;
+        }
+        needsSave = false;
+        List<SymbolRecord> recordsToSave = new ArrayList<>();
+        for (SymbolRecord record : records.values()) {
+            if (record.persistent && new File(record.path).exists()) {
+                recordsToSave.add(record);
+            }
+        }
+        try {
+            Files.createDirectories(cacheDirectory);
+            Path tempFile = Files.createTempFile(cacheDirectory, CACHE_FILE_NAME, null);
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile.toFile())))) {
+                output.writeInt(FILE_FORMAT_VERSION);
+                output.writeInt(recordsToSave.size());
+                for (SymbolRecord record : recordsToSave) {
+                    writeRecord(record, output);
+                }
+            }
+            // multiple language servers may share the same cache directory,
+            // so replace the old file in one step
+            Path cacheFile = cacheDirectory.resolve(CACHE_FILE_NAME);
+            try {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to save workspace symbol index: " + e.getMessage());
+        }
+    }
+
+    private static void writeRecord(SymbolRecord record, DataOutputStream output) throws IOException {
+        output.writeUTF(record.path);
+        output.writeLong(record.lastModified);
+        output.writeLong(record.fileSize);
+        output.writeInt(record.entries.size());
+        for (SymbolEntry entry : record.entries) {
+            output.writeUTF(entry.name);
+            output.writeUTF(entry.qualifiedName);
+            output.writeInt(entry.kind);
+            output.writeBoolean(entry.containerName != null);
+            if (entry.containerName != null) {
+                output.writeUTF(entry.containerName);
+            }
+            output.writeUTF(entry.uri);
+            output.writeInt(entry.startLine);
+            output.writeInt(entry.startCharacter);
+            output.writeInt(entry.endLine);
+            output.writeInt(entry.endCharacter);
+            output.writeBoolean(entry.packageLevel);
+            output.writeBoolean(entry.deprecated);
+        }
+    }
+
+    private static SymbolRecord readRecord(DataInputStream input) throws IOException {
+        String path = input.readUTF();
+        long lastModified = input.readLong();
+        long fileSize = input.readLong();
+        int entryCount = input.readInt();
+        List<SymbolEntry> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            SymbolEntry entry = new SymbolEntry();
+            entry.name = input.readUTF();
+            entry.qualifiedName = input.readUTF();
+            entry.kind = input.readInt();
+            if (input.readBoolean()) {
+                entry.containerName = input.readUTF();
+            }
+            entry.uri = input.readUTF();
+            entry.startLine = input.readInt();
+            entry.startCharacter = input.readInt();
+            entry.endLine = input.readInt();
+            entry.endCharacter = input.readInt();
+            entry.packageLevel = input.readBoolean();
+            entry.deprecated = input.readBoolean();
+            entries.add(entry);
+        }
+        // a record loaded from disk was never built from an open file
+        return new SymbolRecord(path, lastModified, fileSize, 0L, true, entries);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.asdoc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PackageDITACacheTests {
+	private Path tempDir;
+	private PackageDITACache cache;
+
+	@BeforeEach
+	void setup() throws IOException {
+		tempDir = Files.createTempDirectory("package-dita-cache");
+		cache = new PackageDITACache(null);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		cache.clear();
+		File[] files = tempDir.toFile().listFiles();
+		if (files != null) {
+			for (File file : files) {
+				Files.delete(file.toPath());
+			}
+		}
+		Files.delete(tempDir);
+	}
+
+	private File writeSWC(String className) throws IOException {
+		File swcFile = tempDir.resolve("library.swc").toFile();
+		String xml = "<apiPackage id=\"com.example\"><apiClassifier id=\"com.example:" + className
+				+ "\"><apiName>" + className + "</apiName></apiClassifier></apiPackage>";
+		try (OutputStream outputStream = Files.newOutputStream(swcFile.toPath());
+				ZipOutputStream zipStream = new ZipOutputStream(outputStream)) {
+			zipStream.putNextEntry(new ZipEntry("docs/com.example.xml"));
+			zipStream.write(xml.getBytes(StandardCharsets.UTF_8));
+			zipStream.closeEntry();
+		}
+		return swcFile;
+	}
+
+	@Test
+	void testUnchangedSWCIsReused() throws IOException {
+		File swcFile = writeSWC("Example");
+		PackageDITACache.PackageDITA dita = cache.get(swcFile, "com.example");
+		Assertions.assertNotNull(dita);
+		Assertions.assertNotNull(dita.getElement("apiClassifier", "com.example:Example"));
+		Assertions.assertNull(dita.getElement("apiValue", "com.example:Example"),
+				"PackageDITA.getElement() must match the element name.");
+		Assertions.assertSame(dita, cache.get(swcFile, "com.example"),
+				"PackageDITACache.get() must not parse an unchanged package again.");
+	}
+
+	@Test
+	void testChangedSWCIsParsedAgain() throws IOException {
+		File swcFile = writeSWC("Example");
+		PackageDITACache.PackageDITA dita = cache.get(swcFile, "com.example");
+		Assertions.assertNotNull(dita);
+		long lastModified = swcFile.lastModified();
+		writeSWC("ChangedExample");
+		swcFile.setLastModified(lastModified + 2000L);
+		PackageDITACache.PackageDITA changedDITA = cache.get(swcFile, "com.example");
+		Assertions.assertNotSame(dita, changedDITA);
+		Assertions.assertNotNull(changedDITA.getElement("apiClassifier", "com.example:ChangedExample"));
+	}
+
+	@Test
+	void testMissingPackage() throws IOException {
+		File swcFile = writeSWC("Example");
+		Assertions.assertNull(cache.get(swcFile, "com.other"));
+		Assertions.assertEquals(1, cache.size(), "PackageDITACache.get() must remember a package without DITA.");
+	}
+
+	@Test
+	void testFallbackDocsFile() throws IOException {
+		File swcFile = writeSWC("Example");
+		File docsFile = tempDir.resolve("flash.display.xml").toFile();
+		Files.write(docsFile.toPath(), "<apiPackage><apiClassifier id=\"flash.display:Sprite\"/></apiPackage>"
+				.getBytes(StandardCharsets.UTF_8));
+		cache = new PackageDITACache((file, packageName) -> docsFile);
+		PackageDITACache.PackageDITA dita = cache.get(swcFile, "flash.display");
+		Assertions.assertNotNull(dita);
+		Assertions.assertNotNull(dita.getElement("apiClassifier", "flash.display:Sprite"));
+	}
+}
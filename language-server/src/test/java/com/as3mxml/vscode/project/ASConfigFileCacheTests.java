@@ -0,0 +1,98 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.project;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ASConfigFileCacheTests {
+	private Path tempDir;
+
+	@BeforeEach
+	void setup() throws IOException {
+		tempDir = Files.createTempDirectory("asconfig-file-cache");
+		ASConfigFileCache.clear();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		ASConfigFileCache.clear();
+		try (Stream<Path> paths = Files.list(tempDir)) {
+			for (Path path : (Iterable<Path>) paths::iterator) {
+				Files.delete(path);
+			}
+		}
+		Files.delete(tempDir);
+	}
+
+	private Path writeFile(String contents) throws IOException {
+		Path path = tempDir.resolve("asconfig.json");
+		Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+		return path;
+	}
+
+	@Test
+	void testUnchangedFileIsReused() throws IOException {
+		Path path = writeFile("{\"config\": \"flex\"}");
+		JsonNode json = ASConfigFileCache.getJson(path);
+		Assertions.assertNotNull(json);
+		Assertions.assertSame(json, ASConfigFileCache.getJson(path),
+				"ASConfigFileCache.getJson() must not parse an unchanged file again.");
+	}
+
+	@Test
+	void testChangedFileIsParsedAgain() throws IOException {
+		Path path = writeFile("{\"config\": \"flex\"}");
+		JsonNode json = ASConfigFileCache.getJson(path);
+		writeFile("{\"config\": \"royale\"}");
+		ASConfigFileCache.invalidate(path);
+		JsonNode newJson = ASConfigFileCache.getJson(path);
+		Assertions.assertNotSame(json, newJson);
+		Assertions.assertEquals("royale", newJson.get("config").asText());
+	}
+
+	@Test
+	void testChangedSizeIsDetected() throws IOException {
+		Path path = writeFile("{\"config\": \"flex\"}");
+		ASConfigFileCache.getJson(path);
+		writeFile("{\"config\": \"royale\" /* size changed */}");
+		Assertions.assertEquals("royale", ASConfigFileCache.getJson(path).get("config").asText());
+	}
+
+	@Test
+	void testInvalidFile() throws IOException {
+		Path path = writeFile("{\"config\": ");
+		Assertions.assertNull(ASConfigFileCache.getJson(path));
+		writeFile("{\"config\": 123}");
+		Assertions.assertNull(ASConfigFileCache.getJson(path),
+				"ASConfigFileCache.getJson() must return null if the file doesn't match the schema.");
+	}
+
+	@Test
+	void testMissingFile() throws IOException {
+		Assertions.assertNull(ASConfigFileCache.getJson(tempDir.resolve("missing.json")));
+	}
+}
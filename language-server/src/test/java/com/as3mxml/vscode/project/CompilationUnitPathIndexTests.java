@@ -0,0 +1,131 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.project;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.royale.compiler.units.ICompilationUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.as3mxml.vscode.utils.ProxyFixtures;
+
+class CompilationUnitPathIndexTests {
+	private static ICompilationUnit createUnit(String absoluteFilename) {
+		return ProxyFixtures.create(ICompilationUnit.class, absoluteFilename, "getAbsoluteFilename",
+				absoluteFilename);
+	}
+
+	@Test
+	void testGetAfterAdd() {
+		Path path = Paths.get("src", "Main.as").toAbsolutePath();
+		ICompilationUnit unit = createUnit(path.toString());
+		CompilationUnitPathIndex index = new CompilationUnitPathIndex();
+		index.add(unit);
+		Assertions.assertSame(unit, index.get(path),
+				"CompilationUnitPathIndex.get() returned incorrect unit.");
+	}
+
+	@Test
+	void testGetWithUnnormalizedPath() {
+		Path path = Paths.get("src", "Main.as").toAbsolutePath();
+		ICompilationUnit unit = createUnit(path.toString());
+		CompilationUnitPathIndex index = new CompilationUnitPathIndex();
+		index.add(unit);
+		Path unnormalizedPath = Paths.get("src", "..", "src", ".", "Main.as");
+		Assertions.assertSame(unit, index.get(unnormalizedPath),
+				"CompilationUnitPathIndex.get() returned incorrect unit for unnormalized path.");
+	}
+
+	@Test
+	void testGetAfterRemove() {
+		Path path = Paths.get("src", "Main.as").toAbsolutePath();
+		ICompilationUnit unit = createUnit(path.toString());
+		CompilationUnitPathIndex index = new CompilationUnitPathIndex();
+		index.add(unit);
+		index.removeAll(Collections.singletonList(unit));
+		Assertions.assertNull(index.get(path), "CompilationUnitPathIndex.get() must return null after remove.");
+		Assertions.assertEquals(0, index.size());
+	}
+
+	@Test
+	void testRemoveDifferentUnitWithSamePath() {
+		Path path = Paths.get("src", "Main.as").toAbsolutePath();
+		ICompilationUnit unit1 = createUnit(path.toString());
+		ICompilationUnit unit2 = createUnit(path.toString());
+		CompilationUnitPathIndex index = new CompilationUnitPathIndex();
+		index.add(unit1);
+		index.remove(unit2);
+		Assertions.assertSame(unit1, index.get(path),
+				"CompilationUnitPathIndex.remove() must not remove a different unit with the same path.");
+	}
+
+	@Test
+	void testAddNullUnit() {
+		CompilationUnitPathIndex index = new CompilationUnitPathIndex();
+		index.add(null);
+		Assertions.assertEquals(0, index.size());
+	}
+
+	@Test
+	void testRemoveFirstUnitWithSamePath() {
+		Path path = Paths.get("src", "Main.as").toAbsolutePath();
+		ICompilationUnit unit1 = createUnit(path.toString());
+		ICompilationUnit unit2 = createUnit(path.toString());
+		CompilationUnitPathIndex index = new CompilationUnitPathIndex();
+		index.add(unit1);
+		index.add(unit2);
+		Assertions.assertSame(unit1, index.get(path));
+		index.remove(unit1);
+		Assertions.assertSame(unit2, index.get(path),
+				"CompilationUnitPathIndex.remove() must return the next unit with the same path.");
+		index.remove(unit2);
+		Assertions.assertNull(index.get(path));
+	}
+
+	@Test
+	void testLookupDoesNotVisitOtherUnits() {
+		// counts calls instead of measuring time, so that the result doesn't
+		// depend on the speed of the machine
+		AtomicInteger visitCount = new AtomicInteger();
+		List<Path> paths = new ArrayList<>();
+		List<ICompilationUnit> units = new ArrayList<>();
+		for (int i = 0; i < 20000; i++) {
+			Path path = Paths.get("src", "com", "example", "package" + (i % 100), "Class" + i + ".as")
+					.toAbsolutePath();
+			String absoluteFilename = path.toString();
+			paths.add(path);
+			units.add(ProxyFixtures.create(ICompilationUnit.class, absoluteFilename, "getAbsoluteFilename",
+					(ProxyFixtures.Answer) args -> {
+						visitCount.incrementAndGet();
+						return absoluteFilename;
+					}));
+		}
+		CompilationUnitPathIndex index = new CompilationUnitPathIndex();
+		index.addAll(units);
+		visitCount.set(0);
+		for (int i = 0; i < paths.size(); i++) {
+			Assertions.assertSame(units.get(i), index.get(paths.get(i)));
+		}
+		Assertions.assertEquals(0, visitCount.get(),
+				"CompilationUnitPathIndex.get() must not scan the units in the project.");
+	}
+}
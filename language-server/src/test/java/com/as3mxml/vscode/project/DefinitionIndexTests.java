@@ -0,0 +1,190 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.royale.compiler.definitions.IDefinition;
+import org.apache.royale.compiler.units.ICompilationUnit;
+import org.apache.royale.compiler.units.requests.IFileScopeRequestResult;
+import org.apache.royale.compiler.units.requests.IRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.as3mxml.vscode.utils.ProxyFixtures;
+
+class DefinitionIndexTests {
+	private static class FakeUnit {
+		public IFileScopeRequestResult fileScopeResult;
+		public ICompilationUnit unit;
+		public Runnable onResolve;
+
+		public FakeUnit(IDefinition... definitions) {
+			setDefinitions(definitions);
+			IRequest<?, ?> request = ProxyFixtures.create(IRequest.class, "request", "get",
+					(ProxyFixtures.Answer) args -> {
+						IFileScopeRequestResult result = fileScopeResult;
+						if (onResolve != null) {
+							onResolve.run();
+						}
+						return result;
+					});
+			unit = ProxyFixtures.create(ICompilationUnit.class, "unit", "getFileScopeRequest", request);
+		}
+
+		// simulates a change to the unit's file, which creates a new file scope
+		public void setDefinitions(IDefinition... definitions) {
+			fileScopeResult = ProxyFixtures.create(IFileScopeRequestResult.class, "fileScope",
+					"getExternallyVisibleDefinitions", Arrays.asList(definitions));
+		}
+	}
+
+	private static IDefinition createDefinition(String qualifiedName) {
+		int index = qualifiedName.lastIndexOf('.');
+		String packageName = index == -1 ? "" : qualifiedName.substring(0, index);
+		String baseName = qualifiedName.substring(index + 1);
+		return ProxyFixtures.create(IDefinition.class, qualifiedName, "getBaseName", baseName, "getQualifiedName",
+				qualifiedName, "getPackageName", packageName);
+	}
+
+	private static List<ICompilationUnit> unitsOf(FakeUnit... fakeUnits) {
+		List<ICompilationUnit> result = new ArrayList<>();
+		for (FakeUnit fakeUnit : fakeUnits) {
+			result.add(fakeUnit.unit);
+		}
+		return result;
+	}
+
+	@Test
+	void testLookups() {
+		IDefinition sprite = createDefinition("flash.display.Sprite");
+		IDefinition shape = createDefinition("flash.display.Shape");
+		IDefinition trace = createDefinition("trace");
+		IDefinition otherSprite = createDefinition("com.example.Sprite");
+		DefinitionIndex index = new DefinitionIndex();
+		index.addUnits(unitsOf(new FakeUnit(sprite, shape), new FakeUnit(trace), new FakeUnit(otherSprite)));
+		Assertions.assertEquals(3, index.size());
+		Assertions.assertEquals(4, index.getDefinitions().size());
+		Assertions.assertEquals(Arrays.asList(sprite, otherSprite), index.getDefinitionsByBaseName("Sprite"));
+		Assertions.assertEquals(Collections.singletonList(shape),
+				index.getDefinitionsByQualifiedName("flash.display.Shape"));
+		Assertions.assertEquals(Arrays.asList(sprite, shape), index.getDefinitionsByPackageName("flash.display"));
+		Assertions.assertEquals(Collections.singletonList(trace), index.getDefinitionsByPackageName(""));
+		Assertions.assertEquals(Collections.emptyList(), index.getDefinitionsByBaseName("MovieClip"));
+	}
+
+	@Test
+	void testChangedUnitIsReplaced() {
+		IDefinition sprite = createDefinition("flash.display.Sprite");
+		IDefinition movieClip = createDefinition("flash.display.MovieClip");
+		FakeUnit fakeUnit = new FakeUnit(sprite);
+		DefinitionIndex index = new DefinitionIndex();
+		index.addUnits(unitsOf(fakeUnit));
+		Assertions.assertEquals(Collections.singletonList(sprite), index.getDefinitionsByBaseName("Sprite"));
+		fakeUnit.setDefinitions(movieClip);
+		index.markDirty(fakeUnit.unit);
+		Assertions.assertEquals(Collections.emptyList(), index.getDefinitionsByBaseName("Sprite"),
+				"DefinitionIndex must remove the old definitions of a dirty unit.");
+		Assertions.assertEquals(Collections.singletonList(movieClip), index.getDefinitionsByBaseName("MovieClip"));
+	}
+
+	@Test
+	void testCleanUnitIsNotUpdated() {
+		IDefinition sprite = createDefinition("flash.display.Sprite");
+		IDefinition movieClip = createDefinition("flash.display.MovieClip");
+		FakeUnit fakeUnit = new FakeUnit(sprite);
+		DefinitionIndex index = new DefinitionIndex();
+		index.addUnits(unitsOf(fakeUnit));
+		Assertions.assertEquals(Collections.singletonList(sprite), index.getDefinitionsByBaseName("Sprite"));
+		fakeUnit.setDefinitions(movieClip);
+		Assertions.assertEquals(Collections.singletonList(sprite), index.getDefinitionsByBaseName("Sprite"),
+				"DefinitionIndex must not check the file scope of a unit that isn't dirty.");
+	}
+
+	@Test
+	void testUnchangedUnitIsReused() {
+		IDefinition sprite = createDefinition("flash.display.Sprite");
+		FakeUnit fakeUnit = new FakeUnit(sprite);
+		DefinitionIndex index = new DefinitionIndex();
+		index.addUnits(unitsOf(fakeUnit));
+		index.getDefinitions();
+		index.markDirty(fakeUnit.unit);
+		Assertions.assertEquals(Collections.singletonList(sprite), index.getDefinitionsByBaseName("Sprite"),
+				"DefinitionIndex must not add the definitions of an unchanged unit again.");
+	}
+
+	@Test
+	void testRemovedUnit() {
+		IDefinition sprite = createDefinition("flash.display.Sprite");
+		IDefinition shape = createDefinition("flash.display.Shape");
+		FakeUnit spriteUnit = new FakeUnit(sprite);
+		FakeUnit shapeUnit = new FakeUnit(shape);
+		DefinitionIndex index = new DefinitionIndex();
+		index.addUnits(unitsOf(spriteUnit, shapeUnit));
+		index.getDefinitions();
+		index.removeUnits(unitsOf(spriteUnit));
+		Assertions.assertEquals(1, index.size());
+		Assertions.assertEquals(Collections.emptyList(), index.getDefinitionsByQualifiedName("flash.display.Sprite"));
+		Assertions.assertEquals(Collections.singletonList(shape), index.getDefinitionsByPackageName("flash.display"));
+	}
+
+	@Test
+	void testFileScopeIsResolvedWithoutLock() throws InterruptedException {
+		IDefinition sprite = createDefinition("flash.display.Sprite");
+		FakeUnit fakeUnit = new FakeUnit(sprite);
+		DefinitionIndex index = new DefinitionIndex();
+		index.addUnits(unitsOf(fakeUnit));
+		CountDownLatch otherThreadDone = new CountDownLatch(1);
+		fakeUnit.onResolve = () -> {
+			Thread otherThread = new Thread(() -> {
+				index.size();
+				otherThreadDone.countDown();
+			});
+			otherThread.start();
+			try {
+				otherThreadDone.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		Assertions.assertEquals(Collections.singletonList(sprite), index.getDefinitionsByBaseName("Sprite"));
+		Assertions.assertEquals(0, otherThreadDone.getCount(),
+				"DefinitionIndex must not hold its lock while resolving a file scope.");
+	}
+
+	@Test
+	void testUnitMarkedDirtyWhileResolving() {
+		IDefinition sprite = createDefinition("flash.display.Sprite");
+		IDefinition movieClip = createDefinition("flash.display.MovieClip");
+		FakeUnit fakeUnit = new FakeUnit(sprite);
+		DefinitionIndex index = new DefinitionIndex();
+		index.addUnits(unitsOf(fakeUnit));
+		fakeUnit.onResolve = () -> {
+			fakeUnit.onResolve = null;
+			fakeUnit.setDefinitions(movieClip);
+			index.markDirty(fakeUnit.unit);
+		};
+		index.getDefinitions();
+		Assertions.assertEquals(Collections.emptyList(), index.getDefinitionsByBaseName("Sprite"),
+				"DefinitionIndex must resolve a unit again if it was marked dirty while resolving.");
+		Assertions.assertEquals(Collections.singletonList(movieClip), index.getDefinitionsByBaseName("MovieClip"));
+	}
+}
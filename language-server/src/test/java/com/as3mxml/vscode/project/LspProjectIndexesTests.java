@@ -0,0 +1,106 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.project;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.royale.compiler.definitions.IClassDefinition;
+import org.apache.royale.compiler.definitions.IDefinition;
+import org.apache.royale.compiler.definitions.IInterfaceDefinition;
+import org.apache.royale.compiler.units.ICompilationUnit;
+import org.apache.royale.compiler.units.requests.IFileScopeRequestResult;
+import org.apache.royale.compiler.units.requests.IRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.as3mxml.vscode.utils.ProxyFixtures;
+
+class LspProjectIndexesTests {
+	private static IClassDefinition createClass(String qualifiedName, IClassDefinition baseClass,
+			IInterfaceDefinition... interfaces) {
+		return ProxyFixtures.create(IClassDefinition.class, qualifiedName, "getQualifiedName", qualifiedName,
+				"getBaseName", qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1), "resolveBaseClass",
+				baseClass, "resolveImplementedInterfaces", interfaces);
+	}
+
+	private static ICompilationUnit createUnit(String absoluteFilename, IDefinition definition) {
+		IFileScopeRequestResult fileScopeResult = ProxyFixtures.create(IFileScopeRequestResult.class, "fileScope",
+				"getExternallyVisibleDefinitions", Collections.singletonList(definition));
+		IRequest<?, ?> request = ProxyFixtures.create(IRequest.class, "request", "get", fileScopeResult);
+		return ProxyFixtures.create(ICompilationUnit.class, absoluteFilename, "getFileScopeRequest", request,
+				"getAbsoluteFilename", absoluteFilename);
+	}
+
+	@Test
+	void testSyncUnitsAddsUnitsFromSWC() {
+		IClassDefinition objectClass = createClass("Object", null);
+		IClassDefinition swcClass = createClass("com.example.SWCClass", objectClass);
+		IClassDefinition sourceClass = createClass("com.example.SourceClass", swcClass);
+		Path swcPath = Paths.get("libs", "example.swc").toAbsolutePath();
+		ICompilationUnit objectUnit = createUnit(swcPath.toString(), objectClass);
+		ICompilationUnit swcUnit = createUnit(swcPath.toString(), swcClass);
+		ICompilationUnit sourceUnit = createUnit(Paths.get("src", "SourceClass.as").toAbsolutePath().toString(),
+				sourceClass);
+		LspProjectIndexes indexes = new LspProjectIndexes(null);
+		indexes.addUnits(Collections.singletonList(sourceUnit));
+		long stamp = indexes.getCompilationUnitsStamp();
+		indexes.syncUnits(Arrays.asList(objectUnit, swcUnit, sourceUnit));
+		Assertions.assertNotEquals(stamp, indexes.getCompilationUnitsStamp(),
+				"LspProjectIndexes.syncUnits() must change the stamp when units are added.");
+		Assertions.assertEquals(Collections.singletonList(swcClass),
+				indexes.getDefinitionIndex().getDefinitionsByQualifiedName("com.example.SWCClass"));
+		Assertions.assertEquals(Collections.singletonList(sourceClass),
+				indexes.getTypeHierarchyIndex().getSubclasses("com.example.SWCClass", false),
+				"LspProjectIndexes.syncUnits() must add the units of SWC libraries to every index.");
+		Assertions.assertEquals(3, indexes.getTypeHierarchyIndex().size());
+		Assertions.assertSame(objectUnit, indexes.getCompilationUnitForPath(swcPath));
+	}
+
+	@Test
+	void testSyncUnitsRemovesUnits() {
+		IClassDefinition objectClass = createClass("Object", null);
+		IClassDefinition a = createClass("com.example.A", objectClass);
+		ICompilationUnit objectUnit = createUnit(Paths.get("src", "Object.as").toAbsolutePath().toString(),
+				objectClass);
+		Path pathA = Paths.get("src", "A.as").toAbsolutePath();
+		ICompilationUnit unitA = createUnit(pathA.toString(), a);
+		LspProjectIndexes indexes = new LspProjectIndexes(null);
+		indexes.addUnits(Arrays.asList(objectUnit, unitA));
+		indexes.syncUnits(Collections.singletonList(objectUnit));
+		Assertions.assertNull(indexes.getCompilationUnitForPath(pathA));
+		Assertions.assertEquals(1, indexes.getDefinitionIndex().size());
+		Assertions.assertEquals(Collections.emptyList(), indexes.getTypeHierarchyIndex().getSubclasses("Object", false),
+				"LspProjectIndexes.syncUnits() must remove units that are no longer in the project.");
+	}
+
+	@Test
+	void testSyncUnitsWithoutChanges() {
+		Path path = Paths.get("src", "Object.as").toAbsolutePath();
+		List<ICompilationUnit> units = Collections.singletonList(createUnit(path.toString(),
+				createClass("Object", null)));
+		LspProjectIndexes indexes = new LspProjectIndexes(null);
+		indexes.addUnits(units);
+		long stamp = indexes.getCompilationUnitsStamp();
+		indexes.syncUnits(units);
+		Assertions.assertEquals(stamp, indexes.getCompilationUnitsStamp(),
+				"LspProjectIndexes.syncUnits() must not change the stamp when the units haven't changed.");
+		Assertions.assertSame(units.get(0), indexes.getCompilationUnitForPath(path));
+	}
+}
@@ -0,0 +1,240 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.royale.compiler.definitions.IClassDefinition;
+import org.apache.royale.compiler.definitions.IDefinition;
+import org.apache.royale.compiler.definitions.IInterfaceDefinition;
+import org.apache.royale.compiler.units.ICompilationUnit;
+import org.apache.royale.compiler.units.requests.IFileScopeRequestResult;
+import org.apache.royale.compiler.units.requests.IRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.as3mxml.vscode.utils.ProxyFixtures;
+
+class TypeHierarchyIndexTests {
+	private static IClassDefinition createClass(String qualifiedName, IClassDefinition baseClass,
+			IInterfaceDefinition... interfaces) {
+		return ProxyFixtures.create(IClassDefinition.class, qualifiedName, "getQualifiedName", qualifiedName,
+				"resolveBaseClass", baseClass, "resolveImplementedInterfaces", interfaces);
+	}
+
+	private static IInterfaceDefinition createInterface(String qualifiedName, IInterfaceDefinition... interfaces) {
+		return ProxyFixtures.create(IInterfaceDefinition.class, qualifiedName, "getQualifiedName", qualifiedName,
+				"resolveExtendedInterfaces", interfaces);
+	}
+
+	private static IFileScopeRequestResult createFileScope(IDefinition definition) {
+		return ProxyFixtures.create(IFileScopeRequestResult.class, "fileScope", "getExternallyVisibleDefinitions",
+				Collections.singletonList(definition));
+	}
+
+	// the unit returns the file scope in the array, which may be replaced to
+	// simulate a change to the unit's file
+	private static ICompilationUnit createUnit(IFileScopeRequestResult[] fileScopeResult) {
+		IRequest<?, ?> request = ProxyFixtures.create(IRequest.class, "request", "get",
+				(ProxyFixtures.Answer) args -> fileScopeResult[0]);
+		return ProxyFixtures.create(ICompilationUnit.class, "unit", "getFileScopeRequest", request);
+	}
+
+	// like createUnit(), but the callback runs while the file scope is being
+	// resolved, until it is cleared
+	private static ICompilationUnit createUnit(IFileScopeRequestResult[] fileScopeResult, Runnable[] onResolve) {
+		IRequest<?, ?> request = ProxyFixtures.create(IRequest.class, "request", "get",
+				(ProxyFixtures.Answer) args -> {
+					IFileScopeRequestResult result = fileScopeResult[0];
+					if (onResolve[0] != null) {
+						onResolve[0].run();
+					}
+					return result;
+				});
+		return ProxyFixtures.create(ICompilationUnit.class, "unit", "getFileScopeRequest", request);
+	}
+
+	// each definition gets its own unit, like a source file
+	private static List<ICompilationUnit> createUnits(IDefinition... definitions) {
+		List<ICompilationUnit> result = new ArrayList<>();
+		for (IDefinition definition : definitions) {
+			result.add(createUnit(new IFileScopeRequestResult[] { createFileScope(definition) }));
+		}
+		return result;
+	}
+
+	@Test
+	void testSubclasses() {
+		IClassDefinition objectClass = createClass("Object", null);
+		IClassDefinition a = createClass("com.example.A", objectClass);
+		IClassDefinition b = createClass("com.example.B", a);
+		IClassDefinition c = createClass("com.example.C", b);
+		TypeHierarchyIndex index = new TypeHierarchyIndex(null);
+		index.addUnits(createUnits(objectClass, a, b, c));
+		Assertions.assertEquals(Collections.singletonList(b), index.getSubclasses("com.example.A", false));
+		Assertions.assertEquals(Arrays.asList(b, c), index.getSubclasses("com.example.A", true));
+		Assertions.assertEquals(Collections.emptyList(), index.getSubclasses("com.example.C", true));
+	}
+
+	@Test
+	void testImplementations() {
+		IClassDefinition objectClass = createClass("Object", null);
+		IInterfaceDefinition iBase = createInterface("com.example.IBase");
+		IInterfaceDefinition iExtended = createInterface("com.example.IExtended", iBase);
+		IClassDefinition implementsBase = createClass("com.example.ImplementsBase", objectClass, iBase);
+		IClassDefinition implementsExtended = createClass("com.example.ImplementsExtended", objectClass, iExtended);
+		IClassDefinition inherits = createClass("com.example.Inherits", implementsBase);
+		IClassDefinition unrelated = createClass("com.example.Unrelated", objectClass);
+		TypeHierarchyIndex index = new TypeHierarchyIndex(null);
+		index.addUnits(createUnits(objectClass, iBase, iExtended, implementsBase, implementsExtended, inherits,
+				unrelated));
+		Assertions.assertEquals(new HashSet<>(Arrays.asList(implementsBase, implementsExtended, inherits)),
+				new HashSet<>(index.getImplementations("com.example.IBase")),
+				"TypeHierarchyIndex.getImplementations() must include sub-interfaces and subclasses.");
+		Assertions.assertEquals(Collections.singletonList(implementsExtended),
+				index.getImplementations("com.example.IExtended"));
+		Assertions.assertEquals(Collections.singletonList(iExtended),
+				index.getSubinterfaces("com.example.IBase", true));
+	}
+
+	@Test
+	void testRemovedUnit() {
+		IClassDefinition objectClass = createClass("Object", null);
+		IClassDefinition a = createClass("com.example.A", objectClass);
+		IClassDefinition b = createClass("com.example.B", a);
+		List<ICompilationUnit> units = createUnits(objectClass, a, b);
+		TypeHierarchyIndex index = new TypeHierarchyIndex(null);
+		index.addUnits(units);
+		Assertions.assertEquals(Collections.singletonList(b), index.getSubclasses("com.example.A", true));
+		index.removeUnits(units.subList(2, 3));
+		Assertions.assertEquals(2, index.size());
+		Assertions.assertEquals(Collections.emptyList(), index.getSubclasses("com.example.A", true));
+	}
+
+	@Test
+	void testRenamedSuperTypeDropsEdges() {
+		IClassDefinition objectClass = createClass("Object", null);
+		IClassDefinition a = createClass("com.example.A", objectClass);
+		IClassDefinition[] baseClass = { a };
+		IClassDefinition b = ProxyFixtures.create(IClassDefinition.class, "com.example.B", "getQualifiedName",
+				"com.example.B", "resolveBaseClass", (ProxyFixtures.Answer) args -> baseClass[0]);
+		IFileScopeRequestResult[] fileScopeResult = { createFileScope(a) };
+		ICompilationUnit unitA = createUnit(fileScopeResult);
+		List<ICompilationUnit> units = new ArrayList<>(createUnits(objectClass, b));
+		units.add(unitA);
+		TypeHierarchyIndex index = new TypeHierarchyIndex(null);
+		index.addUnits(units);
+		Assertions.assertEquals(Collections.singletonList(b), index.getSubclasses("com.example.A", false));
+		fileScopeResult[0] = createFileScope(createClass("com.example.RenamedA", objectClass));
+		baseClass[0] = null;
+		index.markDirty(unitA);
+		Assertions.assertEquals(Collections.emptyList(), index.getSubclasses("com.example.A", false),
+				"TypeHierarchyIndex must drop the edges to a type that no longer exists.");
+	}
+
+	@Test
+	void testIncompleteRecordIsNotResolvedOnEveryQuery() {
+		IClassDefinition objectClass = createClass("Object", null);
+		IClassDefinition a = createClass("com.example.A", objectClass);
+		IClassDefinition[] baseClass = { null };
+		AtomicInteger resolveCount = new AtomicInteger();
+		IClassDefinition b = ProxyFixtures.create(IClassDefinition.class, "com.example.B", "getQualifiedName",
+				"com.example.B", "resolveBaseClass", (ProxyFixtures.Answer) args -> {
+					resolveCount.incrementAndGet();
+					return baseClass[0];
+				});
+		TypeHierarchyIndex index = new TypeHierarchyIndex(null);
+		index.addUnits(createUnits(objectClass, b));
+		Assertions.assertEquals(Collections.emptyList(), index.getSubclasses("com.example.A", false));
+		int count = resolveCount.get();
+		Assertions.assertEquals(Collections.emptyList(), index.getSubclasses("com.example.A", false));
+		Assertions.assertEquals(count, resolveCount.get(),
+				"TypeHierarchyIndex must not resolve an incomplete record again until types are added.");
+		baseClass[0] = a;
+		index.addUnits(createUnits(a));
+		Assertions.assertEquals(Collections.singletonList(b), index.getSubclasses("com.example.A", false));
+	}
+
+	@Test
+	void testCycle() {
+		IInterfaceDefinition[] extended = new IInterfaceDefinition[1];
+		IInterfaceDefinition a = createInterface("com.example.IA", extended);
+		IInterfaceDefinition b = createInterface("com.example.IB", a);
+		extended[0] = b;
+		TypeHierarchyIndex index = new TypeHierarchyIndex(null);
+		index.addUnits(createUnits(a, b));
+		Assertions.assertEquals(new HashSet<>(Arrays.asList(a, b)),
+				new HashSet<>(index.getSubinterfaces("com.example.IA", true)));
+	}
+
+	@Test
+	void testRecordIsCreatedWithoutLock() throws InterruptedException {
+		IClassDefinition objectClass = createClass("Object", null);
+		IClassDefinition a = createClass("com.example.A", objectClass);
+		IClassDefinition b = createClass("com.example.B", a);
+		TypeHierarchyIndex index = new TypeHierarchyIndex(null);
+		index.addUnits(createUnits(objectClass, a));
+		Runnable[] onResolve = { null };
+		ICompilationUnit unitB = createUnit(new IFileScopeRequestResult[] { createFileScope(b) }, onResolve);
+		index.addUnits(Collections.singletonList(unitB));
+		CountDownLatch otherThreadDone = new CountDownLatch(1);
+		onResolve[0] = () -> {
+			onResolve[0] = null;
+			Thread otherThread = new Thread(() -> {
+				index.size();
+				otherThreadDone.countDown();
+			});
+			otherThread.start();
+			try {
+				otherThreadDone.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		Assertions.assertEquals(Collections.singletonList(b), index.getSubclasses("com.example.A", false));
+		Assertions.assertEquals(0, otherThreadDone.getCount(),
+				"TypeHierarchyIndex must not hold its lock while resolving a file scope.");
+	}
+
+	@Test
+	void testUnitMarkedDirtyWhileResolving() {
+		IClassDefinition objectClass = createClass("Object", null);
+		IClassDefinition a = createClass("com.example.A", objectClass);
+		IClassDefinition b = createClass("com.example.B", a);
+		IClassDefinition c = createClass("com.example.C", objectClass);
+		TypeHierarchyIndex index = new TypeHierarchyIndex(null);
+		index.addUnits(createUnits(objectClass, a));
+		IFileScopeRequestResult[] fileScopeResult = { createFileScope(b) };
+		Runnable[] onResolve = { null };
+		ICompilationUnit unit = createUnit(fileScopeResult, onResolve);
+		index.addUnits(Collections.singletonList(unit));
+		onResolve[0] = () -> {
+			onResolve[0] = null;
+			fileScopeResult[0] = createFileScope(c);
+			index.markDirty(unit);
+		};
+		Assertions.assertEquals(Collections.emptyList(), index.getSubclasses("com.example.A", false),
+				"TypeHierarchyIndex must create a unit's record again if it was marked dirty while resolving.");
+		Assertions.assertEquals(Arrays.asList(a, c), index.getSubclasses("Object", false));
+	}
+}
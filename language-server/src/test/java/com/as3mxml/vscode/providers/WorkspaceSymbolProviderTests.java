@@ -0,0 +1,80 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.providers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.as3mxml.vscode.utils.WorkspaceSymbolIndex.SymbolEntry;
+
+class WorkspaceSymbolProviderTests {
+	private static final String SWC_URI = "swc://generated/flash/display/Sprite.as?query";
+	private static final String SOURCE_URI = "swc://generated/flash/display/Sprite.as";
+
+	private static SymbolEntry createSWCEntry() {
+		SymbolEntry entry = new SymbolEntry();
+		entry.name = "Sprite";
+		entry.qualifiedName = "flash.display.Sprite";
+		entry.kind = 5;
+		entry.containerName = "flash.display";
+		entry.uri = SWC_URI;
+		entry.packageLevel = true;
+		return entry;
+	}
+
+	@Test
+	void testSWCEntryWithoutResolveSupport() {
+		Range range = new Range(new Position(1, 2), new Position(1, 8));
+		List<String> resolvedURIs = new ArrayList<>();
+		WorkspaceSymbol symbol = WorkspaceSymbolProvider.entryToWorkspaceSymbol(createSWCEntry(), false, false,
+				uri -> {
+					resolvedURIs.add(uri);
+					return new Location(SOURCE_URI, range);
+				});
+		Assertions.assertNotNull(symbol,
+				"WorkspaceSymbolProvider must not drop a SWC symbol when the client can't resolve its range.");
+		Assertions.assertEquals(1, resolvedURIs.size());
+		Assertions.assertEquals(SWC_URI, resolvedURIs.get(0));
+		Assertions.assertTrue(symbol.getLocation().isLeft());
+		Assertions.assertEquals(SOURCE_URI, symbol.getLocation().getLeft().getUri());
+		Assertions.assertEquals(range, symbol.getLocation().getLeft().getRange());
+	}
+
+	@Test
+	void testSWCEntryWithoutLocation() {
+		WorkspaceSymbol symbol = WorkspaceSymbolProvider.entryToWorkspaceSymbol(createSWCEntry(), false, false,
+				uri -> null);
+		Assertions.assertNull(symbol);
+	}
+
+	@Test
+	void testSWCEntryWithResolveSupport() {
+		WorkspaceSymbol symbol = WorkspaceSymbolProvider.entryToWorkspaceSymbol(createSWCEntry(), true, true,
+				uri -> {
+					throw new AssertionError("The range must be resolved later by the client.");
+				});
+		Assertions.assertEquals("flash.display.Sprite", symbol.getName());
+		Assertions.assertEquals(SWC_URI, symbol.getLocation().getLeft().getUri());
+		Assertions.assertNull(symbol.getLocation().getLeft().getRange());
+	}
+}
@@ -0,0 +1,92 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CompletionItemFilterTests {
+	private static CompletionList createList(String... labels) {
+		List<CompletionItem> items = new ArrayList<>();
+		for (String label : labels) {
+			items.add(new CompletionItem(label));
+		}
+		CompletionList list = new CompletionList();
+		list.setIsIncomplete(false);
+		list.setItems(items);
+		return list;
+	}
+
+	private static List<String> getLabels(CompletionList list) {
+		List<String> labels = new ArrayList<>();
+		for (CompletionItem item : list.getItems()) {
+			labels.add(item.getLabel());
+		}
+		return labels;
+	}
+
+	@Test
+	void testFromOffset() {
+		Assertions.assertEquals("ad", CompletionItemFilter.fromOffset("this.ad", 7).getPrefix());
+		Assertions.assertEquals("Bu", CompletionItemFilter.fromOffset("<s:Bu></s:Bu>", 5).getPrefix());
+		Assertions.assertEquals("", CompletionItemFilter.fromOffset("this.", 5).getPrefix());
+		Assertions.assertEquals("", CompletionItemFilter.fromOffset("this.", 10).getPrefix());
+	}
+
+	@Test
+	void testMatches() {
+		CompletionItemFilter filter = new CompletionItemFilter("aEL");
+		Assertions.assertTrue(filter.matches("addEventListener"),
+				"CompletionItemFilter.matches() must match characters in order, ignoring case.");
+		Assertions.assertTrue(filter.matches("LABEL"));
+		Assertions.assertFalse(filter.matches("removeEventListener"));
+		Assertions.assertFalse(filter.matches("la"));
+		Assertions.assertTrue(new CompletionItemFilter("").matches("anything"));
+	}
+
+	@Test
+	void testFilterRemovesItemsThatDontMatch() {
+		CompletionList list = createList("addChild", "removeChild", "Array", "each");
+		new CompletionItemFilter("a").filter(list, 0);
+		Assertions.assertEquals(Arrays.asList("addChild", "Array", "each"), getLabels(list));
+		Assertions.assertFalse(list.isIncomplete());
+	}
+
+	@Test
+	void testFilterKeepsBestMatchesWhenTruncated() {
+		CompletionList list = createList("xyzButton", "button", "ButtonBar", "Button", "BitmapImageButton");
+		new CompletionItemFilter("Button").filter(list, 3);
+		Assertions.assertEquals(Arrays.asList("Button", "ButtonBar", "button"), getLabels(list));
+		Assertions.assertTrue(list.isIncomplete(),
+				"CompletionItemFilter.filter() must mark a truncated list as incomplete.");
+	}
+
+	@Test
+	void testFilterWithoutPrefixOnlyTruncates() {
+		CompletionList list = createList("b", "a", "c");
+		new CompletionItemFilter("").filter(list, 5);
+		Assertions.assertEquals(Arrays.asList("b", "a", "c"), getLabels(list));
+		new CompletionItemFilter("").filter(list, 2);
+		Assertions.assertEquals(Arrays.asList("a", "b"), getLabels(list));
+		Assertions.assertTrue(list.isIncomplete());
+	}
+}
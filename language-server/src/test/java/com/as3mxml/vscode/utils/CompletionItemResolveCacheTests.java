@@ -0,0 +1,90 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import org.eclipse.lsp4j.CompletionItem;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonPrimitive;
+
+class CompletionItemResolveCacheTests {
+	@Test
+	void testAddSetsCompactData() {
+		CompletionItemResolveCache cache = new CompletionItemResolveCache();
+		int listID = cache.startList();
+		CompletionItem item1 = new CompletionItem("first");
+		CompletionItem item2 = new CompletionItem("second");
+		cache.add(listID, item1, null, null, null);
+		cache.add(listID, item2, null, null, null);
+		Assertions.assertEquals(2, cache.size());
+		JsonArray expectedData = new JsonArray();
+		expectedData.add(listID);
+		expectedData.add(1);
+		Assertions.assertEquals(expectedData, item2.getData());
+	}
+
+	@Test
+	void testStartListKeepsRecentLists() {
+		CompletionItemResolveCache cache = new CompletionItemResolveCache();
+		int listID = cache.startList();
+		CompletionItem item = new CompletionItem("first");
+		cache.add(listID, item, null, null, null);
+		cache.startList();
+		Assertions.assertEquals(0, cache.size());
+		Assertions.assertTrue(cache.contains(item),
+				"CompletionItemResolveCache must be able to resolve an item from a recent list.");
+	}
+
+	@Test
+	void testStartListForgetsOldestList() {
+		CompletionItemResolveCache cache = new CompletionItemResolveCache();
+		int listID = cache.startList();
+		CompletionItem item = new CompletionItem("first");
+		cache.add(listID, item, null, null, null);
+		for (int i = 0; i < 10; i++) {
+			cache.startList();
+		}
+		Assertions.assertFalse(cache.contains(item),
+				"CompletionItemResolveCache must not keep every list.");
+		CompletionItem resolved = cache.resolve(item);
+		Assertions.assertSame(item, resolved);
+		Assertions.assertNull(resolved.getDetail(),
+				"CompletionItemResolveCache.resolve() must not change an item from a forgotten list.");
+	}
+
+	@Test
+	void testClearForgetsEveryList() {
+		CompletionItemResolveCache cache = new CompletionItemResolveCache();
+		int listID = cache.startList();
+		CompletionItem item = new CompletionItem("first");
+		cache.add(listID, item, null, null, null);
+		cache.clear();
+		Assertions.assertFalse(cache.contains(item));
+	}
+
+	@Test
+	void testResolveIgnoresUnknownData() {
+		CompletionItemResolveCache cache = new CompletionItemResolveCache();
+		cache.startList();
+		CompletionItem item = new CompletionItem("other");
+		item.setData(new JsonPrimitive("other"));
+		Assertions.assertSame(item, cache.resolve(item));
+		item.setData(null);
+		Assertions.assertSame(item, cache.resolve(item));
+	}
+}
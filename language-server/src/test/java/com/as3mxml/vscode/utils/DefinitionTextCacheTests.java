@@ -0,0 +1,151 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.royale.compiler.definitions.IDefinition;
+import org.apache.royale.compiler.projects.ICompilerProject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DefinitionTextCacheTests {
+	private static IDefinition createDefinition(String containingFilePath) {
+		return ProxyFixtures.create(IDefinition.class, String.valueOf(containingFilePath), "getContainingFilePath",
+				containingFilePath);
+	}
+
+	@Test
+	void testSourceDefinitionTextIsReusedUntilSourceChanges() {
+		DefinitionTextCache cache = new DefinitionTextCache();
+		AtomicInteger createCount = new AtomicInteger();
+		IDefinition definition = createDefinition("/project/src/Main.as");
+		DefinitionTextCache.TextFactory factory = (d, dependencyPaths) -> "text" + createCount.incrementAndGet();
+		Assertions.assertEquals("text1", cache.get(definition, null, "detail", factory));
+		Assertions.assertEquals("text1", cache.get(definition, null, "detail", factory));
+		Assertions.assertEquals("text2", cache.get(definition, null, "documentation", factory),
+				"DefinitionTextCache.get() must cache each kind of text separately.");
+		Assertions.assertEquals(2, cache.size());
+		cache.fileChanged("/project/src/Other.as");
+		Assertions.assertEquals(2, cache.size(),
+				"DefinitionTextCache.fileChanged() must not remove text for definitions from other files.");
+		cache.fileChanged("/project/src/Main.as");
+		Assertions.assertEquals(0, cache.size(),
+				"DefinitionTextCache.fileChanged() must remove text for definitions from the file.");
+		Assertions.assertEquals("text3", cache.get(definition, null, "detail", factory));
+	}
+
+	@Test
+	void testTextIsRemovedWhenDependencyChanges() {
+		DefinitionTextCache cache = new DefinitionTextCache();
+		AtomicInteger createCount = new AtomicInteger();
+		IDefinition definition = createDefinition("/project/src/Main.as");
+		DefinitionTextCache.TextFactory factory = (d, dependencyPaths) -> {
+			// like documentation inherited from a super class
+			dependencyPaths.add("/project/src/Base.as");
+			return "text" + createCount.incrementAndGet();
+		};
+		Assertions.assertEquals("text1", cache.get(definition, null, "documentation", factory));
+		cache.fileChanged("/project/src/Other.as");
+		Assertions.assertEquals("text1", cache.get(definition, null, "documentation", factory));
+		cache.fileChanged("/project/src/Base.as");
+		Assertions.assertEquals(0, cache.size(),
+				"DefinitionTextCache.fileChanged() must remove text that depends on the file.");
+		Assertions.assertEquals("text2", cache.get(definition, null, "documentation", factory));
+	}
+
+	@Test
+	void testProjectsAreCachedSeparately() {
+		DefinitionTextCache cache = new DefinitionTextCache();
+		AtomicInteger createCount = new AtomicInteger();
+		IDefinition definition = createDefinition("/project/src/Main.as");
+		ICompilerProject project1 = ProxyFixtures.create(ICompilerProject.class, "project1");
+		ICompilerProject project2 = ProxyFixtures.create(ICompilerProject.class, "project2");
+		DefinitionTextCache.TextFactory factory = (d, dependencyPaths) -> "text" + createCount.incrementAndGet();
+		Assertions.assertEquals("text1", cache.get(definition, project1, "detail", factory));
+		Assertions.assertEquals("text2", cache.get(definition, project2, "detail", factory),
+				"DefinitionTextCache.get() must cache text for each project separately.");
+		Assertions.assertEquals("text1", cache.get(definition, project1, "detail", factory));
+	}
+
+	@Test
+	void testRemoveProject() {
+		DefinitionTextCache cache = new DefinitionTextCache();
+		AtomicInteger createCount = new AtomicInteger();
+		IDefinition definition = createDefinition("/project/src/Main.as");
+		ICompilerProject project1 = ProxyFixtures.create(ICompilerProject.class, "project1");
+		ICompilerProject project2 = ProxyFixtures.create(ICompilerProject.class, "project2");
+		DefinitionTextCache.TextFactory factory = (d, dependencyPaths) -> "text" + createCount.incrementAndGet();
+		cache.get(definition, project1, "detail", factory);
+		cache.get(definition, project2, "detail", factory);
+		cache.removeProject(project1);
+		Assertions.assertEquals(1, cache.size(),
+				"DefinitionTextCache.removeProject() must remove only the text for the project.");
+		Assertions.assertEquals("text2", cache.get(definition, project2, "detail", factory));
+	}
+
+	@Test
+	void testNullTextIsCached() {
+		DefinitionTextCache cache = new DefinitionTextCache();
+		AtomicInteger createCount = new AtomicInteger();
+		IDefinition definition = createDefinition("/project/src/Main.as");
+		DefinitionTextCache.TextFactory factory = (d, dependencyPaths) -> {
+			createCount.incrementAndGet();
+			return null;
+		};
+		Assertions.assertNull(cache.get(definition, null, "documentation", factory));
+		Assertions.assertNull(cache.get(definition, null, "documentation", factory));
+		Assertions.assertEquals(1, createCount.get());
+	}
+
+	@Test
+	void testSWCDefinitionTextIsReusedUntilSWCChanges() throws IOException {
+		Path tempDir = Files.createTempDirectory("definition-text-cache");
+		File swcFile = tempDir.resolve("library.swc").toFile();
+		try {
+			Files.write(swcFile.toPath(), new byte[] { 1 });
+			DefinitionTextCache cache = new DefinitionTextCache();
+			AtomicInteger createCount = new AtomicInteger();
+			IDefinition definition = createDefinition(swcFile.getAbsolutePath());
+			DefinitionTextCache.TextFactory factory = (d, dependencyPaths) -> "text" + createCount.incrementAndGet();
+			Assertions.assertEquals("text1", cache.get(definition, null, "detail", factory));
+			cache.fileChanged("/project/src/Main.as");
+			Assertions.assertEquals("text1", cache.get(definition, null, "detail", factory),
+					"DefinitionTextCache.fileChanged() must not remove text for definitions from a SWC when a source file changes.");
+			Files.write(swcFile.toPath(), new byte[] { 1, 2 });
+			cache.fileChanged(swcFile.getAbsolutePath());
+			Assertions.assertEquals("text2", cache.get(definition, null, "detail", factory));
+		} finally {
+			Files.deleteIfExists(swcFile.toPath());
+			Files.delete(tempDir);
+		}
+	}
+
+	@Test
+	void testDefinitionWithoutFileIsNotCached() {
+		DefinitionTextCache cache = new DefinitionTextCache();
+		AtomicInteger createCount = new AtomicInteger();
+		IDefinition definition = createDefinition(null);
+		DefinitionTextCache.TextFactory factory = (d, dependencyPaths) -> "text" + createCount.incrementAndGet();
+		Assertions.assertEquals("text1", cache.get(definition, null, "detail", factory));
+		Assertions.assertEquals("text2", cache.get(definition, null, "detail", factory));
+		Assertions.assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,136 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.services.LanguageClient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class DiagnosticsPublisherTests {
+	private static LanguageClient createClient(List<PublishDiagnosticsParams> published) {
+		return ProxyFixtures.create(LanguageClient.class, "client", "publishDiagnostics",
+				(ProxyFixtures.Answer) args -> {
+					published.add((PublishDiagnosticsParams) args[0]);
+					return null;
+				});
+	}
+
+	private static PublishDiagnosticsParams createParams(String uri, String... messages) {
+		List<Diagnostic> diagnostics = new ArrayList<>();
+		for (String message : messages) {
+			Range range = new Range(new Position(1, 2), new Position(1, 5));
+			diagnostics.add(new Diagnostic(range, message, DiagnosticSeverity.Warning, "as3mxml"));
+		}
+		return new PublishDiagnosticsParams(uri, diagnostics);
+	}
+
+	@Test
+	void testSameDiagnosticsAreSkipped() {
+		List<PublishDiagnosticsParams> published = new ArrayList<>();
+		DiagnosticsPublisher publisher = new DiagnosticsPublisher();
+		publisher.setLanguageClient(createClient(published));
+		Assertions.assertTrue(publisher.publish(createParams("file:///A.as", "one", "two")));
+		Assertions.assertFalse(publisher.publish(createParams("file:///A.as", "one", "two")),
+				"DiagnosticsPublisher.publish() must skip diagnostics that haven't changed.");
+		Assertions.assertEquals(1, published.size());
+	}
+
+	@Test
+	void testChangedRangeIsPublished() {
+		List<PublishDiagnosticsParams> published = new ArrayList<>();
+		DiagnosticsPublisher publisher = new DiagnosticsPublisher();
+		publisher.setLanguageClient(createClient(published));
+		publisher.publish(createParams("file:///A.as", "one"));
+		PublishDiagnosticsParams params = createParams("file:///A.as", "one");
+		params.getDiagnostics().get(0).setRange(new Range(new Position(2, 2), new Position(2, 5)));
+		Assertions.assertTrue(publisher.publish(params),
+				"DiagnosticsPublisher.publish() must publish diagnostics with a changed range.");
+		params = createParams("file:///A.as", "one");
+		params.getDiagnostics().get(0).setSeverity(DiagnosticSeverity.Error);
+		Assertions.assertTrue(publisher.publish(params),
+				"DiagnosticsPublisher.publish() must publish diagnostics with a changed severity.");
+	}
+
+	@Test
+	void testChangedDiagnosticsArePublished() {
+		List<PublishDiagnosticsParams> published = new ArrayList<>();
+		DiagnosticsPublisher publisher = new DiagnosticsPublisher();
+		publisher.setLanguageClient(createClient(published));
+		publisher.publish(createParams("file:///A.as", "one"));
+		Assertions.assertTrue(publisher.publish(createParams("file:///A.as", "two")));
+		Assertions.assertTrue(publisher.publish(createParams("file:///A.as")));
+		Assertions.assertFalse(publisher.publish(createParams("file:///A.as")));
+		Assertions.assertEquals(3, published.size());
+		Assertions.assertEquals(Collections.emptyList(), published.get(2).getDiagnostics());
+	}
+
+	@Test
+	void testUrisAreIndependent() {
+		List<PublishDiagnosticsParams> published = new ArrayList<>();
+		DiagnosticsPublisher publisher = new DiagnosticsPublisher();
+		publisher.setLanguageClient(createClient(published));
+		publisher.publish(createParams("file:///A.as", "one"));
+		Assertions.assertTrue(publisher.publish(createParams("file:///B.as", "one")));
+		Assertions.assertEquals(2, published.size());
+	}
+
+	@Test
+	void testNewClientReceivesEverything() {
+		List<PublishDiagnosticsParams> published = new ArrayList<>();
+		DiagnosticsPublisher publisher = new DiagnosticsPublisher();
+		publisher.setLanguageClient(createClient(published));
+		publisher.publish(createParams("file:///A.as", "one"));
+		publisher.setLanguageClient(createClient(published));
+		Assertions.assertTrue(publisher.publish(createParams("file:///A.as", "one")));
+	}
+
+	@Test
+	void testCounters() {
+		List<PublishDiagnosticsParams> published = new ArrayList<>();
+		DiagnosticsPublisher publisher = new DiagnosticsPublisher();
+		publisher.setLanguageClient(createClient(published));
+		publisher.publish(createParams("file:///A.as", "one"));
+		publisher.publish(createParams("file:///A.as", "one"));
+		publisher.publish(createParams("file:///B.as", "two"));
+		Assertions.assertEquals(2, publisher.getPublishCount());
+		Assertions.assertEquals(1, publisher.getSkippedCount());
+		Assertions.assertTrue(publisher.getPublishedBytes() > 0);
+	}
+
+	@Test
+	void testClearedUrisAreForgotten() {
+		List<PublishDiagnosticsParams> published = new ArrayList<>();
+		DiagnosticsPublisher publisher = new DiagnosticsPublisher();
+		publisher.setLanguageClient(createClient(published));
+		Assertions.assertFalse(publisher.publish(createParams("file:///A.as")),
+				"DiagnosticsPublisher.publish() must skip empty diagnostics for a URI that has none displayed.");
+		publisher.publish(createParams("file:///A.as", "one"));
+		publisher.publish(createParams("file:///B.as", "one"));
+		Assertions.assertEquals(2, publisher.size());
+		Assertions.assertTrue(publisher.publish(createParams("file:///A.as")));
+		Assertions.assertEquals(1, publisher.size(),
+				"DiagnosticsPublisher.publish() must not keep a hash for a URI after its diagnostics are cleared.");
+	}
+}
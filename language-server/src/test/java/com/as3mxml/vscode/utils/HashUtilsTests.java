@@ -0,0 +1,35 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class HashUtilsTests {
+	@Test
+	void testFnv1aString() {
+		Assertions.assertEquals(HashUtils.FNV_OFFSET_BASIS, HashUtils.fnv1a(""));
+		Assertions.assertEquals(0xaf63dc4c8601ec8cL, HashUtils.fnv1a("a"));
+		Assertions.assertNotEquals(HashUtils.fnv1a("package {}"), HashUtils.fnv1a("package { }"));
+	}
+
+	@Test
+	void testFnv1aCombined() {
+		long hash = HashUtils.fnv1a(HashUtils.FNV_OFFSET_BASIS, "a");
+		Assertions.assertEquals(HashUtils.fnv1a("ab"), HashUtils.fnv1a(hash, "b"));
+		Assertions.assertNotEquals(HashUtils.fnv1a(hash, 1), HashUtils.fnv1a(hash, 2));
+	}
+}
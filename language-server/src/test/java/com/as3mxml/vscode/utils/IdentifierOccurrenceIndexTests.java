@@ -0,0 +1,77 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class IdentifierOccurrenceIndexTests {
+	private static Path getPath(String fileName) {
+		return Paths.get("identifier-occurrence-index-tests", fileName).toAbsolutePath();
+	}
+
+	@Test
+	void testMayContainAny() {
+		FileTracker fileTracker = new FileTracker(null);
+		Path path = getPath("Example.as");
+		fileTracker.openFile(path, "package com.example { public class Example extends Sprite { var $count:int; } }");
+		IdentifierOccurrenceIndex index = new IdentifierOccurrenceIndex(fileTracker);
+		Assertions.assertTrue(index.mayContainAny(path.toString(), Collections.singletonList("Sprite")));
+		Assertions.assertTrue(index.mayContainAny(path.toString(), Collections.singletonList("$count")));
+		Assertions.assertTrue(index.mayContainAny(path.toString(), Arrays.asList("MovieClip", "Example")));
+		Assertions.assertFalse(index.mayContainAny(path.toString(), Collections.singletonList("MovieClip")));
+		Assertions.assertFalse(index.mayContainAny(path.toString(), Collections.singletonList("count")),
+				"IdentifierOccurrenceIndex.mayContainAny() must not match part of a word.");
+	}
+
+	@Test
+	void testChangedFile() {
+		FileTracker fileTracker = new FileTracker(null);
+		Path path = getPath("Changed.as");
+		fileTracker.openFile(path, "var a:Sprite;");
+		IdentifierOccurrenceIndex index = new IdentifierOccurrenceIndex(fileTracker);
+		Assertions.assertFalse(index.mayContainAny(path.toString(), Collections.singletonList("MovieClip")));
+		fileTracker.closeFile(path);
+		fileTracker.openFile(path, "var a:MovieClip;");
+		Assertions.assertTrue(index.mayContainAny(path.toString(), Collections.singletonList("MovieClip")),
+				"IdentifierOccurrenceIndex.mayContainAny() must read the file again after it changes.");
+	}
+
+	@Test
+	void testIncludeMayContainAnything() {
+		FileTracker fileTracker = new FileTracker(null);
+		Path asPath = getPath("Include.as");
+		fileTracker.openFile(asPath, "include \"other.as\";");
+		Path mxmlPath = getPath("Include.mxml");
+		fileTracker.openFile(mxmlPath, "<s:Group><fx:Script source=\"other.as\"/></s:Group>");
+		IdentifierOccurrenceIndex index = new IdentifierOccurrenceIndex(fileTracker);
+		Assertions.assertTrue(index.mayContainAny(asPath.toString(), Collections.singletonList("MovieClip")));
+		Assertions.assertTrue(index.mayContainAny(mxmlPath.toString(), Collections.singletonList("MovieClip")));
+	}
+
+	@Test
+	void testMissingFileMayContainAnything() {
+		IdentifierOccurrenceIndex index = new IdentifierOccurrenceIndex(new FileTracker(null));
+		Path path = getPath("Missing.as");
+		Assertions.assertTrue(index.mayContainAny(path.toString(), Collections.singletonList("MovieClip")));
+		Assertions.assertEquals(0, index.size());
+	}
+}
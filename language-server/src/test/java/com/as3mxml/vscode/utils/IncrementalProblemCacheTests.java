@@ -0,0 +1,143 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class IncrementalProblemCacheTests {
+	// these files don't exist, so their modification times are always 0
+	private static final String PATH_A = "/nonexistent/src/A.as";
+	private static final String PATH_B = "/nonexistent/src/B.as";
+	private static final String PATH_C = "/nonexistent/src/C.as";
+	private static final String PATH_INCLUDED = "/nonexistent/src/included.as";
+
+	private Object project = new Object();
+	private Map<String, Long> stamps = new HashMap<>();
+
+	private Set<String> getPathsToCheck(IncrementalProblemCache cache, List<String> paths) {
+		return cache.getPathsToCheck(project, paths, path -> stamps.getOrDefault(path, 0L));
+	}
+
+	private static Set<String> setOf(String... paths) {
+		return new HashSet<>(Arrays.asList(paths));
+	}
+
+	// B depends on A, and C depends on nothing
+	private IncrementalProblemCache createCache(List<String> paths) {
+		IncrementalProblemCache cache = new IncrementalProblemCache();
+		for (String path : getPathsToCheck(cache, paths)) {
+			Set<String> dependencies = PATH_B.equals(path) ? setOf(PATH_A) : Collections.emptySet();
+			cache.put(path, new ArrayList<>(), dependencies, Collections.emptySet(), false);
+		}
+		return cache;
+	}
+
+	@Test
+	void testNothingChanged() {
+		List<String> paths = Arrays.asList(PATH_A, PATH_B, PATH_C);
+		IncrementalProblemCache cache = createCache(paths);
+		Assertions.assertEquals(3, cache.size());
+		Assertions.assertEquals(0, getPathsToCheck(cache, paths).size());
+		Assertions.assertNotNull(cache.getProblems(PATH_C));
+	}
+
+	@Test
+	void testDependentsOfChangedFile() {
+		List<String> paths = Arrays.asList(PATH_A, PATH_B, PATH_C);
+		IncrementalProblemCache cache = createCache(paths);
+		stamps.put(PATH_A, 1L);
+		Assertions.assertEquals(setOf(PATH_A, PATH_B), getPathsToCheck(cache, paths));
+	}
+
+	@Test
+	void testChangedFileWithoutDependents() {
+		List<String> paths = Arrays.asList(PATH_A, PATH_B, PATH_C);
+		IncrementalProblemCache cache = createCache(paths);
+		stamps.put(PATH_B, 1L);
+		Assertions.assertEquals(setOf(PATH_B), getPathsToCheck(cache, paths));
+	}
+
+	@Test
+	void testRemovedFile() {
+		IncrementalProblemCache cache = createCache(Arrays.asList(PATH_A, PATH_B, PATH_C));
+		Assertions.assertEquals(setOf(PATH_B, PATH_C), getPathsToCheck(cache, Arrays.asList(PATH_B, PATH_C)),
+				"IncrementalProblemCache.getPathsToCheck() must check every file when a file is removed.");
+		Assertions.assertNull(cache.getProblems(PATH_A));
+	}
+
+	@Test
+	void testAddedFile() {
+		IncrementalProblemCache cache = createCache(Arrays.asList(PATH_A, PATH_C));
+		// an added file may define the same name as an unchanged file
+		Assertions.assertEquals(setOf(PATH_A, PATH_B, PATH_C),
+				getPathsToCheck(cache, Arrays.asList(PATH_A, PATH_B, PATH_C)),
+				"IncrementalProblemCache.getPathsToCheck() must check every file when a file is added.");
+	}
+
+	@Test
+	void testFileWithErrorsIsAlwaysChecked() {
+		List<String> paths = Arrays.asList(PATH_A, PATH_C);
+		IncrementalProblemCache cache = new IncrementalProblemCache();
+		getPathsToCheck(cache, paths);
+		cache.put(PATH_A, new ArrayList<>(), Collections.emptySet(), Collections.emptySet(), false);
+		cache.put(PATH_C, new ArrayList<>(), Collections.emptySet(), Collections.emptySet(), true);
+		Assertions.assertEquals(setOf(PATH_C), getPathsToCheck(cache, paths));
+	}
+
+	@Test
+	void testOwnerChanged() {
+		List<String> paths = Arrays.asList(PATH_A, PATH_B, PATH_C);
+		IncrementalProblemCache cache = createCache(paths);
+		project = new Object();
+		Assertions.assertEquals(setOf(PATH_A, PATH_B, PATH_C), getPathsToCheck(cache, paths));
+	}
+
+	@Test
+	void testChangeDuringCheck() {
+		List<String> paths = Arrays.asList(PATH_A);
+		IncrementalProblemCache cache = new IncrementalProblemCache();
+		getPathsToCheck(cache, paths);
+		// the file changes after the check started
+		stamps.put(PATH_A, 1L);
+		cache.put(PATH_A, new ArrayList<>(), Collections.emptySet(), Collections.emptySet(), false);
+		Assertions.assertEquals(setOf(PATH_A), getPathsToCheck(cache, paths));
+	}
+
+	@Test
+	void testChangedIncludedFile() {
+		List<String> paths = Arrays.asList(PATH_A, PATH_B, PATH_C);
+		IncrementalProblemCache cache = new IncrementalProblemCache();
+		for (String path : getPathsToCheck(cache, paths)) {
+			Set<String> dependencies = PATH_B.equals(path) ? setOf(PATH_A) : Collections.emptySet();
+			Set<String> includedPaths = PATH_A.equals(path) ? setOf(PATH_INCLUDED) : Collections.emptySet();
+			cache.put(path, new ArrayList<>(), dependencies, includedPaths, false);
+		}
+		Assertions.assertEquals(0, getPathsToCheck(cache, paths).size());
+		stamps.put(PATH_INCLUDED, 1L);
+		Assertions.assertEquals(setOf(PATH_A, PATH_B), getPathsToCheck(cache, paths),
+				"IncrementalProblemCache.getPathsToCheck() must check a file when a file that it includes changes.");
+	}
+}
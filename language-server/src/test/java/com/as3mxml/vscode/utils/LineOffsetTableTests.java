@@ -0,0 +1,63 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LineOffsetTableTests {
+	private static LineOffsetTable createTable(String text) throws IOException {
+		return LineOffsetTable.fromReader(new StringReader(text), 0L, text.length());
+	}
+
+	@Test
+	void testGetOffset() throws IOException {
+		LineOffsetTable table = createTable("package\n{\r\n\tclass A {}\n}");
+		Assertions.assertEquals(4, table.getLineCount());
+		Assertions.assertEquals(0, table.getOffset(0, 0));
+		Assertions.assertEquals(8, table.getOffset(1, 0));
+		Assertions.assertEquals(13, table.getOffset(2, 2));
+		Assertions.assertEquals(table.length(), table.getOffset(10, 0));
+	}
+
+	@Test
+	void testGetLineAndCharacter() throws IOException {
+		LineOffsetTable table = createTable("ab\ncd\n\nef");
+		Assertions.assertEquals(0, table.getLine(2));
+		Assertions.assertEquals(1, table.getLine(3));
+		Assertions.assertEquals(2, table.getLine(6));
+		Assertions.assertEquals(3, table.getLine(8));
+		Assertions.assertEquals(1, table.getCharacter(8));
+	}
+
+	@Test
+	void testGetLineAndCharacterPastEnd() throws IOException {
+		LineOffsetTable table = createTable("ab\ncd");
+		Assertions.assertEquals(1, table.getLine(100));
+		Assertions.assertEquals(2, table.getCharacter(100));
+	}
+
+	@Test
+	void testIsValid() throws IOException {
+		LineOffsetTable table = LineOffsetTable.fromReader(new StringReader("abc"), 1234L, 3L);
+		Assertions.assertTrue(table.isValid(1234L, 3L));
+		Assertions.assertFalse(table.isValid(1235L, 3L));
+		Assertions.assertFalse(table.isValid(1234L, 4L));
+	}
+}
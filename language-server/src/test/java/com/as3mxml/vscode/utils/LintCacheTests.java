@@ -0,0 +1,76 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.royale.compiler.problems.ICompilerProblem;
+import org.apache.royale.linter.LinterSettings;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LintCacheTests {
+	@Test
+	void testSettingsAreLoadedOnce() {
+		LintCache cache = new LintCache();
+		Path projectRoot = Paths.get("project").toAbsolutePath();
+		AtomicInteger loadCount = new AtomicInteger();
+		LinterSettings settings = cache.getSettings(projectRoot, root -> {
+			loadCount.incrementAndGet();
+			return new LinterSettings();
+		});
+		Assertions.assertSame(settings, cache.getSettings(projectRoot, root -> {
+			loadCount.incrementAndGet();
+			return new LinterSettings();
+		}));
+		Assertions.assertEquals(1, loadCount.get());
+		cache.invalidateSettings(projectRoot);
+		Assertions.assertNotSame(settings, cache.getSettings(projectRoot, root -> new LinterSettings()),
+				"LintCache.getSettings() must load the settings again after invalidateSettings().");
+	}
+
+	@Test
+	void testProblemsAreReusedForSameText() {
+		LintCache cache = new LintCache();
+		LinterSettings settings = new LinterSettings();
+		List<ICompilerProblem> problems = new ArrayList<>();
+		long textHash = HashUtils.fnv1a("package {}");
+		cache.putProblems("/src/Main.as", textHash, settings, problems);
+		Assertions.assertSame(problems, cache.getProblems("/src/Main.as", textHash, settings));
+		Assertions.assertNull(cache.getProblems("/src/Main.as", HashUtils.fnv1a("package { }"), settings));
+		Assertions.assertNull(cache.getProblems("/src/Main.as", textHash, new LinterSettings()),
+				"LintCache.getProblems() must not reuse problems found with different settings.");
+		Assertions.assertNull(cache.getProblems("/src/Other.as", textHash, settings));
+	}
+
+	@Test
+	void testRemovedFileProblemsAreDropped() {
+		LintCache cache = new LintCache();
+		LinterSettings settings = new LinterSettings();
+		List<ICompilerProblem> problems = new ArrayList<>();
+		long textHash = HashUtils.fnv1a("package {}");
+		cache.putProblems("/src/Main.as", textHash, settings, problems);
+		cache.putProblems("/src/Other.as", textHash, settings, problems);
+		cache.remove("/src/Main.as");
+		Assertions.assertNull(cache.getProblems("/src/Main.as", textHash, settings),
+				"LintCache.getProblems() must not return problems for a removed file.");
+		Assertions.assertSame(problems, cache.getProblems("/src/Other.as", textHash, settings));
+	}
+}
@@ -0,0 +1,137 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.royale.compiler.problems.ICompilerProblem;
+import org.apache.royale.compiler.problems.InternalCompilerProblem;
+import org.apache.royale.compiler.units.ICompilationUnit;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ParallelProblemCheckerTests {
+	private static <T> T createProxy(Class<T> type, String name) {
+		return ProxyFixtures.create(type, name, "getAbsoluteFilename", name, "getSourcePath", name);
+	}
+
+	private static List<ICompilationUnit> createUnits(int count) {
+		List<ICompilationUnit> units = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			units.add(createProxy(ICompilationUnit.class, "/src/Class" + i + ".as"));
+		}
+		return units;
+	}
+
+	@Test
+	void testResultsAreInUnitOrder() throws InterruptedException {
+		ParallelProblemChecker checker = new ParallelProblemChecker(4);
+		try {
+			List<ICompilationUnit> units = createUnits(50);
+			Map<String, List<ICompilerProblem>> result = checker.check(units, (unit, problems) -> {
+				problems.add(createProxy(ICompilerProblem.class, unit.getAbsoluteFilename()));
+			});
+			Assertions.assertEquals(50, result.size());
+			int i = 0;
+			for (Map.Entry<String, List<ICompilerProblem>> entry : result.entrySet()) {
+				Assertions.assertEquals("/src/Class" + i + ".as", entry.getKey());
+				Assertions.assertEquals(1, entry.getValue().size());
+				i++;
+			}
+		} finally {
+			checker.dispose();
+		}
+	}
+
+	@Test
+	void testUnitsWithSamePathShareBucket() throws InterruptedException {
+		ParallelProblemChecker checker = new ParallelProblemChecker(2);
+		try {
+			List<ICompilationUnit> units = Arrays.asList(createProxy(ICompilationUnit.class, "/src/Main.mxml"),
+					createProxy(ICompilationUnit.class, "/src/Main.mxml"));
+			Map<String, List<ICompilerProblem>> result = checker.check(units, (unit, problems) -> {
+				problems.add(createProxy(ICompilerProblem.class, unit.getAbsoluteFilename()));
+			});
+			Assertions.assertEquals(1, result.size());
+			Assertions.assertEquals(2, result.get("/src/Main.mxml").size());
+		} finally {
+			checker.dispose();
+		}
+	}
+
+	@Test
+	void testParallelismIsLimited() throws InterruptedException {
+		ParallelProblemChecker checker = new ParallelProblemChecker(2);
+		try {
+			AtomicInteger running = new AtomicInteger();
+			AtomicInteger maxRunning = new AtomicInteger();
+			checker.check(createUnits(20), (unit, problems) -> {
+				int current = running.incrementAndGet();
+				maxRunning.accumulateAndGet(current, Math::max);
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+				}
+				running.decrementAndGet();
+			});
+			Assertions.assertTrue(maxRunning.get() <= 2,
+					"ParallelProblemChecker.check() must not exceed the maximum parallelism.");
+		} finally {
+			checker.dispose();
+		}
+	}
+
+	@Test
+	void testExceptionBecomesProblem() throws InterruptedException {
+		ParallelProblemChecker checker = new ParallelProblemChecker(2);
+		try {
+			Map<String, List<ICompilerProblem>> result = checker.check(createUnits(3), (unit, problems) -> {
+				if (unit.getAbsoluteFilename().equals("/src/Class1.as")) {
+					throw new IllegalStateException("test");
+				}
+			});
+			Assertions.assertEquals(3, result.size());
+			Assertions.assertEquals(0, result.get("/src/Class0.as").size());
+			Assertions.assertEquals(1, result.get("/src/Class1.as").size());
+			Assertions.assertTrue(result.get("/src/Class1.as").get(0) instanceof InternalCompilerProblem);
+		} finally {
+			checker.dispose();
+		}
+	}
+
+	@Test
+	void testInterruptedCheckThrows() {
+		ParallelProblemChecker checker = new ParallelProblemChecker(2);
+		try {
+			Thread callingThread = Thread.currentThread();
+			Assertions.assertThrows(InterruptedException.class, () -> {
+				checker.check(createUnits(3), (unit, problems) -> {
+					if (unit.getAbsoluteFilename().equals("/src/Class1.as")) {
+						callingThread.interrupt();
+					}
+				});
+			}, "ParallelProblemChecker.check() must not return partial results when interrupted.");
+		} finally {
+			// clear the interrupt if it wasn't consumed
+			Thread.interrupted();
+			checker.dispose();
+		}
+	}
+}
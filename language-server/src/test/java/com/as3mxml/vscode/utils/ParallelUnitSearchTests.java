@@ -0,0 +1,187 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.royale.compiler.units.ICompilationUnit;
+import org.eclipse.lsp4j.jsonrpc.CancelChecker;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ParallelUnitSearchTests {
+	private static List<ICompilationUnit> createUnits(int count) {
+		List<ICompilationUnit> units = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			String name = "/src/Class" + i + ".as";
+			units.add(ProxyFixtures.create(ICompilationUnit.class, name, "getAbsoluteFilename", name));
+		}
+		return units;
+	}
+
+	private static CancelChecker createCancelChecker(AtomicBoolean cancelled) {
+		return new CancelChecker() {
+			@Override
+			public void checkCanceled() {
+				if (cancelled.get()) {
+					throw new CancellationException();
+				}
+			}
+
+			@Override
+			public boolean isCanceled() {
+				return cancelled.get();
+			}
+		};
+	}
+
+	@Test
+	void testResultsAreInUnitOrder() {
+		ParallelUnitSearch search = new ParallelUnitSearch(4);
+		try {
+			List<ICompilationUnit> units = createUnits(50);
+			AtomicInteger handledCount = new AtomicInteger();
+			List<String> result = search.search(units, unit -> {
+				String path = unit.getAbsoluteFilename();
+				// null results are skipped
+				return path.endsWith("0.as") ? null : path;
+			}, null, (unit, unitResult, completedCount, totalCount) -> {
+				handledCount.incrementAndGet();
+				Assertions.assertEquals(50, totalCount);
+			});
+			Assertions.assertEquals(50, handledCount.get());
+			Assertions.assertEquals(45, result.size());
+			Assertions.assertEquals("/src/Class1.as", result.get(0));
+			Assertions.assertEquals("/src/Class49.as", result.get(44));
+		} finally {
+			search.dispose();
+		}
+	}
+
+	@Test
+	void testExceptionSkipsUnit() {
+		ParallelUnitSearch search = new ParallelUnitSearch(2);
+		try {
+			List<String> result = search.search(createUnits(4), unit -> {
+				String path = unit.getAbsoluteFilename();
+				if (path.endsWith("2.as")) {
+					throw new IllegalStateException("Expected");
+				}
+				return path;
+			}, null, null);
+			Assertions.assertEquals(3, result.size());
+		} finally {
+			search.dispose();
+		}
+	}
+
+	@Test
+	void testCancelStopsRemainingUnits() {
+		ParallelUnitSearch search = new ParallelUnitSearch(2);
+		try {
+			AtomicBoolean cancelled = new AtomicBoolean(false);
+			AtomicInteger searchedCount = new AtomicInteger();
+			// cancel after both threads have started a unit, so that every
+			// other unit starts after the cancel
+			CountDownLatch started = new CountDownLatch(2);
+			Assertions.assertThrows(CancellationException.class, () -> {
+				search.search(createUnits(200), unit -> {
+					searchedCount.incrementAndGet();
+					started.countDown();
+					try {
+						started.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+					}
+					cancelled.set(true);
+					return unit;
+				}, createCancelChecker(cancelled), null);
+			});
+			Assertions.assertEquals(2, searchedCount.get(),
+					"ParallelUnitSearch.search() must skip units that haven't started after cancel.");
+		} finally {
+			search.dispose();
+		}
+	}
+
+	@Test
+	void testCancelWaitsForRunningUnits() {
+		ParallelUnitSearch search = new ParallelUnitSearch(2);
+		try {
+			AtomicBoolean cancelled = new AtomicBoolean(false);
+			AtomicInteger finishedCount = new AtomicInteger();
+			CountDownLatch started = new CountDownLatch(2);
+			CountDownLatch cancelChecked = new CountDownLatch(1);
+			CancelChecker cancelToken = new CancelChecker() {
+				@Override
+				public void checkCanceled() {
+					if (cancelled.get()) {
+						cancelChecked.countDown();
+						throw new CancellationException();
+					}
+				}
+
+				@Override
+				public boolean isCanceled() {
+					return cancelled.get();
+				}
+			};
+			Assertions.assertThrows(CancellationException.class, () -> {
+				search.search(createUnits(200), unit -> {
+					started.countDown();
+					try {
+						started.await(5, TimeUnit.SECONDS);
+						cancelled.set(true);
+						// still running after search() sees the cancel
+						cancelChecked.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+					}
+					finishedCount.incrementAndGet();
+					return unit;
+				}, cancelToken, null);
+			});
+			Assertions.assertEquals(2, finishedCount.get(),
+					"ParallelUnitSearch.search() must wait for running units after cancel.");
+		} finally {
+			search.dispose();
+		}
+	}
+
+	@Test
+	void testSequentialCancel() {
+		ParallelUnitSearch search = new ParallelUnitSearch(1);
+		try {
+			AtomicBoolean cancelled = new AtomicBoolean(false);
+			AtomicInteger searchedCount = new AtomicInteger();
+			Assertions.assertThrows(CancellationException.class, () -> {
+				search.search(createUnits(10), unit -> {
+					if (searchedCount.incrementAndGet() == 3) {
+						cancelled.set(true);
+					}
+					return unit;
+				}, createCancelChecker(cancelled), null);
+			});
+			Assertions.assertEquals(3, searchedCount.get());
+		} finally {
+			search.dispose();
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class PathTrieTests {
+	private static Path getPath(String... names) {
+		return Paths.get("path-trie-tests", names).toAbsolutePath();
+	}
+
+	@Test
+	void testValuesForPath() {
+		PathTrie<String> trie = new PathTrie<>();
+		trie.add(getPath("project"), "project");
+		trie.add(getPath("project", "src"), "src");
+		trie.add(getPath("project", "src"), "src2");
+		trie.add(getPath("other"), "other");
+		Assertions.assertEquals(4, trie.size());
+		Assertions.assertEquals(Arrays.asList("project", "src", "src2"),
+				trie.getValuesForPath(getPath("project", "src", "com", "example", "Main.as")));
+		Assertions.assertEquals(Collections.singletonList("project"),
+				trie.getValuesForPath(getPath("project", "test", "Test.as")));
+		Assertions.assertEquals(Arrays.asList("project", "src", "src2"), trie.getValuesForPath(getPath("project", "src")),
+				"PathTrie.getValuesForPath() must include the values of the path itself.");
+	}
+
+	@Test
+	void testElementsAreComparedLikeStartsWith() {
+		PathTrie<String> trie = new PathTrie<>();
+		trie.add(getPath("project", "src"), "src");
+		Path path = getPath("project", "src2", "Main.as");
+		Assertions.assertFalse(path.startsWith(getPath("project", "src")));
+		Assertions.assertEquals(Collections.emptyList(), trie.getValuesForPath(path),
+				"PathTrie.getValuesForPath() must not match part of a folder name.");
+	}
+
+	@Test
+	void testClear() {
+		PathTrie<String> trie = new PathTrie<>();
+		trie.add(getPath("project"), "project");
+		trie.clear();
+		Assertions.assertEquals(0, trie.size());
+		Assertions.assertEquals(Collections.emptyList(), trie.getValuesForPath(getPath("project", "Main.as")));
+	}
+}
@@ -0,0 +1,70 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates fake implementations of compiler and language server interfaces
+ * for tests.
+ */
+public class ProxyFixtures {
+	/**
+	 * Computes the result of a method each time that it is called.
+	 */
+	@FunctionalInterface
+	public interface Answer {
+		Object answer(Object[] args) throws Throwable;
+	}
+
+	/**
+	 * Creates an object that implements the specified interface. The
+	 * remaining arguments are pairs of method names and results. A result that
+	 * is an <code>Answer</code> is called every time that the method is called,
+	 * and any other result is returned as-is. <code>toString()</code> returns
+	 * the name, <code>equals()</code> and <code>hashCode()</code> use identity,
+	 * and every other method returns null.
+	 */
+	public static <T> T create(Class<T> type, String name, Object... methodResults) {
+		Map<String, Object> results = new HashMap<>();
+		for (int i = 0; i < methodResults.length; i += 2) {
+			results.put((String) methodResults[i], methodResults[i + 1]);
+		}
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> {
+					String methodName = method.getName();
+					if (results.containsKey(methodName)) {
+						Object result = results.get(methodName);
+						if (result instanceof Answer) {
+							return ((Answer) result).answer(args);
+						}
+						return result;
+					}
+					switch (methodName) {
+						case "toString":
+							return name;
+						case "hashCode":
+							return System.identityHashCode(proxy);
+						case "equals":
+							return proxy == args[0];
+						default:
+							return null;
+					}
+				}));
+	}
+}
@@ -0,0 +1,87 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.royale.compiler.filespecs.IFileSpecification;
+import org.apache.royale.compiler.units.ICompilationUnit;
+import org.apache.royale.compiler.workspaces.IWorkspace;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RealTimeProblemsSchedulerTests {
+	private static <T> T createProxy(Class<T> type, String name, List<Object> fileChangedArgs) {
+		return ProxyFixtures.create(type, name, "getPath", name, "getAbsoluteFilename", name, "fileChanged",
+				(ProxyFixtures.Answer) args -> {
+					fileChangedArgs.add(args[0]);
+					return null;
+				});
+	}
+
+	@Test
+	void testPendingChangesAreMerged() {
+		List<Object> fileChanged = Collections.synchronizedList(new ArrayList<>());
+		IWorkspace workspace = createProxy(IWorkspace.class, "workspace", fileChanged);
+		ICompilationUnit unit = createProxy(ICompilationUnit.class, "/src/Main.as", fileChanged);
+		RealTimeProblemsScheduler scheduler = new RealTimeProblemsScheduler(null, null, workspace);
+		try {
+			scheduler.setDelay(60000);
+			IFileSpecification lastFileSpec = null;
+			for (int i = 0; i < 3; i++) {
+				lastFileSpec = createProxy(IFileSpecification.class, "/src/Main.as", fileChanged);
+				scheduler.fileChanged(unit, lastFileSpec, null);
+			}
+			Assertions.assertTrue(scheduler.isPending("/src/Main.as"));
+			Assertions.assertEquals(0, fileChanged.size(),
+					"RealTimeProblemsScheduler.fileChanged() must wait for the debounce delay.");
+			scheduler.flushPendingChanges();
+			Assertions.assertEquals(Collections.singletonList(lastFileSpec), fileChanged,
+					"RealTimeProblemsScheduler.flushPendingChanges() must pass only the latest change.");
+			scheduler.flushPendingChanges();
+			Assertions.assertEquals(1, fileChanged.size());
+			scheduler.remove("/src/Main.as");
+			Assertions.assertFalse(scheduler.isPending("/src/Main.as"));
+			Assertions.assertEquals(1, fileChanged.size());
+		} finally {
+			scheduler.dispose();
+		}
+	}
+
+	@Test
+	void testCheckRunsAfterDelay() throws InterruptedException {
+		List<Object> fileChanged = Collections.synchronizedList(new ArrayList<>());
+		IWorkspace workspace = createProxy(IWorkspace.class, "workspace", fileChanged);
+		// getProject() returns null, so the check finishes without publishing
+		ICompilationUnit unit = createProxy(ICompilationUnit.class, "/src/Main.as", fileChanged);
+		RealTimeProblemsScheduler scheduler = new RealTimeProblemsScheduler(null, null, workspace);
+		try {
+			scheduler.setDelay(10);
+			IFileSpecification fileSpec = createProxy(IFileSpecification.class, "/src/Main.as", fileChanged);
+			scheduler.fileChanged(unit, fileSpec, null);
+			long timeout = System.currentTimeMillis() + 5000;
+			while (scheduler.isPending("/src/Main.as") && System.currentTimeMillis() < timeout) {
+				Thread.sleep(10);
+			}
+			Assertions.assertFalse(scheduler.isPending("/src/Main.as"));
+			Assertions.assertEquals(Collections.singletonList(fileSpec), fileChanged);
+		} finally {
+			scheduler.dispose();
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TextDocumentBufferTests {
+	private static int getExpectedOffset(String text, int targetLine, int targetCharacter) {
+		int offset = 0;
+		int line = 0;
+		while (line < targetLine) {
+			if (offset >= text.length()) {
+				return offset;
+			}
+			if (text.charAt(offset) == '\n') {
+				line++;
+			}
+			offset++;
+		}
+		return Math.min(text.length(), offset + targetCharacter);
+	}
+
+	@Test
+	void testGetOffset() {
+		TextDocumentBuffer buffer = new TextDocumentBuffer("package\n{\r\n\tclass A {}\n}");
+		Assertions.assertEquals(0, buffer.getOffset(0, 0));
+		Assertions.assertEquals(8, buffer.getOffset(1, 0));
+		Assertions.assertEquals(11, buffer.getOffset(2, 0));
+		Assertions.assertEquals(13, buffer.getOffset(2, 2));
+		Assertions.assertEquals(4, buffer.getLineCount());
+	}
+
+	@Test
+	void testGetOffsetPastEndOfDocument() {
+		TextDocumentBuffer buffer = new TextDocumentBuffer("a\nb");
+		Assertions.assertEquals(3, buffer.getOffset(5, 0));
+		Assertions.assertEquals(3, buffer.getOffset(1, 10));
+	}
+
+	@Test
+	void testGetOffsetPastEndOfLine() {
+		TextDocumentBuffer buffer = new TextDocumentBuffer("ab\ncd");
+		Assertions.assertEquals(4, buffer.getOffset(0, 4),
+				"TextDocumentBuffer.getOffset() must continue onto the next line.");
+	}
+
+	@Test
+	void testGetLineAndCharacter() {
+		TextDocumentBuffer buffer = new TextDocumentBuffer("ab\ncd\n\nef");
+		Assertions.assertEquals(0, buffer.getLine(2));
+		Assertions.assertEquals(1, buffer.getLine(3));
+		Assertions.assertEquals(2, buffer.getLine(6));
+		Assertions.assertEquals(3, buffer.getLine(8));
+		Assertions.assertEquals(1, buffer.getCharacter(8));
+	}
+
+	@Test
+	void testReplace() {
+		TextDocumentBuffer buffer = new TextDocumentBuffer("hello\nworld");
+		buffer.replace(5, 6, " ");
+		Assertions.assertEquals("hello world", buffer.toString());
+		Assertions.assertEquals(1, buffer.getLineCount());
+		buffer.replace(0, 0, "a\nb\n");
+		Assertions.assertEquals("a\nb\nhello world", buffer.toString());
+		Assertions.assertEquals(3, buffer.getLineCount());
+		Assertions.assertEquals(4, buffer.getOffset(2, 0));
+	}
+
+	@Test
+	void testReplacePastEndOfDocument() {
+		TextDocumentBuffer buffer = new TextDocumentBuffer("ab\ncd");
+		buffer.replace(10, 12, "\nef");
+		Assertions.assertEquals("ab\ncd\nef", buffer.toString(),
+				"TextDocumentBuffer.replace() must append text that starts past the end of the document.");
+		Assertions.assertEquals(3, buffer.getLineCount());
+		Assertions.assertEquals(6, buffer.getOffset(2, 0));
+	}
+
+	@Test
+	void testSnapshotIsReusedUntilEdit() {
+		TextDocumentBuffer buffer = new TextDocumentBuffer("abc");
+		buffer.replace(1, 2, "x");
+		String snapshot = buffer.toString();
+		Assertions.assertSame(snapshot, buffer.toString());
+		int version = buffer.getVersion();
+		buffer.replace(0, 0, "y");
+		Assertions.assertEquals("yaxc", buffer.toString());
+		Assertions.assertEquals(version + 1, buffer.getVersion());
+	}
+
+	@Test
+	void testRandomEditsMatchStringPatching() {
+		Random random = new Random(12345);
+		String[] inserts = { "", "a", "\n", "\r\n", "foo\nbar", "\n\n\n", "function test():void {}\n" };
+		String expected = "package\n{\n\tpublic class Test\n\t{\n\t}\n}\n";
+		TextDocumentBuffer buffer = new TextDocumentBuffer(expected);
+		for (int i = 0; i < 5000; i++) {
+			int start = random.nextInt(expected.length() + 1);
+			int end = start + random.nextInt(Math.min(10, expected.length() - start) + 1);
+			String insert = inserts[random.nextInt(inserts.length)];
+			expected = expected.substring(0, start) + insert + expected.substring(end);
+			buffer.replace(start, end, insert);
+			Assertions.assertEquals(expected.length(), buffer.length());
+			int line = random.nextInt(buffer.getLineCount() + 1);
+			int character = random.nextInt(5);
+			Assertions.assertEquals(getExpectedOffset(expected, line, character),
+					buffer.getOffset(line, character));
+		}
+		Assertions.assertEquals(expected, buffer.toString());
+	}
+}
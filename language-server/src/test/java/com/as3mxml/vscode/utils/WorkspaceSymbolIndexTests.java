@@ -0,0 +1,170 @@
+/*
+Copyright 2016-2026 Bowler Hat LLC
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+	http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.as3mxml.vscode.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.as3mxml.vscode.utils.WorkspaceSymbolIndex.SymbolEntry;
+import com.as3mxml.vscode.utils.WorkspaceSymbolIndex.SymbolRecord;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class WorkspaceSymbolIndexTests {
+	private static SymbolEntry createEntry(String qualifiedName) {
+		SymbolEntry entry = new SymbolEntry();
+		int index = qualifiedName.lastIndexOf('.');
+		entry.name = index == -1 ? qualifiedName : qualifiedName.substring(index + 1);
+		entry.qualifiedName = qualifiedName;
+		entry.kind = 5;
+		entry.uri = "file:///" + entry.name + ".as";
+		entry.packageLevel = true;
+		return entry;
+	}
+
+	private static List<String> findNames(SymbolRecord record, String query) {
+		List<String> result = new ArrayList<>();
+		record.findEntries(WorkspaceSymbolIndex.parseQuery(query), entry -> result.add(entry.qualifiedName));
+		Collections.sort(result);
+		return result;
+	}
+
+	@Test
+	void testParseQuery() {
+		Assertions.assertEquals(Arrays.asList("text", "field"), WorkspaceSymbolIndex.parseQuery("textField"));
+		Assertions.assertEquals(Arrays.asList("te", "fi"), WorkspaceSymbolIndex.parseQuery("TeFi"));
+		Assertions.assertEquals(Collections.emptyList(), WorkspaceSymbolIndex.parseQuery(""));
+	}
+
+	@Test
+	void testFindEntries() {
+		SymbolRecord record = new SymbolRecord("test.swc", 0L, 0L, 0L, true,
+				Arrays.asList(createEntry("flash.text.TextField"), createEntry("flash.display.Sprite"),
+						createEntry("mx.controls.TextInput")));
+		Assertions.assertEquals(Arrays.asList("flash.text.TextField", "mx.controls.TextInput"),
+				findNames(record, "text"));
+		Assertions.assertEquals(Arrays.asList("flash.text.TextField"), findNames(record, "ield"),
+				"SymbolRecord.findEntries() must match substrings.");
+		Assertions.assertEquals(Arrays.asList("flash.text.TextField"), findNames(record, "TeFi"),
+				"SymbolRecord.findEntries() must match camel-case humps.");
+		Assertions.assertEquals(Arrays.asList("flash.display.Sprite", "flash.text.TextField"),
+				findNames(record, "flash."));
+		Assertions.assertEquals(3, findNames(record, "").size());
+		Assertions.assertEquals(0, findNames(record, "zzz").size());
+	}
+
+	@Test
+	void testFindEntriesOnce() {
+		SymbolRecord record = new SymbolRecord("test.swc", 0L, 0L, 0L, true,
+				Arrays.asList(createEntry("flash.text.TextField"), createEntry("mx.controls.TextInput")));
+		List<String> result = new ArrayList<>();
+		record.findEntries(WorkspaceSymbolIndex.parseQuery("t"), entry -> result.add(entry.qualifiedName));
+		Collections.sort(result);
+		Assertions.assertEquals(Arrays.asList("flash.text.TextField", "mx.controls.TextInput"), result,
+				"SymbolRecord.findEntries() must pass each entry only once.");
+		Assertions.assertEquals(Arrays.asList("mx.controls.TextInput"), findNames(record, "TeIn"));
+		Assertions.assertEquals(Arrays.asList("flash.text.TextField"), findNames(record, "textfield"));
+		Assertions.assertEquals(0, findNames(record, "textfieldz").size());
+	}
+
+	@Test
+	void testRemoveRecord() {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex();
+		index.putRecord(new SymbolRecord("Main.as", 0L, 0L, 0L, false, new ArrayList<>()));
+		index.markVerified("Main.as");
+		Assertions.assertFalse(index.needsSave());
+		index.removeRecord("Main.as");
+		Assertions.assertNull(index.getRecord("Main.as"));
+		Assertions.assertFalse(index.isVerified("Main.as"),
+				"WorkspaceSymbolIndex.removeRecord() must require the record to be checked again.");
+		Assertions.assertTrue(index.needsSave());
+	}
+
+	@Test
+	void testFileChanged() {
+		WorkspaceSymbolIndex index = new WorkspaceSymbolIndex();
+		Assertions.assertFalse(index.isVerified("Main.as"));
+		index.markVerified("Main.as");
+		Assertions.assertTrue(index.isVerified("Main.as"));
+		index.fileChanged("Main.as");
+		Assertions.assertFalse(index.isVerified("Main.as"),
+				"WorkspaceSymbolIndex.fileChanged() must require the record to be checked again.");
+	}
+
+	@Test
+	void testRecordIsValid() {
+		SymbolRecord record = new SymbolRecord("test.swc", 100L, 200L, 3L, true, new ArrayList<>());
+		Assertions.assertTrue(record.isValid(100L, 200L, 3L));
+		Assertions.assertFalse(record.isValid(101L, 200L, 3L));
+		Assertions.assertFalse(record.isValid(100L, 201L, 3L));
+		Assertions.assertFalse(record.isValid(100L, 200L, 4L));
+	}
+
+	@Test
+	void testSaveAndLoad() throws IOException {
+		Path cacheDirectory = Files.createTempDirectory("workspace-symbol-index");
+		File swcFile = Files.createTempFile(cacheDirectory, "test", ".swc").toFile();
+		try {
+			SymbolEntry entry = createEntry("flash.text.TextField");
+			entry.containerName = "flash.text";
+			entry.startLine = 1;
+			entry.startCharacter = 2;
+			entry.endLine = 3;
+			entry.endCharacter = 4;
+			entry.deprecated = true;
+			WorkspaceSymbolIndex index = new WorkspaceSymbolIndex();
+			index.setCacheDirectory(cacheDirectory);
+			index.putRecord(new SymbolRecord(swcFile.getAbsolutePath(), 100L, 200L, 0L, true,
+					Collections.singletonList(entry)));
+			index.putRecord(new SymbolRecord("unsaved.as", 100L, 200L, 5L, false,
+					Collections.singletonList(createEntry("Unsaved"))));
+			Assertions.assertTrue(index.needsSave());
+			index.save();
+			Assertions.assertFalse(index.needsSave());
+
+			WorkspaceSymbolIndex loadedIndex = new WorkspaceSymbolIndex();
+			loadedIndex.setCacheDirectory(cacheDirectory);
+			loadedIndex.load();
+			Assertions.assertNull(loadedIndex.getRecord("unsaved.as"),
+					"WorkspaceSymbolIndex.save() must not save records that are not persistent.");
+			SymbolRecord record = loadedIndex.getRecord(swcFile.getAbsolutePath());
+			Assertions.assertNotNull(record);
+			Assertions.assertTrue(record.isValid(100L, 200L, 0L));
+			Assertions.assertEquals(1, record.entries.size());
+			SymbolEntry loadedEntry = record.entries.get(0);
+			Assertions.assertEquals("TextField", loadedEntry.name);
+			Assertions.assertEquals("flash.text.TextField", loadedEntry.qualifiedName);
+			Assertions.assertEquals("flash.text", loadedEntry.containerName);
+			Assertions.assertEquals(5, loadedEntry.kind);
+			Assertions.assertEquals(4, loadedEntry.endCharacter);
+			Assertions.assertTrue(loadedEntry.packageLevel);
+			Assertions.assertTrue(loadedEntry.deprecated);
+			Assertions.assertEquals(Arrays.asList("flash.text.TextField"), findNames(record, "Field"));
+		} finally {
+			for (File file : cacheDirectory.toFile().listFiles()) {
+				file.delete();
+			}
+			cacheDirectory.toFile().delete();
+		}
+	}
+}
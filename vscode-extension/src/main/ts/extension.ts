@@ -648,6 +648,7 @@ function startClient() {
           initializationOptions: {
             preferredRoyaleTarget: getRoyalePreferredTarget(savedContext),
             notifyActiveProject: true,
+            symbolCachePath: savedContext.globalStorageUri.fsPath,
           },
         };
         let cpDelimiter = getJavaClassPathDelimiter();